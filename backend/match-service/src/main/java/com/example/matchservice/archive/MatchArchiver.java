@@ -0,0 +1,263 @@
+package com.example.matchservice.archive;
+
+import com.example.matchservice.chess.Fen;
+import com.example.matchservice.chess.PackedMove;
+import com.example.matchservice.chess.Position;
+import com.example.matchservice.chess.San;
+import com.example.matchservice.chess.Uci;
+import com.example.matchservice.journal.MoveProjector;
+import com.example.matchservice.model.Match;
+import com.example.matchservice.model.MatchArchive;
+import com.example.matchservice.model.Move;
+import com.example.matchservice.model.PieceColor;
+import com.example.matchservice.repo.MatchArchiveRepo;
+import com.example.matchservice.repo.MoveRepo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Compacts finished matches from one row per ply in {@code moves} into a single
+ * {@link PackedMoveList} blob in {@code match_archives}, and serves their history back by
+ * replaying it. The same job migrates existing rows and archives newly finished games: it walks
+ * finished matches that still have move rows in keyset pages of {@code game.archive.batch-size},
+ * compacting pages on {@code game.archive.parallelism} threads, each page in one transaction.
+ * Matches whose rows do not replay are recorded in {@code match_archive_skips} and left out of
+ * later runs.
+ */
+@Service
+public class MatchArchiver {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MatchArchiveRepo matchArchiveRepo;
+    private final MoveRepo moveRepo;
+    private final MoveProjector moveProjector;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int parallelism;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean skipTableReady;
+
+    public MatchArchiver(JdbcTemplate jdbcTemplate, MatchArchiveRepo matchArchiveRepo, MoveRepo moveRepo,
+            MoveProjector moveProjector,
+            PlatformTransactionManager transactionManager,
+            @Value("${game.archive.batch-size:500}") int batchSize,
+            @Value("${game.archive.parallelism:4}") int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.matchArchiveRepo = matchArchiveRepo;
+        this.moveRepo = moveRepo;
+        this.moveProjector = moveProjector;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+    }
+
+    @Scheduled(initialDelayString = "${game.archive.initial-delay-ms:60000}",
+            fixedDelayString = "${game.archive.interval-ms:300000}")
+    public void archiveFinished() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            int archived = archiveAll();
+            if (archived > 0) {
+                System.out.printf("Archived %d finished matches in %d ms%n", archived,
+                        (System.nanoTime() - start) / 1_000_000);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("❌ Match archiving failed: " + e.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Compacts every finished match that still has move rows and returns how many were archived.
+     */
+    public int archiveAll() {
+        // Final moves of a just-finished game may still be in the journal
+        moveProjector.flush();
+        ensureSkipTable();
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<Integer>> pages = new ArrayList<>();
+            long afterId = 0;
+            while (true) {
+                List<Map<String, Object>> rows = jdbcTemplate.queryForList("select m.id, m.started_at from matches m "
+                        + "where m.status <> 'IN_PROGRESS' and m.id > ? "
+                        + "and exists (select 1 from moves mv where mv.match_id = m.id) "
+                        + "and not exists (select 1 from match_archive_skips s where s.match_id = m.id) "
+                        + "order by m.id limit ?",
+                        afterId, batchSize);
+                if (rows.isEmpty()) {
+                    break;
+                }
+                Map<Long, Long> startMillis = new HashMap<>();
+                for (Map<String, Object> row : rows) {
+                    Timestamp startedAt = (Timestamp) row.get("started_at");
+                    startMillis.put(((Number) row.get("id")).longValue(), startedAt == null ? 0 : startedAt.getTime());
+                }
+                afterId = ((Number) rows.get(rows.size() - 1).get("id")).longValue();
+                pages.add(pool.submit(() -> transactionTemplate.execute(status -> archivePage(startMillis))));
+            }
+            int archived = 0;
+            for (Future<Integer> page : pages) {
+                archived += page.get();
+            }
+            return archived;
+        } catch (Exception e) {
+            throw new RuntimeException("Archiving failed: " + e.getMessage(), e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private int archivePage(Map<Long, Long> startMillis) {
+        Object[] ids = startMillis.keySet().toArray();
+        String in = String.join(", ", Collections.nCopies(ids.length, "?"));
+        Map<Long, List<Object[]>> rowsByMatch = new HashMap<>();
+        jdbcTemplate.query("select match_id, ply, packed_move, uci, created_at from moves where match_id in (" + in
+                + ") order by match_id, ply", rs -> {
+                    rowsByMatch.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>()).add(new Object[] {
+                            rs.getInt(2), rs.getObject(3), rs.getString(4), rs.getTimestamp(5) });
+                }, ids);
+
+        List<Object[]> archives = new ArrayList<>();
+        List<Object> archivedIds = new ArrayList<>();
+        List<Object[]> skipped = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (Map.Entry<Long, List<Object[]>> entry : rowsByMatch.entrySet()) {
+            PackedMoveList moves = pack(entry.getKey(), startMillis.get(entry.getKey()), entry.getValue());
+            if (moves != null) {
+                archives.add(new Object[] { entry.getKey(), moves.size(), moves.encode(), now });
+                archivedIds.add(entry.getKey());
+            } else {
+                skipped.add(new Object[] { entry.getKey(), now });
+            }
+        }
+        if (!skipped.isEmpty()) {
+            // Left as rows for good, so later runs do not reload and fail on them again
+            jdbcTemplate.batchUpdate("insert ignore into match_archive_skips (match_id, skipped_at) values (?, ?)",
+                    skipped);
+        }
+        if (archives.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate("insert into match_archives (match_id, ply_count, data, archived_at) "
+                + "values (?, ?, ?, ?)", archives);
+        jdbcTemplate.update("delete from moves where match_id in ("
+                + String.join(", ", Collections.nCopies(archivedIds.size(), "?")) + ")",
+                archivedIds.toArray());
+        return archives.size();
+    }
+
+    /**
+     * Lets the next run try again on matches whose rows were skipped before they were repaired.
+     */
+    public void forgetSkips(List<Long> matchIds) {
+        if (matchIds.isEmpty()) {
+            return;
+        }
+        ensureSkipTable();
+        jdbcTemplate.update("delete from match_archive_skips where match_id in ("
+                + String.join(", ", Collections.nCopies(matchIds.size(), "?")) + ")", matchIds.toArray());
+    }
+
+    private void ensureSkipTable() {
+        if (!skipTableReady) {
+            jdbcTemplate.execute("create table if not exists match_archive_skips "
+                    + "(match_id bigint not null primary key, skipped_at datetime(6))");
+            skipTableReady = true;
+        }
+    }
+
+    // Rows are [ply, packed_move, uci, created_at]; null when they do not replay cleanly from the start
+    private static PackedMoveList pack(Long matchId, long startMillis, List<Object[]> rows) {
+        int[] moves = new int[rows.size()];
+        long[] timestamps = new long[rows.size()];
+        Position position = Position.startPosition();
+        long previous = startMillis;
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] row = rows.get(i);
+            // Rows written before moves were packed only have UCI
+            int move = row[1] != null ? ((Number) row[1]).intValue() : parseUci(position, (String) row[2]);
+            if ((Integer) row[0] != i + 1 || move == PackedMove.NONE) {
+                System.err.println("⚠️ Not archiving match " + matchId + ": move rows do not replay at ply " + (i + 1));
+                return null;
+            }
+            position.makeMove(move);
+            moves[i] = move;
+            Timestamp createdAt = (Timestamp) row[3];
+            timestamps[i] = createdAt != null ? createdAt.getTime() : previous;
+            previous = timestamps[i];
+        }
+        return new PackedMoveList(startMillis, moves, timestamps);
+    }
+
+    private static int parseUci(Position position, String uci) {
+        try {
+            return uci == null ? PackedMove.NONE : Uci.parse(position, uci);
+        } catch (IllegalArgumentException e) {
+            return PackedMove.NONE;
+        }
+    }
+
+    /**
+     * Move history of a match: its rows while they exist, otherwise rebuilt from the archive.
+     */
+    public List<Move> history(Match match) {
+        List<Move> moves = moveRepo.findHistory(match.getId());
+        if (!moves.isEmpty()) {
+            return moves;
+        }
+        return matchArchiveRepo.findById(match.getId())
+                .map(archive -> replay(PackedMoveList.decode(archive.getData())))
+                .orElse(moves);
+    }
+
+    /**
+     * Rebuilds the per-ply views (SAN, UCI, FEN before and after) by replaying from the start.
+     */
+    public static List<Move> replay(PackedMoveList packed) {
+        List<Move> moves = new ArrayList<>(packed.size());
+        Position position = Position.startPosition();
+        String fenBefore = Fen.START;
+        for (int i = 0; i < packed.size(); i++) {
+            int move = packed.getMoves()[i];
+            int ply = i + 1;
+            Move view = new Move();
+            view.setPly(ply);
+            view.setMoveNumber((ply + 1) / 2);
+            view.setColor(ply % 2 == 1 ? PieceColor.WHITE : PieceColor.BLACK);
+            view.setPackedMove(move);
+            view.setUci(Uci.toUci(move));
+            view.setSan(San.toSan(position, move));
+            view.setFenBefore(fenBefore);
+            position.makeMove(move);
+            fenBefore = Fen.toFen(position);
+            view.setFenAfter(fenBefore);
+            view.setCreatedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(packed.getTimestampsMillis()[i]),
+                    ZoneId.systemDefault()));
+            moves.add(view);
+        }
+        return moves;
+    }
+}
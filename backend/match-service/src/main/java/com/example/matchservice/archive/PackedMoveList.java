@@ -0,0 +1,103 @@
+package com.example.matchservice.archive;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * The move list of a finished game in the form it is archived: 16-bit {@code PackedMove}s and
+ * the time each move was played. Serialized as a version byte, the ply count and start time as
+ * varints, two little-endian bytes per move, then one zigzag varint per move holding the
+ * milliseconds since the previous move (or the start). A 60-move game is a few hundred bytes.
+ */
+public class PackedMoveList {
+
+    private static final int VERSION = 1;
+
+    private final long startMillis;
+    private final int[] moves;
+    private final long[] timestampsMillis;
+
+    public PackedMoveList(long startMillis, int[] moves, long[] timestampsMillis) {
+        if (moves.length != timestampsMillis.length) {
+            throw new IllegalArgumentException("Moves and timestamps differ in length");
+        }
+        this.startMillis = startMillis;
+        this.moves = moves;
+        this.timestampsMillis = timestampsMillis;
+    }
+
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    public int[] getMoves() {
+        return moves;
+    }
+
+    public long[] getTimestampsMillis() {
+        return timestampsMillis;
+    }
+
+    public int size() {
+        return moves.length;
+    }
+
+    public byte[] encode() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + moves.length * 4);
+        out.write(VERSION);
+        writeVarint(out, moves.length);
+        writeVarint(out, startMillis);
+        for (int move : moves) {
+            out.write(move);
+            out.write(move >>> 8);
+        }
+        long previous = startMillis;
+        for (long timestamp : timestampsMillis) {
+            long delta = timestamp - previous;
+            writeVarint(out, (delta << 1) ^ (delta >> 63));
+            previous = timestamp;
+        }
+        return out.toByteArray();
+    }
+
+    public static PackedMoveList decode(byte[] data) {
+        int[] cursor = { 0 };
+        int version = data[cursor[0]++];
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unknown archive version " + version);
+        }
+        int plies = (int) readVarint(data, cursor);
+        long start = readVarint(data, cursor);
+        int[] moves = new int[plies];
+        for (int i = 0; i < plies; i++) {
+            moves[i] = (data[cursor[0]] & 0xFF) | (data[cursor[0] + 1] & 0xFF) << 8;
+            cursor[0] += 2;
+        }
+        long[] timestamps = new long[plies];
+        long previous = start;
+        for (int i = 0; i < plies; i++) {
+            long zigzag = readVarint(data, cursor);
+            previous += (zigzag >>> 1) ^ -(zigzag & 1);
+            timestamps[i] = previous;
+        }
+        return new PackedMoveList(start, moves, timestamps);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(byte[] data, int[] cursor) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = data[cursor[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.matchservice.archive;
+
+import com.example.matchservice.chess.Position;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Random access into a game's move list. A checkpoint position is kept every {@code interval}
+ * plies, so any ply is at most {@code interval - 1} make-moves away; the last few positions
+ * served are kept in a small LRU and are used as starting points too, which makes stepping
+ * forward or back through a game a single make-move (or a cache hit) per step.
+ */
+public class ReplayIndex {
+
+    private final int[] moves;
+    private final int interval;
+    // checkpoints[i] is the position after i * interval plies
+    private final Position[] checkpoints;
+    private final int cacheSize;
+    private final LinkedHashMap<Integer, Position> recent;
+
+    public ReplayIndex(int[] moves, int interval, int cacheSize) {
+        this.moves = moves;
+        this.interval = interval;
+        this.cacheSize = cacheSize;
+        this.recent = new LinkedHashMap<>(cacheSize * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Position> eldest) {
+                return size() > ReplayIndex.this.cacheSize;
+            }
+        };
+        this.checkpoints = new Position[moves.length / interval + 1];
+        Position position = Position.startPosition();
+        checkpoints[0] = position.copy();
+        for (int ply = 1; ply <= moves.length; ply++) {
+            position.makeMove(moves[ply - 1]);
+            if (ply % interval == 0) {
+                checkpoints[ply / interval] = position.copy();
+            }
+        }
+    }
+
+    public int plyCount() {
+        return moves.length;
+    }
+
+    /**
+     * The move that produced {@code ply} (1-based).
+     */
+    public int moveAt(int ply) {
+        return moves[ply - 1];
+    }
+
+    /**
+     * Position after {@code ply} plies, 0 being the start; the caller owns the returned copy.
+     */
+    public synchronized Position positionAt(int ply) {
+        if (ply < 0 || ply > moves.length) {
+            throw new IllegalArgumentException("Ply " + ply + " is outside 0.." + moves.length);
+        }
+        Position cached = recent.get(ply);
+        if (cached != null) {
+            return cached.copy();
+        }
+        int from = ply / interval * interval;
+        Position start = checkpoints[ply / interval];
+        for (Map.Entry<Integer, Position> entry : recent.entrySet()) {
+            if (entry.getKey() > from && entry.getKey() < ply) {
+                from = entry.getKey();
+                start = entry.getValue();
+            }
+        }
+        Position position = start.copy();
+        for (int i = from; i < ply; i++) {
+            position.makeMove(moves[i]);
+        }
+        recent.put(ply, position.copy());
+        return position;
+    }
+}
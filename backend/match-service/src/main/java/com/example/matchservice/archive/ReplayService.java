@@ -0,0 +1,150 @@
+package com.example.matchservice.archive;
+
+import com.example.matchservice.chess.Fen;
+import com.example.matchservice.chess.PackedMove;
+import com.example.matchservice.chess.Position;
+import com.example.matchservice.chess.San;
+import com.example.matchservice.chess.Uci;
+import com.example.matchservice.chess.Zobrist;
+import com.example.matchservice.model.DTO.PositionDTO;
+import com.example.matchservice.model.Match;
+import com.example.matchservice.model.MatchStatus;
+import com.example.matchservice.repo.MatchArchiveRepo;
+import com.example.matchservice.repo.MatchRepo;
+import com.example.matchservice.service.GameRecoveryService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Serves the position at any ply of a match, to its players only, from a {@link ReplayIndex}
+ * over its packed move list: the archive blob for finished games, the moves table and journal
+ * otherwise. Indexes of recently reviewed games are kept in an LRU. A ply past the end of a
+ * finished game is refused from the cached index; a live game's index is rebuilt only once the
+ * game has moved past it.
+ */
+@Service
+public class ReplayService {
+
+    private final MatchRepo matchRepo;
+    private final MatchArchiveRepo matchArchiveRepo;
+    private final GameRecoveryService gameRecoveryService;
+    private final int checkpointInterval;
+    private final int positionsPerGame;
+    private final Map<Long, Replay> indexes;
+
+    public ReplayService(MatchRepo matchRepo, MatchArchiveRepo matchArchiveRepo,
+            GameRecoveryService gameRecoveryService,
+            @Value("${game.replay.checkpoint-interval:16}") int checkpointInterval,
+            @Value("${game.replay.positions-per-game:8}") int positionsPerGame,
+            @Value("${game.replay.cached-games:256}") int cachedGames) {
+        this.matchRepo = matchRepo;
+        this.matchArchiveRepo = matchArchiveRepo;
+        this.gameRecoveryService = gameRecoveryService;
+        this.checkpointInterval = checkpointInterval;
+        this.positionsPerGame = positionsPerGame;
+        this.indexes = new LinkedHashMap<>(cachedGames * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Replay> eldest) {
+                return size() > cachedGames;
+            }
+        };
+    }
+
+    public PositionDTO positionAt(Long matchId, int ply, String username) {
+        Replay replay = replay(matchId, ply, username);
+        ReplayIndex index = replay.index;
+        if (ply < 0 || ply > index.plyCount()) {
+            throw new IllegalArgumentException("Ply " + ply + " is outside 0.." + index.plyCount());
+        }
+
+        PositionDTO dto = new PositionDTO();
+        dto.setMatchId(matchId);
+        dto.setPly(ply);
+        dto.setPlyCount(index.plyCount());
+        Position position;
+        if (ply == 0) {
+            position = index.positionAt(0);
+        } else {
+            // One step from the previous ply gives the last move's SAN as well
+            position = index.positionAt(ply - 1);
+            int move = index.moveAt(ply);
+            dto.setLastMoveSan(San.toSan(position, move));
+            dto.setLastMoveUci(Uci.toUci(move));
+            position.makeMove(move);
+        }
+        dto.setFen(Fen.toFen(position));
+        dto.setBoard(position.toBoardArray());
+        dto.setIsWhiteTurn(position.isWhiteToMove());
+        dto.setPositionHash(Zobrist.toHex(position.getKey()));
+        return dto;
+    }
+
+    private Replay replay(Long matchId, int ply, String username) {
+        Replay replay;
+        synchronized (indexes) {
+            replay = indexes.get(matchId);
+        }
+        if (replay == null) {
+            replay = load(findMatch(matchId));
+        }
+        if (!username.equals(replay.white) && !username.equals(replay.black)) {
+            throw new RuntimeException("Not authorized to view this game");
+        }
+        if (ply > replay.index.plyCount() && !replay.finished) {
+            Match match = findMatch(matchId);
+            int currentPly = match.getCurrentPly() == null ? 0 : match.getCurrentPly();
+            if (currentPly > replay.index.plyCount() || match.getStatus() != MatchStatus.IN_PROGRESS) {
+                replay = load(match);
+            }
+        }
+        return replay;
+    }
+
+    private Match findMatch(Long matchId) {
+        return matchRepo.findById(matchId).orElseThrow(() -> new RuntimeException("Game not found"));
+    }
+
+    private Replay load(Match match) {
+        Replay replay = new Replay(new ReplayIndex(loadMoves(match.getId()), checkpointInterval, positionsPerGame),
+                match.getStatus() != MatchStatus.IN_PROGRESS, match.getPlayer1().getUsername(),
+                match.getPlayer2() != null ? match.getPlayer2().getUsername() : null);
+        synchronized (indexes) {
+            indexes.put(match.getId(), replay);
+        }
+        return replay;
+    }
+
+    private int[] loadMoves(Long matchId) {
+        Optional<int[]> archived = matchArchiveRepo.findById(matchId)
+                .map(archive -> PackedMoveList.decode(archive.getData()).getMoves());
+        if (archived.isPresent()) {
+            return archived.get();
+        }
+        // The journal tail makes this complete even for a game that finished a moment ago
+        int[] moves = gameRecoveryService.durableMoves(matchId).getMoves();
+        for (int move : moves) {
+            if (move == PackedMove.NONE) {
+                throw new RuntimeException("Move history of match " + matchId + " predates packed moves");
+            }
+        }
+        return moves;
+    }
+
+    private static final class Replay {
+        private final ReplayIndex index;
+        private final boolean finished;
+        private final String white;
+        private final String black;
+
+        private Replay(ReplayIndex index, boolean finished, String white, String black) {
+            this.index = index;
+            this.finished = finished;
+            this.white = white;
+            this.black = black;
+        }
+    }
+}
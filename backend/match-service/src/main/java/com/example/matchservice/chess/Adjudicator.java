@@ -0,0 +1,51 @@
+package com.example.matchservice.chess;
+
+/**
+ * Decides whether the game ended with the move just played. The checks are ordered so a typical
+ * move costs one early-exit legal move probe: repetition is only scanned inside the reversible
+ * window, and material is only recounted after a capture or promotion.
+ */
+public final class Adjudicator {
+
+    private static final long LIGHT_SQUARES = 0x55AA55AA55AA55AAL;
+
+    private Adjudicator() {
+    }
+
+    public static GameEnd adjudicate(Position position, int lastMove, PositionHistory history) {
+        if (!MoveGenerator.hasLegalMove(position)) {
+            return MoveGenerator.isInCheck(position) ? GameEnd.CHECKMATE : GameEnd.STALEMATE;
+        }
+        int halfmoveClock = position.getHalfmoveClock();
+        if (halfmoveClock >= 100) {
+            return GameEnd.FIFTY_MOVE_RULE;
+        }
+        if (halfmoveClock >= 8 && history.isThreefold(halfmoveClock)) {
+            return GameEnd.THREEFOLD_REPETITION;
+        }
+        if ((PackedMove.isCapture(lastMove) || PackedMove.isPromotion(lastMove)) && isInsufficientMaterial(position)) {
+            return GameEnd.INSUFFICIENT_MATERIAL;
+        }
+        return GameEnd.NONE;
+    }
+
+    /**
+     * Neither side can mate: bare kings, a single minor piece, or only bishops all on one colour.
+     */
+    public static boolean isInsufficientMaterial(Position position) {
+        long heavy = 0;
+        for (int color = Piece.WHITE; color <= Piece.BLACK; color++) {
+            heavy |= position.pieces(Piece.of(color, Piece.PAWN)) | position.pieces(Piece.of(color, Piece.ROOK))
+                    | position.pieces(Piece.of(color, Piece.QUEEN));
+        }
+        if (heavy != 0) {
+            return false;
+        }
+        long knights = position.pieces(Piece.of(Piece.WHITE, Piece.KNIGHT)) | position.pieces(Piece.of(Piece.BLACK, Piece.KNIGHT));
+        long bishops = position.pieces(Piece.of(Piece.WHITE, Piece.BISHOP)) | position.pieces(Piece.of(Piece.BLACK, Piece.BISHOP));
+        if (Long.bitCount(knights | bishops) <= 1) {
+            return true;
+        }
+        return knights == 0 && ((bishops & LIGHT_SQUARES) == 0 || (bishops & ~LIGHT_SQUARES) == 0);
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.matchservice.chess;
+
+/**
+ * Precomputed attack tables. Knight, king and pawn attacks are plain lookups; rook and bishop
+ * attacks use magic bitboards, with the magics searched once at class load from a fixed seed so
+ * every node builds identical tables.
+ */
+public final class Attacks {
+
+    private static final long[] KNIGHT = new long[64];
+    private static final long[] KING = new long[64];
+    private static final long[][] PAWN = new long[2][64];
+
+    private static final long[] ROOK_MASK = new long[64];
+    private static final long[] ROOK_MAGIC = new long[64];
+    private static final int[] ROOK_SHIFT = new int[64];
+    private static final int[] ROOK_OFFSET = new int[64];
+    private static final long[] BISHOP_MASK = new long[64];
+    private static final long[] BISHOP_MAGIC = new long[64];
+    private static final int[] BISHOP_SHIFT = new int[64];
+    private static final int[] BISHOP_OFFSET = new int[64];
+    private static final long[] ROOK_TABLE;
+    private static final long[] BISHOP_TABLE;
+
+    private static final int[][] ROOK_DIRECTIONS = { { 1, 0 }, { -1, 0 }, { 0, 1 }, { 0, -1 } };
+    private static final int[][] BISHOP_DIRECTIONS = { { 1, 1 }, { 1, -1 }, { -1, 1 }, { -1, -1 } };
+
+    static {
+        int[][] knightSteps = { { 1, 2 }, { 2, 1 }, { 2, -1 }, { 1, -2 }, { -1, -2 }, { -2, -1 }, { -2, 1 }, { -1, 2 } };
+        int[][] kingSteps = { { 1, 0 }, { 1, 1 }, { 0, 1 }, { -1, 1 }, { -1, 0 }, { -1, -1 }, { 0, -1 }, { 1, -1 } };
+        for (int square = 0; square < 64; square++) {
+            KNIGHT[square] = steps(square, knightSteps);
+            KING[square] = steps(square, kingSteps);
+            PAWN[Piece.WHITE][square] = steps(square, new int[][] { { -1, 1 }, { 1, 1 } });
+            PAWN[Piece.BLACK][square] = steps(square, new int[][] { { -1, -1 }, { 1, -1 } });
+            ROOK_MASK[square] = relevantMask(square, ROOK_DIRECTIONS);
+            BISHOP_MASK[square] = relevantMask(square, BISHOP_DIRECTIONS);
+        }
+        SplitMix random = new SplitMix(0x1D1C4E55L);
+        ROOK_TABLE = buildMagics(ROOK_MASK, ROOK_MAGIC, ROOK_SHIFT, ROOK_OFFSET, ROOK_DIRECTIONS, random);
+        BISHOP_TABLE = buildMagics(BISHOP_MASK, BISHOP_MAGIC, BISHOP_SHIFT, BISHOP_OFFSET, BISHOP_DIRECTIONS, random);
+    }
+
+    private Attacks() {
+    }
+
+    public static long knight(int square) {
+        return KNIGHT[square];
+    }
+
+    public static long king(int square) {
+        return KING[square];
+    }
+
+    /**
+     * Squares attacked by a pawn of {@code color} standing on {@code square}.
+     */
+    public static long pawn(int color, int square) {
+        return PAWN[color][square];
+    }
+
+    public static long rook(int square, long occupancy) {
+        return ROOK_TABLE[ROOK_OFFSET[square]
+                + (int) (((occupancy & ROOK_MASK[square]) * ROOK_MAGIC[square]) >>> ROOK_SHIFT[square])];
+    }
+
+    public static long bishop(int square, long occupancy) {
+        return BISHOP_TABLE[BISHOP_OFFSET[square]
+                + (int) (((occupancy & BISHOP_MASK[square]) * BISHOP_MAGIC[square]) >>> BISHOP_SHIFT[square])];
+    }
+
+    public static long queen(int square, long occupancy) {
+        return rook(square, occupancy) | bishop(square, occupancy);
+    }
+
+    private static long steps(int square, int[][] deltas) {
+        long bits = 0;
+        int file = Square.file(square), rank = Square.rank(square);
+        for (int[] delta : deltas) {
+            int f = file + delta[0], r = rank + delta[1];
+            if (f >= 0 && f < 8 && r >= 0 && r < 8) {
+                bits |= Square.bit(Square.of(f, r));
+            }
+        }
+        return bits;
+    }
+
+    // Ray squares whose occupancy matters: the board edge never blocks anything further
+    private static long relevantMask(int square, int[][] directions) {
+        long bits = 0;
+        for (int[] direction : directions) {
+            int f = Square.file(square) + direction[0], r = Square.rank(square) + direction[1];
+            while (f + direction[0] >= 0 && f + direction[0] < 8 && r + direction[1] >= 0 && r + direction[1] < 8) {
+                bits |= Square.bit(Square.of(f, r));
+                f += direction[0];
+                r += direction[1];
+            }
+        }
+        return bits;
+    }
+
+    private static long slowAttacks(int square, long occupancy, int[][] directions) {
+        long bits = 0;
+        for (int[] direction : directions) {
+            int f = Square.file(square) + direction[0], r = Square.rank(square) + direction[1];
+            while (f >= 0 && f < 8 && r >= 0 && r < 8) {
+                long bit = Square.bit(Square.of(f, r));
+                bits |= bit;
+                if ((occupancy & bit) != 0) {
+                    break;
+                }
+                f += direction[0];
+                r += direction[1];
+            }
+        }
+        return bits;
+    }
+
+    private static long[] buildMagics(long[] masks, long[] magics, int[] shifts, int[] offsets,
+            int[][] directions, SplitMix random) {
+        int total = 0;
+        for (int square = 0; square < 64; square++) {
+            offsets[square] = total;
+            total += 1 << Long.bitCount(masks[square]);
+        }
+        long[] table = new long[total];
+
+        for (int square = 0; square < 64; square++) {
+            long mask = masks[square];
+            int bits = Long.bitCount(mask);
+            int size = 1 << bits;
+            long[] occupancies = new long[size];
+            long[] attacks = new long[size];
+            // Carry-Rippler enumeration of every subset of the mask
+            long subset = 0;
+            for (int i = 0; i < size; i++) {
+                occupancies[i] = subset;
+                attacks[i] = slowAttacks(square, subset, directions);
+                subset = (subset - mask) & mask;
+            }
+
+            int shift = 64 - bits;
+            long[] used = new long[size];
+            int[] epoch = new int[size];
+            for (int attempt = 1; ; attempt++) {
+                long magic = random.next() & random.next() & random.next();
+                if (Long.bitCount((mask * magic) & 0xFF00000000000000L) < 6) {
+                    continue;
+                }
+                boolean ok = true;
+                for (int i = 0; i < size && ok; i++) {
+                    int index = (int) ((occupancies[i] * magic) >>> shift);
+                    if (epoch[index] != attempt) {
+                        epoch[index] = attempt;
+                        used[index] = attacks[i];
+                    } else if (used[index] != attacks[i]) {
+                        ok = false;
+                    }
+                }
+                if (ok) {
+                    magics[square] = magic;
+                    shifts[square] = shift;
+                    for (int i = 0; i < size; i++) {
+                        table[offsets[square] + (int) ((occupancies[i] * magic) >>> shift)] = attacks[i];
+                    }
+                    break;
+                }
+            }
+        }
+        return table;
+    }
+
+    static final class SplitMix {
+        private long state;
+
+        SplitMix(long seed) {
+            this.state = seed;
+        }
+
+        long next() {
+            long z = (state += 0x9E3779B97F4A7C15L);
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
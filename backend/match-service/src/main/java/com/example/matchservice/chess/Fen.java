@@ -0,0 +1,171 @@
+package com.example.matchservice.chess;
+
+/**
+ * FEN codec for {@link Position}. The parser walks the string by index rather than splitting
+ * it; missing trailing fields (clocks) default to "0 1". The writer appends straight from the
+ * bitboards into a caller-supplied or per-thread reused builder.
+ */
+public final class Fen {
+
+    public static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(96));
+
+    private Fen() {
+    }
+
+    public static String toFen(Position position) {
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        write(position, buffer);
+        return buffer.toString();
+    }
+
+    public static void write(Position position, StringBuilder out) {
+        for (int rank = 7; rank >= 0; rank--) {
+            int empty = 0;
+            for (int file = 0; file < 8; file++) {
+                int piece = position.pieceAt(Square.of(file, rank));
+                if (piece == Piece.NONE) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    out.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                out.append(Piece.symbol(piece));
+            }
+            if (empty > 0) {
+                out.append((char) ('0' + empty));
+            }
+            if (rank > 0) {
+                out.append('/');
+            }
+        }
+
+        out.append(position.isWhiteToMove() ? " w " : " b ");
+
+        int rights = position.getCastlingRights();
+        if (rights == 0) {
+            out.append('-');
+        } else {
+            if ((rights & Position.WHITE_KINGSIDE) != 0) out.append('K');
+            if ((rights & Position.WHITE_QUEENSIDE) != 0) out.append('Q');
+            if ((rights & Position.BLACK_KINGSIDE) != 0) out.append('k');
+            if ((rights & Position.BLACK_QUEENSIDE) != 0) out.append('q');
+        }
+
+        int epSquare = position.getEpSquare();
+        out.append(' ');
+        if (epSquare == Square.NONE) {
+            out.append('-');
+        } else {
+            out.append((char) ('a' + Square.file(epSquare))).append((char) ('1' + Square.rank(epSquare)));
+        }
+
+        out.append(' ').append(position.getHalfmoveClock()).append(' ').append(position.getFullmoveNumber());
+    }
+
+    public static Position parse(CharSequence fen) {
+        Position position = new Position();
+        int length = fen.length();
+        int i = 0;
+
+        int rank = 7, file = 0;
+        for (; i < length && fen.charAt(i) != ' '; i++) {
+            char c = fen.charAt(i);
+            if (c == '/') {
+                if (file != 8) {
+                    throw invalid(fen, "rank " + (rank + 1) + " does not have 8 files");
+                }
+                rank--;
+                file = 0;
+            } else if (c >= '1' && c <= '8') {
+                file += c - '0';
+            } else {
+                int piece = Piece.fromSymbol(c);
+                if (piece == Piece.NONE || file > 7 || rank < 0) {
+                    throw invalid(fen, "bad placement at index " + i);
+                }
+                position.put(piece, Square.of(file++, rank));
+            }
+        }
+        if (rank != 0 || file != 8) {
+            throw invalid(fen, "placement does not cover 64 squares");
+        }
+        if (Long.bitCount(position.pieces(Piece.of(Piece.WHITE, Piece.KING))) != 1
+                || Long.bitCount(position.pieces(Piece.of(Piece.BLACK, Piece.KING))) != 1) {
+            throw invalid(fen, "each side needs exactly one king");
+        }
+
+        i = skipSpace(fen, i);
+        if (i >= length || (fen.charAt(i) != 'w' && fen.charAt(i) != 'b')) {
+            throw invalid(fen, "missing side to move");
+        }
+        position.setSideToMove(fen.charAt(i++) == 'w' ? Piece.WHITE : Piece.BLACK);
+
+        i = skipSpace(fen, i);
+        int rights = 0;
+        for (; i < length && fen.charAt(i) != ' '; i++) {
+            switch (fen.charAt(i)) {
+                case 'K' -> rights |= Position.WHITE_KINGSIDE;
+                case 'Q' -> rights |= Position.WHITE_QUEENSIDE;
+                case 'k' -> rights |= Position.BLACK_KINGSIDE;
+                case 'q' -> rights |= Position.BLACK_QUEENSIDE;
+                case '-' -> { }
+                default -> throw invalid(fen, "bad castling field");
+            }
+        }
+        position.setCastlingRights(rights);
+
+        i = skipSpace(fen, i);
+        if (i < length && fen.charAt(i) != '-') {
+            if (i + 1 >= length) {
+                throw invalid(fen, "bad en-passant field");
+            }
+            int epFile = fen.charAt(i) - 'a', epRank = fen.charAt(i + 1) - '1';
+            if (epFile < 0 || epFile > 7 || (epRank != 2 && epRank != 5)) {
+                throw invalid(fen, "bad en-passant field");
+            }
+            position.setEpSquare(Square.of(epFile, epRank));
+            i += 2;
+        } else {
+            i++;
+        }
+
+        i = skipSpace(fen, i);
+        int halfmove = 0;
+        for (; i < length && fen.charAt(i) != ' '; i++) {
+            halfmove = halfmove * 10 + digit(fen, i);
+        }
+        i = skipSpace(fen, i);
+        int fullmove = 0;
+        for (; i < length && fen.charAt(i) != ' '; i++) {
+            fullmove = fullmove * 10 + digit(fen, i);
+        }
+        position.setHalfmoveClock(halfmove);
+        position.setFullmoveNumber(Math.max(fullmove, 1));
+        position.refreshKey();
+        return position;
+    }
+
+    private static int skipSpace(CharSequence fen, int i) {
+        while (i < fen.length() && fen.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int digit(CharSequence fen, int i) {
+        char c = fen.charAt(i);
+        if (c < '0' || c > '9') {
+            throw invalid(fen, "bad move counter");
+        }
+        return c - '0';
+    }
+
+    private static IllegalArgumentException invalid(CharSequence fen, String reason) {
+        return new IllegalArgumentException("Invalid FEN '" + fen + "': " + reason);
+    }
+}
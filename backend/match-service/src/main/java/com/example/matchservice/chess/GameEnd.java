@@ -0,0 +1,21 @@
+package com.example.matchservice.chess;
+
+/**
+ * Result of adjudicating a position after a move. Only {@link #CHECKMATE} has a winner.
+ */
+public enum GameEnd {
+    NONE,
+    CHECKMATE,
+    STALEMATE,
+    THREEFOLD_REPETITION,
+    FIFTY_MOVE_RULE,
+    INSUFFICIENT_MATERIAL;
+
+    public boolean isOver() {
+        return this != NONE;
+    }
+
+    public boolean isDraw() {
+        return this != NONE && this != CHECKMATE;
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.matchservice.chess;
+
+/**
+ * Move generation on {@link Position}. Pseudo-legal moves come from the lookup and magic tables
+ * in {@link Attacks}; legality is decided by playing the move and checking the mover's king.
+ * Validating a single incoming move only generates moves for its from-square.
+ */
+public final class MoveGenerator {
+
+    private static final ThreadLocal<MoveList> SCRATCH = ThreadLocal.withInitial(MoveList::new);
+
+    private static final long F1_G1 = Square.bit(Square.F1) | Square.bit(Square.G1);
+    private static final long B1_C1_D1 = Square.bit(Square.B1) | Square.bit(Square.C1) | Square.bit(Square.D1);
+    private static final long F8_G8 = Square.bit(Square.F8) | Square.bit(Square.G8);
+    private static final long B8_C8_D8 = Square.bit(Square.B8) | Square.bit(Square.C8) | Square.bit(Square.D8);
+    private static final long RANK_1 = 0xFFL;
+    private static final long RANK_8 = 0xFFL << 56;
+
+    private MoveGenerator() {
+    }
+
+    public static void generateLegal(Position position, MoveList moves) {
+        generatePseudoLegal(position, moves, -1L);
+        int kept = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (isLegal(position, move)) {
+                moves.set(kept++, move);
+            }
+        }
+        moves.truncate(kept);
+    }
+
+    /**
+     * Returns the legal move matching the given squares, or {@link PackedMove#NONE}. A missing
+     * promotion piece defaults to a queen, as the frontend does.
+     */
+    public static int findLegalMove(Position position, int from, int to, int promotionType) {
+        MoveList moves = SCRATCH.get();
+        generatePseudoLegal(position, moves, Square.bit(from));
+        int wantedPromotion = promotionType == Piece.NONE ? Piece.QUEEN : promotionType;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (PackedMove.to(move) != to) {
+                continue;
+            }
+            if (PackedMove.isPromotion(move) && PackedMove.promotionType(move) != wantedPromotion) {
+                continue;
+            }
+            return isLegal(position, move) ? move : PackedMove.NONE;
+        }
+        return PackedMove.NONE;
+    }
+
+    /**
+     * Stops at the first legal move, so it is cheap in ordinary positions and only does the full
+     * work when the side to move is mated or stalemated.
+     */
+    public static boolean hasLegalMove(Position position) {
+        MoveList moves = SCRATCH.get();
+        int side = position.getSideToMove();
+        // King moves first: they are few and settle most positions where the king is in check
+        generatePseudoLegal(position, moves, position.pieces(Piece.of(side, Piece.KING)));
+        for (int i = 0; i < moves.size(); i++) {
+            if (isLegal(position, moves.get(i))) {
+                return true;
+            }
+        }
+        generatePseudoLegal(position, moves, ~position.pieces(Piece.of(side, Piece.KING)));
+        for (int i = 0; i < moves.size(); i++) {
+            if (isLegal(position, moves.get(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static boolean isLegal(Position position, int move) {
+        int mover = position.getSideToMove();
+        long undo = position.makeMove(move);
+        boolean legal = !isSquareAttacked(position, position.kingSquare(mover), mover ^ 1);
+        position.unmakeMove(move, undo);
+        return legal;
+    }
+
+    public static boolean isInCheck(Position position) {
+        int side = position.getSideToMove();
+        return isSquareAttacked(position, position.kingSquare(side), side ^ 1);
+    }
+
+    public static boolean isSquareAttacked(Position position, int square, int byColor) {
+        long occupancy = position.occupancy();
+        int base = byColor * 6;
+        long queens = position.pieces(base + Piece.QUEEN);
+        return (Attacks.pawn(byColor ^ 1, square) & position.pieces(base + Piece.PAWN)) != 0
+                || (Attacks.knight(square) & position.pieces(base + Piece.KNIGHT)) != 0
+                || (Attacks.king(square) & position.pieces(base + Piece.KING)) != 0
+                || (Attacks.bishop(square, occupancy) & (position.pieces(base + Piece.BISHOP) | queens)) != 0
+                || (Attacks.rook(square, occupancy) & (position.pieces(base + Piece.ROOK) | queens)) != 0;
+    }
+
+    /**
+     * Appends pseudo-legal moves of the side to move whose from-square is in {@code fromMask}.
+     */
+    public static void generatePseudoLegal(Position position, MoveList moves, long fromMask) {
+        moves.clear();
+        int us = position.getSideToMove();
+        int base = us * 6;
+        long own = position.occupancy(us);
+        long enemy = position.occupancy(us ^ 1);
+        long occupancy = own | enemy;
+
+        generatePawnMoves(position, moves, position.pieces(base + Piece.PAWN) & fromMask, us, enemy, occupancy);
+
+        for (long bits = position.pieces(base + Piece.KNIGHT) & fromMask; bits != 0; bits &= bits - 1) {
+            int from = Long.numberOfTrailingZeros(bits);
+            addTargets(moves, from, Attacks.knight(from) & ~own, enemy);
+        }
+        for (long bits = position.pieces(base + Piece.BISHOP) & fromMask; bits != 0; bits &= bits - 1) {
+            int from = Long.numberOfTrailingZeros(bits);
+            addTargets(moves, from, Attacks.bishop(from, occupancy) & ~own, enemy);
+        }
+        for (long bits = position.pieces(base + Piece.ROOK) & fromMask; bits != 0; bits &= bits - 1) {
+            int from = Long.numberOfTrailingZeros(bits);
+            addTargets(moves, from, Attacks.rook(from, occupancy) & ~own, enemy);
+        }
+        for (long bits = position.pieces(base + Piece.QUEEN) & fromMask; bits != 0; bits &= bits - 1) {
+            int from = Long.numberOfTrailingZeros(bits);
+            addTargets(moves, from, Attacks.queen(from, occupancy) & ~own, enemy);
+        }
+        long king = position.pieces(base + Piece.KING) & fromMask;
+        if (king != 0) {
+            int from = Long.numberOfTrailingZeros(king);
+            addTargets(moves, from, Attacks.king(from) & ~own, enemy);
+            generateCastling(position, moves, us, occupancy);
+        }
+    }
+
+    private static void addTargets(MoveList moves, int from, long targets, long enemy) {
+        for (long bits = targets; bits != 0; bits &= bits - 1) {
+            int to = Long.numberOfTrailingZeros(bits);
+            moves.add(PackedMove.of(from, to, (enemy & (1L << to)) != 0 ? PackedMove.CAPTURE : PackedMove.QUIET));
+        }
+    }
+
+    private static void generatePawnMoves(Position position, MoveList moves, long pawns, int us, long enemy,
+            long occupancy) {
+        if (pawns == 0) {
+            return;
+        }
+        long empty = ~occupancy;
+        int forward = us == Piece.WHITE ? 8 : -8;
+        long promotionRank = us == Piece.WHITE ? RANK_8 : RANK_1;
+
+        long single = us == Piece.WHITE ? (pawns << 8) & empty : (pawns >>> 8) & empty;
+        long doubleRank = us == Piece.WHITE ? 0xFFL << 24 : 0xFFL << 32;
+        long doubles = us == Piece.WHITE ? (single << 8) & empty & doubleRank : (single >>> 8) & empty & doubleRank;
+
+        for (long bits = single; bits != 0; bits &= bits - 1) {
+            int to = Long.numberOfTrailingZeros(bits);
+            if (((1L << to) & promotionRank) != 0) {
+                addPromotions(moves, to - forward, to, false);
+            } else {
+                moves.add(PackedMove.of(to - forward, to, PackedMove.QUIET));
+            }
+        }
+        for (long bits = doubles; bits != 0; bits &= bits - 1) {
+            int to = Long.numberOfTrailingZeros(bits);
+            moves.add(PackedMove.of(to - 2 * forward, to, PackedMove.DOUBLE_PUSH));
+        }
+
+        int epSquare = position.getEpSquare();
+        for (long bits = pawns; bits != 0; bits &= bits - 1) {
+            int from = Long.numberOfTrailingZeros(bits);
+            long attacks = Attacks.pawn(us, from);
+            for (long targets = attacks & enemy; targets != 0; targets &= targets - 1) {
+                int to = Long.numberOfTrailingZeros(targets);
+                if (((1L << to) & promotionRank) != 0) {
+                    addPromotions(moves, from, to, true);
+                } else {
+                    moves.add(PackedMove.of(from, to, PackedMove.CAPTURE));
+                }
+            }
+            if (epSquare != Square.NONE && (attacks & (1L << epSquare)) != 0) {
+                moves.add(PackedMove.of(from, epSquare, PackedMove.EN_PASSANT));
+            }
+        }
+    }
+
+    private static void addPromotions(MoveList moves, int from, int to, boolean capture) {
+        moves.add(PackedMove.promotion(from, to, Piece.QUEEN, capture));
+        moves.add(PackedMove.promotion(from, to, Piece.KNIGHT, capture));
+        moves.add(PackedMove.promotion(from, to, Piece.ROOK, capture));
+        moves.add(PackedMove.promotion(from, to, Piece.BISHOP, capture));
+    }
+
+    // The king's destination square is covered by the legality check after make
+    private static void generateCastling(Position position, MoveList moves, int us, long occupancy) {
+        int rights = position.getCastlingRights();
+        int them = us ^ 1;
+        if (us == Piece.WHITE) {
+            if ((rights & Position.WHITE_KINGSIDE) != 0 && (occupancy & F1_G1) == 0
+                    && !isSquareAttacked(position, Square.E1, them) && !isSquareAttacked(position, Square.F1, them)) {
+                moves.add(PackedMove.of(Square.E1, Square.G1, PackedMove.KING_CASTLE));
+            }
+            if ((rights & Position.WHITE_QUEENSIDE) != 0 && (occupancy & B1_C1_D1) == 0
+                    && !isSquareAttacked(position, Square.E1, them) && !isSquareAttacked(position, Square.D1, them)) {
+                moves.add(PackedMove.of(Square.E1, Square.C1, PackedMove.QUEEN_CASTLE));
+            }
+        } else {
+            if ((rights & Position.BLACK_KINGSIDE) != 0 && (occupancy & F8_G8) == 0
+                    && !isSquareAttacked(position, Square.E8, them) && !isSquareAttacked(position, Square.F8, them)) {
+                moves.add(PackedMove.of(Square.E8, Square.G8, PackedMove.KING_CASTLE));
+            }
+            if ((rights & Position.BLACK_QUEENSIDE) != 0 && (occupancy & B8_C8_D8) == 0
+                    && !isSquareAttacked(position, Square.E8, them) && !isSquareAttacked(position, Square.D8, them)) {
+                moves.add(PackedMove.of(Square.E8, Square.C8, PackedMove.QUEEN_CASTLE));
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.matchservice.chess;
+
+/**
+ * Reusable buffer of packed moves. 256 covers the maximum number of moves in any legal position.
+ */
+public final class MoveList {
+
+    private final int[] moves = new int[256];
+    private int size;
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void add(int move) {
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void truncate(int size) {
+        this.size = size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.matchservice.chess;
+
+/**
+ * Moves packed into the low 16 bits of an int: from-square in bits 0-5, to-square in bits 6-11
+ * and a 4-bit flag in bits 12-15 describing captures, castling, en passant and promotions.
+ * {@link #NONE} (a1a1) never occurs as a real move.
+ */
+public final class PackedMove {
+
+    public static final int NONE = 0;
+
+    public static final int QUIET = 0;
+    public static final int DOUBLE_PUSH = 1;
+    public static final int KING_CASTLE = 2;
+    public static final int QUEEN_CASTLE = 3;
+    public static final int CAPTURE = 4;
+    public static final int EN_PASSANT = 5;
+    public static final int PROMOTION = 8;
+    public static final int PROMOTION_CAPTURE = 12;
+
+    private PackedMove() {
+    }
+
+    public static int of(int from, int to, int flags) {
+        return from | (to << 6) | (flags << 12);
+    }
+
+    /**
+     * Promotion move to a knight, bishop, rook or queen ({@link Piece} type codes 1..4).
+     */
+    public static int promotion(int from, int to, int pieceType, boolean capture) {
+        return of(from, to, (capture ? PROMOTION_CAPTURE : PROMOTION) | (pieceType - Piece.KNIGHT));
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    public static int flags(int move) {
+        return (move >>> 12) & 15;
+    }
+
+    public static boolean isCapture(int move) {
+        return (flags(move) & CAPTURE) != 0;
+    }
+
+    public static boolean isPromotion(int move) {
+        return (flags(move) & PROMOTION) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        int flags = flags(move);
+        return flags == KING_CASTLE || flags == QUEEN_CASTLE;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return flags(move) == EN_PASSANT;
+    }
+
+    /**
+     * Promotion piece type, or {@link Piece#NONE} for non-promotions.
+     */
+    public static int promotionType(int move) {
+        return isPromotion(move) ? Piece.KNIGHT + (flags(move) & 3) : Piece.NONE;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.matchservice.chess;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Perft node counting, the standard correctness check for a move generator. The parallel mode
+ * splits the root moves into fork-join tasks, each working on its own copy of the position.
+ */
+public final class Perft {
+
+    private Perft() {
+    }
+
+    public static long count(Position position, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        MoveList[] lists = new MoveList[depth];
+        for (int i = 0; i < depth; i++) {
+            lists[i] = new MoveList();
+        }
+        return count(position, depth, lists);
+    }
+
+    private static long count(Position position, int depth, MoveList[] lists) {
+        MoveList moves = lists[depth - 1];
+        MoveGenerator.generateLegal(position, moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            long undo = position.makeMove(move);
+            nodes += count(position, depth - 1, lists);
+            position.unmakeMove(move, undo);
+        }
+        return nodes;
+    }
+
+    public static long countParallel(Position position, int depth, ForkJoinPool pool) {
+        if (depth <= 1) {
+            return count(position, depth);
+        }
+        return pool.invoke(new RootTask(position.copy(), depth));
+    }
+
+    private static final class RootTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        // Tasks are never serialized; the position is only shared with the forked children
+        private final transient Position position;
+        private final int depth;
+
+        RootTask(Position position, int depth) {
+            this.position = position;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            MoveList moves = new MoveList();
+            MoveGenerator.generateLegal(position, moves);
+            List<RecursiveTask<Long>> children = new ArrayList<>(moves.size());
+            for (int i = 0; i < moves.size(); i++) {
+                Position child = position.copy();
+                child.makeMove(moves.get(i));
+                int childDepth = depth - 1;
+                RecursiveTask<Long> task = new RecursiveTask<>() {
+                    @Override
+                    protected Long compute() {
+                        return count(child, childDepth);
+                    }
+                };
+                task.fork();
+                children.add(task);
+            }
+            long nodes = 0;
+            for (RecursiveTask<Long> child : children) {
+                nodes += child.join();
+            }
+            return nodes;
+        }
+    }
+}
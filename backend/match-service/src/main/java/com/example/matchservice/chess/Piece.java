@@ -0,0 +1,70 @@
+package com.example.matchservice.chess;
+
+/**
+ * Piece codes used as indexes into {@link Position}'s bitboards: white pieces are 0..5 and
+ * black pieces 6..11, in pawn, knight, bishop, rook, queen, king order.
+ */
+public final class Piece {
+
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    public static final int PAWN = 0;
+    public static final int KNIGHT = 1;
+    public static final int BISHOP = 2;
+    public static final int ROOK = 3;
+    public static final int QUEEN = 4;
+    public static final int KING = 5;
+
+    public static final int NONE = -1;
+    public static final int COUNT = 12;
+
+    private static final String SYMBOLS = "PNBRQKpnbrqk";
+
+    // Interned one-letter strings so String[][] boards built at the edge share cells
+    private static final String[] STRINGS = new String[COUNT];
+
+    static {
+        for (int piece = 0; piece < COUNT; piece++) {
+            STRINGS[piece] = String.valueOf(SYMBOLS.charAt(piece)).intern();
+        }
+    }
+
+    private Piece() {
+    }
+
+    public static int of(int color, int type) {
+        return color * 6 + type;
+    }
+
+    public static int color(int piece) {
+        return piece < 6 ? WHITE : BLACK;
+    }
+
+    public static int type(int piece) {
+        return piece < 6 ? piece : piece - 6;
+    }
+
+    public static char symbol(int piece) {
+        return SYMBOLS.charAt(piece);
+    }
+
+    public static String string(int piece) {
+        return piece == NONE ? "" : STRINGS[piece];
+    }
+
+    public static int fromSymbol(char symbol) {
+        return SYMBOLS.indexOf(symbol);
+    }
+
+    /**
+     * Parses a piece type letter in either case ("q", "N", ...), as sent by clients for promotions.
+     */
+    public static int typeFromLetter(String letter) {
+        if (letter == null || letter.isEmpty()) {
+            return NONE;
+        }
+        int piece = fromSymbol(Character.toUpperCase(letter.charAt(0)));
+        return piece == NONE ? NONE : type(piece);
+    }
+}
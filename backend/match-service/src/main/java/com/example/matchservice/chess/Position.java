@@ -0,0 +1,314 @@
+package com.example.matchservice.chess;
+
+/**
+ * Compact chess position: one bitboard per piece plus side to move, castling rights,
+ * en-passant square and the move clocks. This is the authoritative in-memory state of a
+ * live game; String[][] boards are only produced at the edge for clients that still need them.
+ */
+public final class Position {
+
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+    public static final int ALL_CASTLING = 15;
+
+    // Rights that survive a move touching the square (king or rook moved / rook captured)
+    private static final int[] CASTLING_MASK = new int[64];
+
+    static {
+        java.util.Arrays.fill(CASTLING_MASK, ALL_CASTLING);
+        CASTLING_MASK[Square.E1] = ALL_CASTLING & ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_MASK[Square.H1] = ALL_CASTLING & ~WHITE_KINGSIDE;
+        CASTLING_MASK[Square.A1] = ALL_CASTLING & ~WHITE_QUEENSIDE;
+        CASTLING_MASK[Square.E8] = ALL_CASTLING & ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_MASK[Square.H8] = ALL_CASTLING & ~BLACK_KINGSIDE;
+        CASTLING_MASK[Square.A8] = ALL_CASTLING & ~BLACK_QUEENSIDE;
+    }
+
+    private final long[] pieces = new long[Piece.COUNT];
+    private long whiteOccupancy;
+    private long blackOccupancy;
+    private int sideToMove = Piece.WHITE;
+    private int castlingRights;
+    private int epSquare = Square.NONE;
+    private int halfmoveClock;
+    private int fullmoveNumber = 1;
+    private long key;
+
+    public Position() {
+    }
+
+    public static Position startPosition() {
+        Position position = new Position();
+        for (int file = 0; file < 8; file++) {
+            position.put(Piece.of(Piece.WHITE, Piece.PAWN), Square.of(file, 1));
+            position.put(Piece.of(Piece.BLACK, Piece.PAWN), Square.of(file, 6));
+        }
+        int[] backRank = { Piece.ROOK, Piece.KNIGHT, Piece.BISHOP, Piece.QUEEN, Piece.KING, Piece.BISHOP,
+                Piece.KNIGHT, Piece.ROOK };
+        for (int file = 0; file < 8; file++) {
+            position.put(Piece.of(Piece.WHITE, backRank[file]), Square.of(file, 0));
+            position.put(Piece.of(Piece.BLACK, backRank[file]), Square.of(file, 7));
+        }
+        position.castlingRights = ALL_CASTLING;
+        position.refreshKey();
+        return position;
+    }
+
+    /**
+     * Builds a position from a client-style board (row 0 = rank 8, "" or null for empty squares).
+     * Castling rights are inferred from kings and rooks still on their home squares.
+     */
+    public static Position fromBoardArray(String[][] board, boolean whiteToMove) {
+        Position position = new Position();
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                String cell = board[row][col];
+                if (cell == null || cell.isEmpty()) {
+                    continue;
+                }
+                int piece = Piece.fromSymbol(cell.charAt(0));
+                if (piece == Piece.NONE) {
+                    throw new IllegalArgumentException("Unknown piece '" + cell + "' on board");
+                }
+                position.put(piece, Square.fromRowCol(row, col));
+            }
+        }
+        position.sideToMove = whiteToMove ? Piece.WHITE : Piece.BLACK;
+        position.castlingRights = position.inferCastlingRights();
+        position.refreshKey();
+        return position;
+    }
+
+    public String[][] toBoardArray() {
+        String[][] board = new String[8][8];
+        for (String[] row : board) {
+            java.util.Arrays.fill(row, "");
+        }
+        for (int piece = 0; piece < Piece.COUNT; piece++) {
+            for (long bits = pieces[piece]; bits != 0; bits &= bits - 1) {
+                int square = Long.numberOfTrailingZeros(bits);
+                board[Square.row(square)][Square.col(square)] = Piece.string(piece);
+            }
+        }
+        return board;
+    }
+
+    public Position copy() {
+        Position copy = new Position();
+        System.arraycopy(pieces, 0, copy.pieces, 0, Piece.COUNT);
+        copy.whiteOccupancy = whiteOccupancy;
+        copy.blackOccupancy = blackOccupancy;
+        copy.sideToMove = sideToMove;
+        copy.castlingRights = castlingRights;
+        copy.epSquare = epSquare;
+        copy.halfmoveClock = halfmoveClock;
+        copy.fullmoveNumber = fullmoveNumber;
+        copy.key = key;
+        return copy;
+    }
+
+    public int pieceAt(int square) {
+        long bit = 1L << square;
+        if (((whiteOccupancy | blackOccupancy) & bit) == 0) {
+            return Piece.NONE;
+        }
+        int first = (whiteOccupancy & bit) != 0 ? 0 : 6;
+        for (int piece = first; piece < first + 6; piece++) {
+            if ((pieces[piece] & bit) != 0) {
+                return piece;
+            }
+        }
+        return Piece.NONE;
+    }
+
+    /**
+     * Plays a pseudo-legal packed move and returns an undo token for {@link #unmakeMove}.
+     * The token packs the captured piece and the castling, en-passant and halfmove state
+     * that the move overwrites, so make/unmake never allocates. The Zobrist key is updated
+     * incrementally: piece moves through put/remove, the rest here.
+     */
+    public long makeMove(int move) {
+        int from = PackedMove.from(move), to = PackedMove.to(move), flags = PackedMove.flags(move);
+        int color = sideToMove;
+        int piece = pieceAt(from);
+        long undo = ((long) castlingRights << 4) | ((long) (epSquare + 1) << 8) | ((long) halfmoveClock << 16);
+        key ^= Zobrist.enPassant(this) ^ Zobrist.castling(castlingRights);
+
+        int captured = Piece.NONE;
+        if (flags == PackedMove.EN_PASSANT) {
+            captured = Piece.of(color ^ 1, Piece.PAWN);
+            remove(captured, color == Piece.WHITE ? to - 8 : to + 8);
+        } else if ((flags & PackedMove.CAPTURE) != 0) {
+            captured = pieceAt(to);
+            remove(captured, to);
+        }
+
+        remove(piece, from);
+        put((flags & PackedMove.PROMOTION) != 0 ? Piece.of(color, PackedMove.promotionType(move)) : piece, to);
+
+        if (flags == PackedMove.KING_CASTLE) {
+            int rook = Piece.of(color, Piece.ROOK);
+            remove(rook, to + 1);
+            put(rook, to - 1);
+        } else if (flags == PackedMove.QUEEN_CASTLE) {
+            int rook = Piece.of(color, Piece.ROOK);
+            remove(rook, to - 2);
+            put(rook, to + 1);
+        }
+
+        castlingRights &= CASTLING_MASK[from] & CASTLING_MASK[to];
+        epSquare = flags == PackedMove.DOUBLE_PUSH ? (from + to) >>> 1 : Square.NONE;
+        halfmoveClock = Piece.type(piece) == Piece.PAWN || captured != Piece.NONE ? 0 : halfmoveClock + 1;
+        if (color == Piece.BLACK) {
+            fullmoveNumber++;
+        }
+        sideToMove = color ^ 1;
+        key ^= Zobrist.castling(castlingRights) ^ Zobrist.sideToMove() ^ Zobrist.enPassant(this);
+        return undo | (captured + 1);
+    }
+
+    public void unmakeMove(int move, long undo) {
+        int from = PackedMove.from(move), to = PackedMove.to(move), flags = PackedMove.flags(move);
+        key ^= Zobrist.enPassant(this) ^ Zobrist.castling(castlingRights) ^ Zobrist.sideToMove();
+        int color = sideToMove ^ 1;
+        sideToMove = color;
+        if (color == Piece.BLACK) {
+            fullmoveNumber--;
+        }
+
+        if (flags == PackedMove.KING_CASTLE) {
+            int rook = Piece.of(color, Piece.ROOK);
+            remove(rook, to - 1);
+            put(rook, to + 1);
+        } else if (flags == PackedMove.QUEEN_CASTLE) {
+            int rook = Piece.of(color, Piece.ROOK);
+            remove(rook, to + 1);
+            put(rook, to - 2);
+        }
+
+        int placed = pieceAt(to);
+        remove(placed, to);
+        put((flags & PackedMove.PROMOTION) != 0 ? Piece.of(color, Piece.PAWN) : placed, from);
+
+        int captured = (int) (undo & 15) - 1;
+        if (captured != Piece.NONE) {
+            int capturedSquare = flags == PackedMove.EN_PASSANT ? (color == Piece.WHITE ? to - 8 : to + 8) : to;
+            put(captured, capturedSquare);
+        }
+
+        castlingRights = (int) (undo >>> 4) & 15;
+        epSquare = (int) ((undo >>> 8) & 127) - 1;
+        halfmoveClock = (int) (undo >>> 16) & 0xFFFF;
+        key ^= Zobrist.castling(castlingRights) ^ Zobrist.enPassant(this);
+    }
+
+    public int kingSquare(int color) {
+        return Long.numberOfTrailingZeros(pieces[Piece.of(color, Piece.KING)]);
+    }
+
+    void put(int piece, int square) {
+        long bit = 1L << square;
+        pieces[piece] |= bit;
+        key ^= Zobrist.piece(piece, square);
+        if (piece < 6) {
+            whiteOccupancy |= bit;
+        } else {
+            blackOccupancy |= bit;
+        }
+    }
+
+    void remove(int piece, int square) {
+        long bit = ~(1L << square);
+        pieces[piece] &= bit;
+        key ^= Zobrist.piece(piece, square);
+        if (piece < 6) {
+            whiteOccupancy &= bit;
+        } else {
+            blackOccupancy &= bit;
+        }
+    }
+
+    private int inferCastlingRights() {
+        int rights = 0;
+        long whiteRooks = pieces[Piece.of(Piece.WHITE, Piece.ROOK)];
+        long blackRooks = pieces[Piece.of(Piece.BLACK, Piece.ROOK)];
+        if ((pieces[Piece.of(Piece.WHITE, Piece.KING)] & Square.bit(Square.E1)) != 0) {
+            if ((whiteRooks & Square.bit(Square.H1)) != 0) rights |= WHITE_KINGSIDE;
+            if ((whiteRooks & Square.bit(Square.A1)) != 0) rights |= WHITE_QUEENSIDE;
+        }
+        if ((pieces[Piece.of(Piece.BLACK, Piece.KING)] & Square.bit(Square.E8)) != 0) {
+            if ((blackRooks & Square.bit(Square.H8)) != 0) rights |= BLACK_KINGSIDE;
+            if ((blackRooks & Square.bit(Square.A8)) != 0) rights |= BLACK_QUEENSIDE;
+        }
+        return rights;
+    }
+
+    void refreshKey() {
+        key = Zobrist.compute(this);
+    }
+
+    void setSideToMove(int sideToMove) {
+        this.sideToMove = sideToMove;
+    }
+
+    void setCastlingRights(int castlingRights) {
+        this.castlingRights = castlingRights;
+    }
+
+    void setEpSquare(int epSquare) {
+        this.epSquare = epSquare;
+    }
+
+    void setHalfmoveClock(int halfmoveClock) {
+        this.halfmoveClock = halfmoveClock;
+    }
+
+    void setFullmoveNumber(int fullmoveNumber) {
+        this.fullmoveNumber = fullmoveNumber;
+    }
+
+    public long pieces(int piece) {
+        return pieces[piece];
+    }
+
+    public long occupancy(int color) {
+        return color == Piece.WHITE ? whiteOccupancy : blackOccupancy;
+    }
+
+    public long occupancy() {
+        return whiteOccupancy | blackOccupancy;
+    }
+
+    /**
+     * 64-bit Zobrist key of the position, maintained incrementally by make/unmake.
+     */
+    public long getKey() {
+        return key;
+    }
+
+    public int getSideToMove() {
+        return sideToMove;
+    }
+
+    public boolean isWhiteToMove() {
+        return sideToMove == Piece.WHITE;
+    }
+
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    public int getEpSquare() {
+        return epSquare;
+    }
+
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.matchservice.chess;
+
+import java.util.Arrays;
+
+/**
+ * Zobrist keys of every position reached in a game, indexed by ply, for repetition detection.
+ */
+public final class PositionHistory {
+
+    private long[] keys = new long[128];
+    private int size;
+
+    public PositionHistory(long initialKey) {
+        keys[size++] = initialKey;
+    }
+
+    public void push(long key) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        keys[size++] = key;
+    }
+
+    // Drops the latest key, for a move that is taken back
+    public void pop() {
+        size--;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long get(int ply) {
+        return keys[ply];
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * True when the latest position has occurred at least twice before. Only positions since the
+     * last capture or pawn move (the halfmove clock) with the same side to move can match.
+     */
+    public boolean isThreefold(int halfmoveClock) {
+        int last = size - 1;
+        long key = keys[last];
+        int earliest = Math.max(0, last - halfmoveClock);
+        int repeats = 0;
+        for (int ply = last - 4; ply >= earliest; ply -= 2) {
+            if (keys[ply] == key && ++repeats == 2) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.matchservice.chess;
+
+/**
+ * Standard algebraic notation for packed moves. The writer disambiguates only against other
+ * pieces that can legally reach the same square, writes pawn captures with their file
+ * ("exd5"), promotions as "=Q" and adds "+" or "#" from the position after the move.
+ * The parser accepts the usual variants ("0-0", "e8Q", trailing "!?") and matches against
+ * the legal moves of the given position.
+ */
+public final class San {
+
+    private static final char[] PIECE_LETTERS = { 0, 'N', 'B', 'R', 'Q', 'K' };
+    private static final long FILE_A = 0x0101010101010101L;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(16));
+    private static final ThreadLocal<MoveList> SCRATCH = ThreadLocal.withInitial(MoveList::new);
+
+    private San() {
+    }
+
+    /**
+     * Renders a legal move of {@code position}; the position is left as it was.
+     */
+    public static String toSan(Position position, int move) {
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        write(position, move, buffer);
+        return buffer.toString();
+    }
+
+    public static void write(Position position, int move, StringBuilder out) {
+        int from = PackedMove.from(move), to = PackedMove.to(move);
+        if (PackedMove.isCastle(move)) {
+            out.append(PackedMove.flags(move) == PackedMove.KING_CASTLE ? "O-O" : "O-O-O");
+        } else {
+            int piece = position.pieceAt(from);
+            int type = Piece.type(piece);
+            if (type == Piece.PAWN) {
+                if (PackedMove.isCapture(move)) {
+                    out.append((char) ('a' + Square.file(from))).append('x');
+                }
+            } else {
+                out.append(PIECE_LETTERS[type]);
+                writeDisambiguation(position, move, piece, out);
+                if (PackedMove.isCapture(move)) {
+                    out.append('x');
+                }
+            }
+            out.append((char) ('a' + Square.file(to))).append((char) ('1' + Square.rank(to)));
+            if (PackedMove.isPromotion(move)) {
+                out.append('=').append(PIECE_LETTERS[PackedMove.promotionType(move)]);
+            }
+        }
+
+        long undo = position.makeMove(move);
+        if (MoveGenerator.isInCheck(position)) {
+            out.append(MoveGenerator.hasLegalMove(position) ? '+' : '#');
+        }
+        position.unmakeMove(move, undo);
+    }
+
+    private static void writeDisambiguation(Position position, int move, int piece, StringBuilder out) {
+        int from = PackedMove.from(move), to = PackedMove.to(move);
+        long others = reachers(Piece.type(piece), to, position.occupancy()) & position.pieces(piece) & ~Square.bit(from);
+        boolean ambiguous = false, sameFile = false, sameRank = false;
+        for (; others != 0; others &= others - 1) {
+            int other = Long.numberOfTrailingZeros(others);
+            if (!MoveGenerator.isLegal(position, PackedMove.of(other, to, PackedMove.flags(move)))) {
+                continue;
+            }
+            ambiguous = true;
+            sameFile |= Square.file(other) == Square.file(from);
+            sameRank |= Square.rank(other) == Square.rank(from);
+        }
+        if (!ambiguous) {
+            return;
+        }
+        if (!sameFile) {
+            out.append((char) ('a' + Square.file(from)));
+        } else if (!sameRank) {
+            out.append((char) ('1' + Square.rank(from)));
+        } else {
+            out.append((char) ('a' + Square.file(from))).append((char) ('1' + Square.rank(from)));
+        }
+    }
+
+    // Squares from which a piece of this type reaches the target; attacks are symmetric
+    private static long reachers(int type, int square, long occupancy) {
+        return switch (type) {
+            case Piece.KNIGHT -> Attacks.knight(square);
+            case Piece.BISHOP -> Attacks.bishop(square, occupancy);
+            case Piece.ROOK -> Attacks.rook(square, occupancy);
+            case Piece.QUEEN -> Attacks.queen(square, occupancy);
+            default -> 0L;
+        };
+    }
+
+    /**
+     * Returns the single legal move in {@code position} that the SAN text describes, or
+     * {@link PackedMove#NONE} if there is none or the text is ambiguous. Malformed text is
+     * rejected with an {@link IllegalArgumentException}.
+     */
+    public static int parse(Position position, CharSequence san) {
+        int end = san.length();
+        while (end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0) {
+            end--;
+        }
+
+        int castle = castleLength(san, end);
+        if (castle != 0) {
+            int king = position.kingSquare(position.getSideToMove());
+            int move = MoveGenerator.findLegalMove(position, king, castle == 3 ? king + 2 : king - 2, Piece.NONE);
+            return PackedMove.isCastle(move) ? move : PackedMove.NONE;
+        }
+
+        int promotionType = Piece.NONE;
+        if (end >= 2 && san.charAt(end - 2) == '=') {
+            promotionType = Uci.promotionType(san.charAt(end - 1));
+            end -= 2;
+        } else if (end >= 3 && "NBRQ".indexOf(san.charAt(end - 1)) >= 0 && Character.isDigit(san.charAt(end - 2))) {
+            promotionType = Uci.promotionType(san.charAt(end - 1));
+            end--;
+        }
+        if (end < 2) {
+            throw invalid(san);
+        }
+        int to = Uci.parseSquare(san, end - 2);
+        if (to == Square.NONE) {
+            throw invalid(san);
+        }
+        end -= 2;
+        if (end > 0 && san.charAt(end - 1) == 'x') {
+            end--;
+        }
+
+        int start = 0;
+        int type = Piece.PAWN;
+        if (end > 0 && "NBRQK".indexOf(san.charAt(0)) >= 0) {
+            type = Piece.type(Piece.fromSymbol(san.charAt(0)));
+            start = 1;
+        }
+        long fromMask = position.pieces(Piece.of(position.getSideToMove(), type));
+        for (int i = start; i < end; i++) {
+            char c = san.charAt(i);
+            if (c >= 'a' && c <= 'h') {
+                fromMask &= FILE_A << (c - 'a');
+            } else if (c >= '1' && c <= '8') {
+                fromMask &= 0xFFL << (8 * (c - '1'));
+            } else {
+                throw invalid(san);
+            }
+        }
+
+        MoveList moves = SCRATCH.get();
+        MoveGenerator.generatePseudoLegal(position, moves, fromMask);
+        int found = PackedMove.NONE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (PackedMove.to(move) != to || PackedMove.isCastle(move)
+                    || PackedMove.promotionType(move) != promotionType || !MoveGenerator.isLegal(position, move)) {
+                continue;
+            }
+            if (found != PackedMove.NONE) {
+                return PackedMove.NONE;
+            }
+            found = move;
+        }
+        return found;
+    }
+
+    // 3 for "O-O", 5 for "O-O-O", 0 otherwise; zeros are accepted for the letter O
+    private static int castleLength(CharSequence san, int end) {
+        if (end != 3 && end != 5) {
+            return 0;
+        }
+        for (int i = 0; i < end; i++) {
+            char c = san.charAt(i);
+            boolean ok = (i & 1) == 0 ? c == 'O' || c == '0' : c == '-';
+            if (!ok) {
+                return 0;
+            }
+        }
+        return end;
+    }
+
+    private static IllegalArgumentException invalid(CharSequence san) {
+        return new IllegalArgumentException("Invalid SAN move '" + san + "'");
+    }
+}
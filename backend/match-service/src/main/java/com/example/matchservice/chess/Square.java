@@ -0,0 +1,48 @@
+package com.example.matchservice.chess;
+
+/**
+ * Square indexing helpers. Squares are numbered 0..63 with a1 = 0, h1 = 7 and h8 = 63.
+ * The frontend and the String[][] board use row 0 for rank 8, so row/col conversions live here too.
+ */
+public final class Square {
+
+    public static final int NONE = -1;
+
+    public static final int A1 = 0, B1 = 1, C1 = 2, D1 = 3, E1 = 4, F1 = 5, G1 = 6, H1 = 7;
+    public static final int A8 = 56, B8 = 57, C8 = 58, D8 = 59, E8 = 60, F8 = 61, G8 = 62, H8 = 63;
+
+    private Square() {
+    }
+
+    public static int of(int file, int rank) {
+        return rank * 8 + file;
+    }
+
+    public static int file(int square) {
+        return square & 7;
+    }
+
+    public static int rank(int square) {
+        return square >>> 3;
+    }
+
+    public static int fromRowCol(int row, int col) {
+        return (7 - row) * 8 + col;
+    }
+
+    public static int row(int square) {
+        return 7 - (square >>> 3);
+    }
+
+    public static int col(int square) {
+        return square & 7;
+    }
+
+    public static boolean isValidRowCol(int row, int col) {
+        return row >= 0 && row < 8 && col >= 0 && col < 8;
+    }
+
+    public static long bit(int square) {
+        return 1L << square;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.matchservice.chess;
+
+/**
+ * UCI long algebraic codec for packed moves ("e2e4", "e7e8q"). Every from/to pair and every
+ * promotion the board geometry allows is rendered once into a table, so {@link #toUci} is a
+ * lookup and never builds a string.
+ */
+public final class Uci {
+
+    private static final char[] PROMOTION_LETTERS = { 0, 'n', 'b', 'r', 'q' };
+
+    // Indexed by from | to << 6 | promotion << 12, promotion 0 for none and 1..4 for n, b, r, q
+    private static final String[] TABLE = new String[5 << 12];
+
+    static {
+        char[] chars = new char[5];
+        for (int from = 0; from < 64; from++) {
+            for (int to = 0; to < 64; to++) {
+                squareName(from, chars, 0);
+                squareName(to, chars, 2);
+                TABLE[from | (to << 6)] = new String(chars, 0, 4);
+                if (isPromotionGeometry(from, to)) {
+                    for (int promotion = 1; promotion <= 4; promotion++) {
+                        chars[4] = PROMOTION_LETTERS[promotion];
+                        TABLE[from | (to << 6) | (promotion << 12)] = new String(chars, 0, 5);
+                    }
+                }
+            }
+        }
+    }
+
+    private Uci() {
+    }
+
+    public static String toUci(int move) {
+        return TABLE[index(move)];
+    }
+
+    public static void write(int move, StringBuilder out) {
+        out.append(TABLE[index(move)]);
+    }
+
+    /**
+     * Returns the legal move in {@code position} that the UCI text describes, or
+     * {@link PackedMove#NONE} if there is none. Malformed text is rejected with an
+     * {@link IllegalArgumentException}.
+     */
+    public static int parse(Position position, CharSequence uci) {
+        int length = uci.length();
+        if (length != 4 && length != 5) {
+            throw invalid(uci);
+        }
+        int from = parseSquareOrThrow(uci, 0);
+        int to = parseSquareOrThrow(uci, 2);
+        int promotionType = Piece.NONE;
+        if (length == 5) {
+            promotionType = promotionType(uci.charAt(4));
+            if (promotionType == Piece.NONE) {
+                throw invalid(uci);
+            }
+        }
+        int move = MoveGenerator.findLegalMove(position, from, to, promotionType);
+        // findLegalMove fills in a queen for a bare pawn move to the last rank; UCI does not
+        if (move != PackedMove.NONE && PackedMove.isPromotion(move) != (length == 5)) {
+            return PackedMove.NONE;
+        }
+        return move;
+    }
+
+    static int promotionType(char letter) {
+        return switch (letter) {
+            case 'n', 'N' -> Piece.KNIGHT;
+            case 'b', 'B' -> Piece.BISHOP;
+            case 'r', 'R' -> Piece.ROOK;
+            case 'q', 'Q' -> Piece.QUEEN;
+            default -> Piece.NONE;
+        };
+    }
+
+    static int parseSquare(CharSequence text, int i) {
+        int file = text.charAt(i) - 'a', rank = text.charAt(i + 1) - '1';
+        if (file < 0 || file > 7 || rank < 0 || rank > 7) {
+            return Square.NONE;
+        }
+        return Square.of(file, rank);
+    }
+
+    static void squareName(int square, char[] out, int offset) {
+        out[offset] = (char) ('a' + Square.file(square));
+        out[offset + 1] = (char) ('1' + Square.rank(square));
+    }
+
+    private static int index(int move) {
+        int promotion = PackedMove.isPromotion(move) ? PackedMove.promotionType(move) : 0;
+        return (move & 0xFFF) | (promotion << 12);
+    }
+
+    private static boolean isPromotionGeometry(int from, int to) {
+        int fromRank = Square.rank(from), toRank = Square.rank(to);
+        boolean forward = (fromRank == 6 && toRank == 7) || (fromRank == 1 && toRank == 0);
+        return forward && Math.abs(Square.file(from) - Square.file(to)) <= 1;
+    }
+
+    private static int parseSquareOrThrow(CharSequence uci, int i) {
+        int square = parseSquare(uci, i);
+        if (square == Square.NONE) {
+            throw invalid(uci);
+        }
+        return square;
+    }
+
+    private static IllegalArgumentException invalid(CharSequence uci) {
+        return new IllegalArgumentException("Invalid UCI move '" + uci + "'");
+    }
+}
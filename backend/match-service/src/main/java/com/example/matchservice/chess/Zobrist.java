@@ -0,0 +1,92 @@
+package com.example.matchservice.chess;
+
+/**
+ * Zobrist hashing keys. The keys come from a fixed seed so a position hashes to the same value
+ * on every node and across restarts, which lets clients and caches use it as a position id.
+ * The en-passant file only contributes when a pawn can actually make the capture, so positions
+ * that differ only by an unusable en-passant square hash alike (as repetition rules require).
+ */
+public final class Zobrist {
+
+    private static final long[][] PIECE_SQUARE = new long[Piece.COUNT][64];
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EP_FILE = new long[8];
+    private static final long BLACK_TO_MOVE;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    static {
+        Attacks.SplitMix random = new Attacks.SplitMix(0x5EED2B1A57L);
+        for (long[] squares : PIECE_SQUARE) {
+            for (int square = 0; square < 64; square++) {
+                squares[square] = random.next();
+            }
+        }
+        for (int i = 0; i < 16; i++) {
+            CASTLING[i] = random.next();
+        }
+        for (int i = 0; i < 8; i++) {
+            EP_FILE[i] = random.next();
+        }
+        BLACK_TO_MOVE = random.next();
+    }
+
+    private Zobrist() {
+    }
+
+    static long piece(int piece, int square) {
+        return PIECE_SQUARE[piece][square];
+    }
+
+    static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    static long sideToMove() {
+        return BLACK_TO_MOVE;
+    }
+
+    /**
+     * En-passant contribution for the current board: zero unless a pawn of the side to move
+     * attacks the en-passant square.
+     */
+    static long enPassant(Position position) {
+        int epSquare = position.getEpSquare();
+        if (epSquare == Square.NONE) {
+            return 0;
+        }
+        int us = position.getSideToMove();
+        long capturers = Attacks.pawn(us ^ 1, epSquare) & position.pieces(Piece.of(us, Piece.PAWN));
+        return capturers == 0 ? 0 : EP_FILE[Square.file(epSquare)];
+    }
+
+    /**
+     * Computes the key from scratch; {@link Position} keeps its key up to date incrementally.
+     */
+    public static long compute(Position position) {
+        long key = 0;
+        for (int piece = 0; piece < Piece.COUNT; piece++) {
+            for (long bits = position.pieces(piece); bits != 0; bits &= bits - 1) {
+                key ^= PIECE_SQUARE[piece][Long.numberOfTrailingZeros(bits)];
+            }
+        }
+        key ^= CASTLING[position.getCastlingRights()];
+        key ^= enPassant(position);
+        if (!position.isWhiteToMove()) {
+            key ^= BLACK_TO_MOVE;
+        }
+        return key;
+    }
+
+    /**
+     * Fixed-width hex form used on the wire, since JavaScript numbers cannot hold 64-bit keys.
+     */
+    public static String toHex(long key) {
+        char[] chars = new char[16];
+        for (int i = 15; i >= 0; i--) {
+            chars[i] = HEX[(int) (key & 15)];
+            key >>>= 4;
+        }
+        return new String(chars);
+    }
+}
@@ -17,21 +17,16 @@ public class CustomHandshakeInterceptor implements HandshakeInterceptor {
     @Override
     public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
                                   WebSocketHandler wsHandler, Map<String, Object> attributes) throws Exception {
-        System.out.println("WebSocket Handshake: Attempting to extract JWT cookie...");
         if (request instanceof ServletServerHttpRequest) {
             HttpServletRequest servletRequest = ((ServletServerHttpRequest) request).getServletRequest();
             Cookie[] cookies = servletRequest.getCookies();
             if (cookies != null) {
-                System.out.println("WebSocket Handshake: Found " + cookies.length + " cookies.");
                 for (Cookie cookie : cookies) {
                     if ("JWT".equals(cookie.getName())) {
                         attributes.put("jwtToken", cookie.getValue());
-                        System.out.println("WebSocket Handshake: Successfully extracted JWT cookie.");
                         break;
                     }
                 }
-            } else {
-                System.out.println("WebSocket Handshake: No cookies found in request.");
             }
         }
         return true;
@@ -9,19 +9,28 @@ import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
+import java.security.Principal;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Authenticates a STOMP session once, on CONNECT, from the Authorization header, a
+ * {@code token=} query header or the JWT cookie captured at handshake. A CONNECT without a
+ * valid token is refused. The verified principal is kept per session and attached to the
+ * session's later frames, which cost a map lookup instead of a JWT parse.
+ */
 @Configuration
 @Component
 public class WebSocketAuthInterceptor implements ChannelInterceptor {
 
     private final JwtService jwtService;
+    private final Map<String, Principal> sessionUsers = new ConcurrentHashMap<>();
 
     public WebSocketAuthInterceptor(JwtService jwtService) {
         this.jwtService = jwtService;
@@ -30,36 +39,48 @@ public class WebSocketAuthInterceptor implements ChannelInterceptor {
     @Override
     public Message<?> preSend(Message<?> message, MessageChannel channel) {
         StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
-        
-        if (accessor != null) {
-            String token = extractToken(accessor);
-            System.out.println("WebSocket Interceptor: Command=" + accessor.getCommand() + ", Token found=" + (token != null));
-
-            if (token != null && accessor.getUser() == null) {
-                try {
-                    String username = jwtService.extractUsername(token);
-                    if (username != null) {
-                        UserDetails userDetails = User.withUsername(username)
-                                .password("")
-                                .authorities("USER")
-                                .build();
-
-                        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                                userDetails, null, userDetails.getAuthorities());
+        if (accessor == null || accessor.getCommand() == null || accessor.getSessionId() == null) {
+            return message;
+        }
 
-                        SecurityContextHolder.getContext().setAuthentication(authentication);
-                        accessor.setUser(authentication);
-                        System.out.println("WebSocket Interceptor: Successfully authenticated user: " + username);
-                    }
-                } catch (Exception e) {
-                    System.err.println("WebSocket Interceptor: Authentication failed: " + e.getMessage());
-                }
+        StompCommand command = accessor.getCommand();
+        if (command == StompCommand.CONNECT || command == StompCommand.STOMP) {
+            Principal user = authenticate(accessor);
+            sessionUsers.put(accessor.getSessionId(), user);
+            accessor.setUser(user);
+        } else if (command == StompCommand.DISCONNECT) {
+            sessionUsers.remove(accessor.getSessionId());
+        } else if (accessor.getUser() == null) {
+            Principal user = sessionUsers.get(accessor.getSessionId());
+            if (user != null) {
+                accessor.setUser(user);
             }
         }
-
         return message;
     }
 
+    private Principal authenticate(StompHeaderAccessor accessor) {
+        String token = extractToken(accessor);
+        if (token == null) {
+            throw new RuntimeException("WebSocket authentication failed: no token");
+        }
+        String username;
+        try {
+            username = jwtService.extractUsername(token);
+        } catch (Exception e) {
+            System.err.println("WebSocket Interceptor: Authentication failed: " + e.getMessage());
+            throw new RuntimeException("WebSocket authentication failed: invalid token");
+        }
+        if (username == null) {
+            throw new RuntimeException("WebSocket authentication failed: token has no subject");
+        }
+        UserDetails userDetails = User.withUsername(username)
+                .password("")
+                .authorities("USER")
+                .build();
+        return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+
     private String extractToken(StompHeaderAccessor accessor) {
         List<String> authHeaders = accessor.getNativeHeader("Authorization");
         if (authHeaders != null && !authHeaders.isEmpty()) {
@@ -81,4 +102,8 @@ public class WebSocketAuthInterceptor implements ChannelInterceptor {
 
         return null;
     }
+
+    public int sessionCount() {
+        return sessionUsers.size();
+    }
 }
@@ -1,11 +1,19 @@
 package com.example.matchservice.config;
 
+import com.example.matchservice.protocol.GameFrameConverter;
+import com.example.matchservice.protocol.GameFrameNegotiator;
+import com.example.matchservice.protocol.OutboundBackpressure;
+import com.example.matchservice.spectate.SpectatorHub;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.converter.MessageConverter;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.util.List;
 
 @Configuration
 @EnableWebSocketMessageBroker
@@ -13,11 +21,20 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     private final WebSocketAuthInterceptor webSocketAuthInterceptor;
     private final CustomHandshakeInterceptor customHandshakeInterceptor;
+    private final GameFrameNegotiator gameFrameNegotiator;
+    private final SpectatorHub spectatorHub;
+    private final OutboundBackpressure outboundBackpressure;
 
     public WebSocketConfig(WebSocketAuthInterceptor webSocketAuthInterceptor, 
-                           CustomHandshakeInterceptor customHandshakeInterceptor) {
+                           CustomHandshakeInterceptor customHandshakeInterceptor,
+                           GameFrameNegotiator gameFrameNegotiator,
+                           SpectatorHub spectatorHub,
+                           OutboundBackpressure outboundBackpressure) {
         this.webSocketAuthInterceptor = webSocketAuthInterceptor;
         this.customHandshakeInterceptor = customHandshakeInterceptor;
+        this.gameFrameNegotiator = gameFrameNegotiator;
+        this.spectatorHub = spectatorHub;
+        this.outboundBackpressure = outboundBackpressure;
     }
 
     @Override
@@ -25,6 +42,8 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         config.enableSimpleBroker("/topic", "/queue");
         config.setApplicationDestinationPrefixes("/app");
         config.setUserDestinationPrefix("/user");
+        // Game streams number their frames; clients must see them in that order
+        config.setPreservePublishOrder(true);
     }
 
     @Override
@@ -41,6 +60,25 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
-        registration.interceptors(webSocketAuthInterceptor);
+        registration.interceptors(webSocketAuthInterceptor, gameFrameNegotiator.inbound(), spectatorHub.inbound());
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        // /spectate/ frames bypass the broker and are written here by the hub
+        registration.interceptors(gameFrameNegotiator, spectatorHub);
+    }
+
+    // Per-session outbound queues with a budget; slow links no longer hold outbound channel threads
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.addDecoratorFactory(outboundBackpressure::decorate);
+    }
+
+    // Binary game frames when the STOMP content-type asks for them; the default JSON converters follow
+    @Override
+    public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+        messageConverters.add(new GameFrameConverter());
+        return true;
     }
 }
@@ -5,12 +5,15 @@ import com.example.matchservice.service.GameService;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.handler.annotation.SendTo;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.web.bind.annotation.*;
 
 import java.security.Principal;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
@@ -22,9 +25,11 @@ public class GameController {
         this.gameService = gameService;
     }
 
+    // Game events go out through GameStream; only failures come back here, to the sender alone
+
     @MessageMapping("/game/{matchId}/move")
-    @SendTo("/topic/moves/{matchId}")
-    public MoveDTO handleMove(@DestinationVariable Long matchId,
+    @SendToUser(value = "/queue/move-errors", broadcast = false)
+    public CompletableFuture<MoveDeltaDTO> handleMove(@DestinationVariable Long matchId,
             @Payload MoveRequest moveRequest,
             Principal principal) {
         try {
@@ -33,19 +38,62 @@ public class GameController {
                 throw new RuntimeException("User not authenticated");
             }
             System.out.println("GameController: Received move for game " + matchId + " from " + principal.getName());
-            return gameService.processMove(matchId, moveRequest, principal);
+            return gameService.processMove(matchId, moveRequest, principal)
+                    .thenApply(delta -> (MoveDeltaDTO) null)
+                    .exceptionally(e -> moveError(matchId, e));
         } catch (Exception e) {
-            System.err.println("Error processing move: " + e.getMessage());
-            MoveDTO errorMove = new MoveDTO();
-            errorMove.setMatchId(matchId);
-            errorMove.setMoveNotation("ERROR: " + e.getMessage());
-            return errorMove;
+            return CompletableFuture.completedFuture(moveError(matchId, e));
+        }
+    }
+
+    private MoveDeltaDTO moveError(Long matchId, Throwable e) {
+        if (e instanceof CompletionException && e.getCause() != null) {
+            e = e.getCause();
+        }
+        System.err.println("Error processing move in game " + matchId + ": " + e.getMessage());
+        MoveDeltaDTO errorMove = new MoveDeltaDTO();
+        errorMove.setError(e.getMessage());
+        return errorMove;
+    }
+
+    // Full snapshot for one client that saw a gap in the move sequence
+    @MessageMapping("/game/{matchId}/sync")
+    @SendToUser(value = "/queue/game-sync", broadcast = false)
+    public CompletableFuture<GameStatusDTO> handleResync(@DestinationVariable Long matchId, Principal principal,
+            SimpMessageHeaderAccessor headerAccessor) {
+        try {
+            if (principal == null) {
+                throw new RuntimeException("User not authenticated");
+            }
+            return gameService.handleResync(matchId, principal.getName(), headerAccessor.getSessionId())
+                    .thenApply(done -> (GameStatusDTO) null)
+                    .exceptionally(e -> joinError(matchId, e));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(joinError(matchId, e));
+        }
+    }
+
+    // Frames missed since the given event-seq, on /user/queue/game-replay, or a snapshot if too far behind
+    @MessageMapping("/game/{matchId}/resume")
+    @SendToUser(value = "/queue/game-sync", broadcast = false)
+    public CompletableFuture<GameStatusDTO> handleResume(@DestinationVariable Long matchId,
+            @Payload ResumeRequest resumeRequest, Principal principal, SimpMessageHeaderAccessor headerAccessor) {
+        try {
+            if (principal == null) {
+                throw new RuntimeException("User not authenticated");
+            }
+            return gameService.handleResume(matchId, principal.getName(), headerAccessor.getSessionId(),
+                    resumeRequest.getFrom())
+                    .thenApply(done -> (GameStatusDTO) null)
+                    .exceptionally(e -> joinError(matchId, e));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(joinError(matchId, e));
         }
     }
 
     @MessageMapping("/game/{matchId}/join")
-    @SendTo("/topic/game/{matchId}")
-    public GameStatusDTO handlePlayerJoin(@DestinationVariable Long matchId,
+    @SendToUser(value = "/queue/game-sync", broadcast = false)
+    public CompletableFuture<GameStatusDTO> handlePlayerJoin(@DestinationVariable Long matchId,
             @Payload JoinRequest joinRequest,
             Principal principal) {
         try {
@@ -54,78 +102,67 @@ public class GameController {
                 throw new RuntimeException("User not authenticated");
             }
             System.out.println("GameController: Player " + principal.getName() + " joining game " + matchId);
-            return gameService.handlePlayerJoin(matchId, joinRequest, principal);
+            return gameService.handlePlayerJoin(matchId, joinRequest, principal)
+                    .thenApply(status -> (GameStatusDTO) null)
+                    .exceptionally(e -> joinError(matchId, e));
         } catch (Exception e) {
-            System.err.println("Error handling player join: " + e.getMessage());
-            GameStatusDTO errorStatus = new GameStatusDTO();
-            errorStatus.setMatchId(matchId);
-            errorStatus.setStatus("ERROR: " + e.getMessage());
-            return errorStatus;
+            return CompletableFuture.completedFuture(joinError(matchId, e));
         }
     }
 
+    private GameStatusDTO joinError(Long matchId, Throwable e) {
+        if (e instanceof CompletionException && e.getCause() != null) {
+            e = e.getCause();
+        }
+        System.err.println("Error handling player join: " + e.getMessage());
+        GameStatusDTO errorStatus = new GameStatusDTO();
+        errorStatus.setMatchId(matchId);
+        errorStatus.setStatus("ERROR: " + e.getMessage());
+        return errorStatus;
+    }
+
     @MessageMapping("/game/{matchId}/resign")
-    @SendTo("/topic/game-state/{matchId}")
-    public Map<String, Object> handleResign(@DestinationVariable Long matchId,
+    @SendToUser(value = "/queue/errors", broadcast = false)
+    public CompletableFuture<Map<String, Object>> handleResign(@DestinationVariable Long matchId,
             Principal principal) {
         try {
             System.out.println("Player " + principal.getName() + " resigning from game " + matchId);
-            gameService.handleResignation(matchId, principal.getName());
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("type", "RESIGNATION");
-            response.put("player", principal.getName());
-            response.put("matchId", matchId);
-            response.put("timestamp", System.currentTimeMillis());
-            return response;
+            return gameService.handleResignation(matchId, principal.getName())
+                    .thenApply(done -> (Map<String, Object>) null)
+                    .exceptionally(e -> error("Error handling resignation: ", e));
         } catch (Exception e) {
-            System.err.println("Error handling resignation: " + e.getMessage());
-            Map<String, Object> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return error;
+            return CompletableFuture.completedFuture(error("Error handling resignation: ", e));
         }
     }
 
     @MessageMapping("/game/{matchId}/draw")
-    public Map<String, Object> handleDrawOffer(@DestinationVariable Long matchId,
+    public CompletableFuture<Map<String, Object>> handleDrawOffer(@DestinationVariable Long matchId,
             Principal principal) {
         try {
             System.out.println("Player " + principal.getName() + " offering draw in game " + matchId);
-            gameService.handleDrawOffer(matchId, principal.getName());
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("type", "DRAW_OFFER_SENT");
-            response.put("matchId", matchId);
-            response.put("timestamp", System.currentTimeMillis());
-            return response;
+            return gameService.handleDrawOffer(matchId, principal.getName()).thenApply(done -> {
+                Map<String, Object> response = new HashMap<>();
+                response.put("type", "DRAW_OFFER_SENT");
+                response.put("matchId", matchId);
+                response.put("timestamp", System.currentTimeMillis());
+                return response;
+            }).exceptionally(e -> error("Error handling draw offer: ", e));
         } catch (Exception e) {
-            System.err.println("Error handling draw offer: " + e.getMessage());
-            Map<String, Object> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return error;
+            return CompletableFuture.completedFuture(error("Error handling draw offer: ", e));
         }
     }
 
     @MessageMapping("/game/{matchId}/draw/accept")
-    @SendTo("/topic/game-state/{matchId}")
-    public Map<String, Object> handleDrawAccept(@DestinationVariable Long matchId,
+    @SendToUser(value = "/queue/errors", broadcast = false)
+    public CompletableFuture<Map<String, Object>> handleDrawAccept(@DestinationVariable Long matchId,
             Principal principal) {
         try {
             System.out.println("Player " + principal.getName() + " accepting draw in game " + matchId);
-            gameService.handleDrawAccept(matchId);
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("type", "DRAW_ACCEPTED");
-            response.put("player", principal.getName());
-            response.put("matchId", matchId);
-            response.put("timestamp", System.currentTimeMillis());
-            response.put("status", "DRAW");
-            return response;
+            return gameService.handleDrawAccept(matchId, principal.getName())
+                    .thenApply(done -> (Map<String, Object>) null)
+                    .exceptionally(e -> error("Error handling draw accept: ", e));
         } catch (Exception e) {
-            System.err.println("Error handling draw accept: " + e.getMessage());
-            Map<String, Object> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return error;
+            return CompletableFuture.completedFuture(error("Error handling draw accept: ", e));
         }
     }
 
@@ -134,27 +171,24 @@ public class GameController {
             Principal principal) {
         try {
             System.out.println("Player " + principal.getName() + " declining draw in game " + matchId);
-            gameService.handleDrawDecline(matchId, principal.getName());
+            gameService.handleDrawDecline(matchId, principal.getName()).exceptionally(e -> {
+                System.err.println("Error handling draw decline: " + e.getMessage());
+                return null;
+            });
         } catch (Exception e) {
             System.err.println("Error handling draw decline: " + e.getMessage());
         }
     }
 
     @MessageMapping("/game/{matchId}/chat")
-    @SendTo("/topic/chat/{matchId}")
+    @SendToUser(value = "/queue/errors", broadcast = false)
     public Map<String, Object> handleChatMessage(@DestinationVariable Long matchId,
             @Payload Map<String, String> chatMessage,
             Principal principal) {
         try {
             System.out.println("Chat message from " + principal.getName() + " in game " + matchId);
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("type", "CHAT_MESSAGE");
-            response.put("from", principal.getName());
-            response.put("message", chatMessage.get("message"));
-            response.put("matchId", matchId);
-            response.put("timestamp", System.currentTimeMillis());
-            return response;
+            gameService.handleChat(matchId, principal.getName(), chatMessage.get("message"));
+            return null;
         } catch (Exception e) {
             System.err.println("Error handling chat message: " + e.getMessage());
             Map<String, Object> error = new HashMap<>();
@@ -163,4 +197,14 @@ public class GameController {
         }
     }
 
+    private Map<String, Object> error(String context, Throwable e) {
+        if (e instanceof CompletionException && e.getCause() != null) {
+            e = e.getCause();
+        }
+        System.err.println(context + e.getMessage());
+        Map<String, Object> error = new HashMap<>();
+        error.put("error", e.getMessage());
+        return error;
+    }
+
 }
@@ -0,0 +1,121 @@
+package com.example.matchservice.controller;
+
+import com.example.matchservice.matchmaking.ClusterMatchmaker;
+import com.example.matchservice.matchmaking.HttpClusterTransport;
+import com.example.matchservice.model.GameType;
+import com.example.matchservice.service.MatchService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+
+/**
+ * Calls between match-service instances for cluster matchmaking; see {@link ClusterMatchmaker}.
+ * Every call must carry the shared {@code game.matchmaking.cluster.token}, and with no token
+ * configured these endpoints refuse everything.
+ */
+@RestController
+@RequestMapping("/internal/matchmaking")
+public class InternalMatchmakingController {
+
+    private final ClusterMatchmaker clusterMatchmaker;
+    private final MatchService matchService;
+    private final byte[] token;
+
+    public InternalMatchmakingController(ClusterMatchmaker clusterMatchmaker, MatchService matchService,
+            @Value("${game.matchmaking.cluster.token:}") String token) {
+        this.clusterMatchmaker = clusterMatchmaker;
+        this.matchService = matchService;
+        this.token = token.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void authorize(String presented) {
+        if (token.length == 0 || presented == null
+                || !MessageDigest.isEqual(token, presented.getBytes(StandardCharsets.UTF_8))) {
+            throw new ForbiddenException();
+        }
+    }
+
+    @ResponseStatus(HttpStatus.FORBIDDEN)
+    static class ForbiddenException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ForbiddenException() {
+            super("Cluster token missing or wrong");
+        }
+    }
+
+    @PostMapping("/join")
+    public Map<String, Long> join(@RequestHeader(value = HttpClusterTransport.TOKEN_HEADER, required = false) String token,
+            @RequestBody Map<String, Object> body) {
+        authorize(token);
+        long matchId = clusterMatchmaker.onJoin((String) body.get("username"),
+                ((Number) body.get("userId")).longValue(), ((Number) body.get("rating")).intValue(),
+                GameType.valueOf((String) body.get("gameType")), (String) body.get("home"),
+                (String) body.get("joinId"));
+        return Map.of("matchId", matchId);
+    }
+
+    @PostMapping("/cancel")
+    public Map<String, Boolean> cancel(@RequestHeader(value = HttpClusterTransport.TOKEN_HEADER, required = false) String token,
+            @RequestBody Map<String, Object> body) {
+        authorize(token);
+        return Map.of("cancelled", clusterMatchmaker.onCancel((String) body.get("username")));
+    }
+
+    @PostMapping("/match-found")
+    public Map<String, Boolean> matchFound(@RequestHeader(value = HttpClusterTransport.TOKEN_HEADER, required = false) String token,
+            @RequestBody Map<String, Object> body) {
+        authorize(token);
+        clusterMatchmaker.onMatchFound((String) body.get("username"), ((Number) body.get("matchId")).longValue(),
+                (String) body.get("home"));
+        return Map.of("ok", true);
+    }
+
+    @PostMapping("/players/create")
+    public ResponseEntity<Map<String, Long>> createMatch(
+            @RequestHeader(value = HttpClusterTransport.TOKEN_HEADER, required = false) String token,
+            @RequestBody Map<String, Object> body) {
+        authorize(token);
+        return reply(matchService.createMatchAtHome((String) body.get("username"),
+                GameType.valueOf((String) body.get("gameType"))).orElse(-2L));
+    }
+
+    @PostMapping("/players/check")
+    public ResponseEntity<Map<String, Long>> checkMatch(
+            @RequestHeader(value = HttpClusterTransport.TOKEN_HEADER, required = false) String token,
+            @RequestBody Map<String, Object> body) {
+        authorize(token);
+        return reply(matchService.checkMatchAtHome((String) body.get("username")).orElse(-2L));
+    }
+
+    @PostMapping("/players/cancel")
+    public Map<String, Boolean> cancelWaiting(
+            @RequestHeader(value = HttpClusterTransport.TOKEN_HEADER, required = false) String token,
+            @RequestBody Map<String, Object> body) {
+        authorize(token);
+        return Map.of("cancelled", matchService.cancelWaitingAtHome((String) body.get("username")));
+    }
+
+    @PostMapping("/players/await")
+    public DeferredResult<ResponseEntity<Map<String, Long>>> awaitMatch(
+            @RequestHeader(value = HttpClusterTransport.TOKEN_HEADER, required = false) String token,
+            @RequestBody Map<String, Object> body) {
+        authorize(token);
+        return matchService.awaitMatchAtHome((String) body.get("username")).orElseGet(() -> {
+            DeferredResult<ResponseEntity<Map<String, Long>>> result = new DeferredResult<>();
+            result.setResult(reply(-2L));
+            return result;
+        });
+    }
+
+    private static ResponseEntity<Map<String, Long>> reply(long matchId) {
+        Map<String, Long> response = Map.of("matchId", matchId);
+        return matchId == -2 ? ResponseEntity.badRequest().body(response) : ResponseEntity.ok(response);
+    }
+}
@@ -1,9 +1,13 @@
 package com.example.matchservice.controller;
 
+import com.example.matchservice.archive.ReplayService;
+import com.example.matchservice.model.DTO.PositionDTO;
+import com.example.matchservice.model.GameType;
 import com.example.matchservice.service.MatchService;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -15,16 +19,32 @@ import java.util.Optional;
 public class MatchController {
 
     private final MatchService matchService;
+    private final ReplayService replayService;
 
-    public MatchController(MatchService matchService) {
+    public MatchController(MatchService matchService, ReplayService replayService) {
         this.matchService = matchService;
+        this.replayService = replayService;
     }
 
     @PostMapping
-    public ResponseEntity<Map<String, Long>> createMatch(java.security.Principal principal) {
-        Optional<Long> matchIdOpt = matchService.createMatch(principal);
-
+    public ResponseEntity<Map<String, Long>> createMatch(java.security.Principal principal,
+            @RequestBody(required = false) Map<String, String> body) {
         Map<String, Long> response = new HashMap<>();
+        GameType gameType = GameType.STANDARD;
+        if (body != null && body.get("gameType") != null) {
+            try {
+                gameType = GameType.valueOf(body.get("gameType").toUpperCase());
+            } catch (IllegalArgumentException e) {
+                gameType = null;
+            }
+            if (gameType == null || gameType == GameType.BOT) {
+                response.put("matchId", -2L);
+                return ResponseEntity.badRequest().body(response);
+            }
+        }
+
+        Optional<Long> matchIdOpt = matchService.createMatch(principal, gameType);
+
         if (matchIdOpt.isPresent()) {
             response.put("matchId", matchIdOpt.get());
             return ResponseEntity.ok(response);
@@ -48,6 +68,19 @@ public class MatchController {
         }
     }
 
+    /**
+     * Long poll for clients that cannot take the match-found push over STOMP: answers with the
+     * match id once the player is paired, or -1 after a while so the client asks again.
+     */
+    @GetMapping("/await-match")
+    public DeferredResult<ResponseEntity<Map<String, Long>>> awaitMatch(java.security.Principal principal) {
+        return matchService.awaitMatch(principal).orElseGet(() -> {
+            DeferredResult<ResponseEntity<Map<String, Long>>> result = new DeferredResult<>();
+            result.setResult(ResponseEntity.badRequest().body(Map.of("matchId", -2L)));
+            return result;
+        });
+    }
+
     @PostMapping("/cancel-waiting")
     public ResponseEntity<Map<String, Boolean>> cancelWaiting(java.security.Principal principal) {
         boolean cancelled = matchService.cancelWaiting(principal);
@@ -78,6 +111,27 @@ public class MatchController {
         }
     }
 
+    @GetMapping("/{matchId}/position")
+    public ResponseEntity<?> getPosition(@PathVariable Long matchId, @RequestParam int ply,
+            java.security.Principal principal) {
+        if (principal == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
+        }
+        try {
+            PositionDTO position = replayService.positionAt(matchId, ply, principal.getName());
+            return ResponseEntity.ok(position);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (RuntimeException e) {
+            if (e.getMessage() != null && e.getMessage().contains("Not authorized")) {
+                return ResponseEntity.status(403).body(Map.of("error", e.getMessage()));
+            } else if (e.getMessage() != null && e.getMessage().contains("not found")) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.status(500).body(Map.of("error", "Internal server error"));
+        }
+    }
+
     @PostMapping("/bot/save")
     public ResponseEntity<Map<String, Long>> saveBotMatch(@RequestBody Map<String, Object> gameResult, java.security.Principal principal) {
         Optional<Long> matchIdOpt = matchService.saveBotMatch(gameResult, principal);
@@ -0,0 +1,83 @@
+package com.example.matchservice.journal;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hands out primary keys from blocks reserved in the {@code id_blocks} table (hi/lo), so batch
+ * inserts can carry their ids instead of relying on IDENTITY columns, which force row-at-a-time
+ * inserts. A block is reserved with one update in its own transaction and then served from
+ * memory. The row's {@code next_val} is the next unreserved id, which is also how the entity's
+ * {@code @TableGenerator} with an allocation size of 1 reads it, so both can share a row.
+ */
+@Component
+public class IdBlockAllocator {
+
+    public static final String MOVES = "moves";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate reserveTransaction;
+    private final int blockSize;
+    private final Map<String, long[]> blocks = new HashMap<>();
+    private volatile boolean tableReady;
+
+    public IdBlockAllocator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            @Value("${game.ids.block-size:10000}") int blockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.reserveTransaction = new TransactionTemplate(transactionManager);
+        this.reserveTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Returns the first of {@code count} consecutive unused ids for the given table.
+     */
+    public synchronized long allocate(String table, int count) {
+        // [next, limit) of the block in hand
+        long[] block = blocks.computeIfAbsent(table, t -> new long[2]);
+        if (block[1] - block[0] < count) {
+            int size = Math.max(blockSize, count);
+            block[0] = reserve(table, size);
+            block[1] = block[0] + size;
+        }
+        long first = block[0];
+        block[0] += count;
+        return first;
+    }
+
+    private long reserve(String table, int size) {
+        Long first = reserveTransaction.execute(status -> {
+            ensureTable();
+            // LAST_INSERT_ID(expr) returns the new value to this connection without a second read race
+            int updated = jdbcTemplate.update(
+                    "update id_blocks set next_val = last_insert_id(next_val + ?) where name = ?", size, table);
+            if (updated == 0) {
+                // First use: start above whatever ids the table already holds
+                jdbcTemplate.update("insert ignore into id_blocks (name, next_val) "
+                        + "select ?, coalesce(max(id), 0) + 1 from " + table, table);
+                jdbcTemplate.update("update id_blocks set next_val = last_insert_id(next_val + ?) where name = ?",
+                        size, table);
+            }
+            return jdbcTemplate.queryForObject("select last_insert_id()", Long.class) - size;
+        });
+        if (first == null) {
+            throw new RuntimeException("Could not reserve ids for " + table);
+        }
+        return first;
+    }
+
+    private void ensureTable() {
+        if (!tableReady) {
+            jdbcTemplate.execute("create table if not exists id_blocks "
+                    + "(name varchar(255) not null primary key, next_val bigint)");
+            tableReady = true;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.matchservice.journal;
+
+/**
+ * One played move as recorded in the {@link MoveJournal}; carries everything the projector needs
+ * to write the Move row and advance the Match row without reading the game back.
+ */
+public class JournalEntry {
+    private final long matchId;
+    private final int ply;
+    private final int packedMove;
+    private final long timestampMillis;
+    private final String san;
+    private final String uci;
+    private final String fenBefore;
+    private final String fenAfter;
+    // Remaining after this move, -1 when untimed
+    private final long whiteClockMillis;
+    private final long blackClockMillis;
+
+    public JournalEntry(long matchId, int ply, int packedMove, long timestampMillis, String san, String uci,
+            String fenBefore, String fenAfter, long whiteClockMillis, long blackClockMillis) {
+        this.matchId = matchId;
+        this.ply = ply;
+        this.packedMove = packedMove;
+        this.timestampMillis = timestampMillis;
+        this.san = san;
+        this.uci = uci;
+        this.fenBefore = fenBefore;
+        this.fenAfter = fenAfter;
+        this.whiteClockMillis = whiteClockMillis;
+        this.blackClockMillis = blackClockMillis;
+    }
+
+    public long getMatchId() {
+        return matchId;
+    }
+
+    public int getPly() {
+        return ply;
+    }
+
+    public int getPackedMove() {
+        return packedMove;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public String getSan() {
+        return san;
+    }
+
+    public String getUci() {
+        return uci;
+    }
+
+    public String getFenBefore() {
+        return fenBefore;
+    }
+
+    public String getFenAfter() {
+        return fenAfter;
+    }
+
+    public long getWhiteClockMillis() {
+        return whiteClockMillis;
+    }
+
+    public long getBlackClockMillis() {
+        return blackClockMillis;
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.matchservice.journal;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a batch of journal entries with a fixed number of statements however many games and
+ * moves it spans: one select of the current plies, multi-row inserts of up to
+ * {@link #ROWS_PER_STATEMENT} moves each, and one set-based update of the matches. Move ids
+ * come from {@link IdBlockAllocator}, so rows are inserted with their ids already assigned and
+ * nothing waits on generated keys. Runs inside the caller's transaction.
+ */
+@Component
+public class MoveBatchWriter {
+
+    static final int ROWS_PER_STATEMENT = 500;
+
+    private static final String INSERT_PREFIX = "insert into moves (id, match_id, ply, move_number, color, "
+            + "packed_move, uci, san, fen_before, fen_after, created_at) values ";
+    private static final String INSERT_ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int INSERT_COLUMNS = 11;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IdBlockAllocator idBlockAllocator;
+
+    public MoveBatchWriter(JdbcTemplate jdbcTemplate, IdBlockAllocator idBlockAllocator) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idBlockAllocator = idBlockAllocator;
+    }
+
+    /**
+     * Returns the number of move rows inserted; entries for unknown matches or plies the
+     * database already has are skipped.
+     */
+    public int write(List<JournalEntry> entries) {
+        Map<Long, JournalEntry> latest = new LinkedHashMap<>();
+        for (JournalEntry entry : entries) {
+            latest.put(entry.getMatchId(), entry);
+        }
+        Map<Long, Integer> plies = currentPlies(latest.keySet());
+
+        List<JournalEntry> fresh = new ArrayList<>(entries.size());
+        for (JournalEntry entry : entries) {
+            Integer current = plies.get(entry.getMatchId());
+            // Unknown matches were deleted; plies at or below current were written already
+            if (current != null && entry.getPly() > current) {
+                fresh.add(entry);
+            }
+        }
+        insertMoves(fresh);
+
+        List<JournalEntry> advances = new ArrayList<>(latest.size());
+        for (JournalEntry entry : latest.values()) {
+            if (plies.containsKey(entry.getMatchId())) {
+                advances.add(entry);
+            }
+        }
+        advanceMatches(advances);
+        return fresh.size();
+    }
+
+    private Map<Long, Integer> currentPlies(Collection<Long> matchIds) {
+        if (matchIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, Integer> plies = new HashMap<>();
+        jdbcTemplate.query("select id, current_ply from matches where id in (" + placeholders(matchIds.size()) + ")",
+                rs -> {
+                    plies.put(rs.getLong(1), rs.getInt(2));
+                }, matchIds.toArray());
+        return plies;
+    }
+
+    private void insertMoves(List<JournalEntry> moves) {
+        if (moves.isEmpty()) {
+            return;
+        }
+        long nextId = idBlockAllocator.allocate(IdBlockAllocator.MOVES, moves.size());
+        for (int from = 0; from < moves.size(); from += ROWS_PER_STATEMENT) {
+            List<JournalEntry> chunk = moves.subList(from, Math.min(moves.size(), from + ROWS_PER_STATEMENT));
+            StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + chunk.size() * (INSERT_ROW.length() + 2));
+            sql.append(INSERT_PREFIX);
+            Object[] args = new Object[chunk.size() * INSERT_COLUMNS];
+            int arg = 0;
+            for (int i = 0; i < chunk.size(); i++) {
+                JournalEntry entry = chunk.get(i);
+                sql.append(i == 0 ? "" : ", ").append(INSERT_ROW);
+                args[arg++] = nextId++;
+                args[arg++] = entry.getMatchId();
+                args[arg++] = entry.getPly();
+                args[arg++] = (entry.getPly() + 1) / 2;
+                args[arg++] = entry.getPly() % 2 == 1 ? "WHITE" : "BLACK";
+                args[arg++] = entry.getPackedMove();
+                args[arg++] = entry.getUci();
+                args[arg++] = entry.getSan();
+                args[arg++] = entry.getFenBefore();
+                args[arg++] = entry.getFenAfter();
+                args[arg++] = new Timestamp(entry.getTimestampMillis());
+            }
+            jdbcTemplate.update(sql.toString(), args);
+        }
+    }
+
+    // One statement for every match in the batch; the guard keeps a replayed batch from moving a match backwards
+    private void advanceMatches(List<JournalEntry> latest) {
+        if (latest.isEmpty()) {
+            return;
+        }
+        StringBuilder rows = new StringBuilder();
+        Object[] args = new Object[latest.size() * 7];
+        int arg = 0;
+        for (JournalEntry entry : latest) {
+            rows.append(arg == 0 ? "select ? as id, ? as ply, ? as fen, ? as uci, ? as wclock, ? as bclock, ? as at"
+                    : " union all select ?, ?, ?, ?, ?, ?, ?");
+            args[arg++] = entry.getMatchId();
+            args[arg++] = entry.getPly();
+            args[arg++] = entry.getFenAfter();
+            args[arg++] = entry.getUci();
+            args[arg++] = entry.getWhiteClockMillis() < 0 ? null : entry.getWhiteClockMillis();
+            args[arg++] = entry.getBlackClockMillis() < 0 ? null : entry.getBlackClockMillis();
+            args[arg++] = entry.getTimestampMillis();
+        }
+        jdbcTemplate.update("update matches m join (" + rows + ") v on m.id = v.id "
+                + "set m.current_ply = v.ply, m.fen_current = v.fen, m.last_move_uci = v.uci, "
+                + "m.white_clock_ms = v.wclock, m.black_clock_ms = v.bclock, m.last_move_ms = v.at "
+                + "where m.current_ply is null or m.current_ply < v.ply", args);
+    }
+
+    private static String placeholders(int count) {
+        StringBuilder sql = new StringBuilder(count * 3);
+        for (int i = 0; i < count; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        return sql.toString();
+    }
+}
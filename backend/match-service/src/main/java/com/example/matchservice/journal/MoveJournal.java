@@ -0,0 +1,505 @@
+package com.example.matchservice.journal;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only, memory-mapped record of every move played on this node; the durable copy of live
+ * play, ahead of the database.
+ *
+ * <p>Records are {@code [length][crc32c][body]} in fixed-size segment files named by their base
+ * offset. Offsets are logical and never reused, so a reader or checkpoint is just a long.
+ * Appends copy into the mapping under a short lock and return a future that completes once a
+ * single flusher thread has forced the range to disk; appends that arrive while a force is in
+ * progress share the next one (group commit). If a force fails, everything after the last good
+ * force is discarded and every pending append fails. On open, each segment is scanned and the
+ * tail is cut at the first record that is incomplete or fails its checksum.
+ */
+@Component
+public class MoveJournal implements AutoCloseable {
+
+    private static final int HEADER_BYTES = 8;
+    private static final int CLOCK_BYTES = 16;
+    private static final String SEGMENT_PREFIX = "moves-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT = "checkpoint";
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final boolean fsync;
+    private final NavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+    private final AtomicLong forces = new AtomicLong();
+    private final Thread flusher;
+    private Segment active;
+    private volatile long writeOffset;
+    private volatile long durableOffset;
+    private volatile long checkpoint;
+    private volatile boolean closed;
+
+    public MoveJournal(@Value("${game.journal.dir:journal}") String dir,
+            @Value("${game.journal.segment-bytes:67108864}") int segmentBytes,
+            @Value("${game.journal.fsync:true}") boolean fsync) throws IOException {
+        this.dir = Paths.get(dir);
+        this.segmentBytes = segmentBytes;
+        this.fsync = fsync;
+        Files.createDirectories(this.dir);
+        this.checkpoint = readCheckpoint();
+        open();
+        this.flusher = Thread.ofPlatform().daemon().name("move-journal-flusher").start(this::flushLoop);
+    }
+
+    /**
+     * Appends the entry; the future completes when it is on disk (immediately with fsync off).
+     */
+    public CompletableFuture<Void> append(JournalEntry entry) {
+        byte[] record = encode(entry);
+        if (record.length > segmentBytes) {
+            throw new IllegalArgumentException("Journal record of " + record.length + " bytes exceeds the segment size");
+        }
+        CompletableFuture<Void> durable = new CompletableFuture<>();
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Move journal is closed");
+            }
+            if (active.capacity() - active.end < record.length) {
+                roll();
+            }
+            active.buffer.put(active.end, record);
+            active.end += record.length;
+            writeOffset = active.base + active.end;
+            if (!fsync) {
+                durableOffset = writeOffset;
+                durable.complete(null);
+            } else {
+                waiters.add(new Waiter(writeOffset, durable));
+                appended.signal();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+        return durable;
+    }
+
+    /**
+     * Reads durable entries starting at {@code from}, at most {@code maxEntries} of them, and
+     * returns the offset after the last one read.
+     */
+    public long read(long from, int maxEntries, Consumer<JournalEntry> sink) {
+        return read(from, maxEntries, -1, sink);
+    }
+
+    /**
+     * Reads every durable entry of one match from {@code from} on, decoding only that match's
+     * records.
+     */
+    public void readMatch(long from, long matchId, Consumer<JournalEntry> sink) {
+        read(from, Integer.MAX_VALUE, matchId, sink);
+    }
+
+    // A negative matchId reads every match
+    private long read(long from, int maxEntries, long matchId, Consumer<JournalEntry> sink) {
+        long offset = Math.max(from, firstOffset());
+        long limit = durableOffset;
+        int read = 0;
+        while (read < maxEntries && offset < limit) {
+            Map.Entry<Long, Segment> entry = segments.floorEntry(offset);
+            if (entry == null) {
+                break;
+            }
+            Segment segment = entry.getValue();
+            int position = (int) (offset - segment.base);
+            int length = position + HEADER_BYTES <= segment.capacity() ? segment.buffer.getInt(position) : 0;
+            if (length == 0) {
+                // Unused tail of a rolled segment
+                Long next = segments.higherKey(segment.base);
+                if (next == null) {
+                    break;
+                }
+                offset = next;
+                continue;
+            }
+            if (matchId < 0 || segment.buffer.getLong(position + HEADER_BYTES) == matchId) {
+                sink.accept(decode(segment.buffer.slice(position + HEADER_BYTES, length)));
+                read++;
+            }
+            offset += HEADER_BYTES + length;
+        }
+        return offset;
+    }
+
+    /**
+     * Records that everything before {@code offset} has been projected, and deletes segments
+     * that lie entirely before it.
+     */
+    public void checkpoint(long offset) throws IOException {
+        Path temp = dir.resolve(CHECKPOINT + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(Long.toString(offset).getBytes(StandardCharsets.US_ASCII)));
+            channel.force(true);
+        }
+        Files.move(temp, dir.resolve(CHECKPOINT), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        checkpoint = offset;
+        List<Segment> obsolete = new ArrayList<>();
+        lock.lock();
+        try {
+            for (Segment segment : segments.headMap(offset, false).values()) {
+                if (segment != active && segment.base + segment.capacity() <= offset) {
+                    obsolete.add(segment);
+                }
+            }
+            obsolete.forEach(segment -> segments.remove(segment.base));
+        } finally {
+            lock.unlock();
+        }
+        for (Segment segment : obsolete) {
+            Files.deleteIfExists(segment.path);
+        }
+    }
+
+    public long checkpoint() {
+        return checkpoint;
+    }
+
+    public long writeOffset() {
+        return writeOffset;
+    }
+
+    public long durableOffset() {
+        return durableOffset;
+    }
+
+    public long forceCount() {
+        return forces.get();
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            appended.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void open() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(dir)) {
+            files = listing.filter(p -> p.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                            && p.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+        for (Path file : files) {
+            Segment segment = Segment.map(file, baseOf(file), (int) Files.size(file));
+            if (segment.base + segment.capacity() <= checkpoint) {
+                Files.deleteIfExists(file);
+                continue;
+            }
+            segment.end = scan(segment);
+            segments.put(segment.base, segment);
+        }
+        if (segments.isEmpty()) {
+            active = Segment.map(segmentPath(checkpoint), checkpoint, segmentBytes);
+            segments.put(active.base, active);
+        } else {
+            active = segments.lastEntry().getValue();
+            // Clear whatever a crash left after the last good record so later appends are unambiguous
+            if (active.end < active.capacity() && active.buffer.getInt(active.end) != 0) {
+                active.buffer.put(active.end, new byte[active.capacity() - active.end]);
+                active.buffer.force();
+            }
+        }
+        writeOffset = active.base + active.end;
+        durableOffset = writeOffset;
+    }
+
+    // Returns the position just after the last record whose length and checksum are intact
+    private static int scan(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        int position = 0;
+        CRC32C crc = new CRC32C();
+        while (position + HEADER_BYTES <= segment.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || length > segment.capacity() - position - HEADER_BYTES) {
+                if (length != 0) {
+                    System.err.println("⚠️ Truncating journal " + segment.path.getFileName() + " at " + position
+                            + ": bad record length " + length);
+                }
+                break;
+            }
+            crc.reset();
+            crc.update(buffer.slice(position + HEADER_BYTES, length));
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                System.err.println("⚠️ Truncating journal " + segment.path.getFileName() + " at " + position
+                        + ": checksum mismatch");
+                break;
+            }
+            position += HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    private void roll() throws IOException {
+        long base = active.base + active.capacity();
+        active = Segment.map(segmentPath(base), base, segmentBytes);
+        segments.put(base, active);
+    }
+
+    private void flushLoop() {
+        while (true) {
+            long from;
+            long target;
+            lock.lock();
+            try {
+                while (!closed && writeOffset == durableOffset) {
+                    appended.awaitUninterruptibly();
+                }
+                if (closed && writeOffset == durableOffset) {
+                    return;
+                }
+                from = durableOffset;
+                target = writeOffset;
+            } finally {
+                lock.unlock();
+            }
+
+            RuntimeException failure = null;
+            try {
+                force(from, target);
+                forces.incrementAndGet();
+            } catch (RuntimeException e) {
+                System.err.println("❌ Journal force failed: " + e.getMessage());
+                failure = e;
+            }
+
+            List<Waiter> done = new ArrayList<>();
+            lock.lock();
+            try {
+                if (failure == null) {
+                    durableOffset = target;
+                    while (!waiters.isEmpty() && waiters.peek().offset <= target) {
+                        done.add(waiters.poll());
+                    }
+                } else {
+                    // Nothing after the last good force may become durable later, including appends made since
+                    discardFrom(from);
+                    done.addAll(waiters);
+                    waiters.clear();
+                }
+            } finally {
+                lock.unlock();
+            }
+            for (Waiter waiter : done) {
+                if (failure == null) {
+                    waiter.future.complete(null);
+                } else {
+                    waiter.future.completeExceptionally(failure);
+                }
+            }
+        }
+    }
+
+    /**
+     * Cuts the log back to {@code offset} after a failed force. The records after it are zeroed,
+     * so neither a later force nor a restart's scan can bring back a move whose append failed,
+     * and segments rolled since are dropped. Called under the lock.
+     */
+    private void discardFrom(long offset) {
+        Map.Entry<Long, Segment> floor = segments.floorEntry(offset);
+        Segment keep = floor != null ? floor.getValue() : active;
+        for (Segment segment : new ArrayList<>(segments.tailMap(keep.base, true).values())) {
+            int start = (int) Math.max(0, offset - segment.base);
+            if (segment.end > start) {
+                segment.buffer.put(start, new byte[segment.end - start]);
+                try {
+                    segment.buffer.force(start, segment.end - start);
+                } catch (RuntimeException e) {
+                    System.err.println("⚠️ Could not force discarded journal tail: " + e.getMessage());
+                }
+            }
+            segment.end = start;
+            if (segment != keep) {
+                segments.remove(segment.base);
+                try {
+                    Files.deleteIfExists(segment.path);
+                } catch (IOException e) {
+                    System.err.println("⚠️ Could not delete journal " + segment.path.getFileName() + ": " + e.getMessage());
+                }
+            }
+        }
+        active = keep;
+        writeOffset = keep.base + keep.end;
+    }
+
+    private void force(long from, long to) {
+        Long first = segments.floorKey(from);
+        for (Segment segment : segments.subMap(first != null ? first : from, true, to, false).values()) {
+            int start = (int) Math.max(0, from - segment.base);
+            int end = (int) Math.min(segment.capacity(), to - segment.base);
+            if (end > start) {
+                segment.buffer.force(start, end - start);
+            }
+        }
+    }
+
+    private long firstOffset() {
+        Map.Entry<Long, Segment> first = segments.firstEntry();
+        return first == null ? 0 : first.getKey();
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path file = dir.resolve(CHECKPOINT);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        return Long.parseLong(Files.readString(file, StandardCharsets.US_ASCII).trim());
+    }
+
+    private Path segmentPath(long base) {
+        return dir.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, base, SEGMENT_SUFFIX));
+    }
+
+    private static long baseOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    static byte[] encode(JournalEntry entry) {
+        int length = 8 + 4 + 4 + 8 + textBytes(entry.getSan()) + textBytes(entry.getUci())
+                + textBytes(entry.getFenBefore()) + textBytes(entry.getFenAfter()) + CLOCK_BYTES;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + length);
+        buffer.putInt(length).putInt(0);
+        buffer.putLong(entry.getMatchId()).putInt(entry.getPly()).putInt(entry.getPackedMove())
+                .putLong(entry.getTimestampMillis());
+        putText(buffer, entry.getSan());
+        putText(buffer, entry.getUci());
+        putText(buffer, entry.getFenBefore());
+        putText(buffer, entry.getFenAfter());
+        buffer.putLong(entry.getWhiteClockMillis()).putLong(entry.getBlackClockMillis());
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), HEADER_BYTES, length);
+        buffer.putInt(4, (int) crc.getValue());
+        return buffer.array();
+    }
+
+    static JournalEntry decode(ByteBuffer body) {
+        long matchId = body.getLong();
+        int ply = body.getInt();
+        int packedMove = body.getInt();
+        long timestamp = body.getLong();
+        String san = getText(body);
+        String uci = getText(body);
+        String fenBefore = getText(body);
+        String fenAfter = getText(body);
+        // Records written before clocks were journaled end after the FENs
+        boolean clocks = body.remaining() >= CLOCK_BYTES;
+        return new JournalEntry(matchId, ply, packedMove, timestamp, san, uci, fenBefore, fenAfter,
+                clocks ? body.getLong() : -1, clocks ? body.getLong() : -1);
+    }
+
+    // Notation and FEN are ASCII; a length of -1 stands for null
+    private static int textBytes(String text) {
+        return 2 + (text == null ? 0 : text.length());
+    }
+
+    private static void putText(ByteBuffer buffer, String text) {
+        if (text == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        buffer.putShort((short) text.length());
+        buffer.put(text.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static String getText(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    private static final class Waiter {
+        private final long offset;
+        private final CompletableFuture<Void> future;
+
+        private Waiter(long offset, CompletableFuture<Void> future) {
+            this.offset = offset;
+            this.future = future;
+        }
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private final long base;
+        private final MappedByteBuffer buffer;
+        // Only advanced under the journal lock
+        private int end;
+
+        private Segment(Path path, long base, MappedByteBuffer buffer) {
+            this.path = path;
+            this.base = base;
+            this.buffer = buffer;
+        }
+
+        static Segment map(Path path, long base, int size) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                return new Segment(path, base, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            }
+        }
+
+        int capacity() {
+            return buffer.capacity();
+        }
+    }
+}
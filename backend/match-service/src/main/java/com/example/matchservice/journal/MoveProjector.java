@@ -0,0 +1,101 @@
+package com.example.matchservice.journal;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Write-behind stage from the journal to the moves and matches tables, off the game threads.
+ * Entries from all games are taken in batches of up to {@code batch-size}, or whatever arrived
+ * within {@code flush-interval-ms}, and each batch is one {@link MoveBatchWriter} transaction
+ * followed by a journal checkpoint. A crash between the two replays the batch, and moves at or
+ * below the match's currentPly are skipped, so replay writes nothing twice.
+ */
+@Component
+public class MoveProjector {
+
+    private final MoveJournal journal;
+    private final MoveBatchWriter moveBatchWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private long projected;
+
+    public MoveProjector(MoveJournal journal, MoveBatchWriter moveBatchWriter,
+            PlatformTransactionManager transactionManager,
+            @Value("${game.journal.projector.batch-size:2000}") int batchSize,
+            @Value("${game.journal.projector.flush-interval-ms:200}") long flushIntervalMillis) {
+        this.journal = journal;
+        this.moveBatchWriter = moveBatchWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.projected = journal.checkpoint();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread.ofPlatform().daemon().name("move-projector").start(this::run);
+    }
+
+    private void run() {
+        while (true) {
+            try {
+                // A full batch goes straight on to the next; a partial one waits for more moves
+                if (projectBatch() < batchSize) {
+                    Thread.sleep(flushIntervalMillis);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                System.err.println("❌ Move projection failed, retrying: " + e.getMessage());
+                try {
+                    Thread.sleep(flushIntervalMillis * 10);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Projects everything that is durable right now. Called before games are rebuilt from the
+     * database so they never miss moves still sitting in the journal.
+     */
+    public void flush() {
+        long target = journal.durableOffset();
+        while (projectedOffset() < target) {
+            if (projectBatch() == 0) {
+                break;
+            }
+        }
+    }
+
+    public synchronized long projectedOffset() {
+        return projected;
+    }
+
+    private synchronized int projectBatch() {
+        List<JournalEntry> entries = new ArrayList<>();
+        long next = journal.read(projected, batchSize, entries::add);
+        if (!entries.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> moveBatchWriter.write(entries));
+        }
+        if (next != projected) {
+            try {
+                journal.checkpoint(next);
+            } catch (IOException e) {
+                System.err.println("⚠️ Journal checkpoint failed: " + e.getMessage());
+            }
+            projected = next;
+        }
+        return entries.size();
+    }
+}
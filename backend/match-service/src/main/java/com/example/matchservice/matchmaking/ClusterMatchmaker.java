@@ -0,0 +1,293 @@
+package com.example.matchservice.matchmaking;
+
+import com.example.matchservice.model.GameType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Matchmaking across match-service instances. Queues are sharded by game type and rating band
+ * ({@code game.matchmaking.cluster.band-width} points wide); each shard's {@link Matchmaker}
+ * runs on the instance the {@link ClusterRing} picks for it, and other instances forward joins
+ * and cancels there. Each player also has a home instance, picked the same way from the
+ * username, which holds their waiting state and match assignment, so that polls and cancels
+ * reach it wherever the gateway sends them. When a shard owner pairs two players it tells
+ * every instance: the homes record the match, and every instance pushes it to whatever STOMP
+ * session the player has there.
+ * <p>
+ * Players in neighbouring bands are never paired with each other; bands are wide next to the
+ * rating windows, so this costs few pairs at the edges. Without a cluster everything is local
+ * and this is a thin layer over the {@link Matchmaker}.
+ * <p>
+ * A forwarded join carries an id, and the owner answers a repeat of it with the player's
+ * current state instead of queueing them again, so a join whose reply was lost can be retried.
+ * A player only falls back to the local queue once the owner has confirmed the cancel.
+ * {@link #reconcile()} re-sends the joins of players waiting elsewhere, which requeues them on
+ * an owner that lost its state, and moves them to a new owner once theirs leaves the ring.
+ */
+@Component
+public class ClusterMatchmaker {
+
+    private final Matchmaker matchmaker;
+    private final ClusterRing ring;
+    private final ClusterTransport transport;
+    private final MatchNotifier matchNotifier;
+    private final int bandWidth;
+    private final long joinTtlMillis;
+    // Players whose home this is, waiting in a queue another instance owns
+    private final Map<String, RemoteWait> remoteWaiting = new ConcurrentHashMap<>();
+    // Joins other instances forwarded here, by username, so a repeated join id is answered, not requeued
+    private final Map<String, ForwardedJoin> forwardedJoins = new ConcurrentHashMap<>();
+
+    private static final class RemoteWait {
+        final ServiceInstance owner;
+        final Long userId;
+        final int rating;
+        final GameType gameType;
+        final String joinId;
+        // Set once the owner, after leaving the ring, said the player was not waiting there
+        volatile boolean cancelRefused;
+
+        RemoteWait(ServiceInstance owner, Long userId, int rating, GameType gameType, String joinId) {
+            this.owner = owner;
+            this.userId = userId;
+            this.rating = rating;
+            this.gameType = gameType;
+            this.joinId = joinId;
+        }
+    }
+
+    private static final class ForwardedJoin {
+        final String joinId;
+        final long atMillis;
+        volatile Long matchId;
+
+        ForwardedJoin(String joinId, long atMillis) {
+            this.joinId = joinId;
+            this.atMillis = atMillis;
+        }
+    }
+
+    @Autowired
+    public ClusterMatchmaker(Matchmaker matchmaker, ClusterRing ring, ClusterTransport transport,
+            MatchNotifier matchNotifier, @Value("${game.matchmaking.cluster.band-width:500}") int bandWidth,
+            @Value("${game.matchmaking.assignment-ttl-ms:120000}") long joinTtlMillis) {
+        this.matchmaker = matchmaker;
+        this.ring = ring;
+        this.transport = transport;
+        this.matchNotifier = matchNotifier;
+        this.bandWidth = Math.max(1, bandWidth);
+        this.joinTtlMillis = joinTtlMillis;
+    }
+
+    public void setPairingListener(Matchmaker.PairingListener listener) {
+        matchmaker.setPairingListener(listener);
+    }
+
+    /**
+     * The player's home instance, or null if it is this one.
+     */
+    public ServiceInstance homeOf(String username) {
+        return ring.ownerOf("player:" + username);
+    }
+
+    private String shardKey(GameType gameType, int rating) {
+        return "queue:" + gameType + ":" + Math.max(0, rating) / bandWidth;
+    }
+
+    /**
+     * Queues a player whose home is this instance. Returns the match id if they were paired at
+     * once, else null.
+     */
+    public Long join(String username, Long userId, int rating, GameType gameType) {
+        ServiceInstance owner = ring.ownerOf(shardKey(gameType, rating));
+        if (owner != null && !matchmaker.isWaiting(username)) {
+            RemoteWait wait = new RemoteWait(owner, userId, rating, gameType, UUID.randomUUID().toString());
+            if (remoteWaiting.putIfAbsent(username, wait) != null) {
+                return null;
+            }
+            return forward(username, wait);
+        } else if (remoteWaiting.containsKey(username)) {
+            return null;
+        }
+        return matchmaker.join(username, userId, rating, gameType, null).getMatchId();
+    }
+
+    private Long forward(String username, RemoteWait wait) {
+        try {
+            return joined(username, wait, sendJoin(username, wait));
+        } catch (RuntimeException e) {
+            System.err.println("⚠️ Could not queue " + username + " on " + wait.owner.getInstanceId() + ": "
+                    + e.getMessage());
+        }
+        // A failed call does not mean the owner refused the player: take them out of its queue first
+        try {
+            if (transport.cancel(wait.owner, username)) {
+                // A split queue beats no queue: wait here until the owner is reachable again
+                remoteWaiting.remove(username, wait);
+                return matchmaker.join(username, wait.userId, wait.rating, wait.gameType, null).getMatchId();
+            }
+            // Not waiting there: the join never arrived or was already paired, and repeating it is safe
+            return joined(username, wait, sendJoin(username, wait));
+        } catch (RuntimeException e) {
+            // Unknown on the owner, so the player stays queued there until reconcile() settles it
+            System.err.println("⚠️ Could not reach " + wait.owner.getInstanceId() + " for " + username
+                    + ", leaving them queued there: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private long sendJoin(String username, RemoteWait wait) {
+        return transport.join(wait.owner, username, wait.userId, wait.rating, wait.gameType, ring.selfId(),
+                wait.joinId);
+    }
+
+    private Long joined(String username, RemoteWait wait, long matchId) {
+        if (matchId > 0) {
+            remoteWaiting.remove(username, wait);
+            return matchId;
+        }
+        return null;
+    }
+
+    public boolean cancel(String username) {
+        RemoteWait wait = remoteWaiting.get(username);
+        if (wait == null) {
+            return matchmaker.cancel(username);
+        }
+        boolean cancelled;
+        try {
+            cancelled = transport.cancel(wait.owner, username);
+        } catch (RuntimeException e) {
+            System.err.println("⚠️ Could not cancel " + username + " on " + wait.owner.getInstanceId() + ": "
+                    + e.getMessage());
+            return false;
+        }
+        if (cancelled) {
+            remoteWaiting.remove(username, wait);
+        }
+        return cancelled;
+    }
+
+    public boolean isWaiting(String username) {
+        return remoteWaiting.containsKey(username) || matchmaker.isWaiting(username);
+    }
+
+    /**
+     * Reports a match this instance started to the player's home, and the push to every
+     * instance the player may be connected to.
+     */
+    public void announce(Ticket ticket, Long matchId) {
+        String home = ticket.getHome();
+        if (home == null || home.equals(ring.selfId())) {
+            matchNotifier.matchFound(ticket.getUsername(), matchId);
+        } else {
+            matchNotifier.push(ticket.getUsername(), matchId);
+        }
+        ForwardedJoin forwarded = forwardedJoins.get(ticket.getUsername());
+        if (forwarded != null) {
+            forwarded.matchId = matchId;
+        }
+        for (ServiceInstance peer : ring.peers()) {
+            try {
+                transport.matchFound(peer, ticket.getUsername(), matchId, home);
+            } catch (RuntimeException e) {
+                System.err.println("⚠️ Could not report match " + matchId + " for " + ticket.getUsername() + " to "
+                        + peer.getInstanceId() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // Calls from other instances
+
+    public long onJoin(String username, Long userId, int rating, GameType gameType, String home, String joinId) {
+        ForwardedJoin seen = forwardedJoins.get(username);
+        if (seen != null && seen.joinId.equals(joinId)) {
+            Long matchId = seen.matchId;
+            if (matchId != null) {
+                return matchId;
+            }
+            if (matchmaker.isWaiting(username)) {
+                return -1L;
+            }
+        }
+        // Recorded before joining, so a pairing inside join() is recorded against it by announce()
+        ForwardedJoin forwarded = new ForwardedJoin(joinId, System.currentTimeMillis());
+        forwardedJoins.put(username, forwarded);
+        Long matchId = matchmaker.join(username, userId, rating, gameType, home).getMatchId();
+        if (matchId != null) {
+            forwarded.matchId = matchId;
+        }
+        return matchId != null ? matchId : -1L;
+    }
+
+    public boolean onCancel(String username) {
+        boolean cancelled = matchmaker.cancel(username);
+        if (cancelled) {
+            forwardedJoins.remove(username);
+        }
+        return cancelled;
+    }
+
+    public void onMatchFound(String username, Long matchId, String home) {
+        if (ring.selfId().equals(home)) {
+            matchNotifier.matchFound(username, matchId);
+            remoteWaiting.remove(username);
+        } else {
+            matchNotifier.push(username, matchId);
+        }
+    }
+
+    /**
+     * Settles players waiting on another instance. While their owner is in the ring the join is
+     * re-sent (a no-op if they are still queued there). Once it has left, they are cancelled there
+     * and queued on the new owner; if it says they are not waiting, they are moved a round later
+     * unless a match announcement arrives first. Also forgets answered joins past their TTL.
+     */
+    @Scheduled(fixedDelayString = "${game.matchmaking.cluster.reconcile-ms:15000}")
+    public void reconcile() {
+        long cutoff = System.currentTimeMillis() - joinTtlMillis;
+        forwardedJoins.entrySet().removeIf(entry -> entry.getValue().atMillis < cutoff
+                && !matchmaker.isWaiting(entry.getKey()));
+
+        for (Map.Entry<String, RemoteWait> entry : remoteWaiting.entrySet()) {
+            String username = entry.getKey();
+            RemoteWait wait = entry.getValue();
+            try {
+                if (ring.instance(wait.owner.getInstanceId()) != null) {
+                    long matchId = sendJoin(username, wait);
+                    if (matchId > 0 && remoteWaiting.remove(username, wait)) {
+                        // Paired while its announcement to this instance was lost
+                        matchNotifier.matchFound(username, matchId);
+                    }
+                    continue;
+                }
+                boolean release;
+                try {
+                    release = transport.cancel(wait.owner, username) || wait.cancelRefused;
+                    wait.cancelRefused = true;
+                } catch (RuntimeException e) {
+                    // Gone, and its queue with it
+                    release = true;
+                }
+                if (release && remoteWaiting.remove(username, wait)) {
+                    System.out.println("Moving " + username + " off departed instance " + wait.owner.getInstanceId());
+                    join(username, wait.userId, wait.rating, wait.gameType);
+                }
+            } catch (RuntimeException e) {
+                System.err.println("⚠️ Could not reconcile " + username + " on " + wait.owner.getInstanceId() + ": "
+                        + e.getMessage());
+            }
+        }
+    }
+
+    public int remoteWaitingCount() {
+        return remoteWaiting.size();
+    }
+}
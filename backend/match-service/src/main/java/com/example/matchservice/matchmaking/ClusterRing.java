@@ -0,0 +1,118 @@
+package com.example.matchservice.matchmaking;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * The match-service instances in the registry, and which of them owns a key. Ownership uses
+ * rendezvous hashing: every instance scores the key and the highest score wins, so each
+ * instance computes the same owner from the same registry view, and an instance joining or
+ * leaving only moves the keys it wins or held. With {@code game.matchmaking.cluster.enabled}
+ * off, or alone in the registry, this instance owns everything.
+ */
+@Component
+public class ClusterRing {
+
+    private static final String LOCAL = "local";
+
+    private final Supplier<List<ServiceInstance>> instances;
+    private final Supplier<String> selfId;
+
+    @Autowired
+    public ClusterRing(ObjectProvider<DiscoveryClient> discoveryClient, ObjectProvider<Registration> registration,
+            @Value("${spring.application.name:match-service}") String serviceId,
+            @Value("${game.matchmaking.cluster.enabled:false}") boolean enabled) {
+        this(() -> {
+            DiscoveryClient client = discoveryClient.getIfAvailable();
+            return enabled && client != null ? client.getInstances(serviceId) : List.of();
+        }, () -> {
+            Registration self = registration.getIfAvailable();
+            return self != null && self.getInstanceId() != null ? self.getInstanceId() : LOCAL;
+        });
+    }
+
+    /**
+     * For simulations: {@code instances} is the registry view, {@code selfId} this instance's id
+     * in it.
+     */
+    public ClusterRing(Supplier<List<ServiceInstance>> instances, Supplier<String> selfId) {
+        this.instances = instances;
+        this.selfId = selfId;
+    }
+
+    public String selfId() {
+        return selfId.get();
+    }
+
+    /**
+     * The instance owning {@code key}, or null if that is this instance.
+     */
+    public ServiceInstance ownerOf(String key) {
+        List<ServiceInstance> all = instances.get();
+        if (all.size() < 2) {
+            return null;
+        }
+        long keyHash = fnv(key);
+        ServiceInstance owner = null;
+        long best = 0;
+        for (ServiceInstance instance : all) {
+            long score = mix(keyHash ^ fnv(instance.getInstanceId()));
+            if (owner == null || Long.compareUnsigned(score, best) > 0) {
+                owner = instance;
+                best = score;
+            }
+        }
+        return isSelf(owner) ? null : owner;
+    }
+
+    /**
+     * Every other instance in the registry.
+     */
+    public List<ServiceInstance> peers() {
+        List<ServiceInstance> peers = new ArrayList<>();
+        for (ServiceInstance instance : instances.get()) {
+            if (!isSelf(instance)) {
+                peers.add(instance);
+            }
+        }
+        return peers;
+    }
+
+    public ServiceInstance instance(String instanceId) {
+        for (ServiceInstance instance : instances.get()) {
+            if (instance.getInstanceId().equals(instanceId)) {
+                return instance;
+            }
+        }
+        return null;
+    }
+
+    public boolean isSelf(ServiceInstance instance) {
+        return instance.getInstanceId().equals(selfId.get());
+    }
+
+    private static long fnv(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // SplitMix64 finalizer: spreads nearby FNV values across the whole range
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.matchservice.matchmaking;
+
+import com.example.matchservice.model.GameType;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Calls from one match-service instance to another. Match ids follow the player endpoints:
+ * a positive id is a match, -1 still waiting, -2 neither waiting nor matched. Failures are
+ * thrown as {@link RuntimeException}.
+ */
+public interface ClusterTransport {
+
+    // To the owner of a queue shard; a repeated joinId is answered with the player's state, not queued again
+
+    long join(ServiceInstance owner, String username, Long userId, int rating, GameType gameType, String home,
+            String joinId);
+
+    boolean cancel(ServiceInstance owner, String username);
+
+    // From the queue owner to every instance; the home collects it, the others only push
+
+    void matchFound(ServiceInstance instance, String username, Long matchId, String home);
+
+    // A player's own requests, to the player's home
+
+    long createMatch(ServiceInstance home, String username, GameType gameType);
+
+    long checkMatch(ServiceInstance home, String username);
+
+    boolean cancelWaiting(ServiceInstance home, String username);
+
+    CompletableFuture<Long> awaitMatch(ServiceInstance home, String username);
+}
@@ -0,0 +1,144 @@
+package com.example.matchservice.matchmaking;
+
+import com.example.matchservice.model.GameType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link ClusterTransport} over HTTP to the instance's {@code /internal/matchmaking} endpoints,
+ * authenticated with the shared {@code game.matchmaking.cluster.token}.
+ */
+@Component
+public class HttpClusterTransport implements ClusterTransport {
+
+    public static final String TOKEN_HEADER = "X-Cluster-Token";
+
+    private static final TypeReference<Map<String, Object>> BODY = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+    private final String token;
+    private final Duration timeout;
+    private final Duration longPollTimeout;
+    private final HttpClient client;
+
+    public HttpClusterTransport(ObjectMapper objectMapper,
+            @Value("${game.matchmaking.cluster.token:}") String token,
+            @Value("${game.matchmaking.cluster.timeout-ms:2000}") long timeoutMillis,
+            @Value("${game.matchmaking.long-poll-ms:25000}") long longPollMillis) {
+        this.objectMapper = objectMapper;
+        this.token = token;
+        this.timeout = Duration.ofMillis(timeoutMillis);
+        this.longPollTimeout = Duration.ofMillis(longPollMillis + timeoutMillis);
+        this.client = HttpClient.newBuilder().connectTimeout(this.timeout).build();
+    }
+
+    @Override
+    public long join(ServiceInstance owner, String username, Long userId, int rating, GameType gameType, String home,
+            String joinId) {
+        Map<String, Object> body = player(username);
+        body.put("userId", userId);
+        body.put("rating", rating);
+        body.put("gameType", gameType.name());
+        body.put("home", home);
+        body.put("joinId", joinId);
+        return matchId(call(owner, "/join", body));
+    }
+
+    @Override
+    public boolean cancel(ServiceInstance owner, String username) {
+        return Boolean.TRUE.equals(call(owner, "/cancel", player(username)).get("cancelled"));
+    }
+
+    @Override
+    public void matchFound(ServiceInstance instance, String username, Long matchId, String home) {
+        Map<String, Object> body = player(username);
+        body.put("matchId", matchId);
+        body.put("home", home);
+        call(instance, "/match-found", body);
+    }
+
+    @Override
+    public long createMatch(ServiceInstance home, String username, GameType gameType) {
+        Map<String, Object> body = player(username);
+        body.put("gameType", gameType.name());
+        return matchId(call(home, "/players/create", body));
+    }
+
+    @Override
+    public long checkMatch(ServiceInstance home, String username) {
+        return matchId(call(home, "/players/check", player(username)));
+    }
+
+    @Override
+    public boolean cancelWaiting(ServiceInstance home, String username) {
+        return Boolean.TRUE.equals(call(home, "/players/cancel", player(username)).get("cancelled"));
+    }
+
+    @Override
+    public CompletableFuture<Long> awaitMatch(ServiceInstance home, String username) {
+        return client.sendAsync(request(home, "/players/await", player(username), longPollTimeout),
+                HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> matchId(parse(response)));
+    }
+
+    private static Map<String, Object> player(String username) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("username", username);
+        return body;
+    }
+
+    private Map<String, Object> call(ServiceInstance instance, String path, Map<String, Object> body) {
+        try {
+            return parse(client.send(request(instance, path, body, timeout), HttpResponse.BodyHandlers.ofString()));
+        } catch (IOException e) {
+            throw new RuntimeException("Cluster call to " + instance.getInstanceId() + path + " failed: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted calling " + instance.getInstanceId() + path, e);
+        }
+    }
+
+    private HttpRequest request(ServiceInstance instance, String path, Map<String, Object> body, Duration timeout) {
+        try {
+            return HttpRequest.newBuilder(URI.create(instance.getUri() + "/internal/matchmaking" + path))
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .header(TOKEN_HEADER, token)
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not encode cluster call " + path, e);
+        }
+    }
+
+    private Map<String, Object> parse(HttpResponse<String> response) {
+        // 400 carries the player endpoints' -2; anything else is a failed call
+        if (response.statusCode() != 200 && response.statusCode() != 400) {
+            throw new RuntimeException("Cluster call " + response.uri() + " returned " + response.statusCode());
+        }
+        try {
+            return response.body().isEmpty() ? Map.of() : objectMapper.readValue(response.body(), BODY);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Unreadable reply from " + response.uri(), e);
+        }
+    }
+
+    private static long matchId(Map<String, Object> body) {
+        return body.get("matchId") instanceof Number number ? number.longValue() : -2L;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.matchservice.matchmaking;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tells players their match is ready. The match id is pushed to {@code /user/queue/match-found}
+ * over the player's STOMP connection, handed to a long poll the player has open, and kept by
+ * username until collected, for clients that still poll {@code /game/check-match} or missed the
+ * push. Uncollected assignments are dropped after {@code game.matchmaking.assignment-ttl-ms}.
+ */
+@Component
+public class MatchNotifier {
+
+    public static final String DESTINATION = "/queue/match-found";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final long assignmentTtlMillis;
+    private final long longPollMillis;
+    private final Map<String, Assignment> assignments = new ConcurrentHashMap<>();
+    private final Map<String, DeferredResult<ResponseEntity<Map<String, Long>>>> longPolls = new ConcurrentHashMap<>();
+
+    private static final class Assignment {
+        final Long matchId;
+        final long assignedAtMillis;
+
+        Assignment(Long matchId, long assignedAtMillis) {
+            this.matchId = matchId;
+            this.assignedAtMillis = assignedAtMillis;
+        }
+    }
+
+    public MatchNotifier(SimpMessagingTemplate messagingTemplate,
+            @Value("${game.matchmaking.assignment-ttl-ms:120000}") long assignmentTtlMillis,
+            @Value("${game.matchmaking.long-poll-ms:25000}") long longPollMillis) {
+        this.messagingTemplate = messagingTemplate;
+        this.assignmentTtlMillis = assignmentTtlMillis;
+        this.longPollMillis = longPollMillis;
+    }
+
+    public void matchFound(String username, Long matchId) {
+        assignments.put(username, new Assignment(matchId, System.currentTimeMillis()));
+        push(username, matchId);
+        DeferredResult<ResponseEntity<Map<String, Long>>> longPoll = longPolls.remove(username);
+        if (longPoll != null) {
+            completeWithAssignment(username, longPoll);
+        }
+    }
+
+    /**
+     * Only the push, for STOMP sessions of a player whose assignment another instance keeps.
+     */
+    public void push(String username, Long matchId) {
+        try {
+            messagingTemplate.convertAndSendToUser(username, DESTINATION, Map.of("matchId", matchId));
+        } catch (RuntimeException e) {
+            // The assignment is still there to be collected by polling
+            System.err.println("⚠️ Could not push match " + matchId + " to " + username + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Takes the player's assigned match id, or null if there is none. Each assignment is
+     * collected once.
+     */
+    public Long collect(String username) {
+        Assignment assignment = assignments.remove(username);
+        return assignment != null ? assignment.matchId : null;
+    }
+
+    public void forget(String username) {
+        assignments.remove(username);
+    }
+
+    /**
+     * Long poll for a waiting player: completes with the match id as soon as there is one, or
+     * with -1 after {@code game.matchmaking.long-poll-ms} so the client asks again. A newer
+     * poll from the same player ends the previous one.
+     */
+    public DeferredResult<ResponseEntity<Map<String, Long>>> await(String username) {
+        DeferredResult<ResponseEntity<Map<String, Long>>> longPoll = new DeferredResult<>(longPollMillis,
+                ResponseEntity.ok(Map.of("matchId", -1L)));
+        longPoll.onCompletion(() -> longPolls.remove(username, longPoll));
+        DeferredResult<ResponseEntity<Map<String, Long>>> previous = longPolls.put(username, longPoll);
+        if (previous != null) {
+            previous.setResult(ResponseEntity.ok(Map.of("matchId", -1L)));
+        }
+        // An assignment made before the poll was registered is not missed
+        if (assignments.containsKey(username) && longPolls.remove(username, longPoll)) {
+            completeWithAssignment(username, longPoll);
+        }
+        return longPoll;
+    }
+
+    private void completeWithAssignment(String username, DeferredResult<ResponseEntity<Map<String, Long>>> longPoll) {
+        Long matchId = collect(username);
+        longPoll.setResult(ResponseEntity.ok(Map.of("matchId", matchId != null ? matchId : -1L)));
+    }
+
+    @Scheduled(fixedDelayString = "${game.matchmaking.assignment-ttl-ms:120000}")
+    public void expire() {
+        long cutoff = System.currentTimeMillis() - assignmentTtlMillis;
+        assignments.values().removeIf(assignment -> assignment.assignedAtMillis < cutoff);
+    }
+
+    public int assignmentCount() {
+        return assignments.size();
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.matchservice.matchmaking;
+
+import com.example.matchservice.model.GameType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Pairs waiting players of the same {@link GameType} by rating. Each game type has its own
+ * queue ordered by rating (then arrival), a concurrent skip list, so joining, leaving and finding
+ * the nearest opponent are O(log n) and need no lock. Two tickets may be paired when their
+ * ratings are within the window of either player; a window starts at
+ * {@code game.matchmaking.base-window} and widens by {@code game.matchmaking.widen-per-second}
+ * for every second waited, up to {@code game.matchmaking.max-window}.
+ * <p>
+ * A joining player is paired straight away with the nearest acceptable waiting ticket, if any.
+ * Otherwise the ticket waits, and a sweep every {@code game.matchmaking.sweep-ms} pairs
+ * neighbouring tickets whose windows have grown to cover each other. A ticket leaves its queue
+ * only by winning the CAS on {@link Ticket#taken}, so concurrent joins, sweeps and cancels
+ * never hand out the same player twice. Pairs go to the {@link PairingListener}, longest
+ * waiting player first.
+ */
+@Component
+public class Matchmaker {
+
+    public interface PairingListener {
+        void onPaired(Ticket first, Ticket second);
+    }
+
+    private final Map<GameType, ConcurrentSkipListMap<Long, Ticket>> queues = new EnumMap<>(GameType.class);
+    private final Map<String, Ticket> waiting = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong pairs = new AtomicLong();
+    private final LongSupplier clock;
+    private final int baseWindow;
+    private final int widenPerSecond;
+    private final int maxWindow;
+    private volatile PairingListener listener = (first, second) -> {
+    };
+
+    @Autowired
+    public Matchmaker(@Value("${game.matchmaking.base-window:100}") int baseWindow,
+            @Value("${game.matchmaking.widen-per-second:25}") int widenPerSecond,
+            @Value("${game.matchmaking.max-window:400}") int maxWindow) {
+        this(System::currentTimeMillis, baseWindow, widenPerSecond, maxWindow);
+    }
+
+    public Matchmaker(LongSupplier clock, int baseWindow, int widenPerSecond, int maxWindow) {
+        this.clock = clock;
+        this.baseWindow = baseWindow;
+        this.widenPerSecond = widenPerSecond;
+        this.maxWindow = Math.max(baseWindow, maxWindow);
+        for (GameType gameType : GameType.values()) {
+            queues.put(gameType, new ConcurrentSkipListMap<>());
+        }
+    }
+
+    public void setPairingListener(PairingListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Puts a player in the queue for {@code gameType}, or pairs them at once. Returns the
+     * player's ticket, whose match id is already set if the pairing listener assigned one. A
+     * player who is already waiting keeps their existing ticket.
+     */
+    public Ticket join(String username, Long userId, int rating, GameType gameType) {
+        return join(username, userId, rating, gameType, null);
+    }
+
+    /**
+     * Same as {@link #join(String, Long, int, GameType)} for a player whose requests are served
+     * by another instance, {@code home}, which the pairing listener reports the match to.
+     */
+    public Ticket join(String username, Long userId, int rating, GameType gameType, String home) {
+        Ticket ticket = new Ticket(username, userId, rating, gameType, home, clock.getAsLong(),
+                sequence.incrementAndGet());
+        Ticket existing = waiting.putIfAbsent(username, ticket);
+        if (existing != null) {
+            return existing;
+        }
+        ConcurrentSkipListMap<Long, Ticket> queue = queues.get(gameType);
+        Ticket opponent = nearestAcceptable(queue, ticket, clock.getAsLong());
+        if (opponent != null) {
+            if (ticket.taken.compareAndSet(false, true)) {
+                pair(opponent, ticket);
+            } else {
+                // Cancelled while looking; the opponent goes back untouched
+                queue.put(opponent.key, opponent);
+                opponent.taken.set(false);
+            }
+            return ticket;
+        }
+        queue.put(ticket.key, ticket);
+        if (ticket.taken.get()) {
+            queue.remove(ticket.key, ticket);
+        }
+        return ticket;
+    }
+
+    public boolean cancel(String username) {
+        Ticket ticket = waiting.get(username);
+        if (ticket == null || !ticket.taken.compareAndSet(false, true)) {
+            return false;
+        }
+        queues.get(ticket.getGameType()).remove(ticket.key, ticket);
+        waiting.remove(username, ticket);
+        return true;
+    }
+
+    public boolean isWaiting(String username) {
+        return waiting.containsKey(username);
+    }
+
+    private int window(Ticket ticket, long now) {
+        long waited = Math.max(0, now - ticket.getEnqueuedAtMillis()) / 1000;
+        return (int) Math.min(maxWindow, baseWindow + waited * widenPerSecond);
+    }
+
+    private boolean acceptable(Ticket a, Ticket b, long now) {
+        int gap = Math.abs(a.getRating() - b.getRating());
+        return gap <= window(a, now) || gap <= window(b, now);
+    }
+
+    // Walks outwards from the ticket's rating, nearer side first, until past the widest window
+    private Ticket nearestAcceptable(ConcurrentSkipListMap<Long, Ticket> queue, Ticket ticket, long now) {
+        Iterator<Ticket> above = queue.tailMap(ticket.key, false).values().iterator();
+        Iterator<Ticket> below = queue.headMap(ticket.key, false).descendingMap().values().iterator();
+        Ticket up = next(above);
+        Ticket down = next(below);
+        while (up != null || down != null) {
+            boolean takeUp = down == null
+                    || (up != null && up.getRating() - ticket.getRating() <= ticket.getRating() - down.getRating());
+            Ticket candidate = takeUp ? up : down;
+            if (Math.abs(candidate.getRating() - ticket.getRating()) > maxWindow) {
+                if (takeUp) {
+                    up = null;
+                } else {
+                    down = null;
+                }
+                continue;
+            }
+            if (!candidate.taken.get() && acceptable(ticket, candidate, now)
+                    && candidate.taken.compareAndSet(false, true)) {
+                queue.remove(candidate.key, candidate);
+                return candidate;
+            }
+            if (takeUp) {
+                up = next(above);
+            } else {
+                down = next(below);
+            }
+        }
+        return null;
+    }
+
+    private static Ticket next(Iterator<Ticket> tickets) {
+        return tickets.hasNext() ? tickets.next() : null;
+    }
+
+    @Scheduled(fixedDelayString = "${game.matchmaking.sweep-ms:1000}")
+    public void sweep() {
+        long now = clock.getAsLong();
+        for (ConcurrentSkipListMap<Long, Ticket> queue : queues.values()) {
+            sweep(queue, now);
+        }
+    }
+
+    // Neighbours in rating order are the closest pairs there are, so one pass pairs greedily
+    private void sweep(ConcurrentNavigableMap<Long, Ticket> queue, long now) {
+        Ticket previous = null;
+        for (Ticket ticket : queue.values()) {
+            if (ticket.taken.get()) {
+                continue;
+            }
+            if (previous != null && acceptable(previous, ticket, now) && previous.taken.compareAndSet(false, true)) {
+                if (ticket.taken.compareAndSet(false, true)) {
+                    queue.remove(previous.key, previous);
+                    queue.remove(ticket.key, ticket);
+                    if (previous.getEnqueuedAtMillis() <= ticket.getEnqueuedAtMillis()) {
+                        pair(previous, ticket);
+                    } else {
+                        pair(ticket, previous);
+                    }
+                    previous = null;
+                    continue;
+                }
+                previous.taken.set(false);
+            }
+            previous = ticket.taken.get() ? null : ticket;
+        }
+    }
+
+    // Both stay in waiting until the listener is done, so a player polling meanwhile still reads as waiting
+    private void pair(Ticket first, Ticket second) {
+        try {
+            listener.onPaired(first, second);
+        } catch (RuntimeException e) {
+            // Nothing was started; both players go back to the queue as they were
+            System.err.println("❌ Could not start match for " + first.getUsername() + " and "
+                    + second.getUsername() + ": " + e.getMessage());
+            requeue(first);
+            requeue(second);
+            return;
+        }
+        pairs.incrementAndGet();
+        waiting.remove(first.getUsername(), first);
+        waiting.remove(second.getUsername(), second);
+    }
+
+    private void requeue(Ticket ticket) {
+        // In the queue before it can be taken, so whoever takes it also removes it
+        queues.get(ticket.getGameType()).put(ticket.key, ticket);
+        ticket.taken.set(false);
+    }
+
+    public int waitingCount() {
+        return waiting.size();
+    }
+
+    public int waitingCount(GameType gameType) {
+        return queues.get(gameType).size();
+    }
+
+    public long pairCount() {
+        return pairs.get();
+    }
+}
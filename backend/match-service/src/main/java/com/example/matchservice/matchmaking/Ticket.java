@@ -0,0 +1,71 @@
+package com.example.matchservice.matchmaking;
+
+import com.example.matchservice.model.GameType;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One player waiting for a game: everything pairing needs, captured when the player joins the
+ * queue so the pairing path never goes back to the database.
+ */
+public class Ticket {
+
+    private final String username;
+    private final Long userId;
+    private final int rating;
+    private final GameType gameType;
+    private final long enqueuedAtMillis;
+    // Instance that holds the player's waiting state and collects the match; null when local
+    private final String home;
+    // Rating in the high half, arrival order in the low half: the ticket's key in its queue
+    final long key;
+    // Set by whoever takes the ticket out of the queue: a pairing or a cancel
+    final AtomicBoolean taken = new AtomicBoolean();
+    private volatile Long matchId;
+
+    Ticket(String username, Long userId, int rating, GameType gameType, String home, long enqueuedAtMillis,
+            long sequence) {
+        this.username = username;
+        this.userId = userId;
+        this.rating = Math.max(0, rating);
+        this.gameType = gameType;
+        this.home = home;
+        this.enqueuedAtMillis = enqueuedAtMillis;
+        this.key = ((long) this.rating << 32) | (sequence & 0xffffffffL);
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public int getRating() {
+        return rating;
+    }
+
+    public GameType getGameType() {
+        return gameType;
+    }
+
+    public long getEnqueuedAtMillis() {
+        return enqueuedAtMillis;
+    }
+
+    public String getHome() {
+        return home;
+    }
+
+    /**
+     * The match this ticket was paired into, or null while it is still waiting.
+     */
+    public Long getMatchId() {
+        return matchId;
+    }
+
+    public void setMatchId(Long matchId) {
+        this.matchId = matchId;
+    }
+}
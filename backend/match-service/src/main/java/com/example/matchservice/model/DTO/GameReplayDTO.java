@@ -0,0 +1,52 @@
+package com.example.matchservice.model.DTO;
+
+import java.util.List;
+
+public class GameReplayDTO {
+    private Long matchId;
+    private long from;
+    private long to;
+    private List<ReplayFrame> frames;
+
+    public GameReplayDTO() {
+    }
+
+    public GameReplayDTO(Long matchId, long from, long to, List<ReplayFrame> frames) {
+        this.matchId = matchId;
+        this.from = from;
+        this.to = to;
+        this.frames = frames;
+    }
+
+    public Long getMatchId() {
+        return matchId;
+    }
+
+    public void setMatchId(Long matchId) {
+        this.matchId = matchId;
+    }
+
+    public long getFrom() {
+        return from;
+    }
+
+    public void setFrom(long from) {
+        this.from = from;
+    }
+
+    public long getTo() {
+        return to;
+    }
+
+    public void setTo(long to) {
+        this.to = to;
+    }
+
+    public List<ReplayFrame> getFrames() {
+        return frames;
+    }
+
+    public void setFrames(List<ReplayFrame> frames) {
+        this.frames = frames;
+    }
+}
@@ -7,6 +7,10 @@ public class GameStatusDTO {
     private boolean isMyTurn;
     private String[][] board;
     private String fen;
+    private String positionHash;
+    private int ply;
+    private Long whiteClock;
+    private Long blackClock;
 
     public GameStatusDTO() {
     }
@@ -68,4 +72,36 @@ public class GameStatusDTO {
     public void setFen(String fen) {
         this.fen = fen;
     }
+
+    public String getPositionHash() {
+        return positionHash;
+    }
+
+    public void setPositionHash(String positionHash) {
+        this.positionHash = positionHash;
+    }
+
+    public int getPly() {
+        return ply;
+    }
+
+    public void setPly(int ply) {
+        this.ply = ply;
+    }
+
+    public Long getWhiteClock() {
+        return whiteClock;
+    }
+
+    public void setWhiteClock(Long whiteClock) {
+        this.whiteClock = whiteClock;
+    }
+
+    public Long getBlackClock() {
+        return blackClock;
+    }
+
+    public void setBlackClock(Long blackClock) {
+        this.blackClock = blackClock;
+    }
 }
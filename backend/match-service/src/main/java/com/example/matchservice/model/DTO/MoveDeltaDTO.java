@@ -0,0 +1,94 @@
+package com.example.matchservice.model.DTO;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * What {@code /topic/moves/{matchId}} carries per ply: the move, the resulting position hash,
+ * the clocks and a sequence number (the ply). Clients apply it to their own board; a gap in
+ * {@code seq} or a hash mismatch means they missed something and should ask for a resync,
+ * which answers with the full {@link GameStatusDTO} snapshot. The per-ply fields go out under
+ * one-letter keys (m, h, w, b) since they are on every frame; clocks are milliseconds left.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MoveDeltaDTO {
+    private Integer seq;
+    @JsonProperty("m")
+    private String uci;
+    @JsonProperty("h")
+    private String hash;
+    @JsonProperty("w")
+    private Long whiteClock;
+    @JsonProperty("b")
+    private Long blackClock;
+    private String status;
+    private String endReason;
+    private String error;
+
+    public MoveDeltaDTO() {
+    }
+
+    public Integer getSeq() {
+        return seq;
+    }
+
+    public void setSeq(Integer seq) {
+        this.seq = seq;
+    }
+
+    public String getUci() {
+        return uci;
+    }
+
+    public void setUci(String uci) {
+        this.uci = uci;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
+
+    public Long getWhiteClock() {
+        return whiteClock;
+    }
+
+    public void setWhiteClock(Long whiteClock) {
+        this.whiteClock = whiteClock;
+    }
+
+    public Long getBlackClock() {
+        return blackClock;
+    }
+
+    public void setBlackClock(Long blackClock) {
+        this.blackClock = blackClock;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getEndReason() {
+        return endReason;
+    }
+
+    public void setEndReason(String endReason) {
+        this.endReason = endReason;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
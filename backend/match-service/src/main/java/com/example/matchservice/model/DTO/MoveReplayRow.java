@@ -0,0 +1,25 @@
+package com.example.matchservice.model.DTO;
+
+public class MoveReplayRow {
+    private final Long matchId;
+    private final int ply;
+    private final Integer packedMove;
+
+    public MoveReplayRow(Long matchId, int ply, Integer packedMove) {
+        this.matchId = matchId;
+        this.ply = ply;
+        this.packedMove = packedMove;
+    }
+
+    public Long getMatchId() {
+        return matchId;
+    }
+
+    public int getPly() {
+        return ply;
+    }
+
+    public Integer getPackedMove() {
+        return packedMove;
+    }
+}
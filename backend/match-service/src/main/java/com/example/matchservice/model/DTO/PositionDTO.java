@@ -0,0 +1,88 @@
+package com.example.matchservice.model.DTO;
+
+public class PositionDTO {
+    private Long matchId;
+    private int ply;
+    private int plyCount;
+    private String fen;
+    private String[][] board;
+    private boolean isWhiteTurn;
+    private String lastMoveUci;
+    private String lastMoveSan;
+    private String positionHash;
+
+    public PositionDTO() {
+    }
+
+    public Long getMatchId() {
+        return matchId;
+    }
+
+    public void setMatchId(Long matchId) {
+        this.matchId = matchId;
+    }
+
+    public int getPly() {
+        return ply;
+    }
+
+    public void setPly(int ply) {
+        this.ply = ply;
+    }
+
+    public int getPlyCount() {
+        return plyCount;
+    }
+
+    public void setPlyCount(int plyCount) {
+        this.plyCount = plyCount;
+    }
+
+    public String getFen() {
+        return fen;
+    }
+
+    public void setFen(String fen) {
+        this.fen = fen;
+    }
+
+    public String[][] getBoard() {
+        return board;
+    }
+
+    public void setBoard(String[][] board) {
+        this.board = board;
+    }
+
+    public boolean getIsWhiteTurn() {
+        return isWhiteTurn;
+    }
+
+    public void setIsWhiteTurn(boolean isWhiteTurn) {
+        this.isWhiteTurn = isWhiteTurn;
+    }
+
+    public String getLastMoveUci() {
+        return lastMoveUci;
+    }
+
+    public void setLastMoveUci(String lastMoveUci) {
+        this.lastMoveUci = lastMoveUci;
+    }
+
+    public String getLastMoveSan() {
+        return lastMoveSan;
+    }
+
+    public void setLastMoveSan(String lastMoveSan) {
+        this.lastMoveSan = lastMoveSan;
+    }
+
+    public String getPositionHash() {
+        return positionHash;
+    }
+
+    public void setPositionHash(String positionHash) {
+        this.positionHash = positionHash;
+    }
+}
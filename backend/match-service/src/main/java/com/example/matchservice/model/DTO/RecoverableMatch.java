@@ -0,0 +1,67 @@
+package com.example.matchservice.model.DTO;
+
+/**
+ * The columns needed to bring an in-progress match back into memory, loaded with a JPQL
+ * constructor expression so recovery never materializes Match entities.
+ */
+public class RecoverableMatch {
+    private final Long id;
+    private final String fenCurrent;
+    private final Integer currentPly;
+    private final String player1Username;
+    private final String player2Username;
+    private final Integer timeLimit;
+    private final Long whiteClockMillis;
+    private final Long blackClockMillis;
+    private final Long lastMoveMillis;
+
+    public RecoverableMatch(Long id, String fenCurrent, Integer currentPly, String player1Username,
+            String player2Username, Integer timeLimit, Long whiteClockMillis, Long blackClockMillis,
+            Long lastMoveMillis) {
+        this.id = id;
+        this.fenCurrent = fenCurrent;
+        this.currentPly = currentPly;
+        this.player1Username = player1Username;
+        this.player2Username = player2Username;
+        this.timeLimit = timeLimit;
+        this.whiteClockMillis = whiteClockMillis;
+        this.blackClockMillis = blackClockMillis;
+        this.lastMoveMillis = lastMoveMillis;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getFenCurrent() {
+        return fenCurrent;
+    }
+
+    public Integer getCurrentPly() {
+        return currentPly;
+    }
+
+    public String getPlayer1Username() {
+        return player1Username;
+    }
+
+    public String getPlayer2Username() {
+        return player2Username;
+    }
+
+    public Integer getTimeLimit() {
+        return timeLimit;
+    }
+
+    public Long getWhiteClockMillis() {
+        return whiteClockMillis;
+    }
+
+    public Long getBlackClockMillis() {
+        return blackClockMillis;
+    }
+
+    public Long getLastMoveMillis() {
+        return lastMoveMillis;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.matchservice.model.DTO;
+
+/**
+ * One frame of a game's event stream as it was broadcast: its sequence number, the topic it
+ * went to and the payload object.
+ */
+public class ReplayFrame {
+    private final long seq;
+    private final String destination;
+    private final Object payload;
+
+    public ReplayFrame(long seq, String destination, Object payload) {
+        this.seq = seq;
+        this.destination = destination;
+        this.payload = payload;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public Object getPayload() {
+        return payload;
+    }
+}
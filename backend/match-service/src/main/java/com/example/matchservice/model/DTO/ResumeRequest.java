@@ -0,0 +1,17 @@
+package com.example.matchservice.model.DTO;
+
+public class ResumeRequest {
+    // Last event-seq the client applied
+    private Long from;
+
+    public ResumeRequest() {
+    }
+
+    public Long getFrom() {
+        return from;
+    }
+
+    public void setFrom(Long from) {
+        this.from = from;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.matchservice.model.DTO;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * What a spectator of {@code /spectate/{matchId}} receives: the whole position as of
+ * {@code ply}, not a delta, so a viewer whose intermediate frames were skipped can still draw
+ * the board from the latest one alone. Clocks are milliseconds left when {@code ply} was played.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SpectatorFrameDTO {
+    private Long matchId;
+    private int ply;
+    private String fen;
+    private String lastMove;
+    private String hash;
+    private Long whiteClock;
+    private Long blackClock;
+    private String status;
+    private String white;
+    private String black;
+
+    public SpectatorFrameDTO() {
+    }
+
+    public Long getMatchId() {
+        return matchId;
+    }
+
+    public void setMatchId(Long matchId) {
+        this.matchId = matchId;
+    }
+
+    public int getPly() {
+        return ply;
+    }
+
+    public void setPly(int ply) {
+        this.ply = ply;
+    }
+
+    public String getFen() {
+        return fen;
+    }
+
+    public void setFen(String fen) {
+        this.fen = fen;
+    }
+
+    public String getLastMove() {
+        return lastMove;
+    }
+
+    public void setLastMove(String lastMove) {
+        this.lastMove = lastMove;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
+
+    public Long getWhiteClock() {
+        return whiteClock;
+    }
+
+    public void setWhiteClock(Long whiteClock) {
+        this.whiteClock = whiteClock;
+    }
+
+    public Long getBlackClock() {
+        return blackClock;
+    }
+
+    public void setBlackClock(Long blackClock) {
+        this.blackClock = blackClock;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getWhite() {
+        return white;
+    }
+
+    public void setWhite(String white) {
+        this.white = white;
+    }
+
+    public String getBlack() {
+        return black;
+    }
+
+    public void setBlack(String black) {
+        this.black = black;
+    }
+}
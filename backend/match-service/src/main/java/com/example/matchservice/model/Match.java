@@ -41,6 +41,16 @@ public class Match {
     @Column(name = "last_move_uci", length = 10)
     private String lastMoveUci;
 
+    // Clocks after the last move and when it was played, kept by the MoveProjector; null when untimed
+    @Column(name = "white_clock_ms")
+    private Long whiteClockMillis;
+
+    @Column(name = "black_clock_ms")
+    private Long blackClockMillis;
+
+    @Column(name = "last_move_ms")
+    private Long lastMoveMillis;
+
     @OneToMany(mappedBy = "match", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @OrderBy("ply ASC")
     private List<Move> moves = new ArrayList<>();
@@ -151,6 +161,30 @@ public class Match {
         this.lastMoveUci = lastMoveUci;
     }
 
+    public Long getWhiteClockMillis() {
+        return whiteClockMillis;
+    }
+
+    public void setWhiteClockMillis(Long whiteClockMillis) {
+        this.whiteClockMillis = whiteClockMillis;
+    }
+
+    public Long getBlackClockMillis() {
+        return blackClockMillis;
+    }
+
+    public void setBlackClockMillis(Long blackClockMillis) {
+        this.blackClockMillis = blackClockMillis;
+    }
+
+    public Long getLastMoveMillis() {
+        return lastMoveMillis;
+    }
+
+    public void setLastMoveMillis(Long lastMoveMillis) {
+        this.lastMoveMillis = lastMoveMillis;
+    }
+
     public List<Move> getMoves() {
         return moves;
     }
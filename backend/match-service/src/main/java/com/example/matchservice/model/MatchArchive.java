@@ -0,0 +1,57 @@
+package com.example.matchservice.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Compacted move list of a finished match, replacing its rows in moves. {@code data} is a
+ * serialized {@code PackedMoveList}.
+ */
+@Entity
+@Table(name = "match_archives")
+public class MatchArchive {
+
+    @Id
+    @Column(name = "match_id")
+    private Long matchId;
+
+    private int plyCount;
+
+    @Lob
+    @Column(nullable = false)
+    private byte[] data;
+
+    private LocalDateTime archivedAt;
+
+    public Long getMatchId() {
+        return matchId;
+    }
+
+    public void setMatchId(Long matchId) {
+        this.matchId = matchId;
+    }
+
+    public int getPlyCount() {
+        return plyCount;
+    }
+
+    public void setPlyCount(int plyCount) {
+        this.plyCount = plyCount;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public void setData(byte[] data) {
+        this.data = data;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+
+    public void setArchivedAt(LocalDateTime archivedAt) {
+        this.archivedAt = archivedAt;
+    }
+}
@@ -7,8 +7,11 @@ import java.time.LocalDateTime;
 @Table(name = "moves", uniqueConstraints = @UniqueConstraint(columnNames = { "match_id", "ply" }))
 public class Move {
 
+    // Shares the id_blocks row with IdBlockAllocator, which assigns ids to batch-inserted moves
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "move_ids")
+    @TableGenerator(name = "move_ids", table = "id_blocks", pkColumnName = "name", valueColumnName = "next_val",
+            pkColumnValue = "moves", allocationSize = 1)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -21,6 +24,10 @@ public class Move {
     @Enumerated(EnumType.STRING)
     private PieceColor color;
 
+    // PackedMove encoding; uci and san are the rendered forms kept for readers of the table
+    @Column(name = "packed_move")
+    private Integer packedMove;
+
     private String uci;
     private String san;
 
@@ -69,6 +76,14 @@ public class Move {
         this.color = color;
     }
 
+    public Integer getPackedMove() {
+        return packedMove;
+    }
+
+    public void setPackedMove(Integer packedMove) {
+        this.packedMove = packedMove;
+    }
+
     public String getUci() {
         return uci;
     }
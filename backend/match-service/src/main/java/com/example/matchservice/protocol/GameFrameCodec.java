@@ -0,0 +1,401 @@
+package com.example.matchservice.protocol;
+
+import com.example.matchservice.chess.Fen;
+import com.example.matchservice.chess.GameEnd;
+import com.example.matchservice.chess.Square;
+import com.example.matchservice.chess.Zobrist;
+import com.example.matchservice.model.DTO.GameStatusDTO;
+import com.example.matchservice.model.DTO.JoinRequest;
+import com.example.matchservice.model.DTO.MoveDeltaDTO;
+import com.example.matchservice.model.DTO.MoveRequest;
+import com.example.matchservice.model.MatchStatus;
+import org.springframework.util.MimeType;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Fixed-layout binary form of the game protocol. Every frame starts with a type byte; integers
+ * are big-endian, squares are 0..63 with a1 = 0, strings are a length (u8, or u16 for chat and
+ * errors) followed by UTF-8, and absent clocks are -1.
+ * <pre>
+ * MOVE     1  from u8, to u8, piece ascii, promotion ascii (0 = none), color u8 (0 white, 1 black)
+ * JOIN     2  color u8 (0 white, 1 black, 2 none)
+ * DELTA    3  seq u16, from u8, to u8, promotion ascii, hash i64, white clock i32, black clock i32,
+ *             status u8 (0 = in progress), end reason u8 (GameEnd ordinal)
+ * SNAPSHOT 4  match i64, ply u16, status u8, color u8, my turn u8, hash i64, white clock i32,
+ *             black clock i32, fen str8 (the board is rebuilt from the FEN)
+ * EVENT    5  event u8, match i64, timestamp i64, player str8, status u8
+ * CHAT     6  match i64, timestamp i64, from str8, message str16
+ * ERROR    7  message str16
+ * </pre>
+ * Status bytes are {@link MatchStatus} ordinals plus one, 0 for none. {@link #encode} returns
+ * null for anything without a layout, such as error strings too long for the frame, so callers
+ * can fall back to JSON.
+ */
+public final class GameFrameCodec {
+
+    public static final MimeType MIME_TYPE = new MimeType("application", "octet-stream", Map.of("codec", "game-frame"));
+
+    static final byte MOVE = 1, JOIN = 2, DELTA = 3, SNAPSHOT = 4, EVENT = 5, CHAT = 6, ERROR = 7;
+
+    // Map events GameController and GameService build by hand, by their "type"
+    private static final String[] EVENTS = { "RESIGNATION", "DRAW_OFFER", "DRAW_OFFER_SENT", "DRAW_ACCEPTED",
+            "DRAW_DECLINED" };
+    private static final String[] COLORS = { "white", "black" };
+    private static final MatchStatus[] STATUSES = MatchStatus.values();
+    private static final GameEnd[] GAME_ENDS = GameEnd.values();
+
+    private GameFrameCodec() {
+    }
+
+    public static boolean supports(Class<?> type) {
+        return type == MoveRequest.class || type == JoinRequest.class || type == MoveDeltaDTO.class
+                || type == GameStatusDTO.class || Map.class.isAssignableFrom(type);
+    }
+
+    /**
+     * Payload type of what the server sends to a destination, for transcoding broker messages.
+     */
+    public static Class<?> payloadType(String destination) {
+        if (destination == null) {
+            return null;
+        }
+        if (destination.startsWith("/topic/moves/") || destination.endsWith("/queue/move-errors")) {
+            return MoveDeltaDTO.class;
+        }
+        if (destination.startsWith("/topic/game/") || destination.endsWith("/queue/game-sync")) {
+            return GameStatusDTO.class;
+        }
+        if (destination.startsWith("/topic/game-state/") || destination.startsWith("/topic/chat/")
+                || destination.endsWith("/queue/draw-offers") || destination.endsWith("/queue/errors")) {
+            return Map.class;
+        }
+        return null;
+    }
+
+    public static byte[] encode(Object payload) {
+        try {
+            if (payload instanceof MoveDeltaDTO delta) {
+                return delta.getError() != null ? error(delta.getError()) : encodeDelta(delta);
+            }
+            if (payload instanceof GameStatusDTO snapshot) {
+                return status(snapshot.getStatus()) < 0 ? error(snapshot.getStatus()) : encodeSnapshot(snapshot);
+            }
+            if (payload instanceof Map<?, ?> map) {
+                return encodeMap(map);
+            }
+            if (payload instanceof MoveRequest move) {
+                return encodeMove(move);
+            }
+            if (payload instanceof JoinRequest join) {
+                return new byte[] { JOIN, color(join.getPlayerColor()) };
+            }
+        } catch (IllegalArgumentException | NullPointerException | ClassCastException e) {
+            // Missing fields or values outside the layout
+        }
+        return null;
+    }
+
+    public static Object decode(byte[] frame, Class<?> targetType) {
+        ByteBuffer in = ByteBuffer.wrap(frame);
+        try {
+            byte type = in.get();
+            Object payload = switch (type) {
+                case MOVE -> decodeMove(in);
+                case JOIN -> decodeJoin(in);
+                case DELTA -> decodeDelta(in);
+                case SNAPSHOT -> decodeSnapshot(in);
+                case EVENT -> decodeEvent(in);
+                case CHAT -> decodeChat(in);
+                case ERROR -> decodeError(readString16(in), targetType);
+                default -> throw new IllegalArgumentException("Unknown game frame type " + type);
+            };
+            if (!targetType.isInstance(payload)) {
+                throw new IllegalArgumentException("Game frame type " + type + " cannot be read as "
+                        + targetType.getSimpleName());
+            }
+            return payload;
+        } catch (BufferUnderflowException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Malformed game frame of " + frame.length + " bytes");
+        }
+    }
+
+    private static byte[] encodeMove(MoveRequest move) {
+        String promotion = move.getPromotedTo();
+        return new byte[] { MOVE, (byte) Square.fromRowCol(move.getFromRow(), move.getFromCol()),
+                (byte) Square.fromRowCol(move.getToRow(), move.getToCol()), (byte) move.getPiece().charAt(0),
+                (byte) (promotion == null || promotion.isEmpty() ? 0 : promotion.charAt(0)),
+                color(move.getPlayerColor()) };
+    }
+
+    private static MoveRequest decodeMove(ByteBuffer in) {
+        int from = square(in.get()), to = square(in.get());
+        MoveRequest move = new MoveRequest();
+        move.setFromRow(Square.row(from));
+        move.setFromCol(Square.col(from));
+        move.setToRow(Square.row(to));
+        move.setToCol(Square.col(to));
+        move.setPiece(String.valueOf((char) in.get()));
+        byte promotion = in.get();
+        move.setPromotedTo(promotion == 0 ? null : String.valueOf((char) promotion));
+        move.setPlayerColor(color(in.get()));
+        return move;
+    }
+
+    private static JoinRequest decodeJoin(ByteBuffer in) {
+        JoinRequest join = new JoinRequest();
+        join.setType("JOIN");
+        join.setPlayerColor(color(in.get()));
+        return join;
+    }
+
+    private static byte[] encodeDelta(MoveDeltaDTO delta) {
+        String uci = delta.getUci();
+        ByteBuffer out = ByteBuffer.allocate(24);
+        out.put(DELTA);
+        out.putShort((short) u16(delta.getSeq()));
+        out.put((byte) square(uci.charAt(0), uci.charAt(1)));
+        out.put((byte) square(uci.charAt(2), uci.charAt(3)));
+        out.put((byte) (uci.length() > 4 ? uci.charAt(4) : 0));
+        out.putLong(Long.parseUnsignedLong(delta.getHash(), 16));
+        out.putInt(clock(delta.getWhiteClock()));
+        out.putInt(clock(delta.getBlackClock()));
+        out.put((byte) Math.max(0, status(delta.getStatus())));
+        out.put((byte) (delta.getEndReason() == null ? 0 : GameEnd.valueOf(delta.getEndReason()).ordinal()));
+        return out.array();
+    }
+
+    private static MoveDeltaDTO decodeDelta(ByteBuffer in) {
+        MoveDeltaDTO delta = new MoveDeltaDTO();
+        delta.setSeq(Short.toUnsignedInt(in.getShort()));
+        int from = square(in.get()), to = square(in.get());
+        byte promotion = in.get();
+        StringBuilder uci = new StringBuilder(5);
+        appendSquare(uci, from);
+        appendSquare(uci, to);
+        if (promotion != 0) {
+            uci.append((char) promotion);
+        }
+        delta.setUci(uci.toString());
+        delta.setHash(Zobrist.toHex(in.getLong()));
+        delta.setWhiteClock(clock(in.getInt()));
+        delta.setBlackClock(clock(in.getInt()));
+        delta.setStatus(status(in.get()));
+        int endReason = in.get();
+        delta.setEndReason(endReason == 0 ? null : GAME_ENDS[endReason].name());
+        return delta;
+    }
+
+    private static byte[] encodeSnapshot(GameStatusDTO snapshot) {
+        byte[] fen = utf8(snapshot.getFen(), 0xFF);
+        ByteBuffer out = ByteBuffer.allocate(30 + 1 + fen.length);
+        out.put(SNAPSHOT);
+        out.putLong(snapshot.getMatchId());
+        out.putShort((short) u16(snapshot.getPly()));
+        out.put((byte) status(snapshot.getStatus()));
+        out.put(color(snapshot.getPlayerColor()));
+        out.put((byte) (snapshot.isMyTurn() ? 1 : 0));
+        out.putLong(Long.parseUnsignedLong(snapshot.getPositionHash(), 16));
+        out.putInt(clock(snapshot.getWhiteClock()));
+        out.putInt(clock(snapshot.getBlackClock()));
+        out.put((byte) fen.length).put(fen);
+        return out.array();
+    }
+
+    private static GameStatusDTO decodeSnapshot(ByteBuffer in) {
+        GameStatusDTO snapshot = new GameStatusDTO();
+        snapshot.setMatchId(in.getLong());
+        snapshot.setPly(Short.toUnsignedInt(in.getShort()));
+        snapshot.setStatus(status(in.get()));
+        snapshot.setPlayerColor(color(in.get()));
+        snapshot.setMyTurn(in.get() != 0);
+        snapshot.setPositionHash(Zobrist.toHex(in.getLong()));
+        snapshot.setWhiteClock(clock(in.getInt()));
+        snapshot.setBlackClock(clock(in.getInt()));
+        snapshot.setFen(readString8(in));
+        snapshot.setBoard(Fen.parse(snapshot.getFen()).toBoardArray());
+        return snapshot;
+    }
+
+    private static byte[] encodeMap(Map<?, ?> map) {
+        if (map.get("error") instanceof String error) {
+            return error(error);
+        }
+        Object type = map.get("type");
+        if ("CHAT_MESSAGE".equals(type)) {
+            byte[] from = utf8((String) map.get("from"), 0xFF);
+            byte[] message = utf8((String) map.get("message"), 0xFFFF);
+            ByteBuffer out = ByteBuffer.allocate(1 + 16 + 1 + from.length + 2 + message.length);
+            out.put(CHAT).putLong(number(map.get("matchId"))).putLong(number(map.get("timestamp")));
+            out.put((byte) from.length).put(from);
+            out.putShort((short) message.length).put(message);
+            return out.array();
+        }
+        if (map.get("message") instanceof String message && type == null) {
+            // What a client sends to /chat: only the text
+            byte[] text = utf8(message, 0xFFFF);
+            ByteBuffer out = ByteBuffer.allocate(1 + 16 + 1 + 2 + text.length);
+            out.put(CHAT).putLong(0).putLong(0).put((byte) 0).putShort((short) text.length).put(text);
+            return out.array();
+        }
+        int event = indexOf(EVENTS, type);
+        if (event < 0) {
+            return null;
+        }
+        Object player = map.containsKey("player") ? map.get("player") : map.get("from");
+        byte[] name = player == null ? new byte[0] : utf8((String) player, 0xFF);
+        ByteBuffer out = ByteBuffer.allocate(1 + 1 + 16 + 1 + name.length + 1);
+        out.put(EVENT).put((byte) event).putLong(number(map.get("matchId"))).putLong(number(map.get("timestamp")));
+        out.put((byte) name.length).put(name);
+        out.put((byte) Math.max(0, status((String) map.get("status"))));
+        return out.array();
+    }
+
+    private static Map<String, Object> decodeEvent(ByteBuffer in) {
+        String type = EVENTS[in.get()];
+        Map<String, Object> event = new HashMap<>();
+        event.put("type", type);
+        event.put("matchId", in.getLong());
+        event.put("timestamp", in.getLong());
+        String player = readString8(in);
+        if (!type.equals("DRAW_OFFER_SENT")) {
+            event.put(type.equals("DRAW_OFFER") ? "from" : "player", player);
+        }
+        String status = status(in.get());
+        if (status != null) {
+            event.put("status", status);
+        }
+        return event;
+    }
+
+    private static Map<String, Object> decodeChat(ByteBuffer in) {
+        long matchId = in.getLong(), timestamp = in.getLong();
+        String from = readString8(in);
+        Map<String, Object> chat = new HashMap<>();
+        if (!from.isEmpty()) {
+            chat.put("type", "CHAT_MESSAGE");
+            chat.put("from", from);
+            chat.put("matchId", matchId);
+            chat.put("timestamp", timestamp);
+        }
+        chat.put("message", readString16(in));
+        return chat;
+    }
+
+    private static byte[] error(String message) {
+        byte[] text = utf8(message, 0xFFFF);
+        return ByteBuffer.allocate(3 + text.length).put(ERROR).putShort((short) text.length).put(text).array();
+    }
+
+    private static Object decodeError(String message, Class<?> targetType) {
+        if (targetType == GameStatusDTO.class) {
+            GameStatusDTO snapshot = new GameStatusDTO();
+            snapshot.setStatus(message);
+            return snapshot;
+        }
+        if (targetType == MoveDeltaDTO.class) {
+            MoveDeltaDTO delta = new MoveDeltaDTO();
+            delta.setError(message);
+            return delta;
+        }
+        Map<String, Object> error = new HashMap<>();
+        error.put("error", message);
+        return error;
+    }
+
+    // -1 for a status string that is not a match status (error texts); 0 for none
+    private static int status(String status) {
+        if (status == null) {
+            return 0;
+        }
+        for (MatchStatus candidate : STATUSES) {
+            if (candidate.name().equals(status)) {
+                return candidate.ordinal() + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static String status(byte code) {
+        return code == 0 ? null : STATUSES[code - 1].name();
+    }
+
+    private static byte color(String color) {
+        int index = indexOf(COLORS, color);
+        return (byte) (index < 0 ? 2 : index);
+    }
+
+    private static String color(byte code) {
+        return code < COLORS.length ? COLORS[code] : null;
+    }
+
+    private static int clock(Long millis) {
+        return millis == null ? -1 : (int) Math.min(Integer.MAX_VALUE, millis);
+    }
+
+    private static Long clock(int millis) {
+        return millis < 0 ? null : (long) millis;
+    }
+
+    private static int u16(int value) {
+        if (value < 0 || value > 0xFFFF) {
+            throw new IllegalArgumentException("Value " + value + " does not fit in 16 bits");
+        }
+        return value;
+    }
+
+    private static long number(Object value) {
+        return value == null ? 0 : ((Number) value).longValue();
+    }
+
+    private static int square(byte value) {
+        if (value < 0 || value > 63) {
+            throw new IllegalArgumentException("Square " + value + " is off the board");
+        }
+        return value;
+    }
+
+    private static int square(char file, char rank) {
+        if (file < 'a' || file > 'h' || rank < '1' || rank > '8') {
+            throw new IllegalArgumentException("Bad square " + file + rank);
+        }
+        return Square.of(file - 'a', rank - '1');
+    }
+
+    private static void appendSquare(StringBuilder out, int square) {
+        out.append((char) ('a' + Square.file(square))).append((char) ('1' + Square.rank(square)));
+    }
+
+    private static byte[] utf8(String value, int maxBytes) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > maxBytes) {
+            throw new IllegalArgumentException("String of " + bytes.length + " bytes is too long for the frame");
+        }
+        return bytes;
+    }
+
+    private static String readString8(ByteBuffer in) {
+        byte[] bytes = new byte[Byte.toUnsignedInt(in.get())];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String readString16(ByteBuffer in) {
+        byte[] bytes = new byte[Short.toUnsignedInt(in.getShort())];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int indexOf(String[] values, Object value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equals(value)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
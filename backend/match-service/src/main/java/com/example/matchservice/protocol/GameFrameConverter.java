@@ -0,0 +1,53 @@
+package com.example.matchservice.protocol;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.util.MimeType;
+
+/**
+ * Reads and writes {@link GameFrameCodec} frames for STOMP messages whose content-type is
+ * {@link GameFrameCodec#MIME_TYPE}. Matching is strict on the content-type and its codec
+ * parameter, so frames without it, plain octet-stream included, go on to the JSON converter.
+ */
+public final class GameFrameConverter extends AbstractMessageConverter {
+
+    public GameFrameConverter() {
+        super(GameFrameCodec.MIME_TYPE);
+        setStrictContentTypeMatch(true);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return GameFrameCodec.supports(clazz);
+    }
+
+    @Override
+    protected boolean supportsMimeType(MessageHeaders headers) {
+        MimeType mimeType = getMimeType(headers);
+        return mimeType != null && isGameFrame(mimeType);
+    }
+
+    @Override
+    protected Object convertFromInternal(Message<?> message, Class<?> targetClass, Object conversionHint) {
+        if (!(message.getPayload() instanceof byte[] frame)) {
+            return null;
+        }
+        try {
+            return GameFrameCodec.decode(frame, targetClass);
+        } catch (IllegalArgumentException e) {
+            throw new MessageConversionException(message, e.getMessage(), e);
+        }
+    }
+
+    @Override
+    protected Object convertToInternal(Object payload, MessageHeaders headers, Object conversionHint) {
+        return GameFrameCodec.encode(payload);
+    }
+
+    public static boolean isGameFrame(MimeType mimeType) {
+        return GameFrameCodec.MIME_TYPE.equalsTypeAndSubtype(mimeType)
+                && "game-frame".equals(mimeType.getParameter("codec"));
+    }
+}
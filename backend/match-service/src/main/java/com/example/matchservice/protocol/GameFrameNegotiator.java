@@ -0,0 +1,120 @@
+package com.example.matchservice.protocol;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-subscription choice between JSON and binary frames. A client that SUBSCRIBEs with
+ * {@code content-type: application/octet-stream;codec=game-frame} gets that subscription's
+ * MESSAGE frames in {@link GameFrameCodec} form; everyone else keeps JSON. Handlers and the
+ * broker only ever produce JSON, so a binary subscriber's copy is transcoded on the way out.
+ * The simple broker hands every subscriber of a broadcast the same payload array on the same
+ * thread, so the transcoded frame is cached against it and a broadcast is encoded once however
+ * many binary subscribers it has. Binary frames need the raw WebSocket endpoint; SockJS sends
+ * text only.
+ */
+@Component
+public class GameFrameNegotiator implements ChannelInterceptor {
+
+    private static final MimeType JSON = MimeTypeUtils.APPLICATION_JSON;
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, Set<String>> binarySubscriptions = new ConcurrentHashMap<>();
+    // [JSON payload, its binary frame] of the broadcast this thread is fanning out
+    private final ThreadLocal<Object[]> lastTranscoded = ThreadLocal.withInitial(() -> new Object[2]);
+
+    public GameFrameNegotiator(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Inbound side: records which subscriptions asked for binary frames.
+     */
+    public ChannelInterceptor inbound() {
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+                if (accessor == null || accessor.getCommand() == null || accessor.getSessionId() == null) {
+                    return message;
+                }
+                StompCommand command = accessor.getCommand();
+                if (command == StompCommand.SUBSCRIBE && accessor.getSubscriptionId() != null) {
+                    String contentType = accessor.getFirstNativeHeader(StompHeaderAccessor.STOMP_CONTENT_TYPE_HEADER);
+                    if (contentType != null && GameFrameConverter.isGameFrame(MimeTypeUtils.parseMimeType(contentType))) {
+                        binarySubscriptions.computeIfAbsent(accessor.getSessionId(), id -> ConcurrentHashMap.newKeySet())
+                                .add(accessor.getSubscriptionId());
+                    }
+                } else if (command == StompCommand.UNSUBSCRIBE && accessor.getSubscriptionId() != null) {
+                    Set<String> subscriptions = binarySubscriptions.get(accessor.getSessionId());
+                    if (subscriptions != null) {
+                        subscriptions.remove(accessor.getSubscriptionId());
+                    }
+                } else if (command == StompCommand.DISCONNECT) {
+                    binarySubscriptions.remove(accessor.getSessionId());
+                }
+                return message;
+            }
+        };
+    }
+
+    /**
+     * Outbound side: transcodes MESSAGE frames for binary subscriptions.
+     */
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (binarySubscriptions.isEmpty() || !(message.getPayload() instanceof byte[] json)) {
+            return message;
+        }
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        if (accessor.getMessageType() != SimpMessageType.MESSAGE || accessor.getSessionId() == null) {
+            return message;
+        }
+        Set<String> subscriptions = binarySubscriptions.get(accessor.getSessionId());
+        if (subscriptions == null || !subscriptions.contains(accessor.getSubscriptionId())
+                || accessor.getContentType() == null || !JSON.isCompatibleWith(accessor.getContentType())) {
+            return message;
+        }
+        byte[] frame = transcode(json, accessor.getDestination());
+        if (frame == null) {
+            return message;
+        }
+        accessor.setContentType(GameFrameCodec.MIME_TYPE);
+        return MessageBuilder.createMessage(frame, accessor.getMessageHeaders());
+    }
+
+    private byte[] transcode(byte[] json, String destination) {
+        Object[] last = lastTranscoded.get();
+        if (last[0] == json) {
+            return (byte[]) last[1];
+        }
+        byte[] frame = null;
+        Class<?> type = GameFrameCodec.payloadType(destination);
+        if (type != null) {
+            try {
+                frame = GameFrameCodec.encode(objectMapper.readValue(json, type));
+            } catch (IOException e) {
+                System.err.println("⚠️ Could not transcode frame for " + destination + ": " + e.getMessage());
+            }
+        }
+        last[0] = json;
+        last[1] = frame;
+        return frame;
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.matchservice.protocol;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gives every WebSocket session a {@link SessionOutbox} with a budget of
+ * {@code game.outbound.max-bytes} and {@code game.outbound.max-messages} queued frames, written
+ * by a virtual thread of its own so a slow link never holds one of the outbound channel's
+ * threads. A session over budget for longer than {@code game.outbound.grace-ms}, or over twice
+ * the budget at any time, is closed with {@link CloseStatus#SESSION_NOT_RELIABLE}; its client
+ * reconnects and resumes from the last seq it saw. Queue depth, superseded frames and closes
+ * are published under {@code match.outbound.*}.
+ */
+@Component
+public class OutboundBackpressure {
+
+    static final String OVER_BUDGET = "over-budget";
+    static final String WRITE_FAILED = "write-failed";
+
+    private final long maxBytes;
+    private final int maxMessages;
+    private final long graceMillis;
+    private final Map<String, SessionOutbox> outboxes = new ConcurrentHashMap<>();
+    private final AtomicLong queuedBytes = new AtomicLong();
+    private final AtomicLong queuedMessages = new AtomicLong();
+    private final Counter sent;
+    private final Counter superseded;
+    private final Counter overBudgetCloses;
+    private final Counter writeFailureCloses;
+    private final Executor writers = Executors.newVirtualThreadPerTaskExecutor();
+
+    public OutboundBackpressure(MeterRegistry meterRegistry,
+            @Value("${game.outbound.max-bytes:262144}") long maxBytes,
+            @Value("${game.outbound.max-messages:128}") int maxMessages,
+            @Value("${game.outbound.grace-ms:5000}") long graceMillis) {
+        this.maxBytes = maxBytes;
+        this.maxMessages = maxMessages;
+        this.graceMillis = graceMillis;
+
+        Gauge.builder("match.outbound.sessions", outboxes, Map::size)
+                .description("WebSocket sessions with an outbound queue")
+                .register(meterRegistry);
+        Gauge.builder("match.outbound.queued.bytes", queuedBytes, AtomicLong::get)
+                .description("Frame bytes queued or being written across all sessions")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("match.outbound.queued.messages", queuedMessages, AtomicLong::get)
+                .description("Frames queued or being written across all sessions")
+                .register(meterRegistry);
+        this.sent = Counter.builder("match.outbound.sent")
+                .description("Frames written to WebSocket sessions")
+                .register(meterRegistry);
+        this.superseded = Counter.builder("match.outbound.superseded")
+                .description("State frames dropped from a queue because a newer one replaced them")
+                .register(meterRegistry);
+        this.overBudgetCloses = closeCounter(meterRegistry, OVER_BUDGET);
+        this.writeFailureCloses = closeCounter(meterRegistry, WRITE_FAILED);
+    }
+
+    private static Counter closeCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("match.outbound.closes")
+                .description("Sessions closed by the outbound queue")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Handler decorator for the WebSocket transport: the STOMP handler, and the concurrent
+     * decorator it adds, only ever see the session through its outbox.
+     */
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                super.afterConnectionEstablished(open(session));
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                SessionOutbox outbox = outboxes.remove(session.getId());
+                if (outbox != null) {
+                    outbox.discard();
+                }
+                super.afterConnectionClosed(outbox != null ? outbox : session, closeStatus);
+            }
+        };
+    }
+
+    public SessionOutbox open(WebSocketSession session) {
+        SessionOutbox outbox = new SessionOutbox(session, this);
+        outboxes.put(session.getId(), outbox);
+        return outbox;
+    }
+
+    long getMaxBytes() {
+        return maxBytes;
+    }
+
+    int getMaxMessages() {
+        return maxMessages;
+    }
+
+    long getGraceMillis() {
+        return graceMillis;
+    }
+
+    Executor getWriters() {
+        return writers;
+    }
+
+    void queued(long bytes, int messages) {
+        queuedBytes.addAndGet(bytes);
+        queuedMessages.addAndGet(messages);
+    }
+
+    void sent() {
+        sent.increment();
+    }
+
+    void superseded() {
+        superseded.increment();
+    }
+
+    void closed(SessionOutbox outbox, String reason) {
+        outboxes.remove(outbox.getId(), outbox);
+        (OVER_BUDGET.equals(reason) ? overBudgetCloses : writeFailureCloses).increment();
+    }
+
+    public long queuedBytes() {
+        return queuedBytes.get();
+    }
+
+    public long queuedMessages() {
+        return queuedMessages.get();
+    }
+
+    public int sessionCount() {
+        return outboxes.size();
+    }
+}
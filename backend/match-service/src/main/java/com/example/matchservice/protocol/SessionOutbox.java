@@ -0,0 +1,229 @@
+package com.example.matchservice.protocol;
+
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Outbound queue of one WebSocket session. {@link #sendMessage} only enqueues and returns; a
+ * virtual thread writes the queue out in order, so however slow the link is, the caller never
+ * blocks on it. Frames to a destination that carries the whole game state (spectator frames,
+ * join snapshots, resync snapshots) supersede the queued frame for the same destination, which
+ * is dropped rather than written late. Everything else is kept, and counts against the budget
+ * until written.
+ */
+public class SessionOutbox extends WebSocketSessionDecorator {
+
+    // A newer frame on one of these makes an older, still queued one on the same destination obsolete
+    private static final String[] STATE_DESTINATIONS = { "/spectate/", "/topic/game/", "/user/queue/game-sync" };
+    private static final String MESSAGE_FRAME = "MESSAGE\n";
+    private static final String DESTINATION_HEADER = "\ndestination:";
+    // STOMP headers of our frames fit well within this; it bounds the scan of binary frames
+    private static final int MAX_HEADER_SCAN = 512;
+
+    private final OutboundBackpressure owner;
+    private final ArrayDeque<Entry> queue = new ArrayDeque<>();
+    private final Map<String, Entry> queuedState = new HashMap<>();
+    private long bytes;
+    private int messages;
+    private long overBudgetSince;
+    private boolean writing;
+    private volatile boolean closed;
+
+    private static final class Entry {
+        WebSocketMessage<?> message;
+        final String stateKey;
+        final int size;
+
+        Entry(WebSocketMessage<?> message, String stateKey, int size) {
+            this.message = message;
+            this.stateKey = stateKey;
+            this.size = size;
+        }
+    }
+
+    SessionOutbox(WebSocketSession delegate, OutboundBackpressure owner) {
+        super(delegate);
+        this.owner = owner;
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+        if (closed) {
+            return;
+        }
+        Entry entry = new Entry(message, stateKey(message), message.getPayloadLength());
+        String overBudget = null;
+        boolean startWriter;
+        synchronized (this) {
+            if (entry.stateKey != null) {
+                Entry previous = queuedState.put(entry.stateKey, entry);
+                if (previous != null) {
+                    // Left in the queue as a tombstone; the writer skips it
+                    previous.message = null;
+                    release(previous);
+                    owner.superseded();
+                }
+            }
+            queue.addLast(entry);
+            bytes += entry.size;
+            messages++;
+            owner.queued(entry.size, 1);
+
+            if (bytes > owner.getMaxBytes() || messages > owner.getMaxMessages()) {
+                long now = System.currentTimeMillis();
+                if (overBudgetSince == 0) {
+                    overBudgetSince = now;
+                }
+                if (bytes > 2 * owner.getMaxBytes() || messages > 2 * owner.getMaxMessages()
+                        || now - overBudgetSince > owner.getGraceMillis()) {
+                    overBudget = bytes + " bytes in " + messages + " frames queued, over budget for "
+                            + (now - overBudgetSince) + " ms";
+                }
+            }
+            startWriter = overBudget == null && !writing;
+            writing |= startWriter;
+        }
+        if (overBudget != null) {
+            System.err.println("⚠️ Closing slow WebSocket session " + getId() + ": " + overBudget);
+            shutdown(OutboundBackpressure.OVER_BUDGET);
+        } else if (startWriter) {
+            owner.getWriters().execute(this::writeQueued);
+        }
+    }
+
+    private void writeQueued() {
+        while (true) {
+            Entry entry;
+            synchronized (this) {
+                entry = queue.pollFirst();
+                while (entry != null && entry.message == null) {
+                    entry = queue.pollFirst();
+                }
+                if (entry == null || closed) {
+                    writing = false;
+                    return;
+                }
+                if (entry.stateKey != null) {
+                    queuedState.remove(entry.stateKey, entry);
+                }
+            }
+            try {
+                getDelegate().sendMessage(entry.message);
+                owner.sent();
+            } catch (IOException | RuntimeException e) {
+                System.err.println("⚠️ Write to WebSocket session " + getId() + " failed: " + e.getMessage());
+                synchronized (this) {
+                    release(entry);
+                    writing = false;
+                }
+                shutdown(OutboundBackpressure.WRITE_FAILED);
+                return;
+            }
+            synchronized (this) {
+                release(entry);
+                if (bytes <= owner.getMaxBytes() && messages <= owner.getMaxMessages()) {
+                    overBudgetSince = 0;
+                }
+            }
+        }
+    }
+
+    private void release(Entry entry) {
+        bytes -= entry.size;
+        messages--;
+        owner.queued(-entry.size, -1);
+    }
+
+    // Drops what is queued; closing may block behind a stuck write, so it runs on a writer thread
+    private void shutdown(String reason) {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        discard();
+        owner.closed(this, reason);
+        owner.getWriters().execute(() -> {
+            try {
+                getDelegate().close(CloseStatus.SESSION_NOT_RELIABLE);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("⚠️ Could not close WebSocket session " + getId() + ": " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Stops accepting frames and releases the queued ones, e.g. once the connection is gone.
+     */
+    void discard() {
+        closed = true;
+        synchronized (this) {
+            for (Entry entry : queue) {
+                if (entry.message != null) {
+                    entry.message = null;
+                    release(entry);
+                }
+            }
+            queue.clear();
+            queuedState.clear();
+        }
+    }
+
+    @Override
+    public void close(CloseStatus status) throws IOException {
+        discard();
+        super.close(status);
+    }
+
+    public synchronized long queuedBytes() {
+        return bytes;
+    }
+
+    public synchronized int queuedMessages() {
+        return messages;
+    }
+
+    // The destination of a STOMP MESSAGE frame to a state destination, else null
+    private static String stateKey(WebSocketMessage<?> message) {
+        String head;
+        if (message instanceof TextMessage text) {
+            head = text.getPayload();
+        } else if (message instanceof BinaryMessage binary) {
+            ByteBuffer payload = binary.getPayload().duplicate();
+            byte[] bytes = new byte[Math.min(payload.remaining(), MAX_HEADER_SCAN)];
+            payload.get(bytes);
+            head = new String(bytes, StandardCharsets.ISO_8859_1);
+        } else {
+            return null;
+        }
+        if (!head.startsWith(MESSAGE_FRAME)) {
+            return null;
+        }
+        int headersEnd = head.indexOf("\n\n");
+        int at = head.indexOf(DESTINATION_HEADER);
+        if (at < 0 || (headersEnd >= 0 && at > headersEnd)) {
+            return null;
+        }
+        int start = at + DESTINATION_HEADER.length();
+        int end = head.indexOf('\n', start);
+        String destination = end < 0 ? head.substring(start) : head.substring(start, end);
+        for (String prefix : STATE_DESTINATIONS) {
+            if (destination.startsWith(prefix)) {
+                return destination;
+            }
+        }
+        return null;
+    }
+}
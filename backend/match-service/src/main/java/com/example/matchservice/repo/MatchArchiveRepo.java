@@ -0,0 +1,9 @@
+package com.example.matchservice.repo;
+
+import com.example.matchservice.model.MatchArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MatchArchiveRepo extends JpaRepository<MatchArchive, Long> {
+}
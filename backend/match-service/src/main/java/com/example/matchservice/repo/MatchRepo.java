@@ -1,9 +1,43 @@
 package com.example.matchservice.repo;
 
+import com.example.matchservice.model.DTO.RecoverableMatch;
 import com.example.matchservice.model.Match;
+import com.example.matchservice.model.MatchStatus;
+import com.example.matchservice.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 @Repository
 public interface MatchRepo extends JpaRepository<Match, Long> {
+
+    // Keyset page of matches in the given status, ordered by id
+    @Query("select new com.example.matchservice.model.DTO.RecoverableMatch("
+            + "m.id, m.fenCurrent, m.currentPly, p1.username, p2.username, m.timeLimit, "
+            + "m.whiteClockMillis, m.blackClockMillis, m.lastMoveMillis) "
+            + "from Match m join m.player1 p1 join m.player2 p2 "
+            + "where m.status = :status and m.id > :afterId order by m.id")
+    List<RecoverableMatch> findRecoverable(@Param("status") MatchStatus status, @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    // Only the result columns: currentPly and fenCurrent belong to the MoveProjector
+    @Modifying
+    @Query("update Match m set m.status = :status, m.winner = :winner, m.finishedAt = :finishedAt where m.id = :id")
+    int updateResult(@Param("id") Long id, @Param("status") MatchStatus status, @Param("winner") User winner,
+            @Param("finishedAt") LocalDateTime finishedAt);
+
+    // For a finished game whose result write was lost; a recorded result is never overwritten
+    @Transactional
+    @Modifying
+    @Query("update Match m set m.status = :status, m.finishedAt = :finishedAt "
+            + "where m.id = :id and m.status = com.example.matchservice.model.MatchStatus.IN_PROGRESS")
+    int closeIfInProgress(@Param("id") Long id, @Param("status") MatchStatus status,
+            @Param("finishedAt") LocalDateTime finishedAt);
 }
@@ -1,9 +1,22 @@
 package com.example.matchservice.repo;
 
+import com.example.matchservice.model.DTO.MoveReplayRow;
 import com.example.matchservice.model.Move;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface MoveRepo extends JpaRepository<Move, Long> {
+
+    @Query("select new com.example.matchservice.model.DTO.MoveReplayRow(mv.match.id, mv.ply, mv.packedMove) "
+            + "from Move mv where mv.match.id in :matchIds order by mv.match.id, mv.ply")
+    List<MoveReplayRow> findReplayRows(@Param("matchIds") Collection<Long> matchIds);
+
+    @Query("select mv from Move mv where mv.match.id = :matchId order by mv.ply")
+    List<Move> findHistory(@Param("matchId") Long matchId);
 }
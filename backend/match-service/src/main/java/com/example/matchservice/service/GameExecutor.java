@@ -0,0 +1,102 @@
+package com.example.matchservice.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Runs every task for one game in submission order, one at a time, while different games run
+ * in parallel. Each game gets a mailbox; a mailbox with work is drained by a single virtual
+ * thread, so GameState needs no locks as long as it is only touched from tasks submitted here.
+ */
+@Component
+public class GameExecutor {
+
+    // Tasks drained per turn before the mailbox is rescheduled, so one busy game cannot pin a carrier
+    private static final int BATCH = 64;
+
+    private final Map<Long, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final Executor executor;
+
+    public GameExecutor() {
+        this(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    public GameExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    public <T> CompletableFuture<T> submit(Long matchId, Supplier<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable wrapped = () -> {
+            try {
+                result.complete(task.get());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        };
+        // Offer under the map's bin lock so retire() never drops a mailbox that just got work
+        Mailbox mailbox = mailboxes.compute(matchId, (id, existing) -> {
+            Mailbox target = existing != null ? existing : new Mailbox();
+            target.queue.offer(wrapped);
+            return target;
+        });
+        mailbox.schedule();
+        return result;
+    }
+
+    public CompletableFuture<Void> execute(Long matchId, Runnable task) {
+        return submit(matchId, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Drops the mailbox of a game that is no longer live, unless more work is already queued.
+     * Meant to be the last thing a task on that mailbox does: a later submit creates a fresh
+     * mailbox, which may start before the calling task has returned.
+     */
+    public void retire(Long matchId) {
+        mailboxes.computeIfPresent(matchId, (id, mailbox) -> mailbox.queue.isEmpty() ? null : mailbox);
+    }
+
+    public int mailboxCount() {
+        return mailboxes.size();
+    }
+
+    private final class Mailbox implements Runnable {
+        private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            for (int i = 0; i < BATCH; i++) {
+                Runnable task = queue.poll();
+                if (task == null) {
+                    break;
+                }
+                task.run();
+            }
+            scheduled.set(false);
+            // A task offered after the last poll but before the flag was cleared must not be stranded
+            if (!queue.isEmpty() && scheduled.compareAndSet(false, true)) {
+                executor.execute(this);
+            }
+        }
+    }
+}
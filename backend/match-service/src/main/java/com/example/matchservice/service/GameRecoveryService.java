@@ -0,0 +1,314 @@
+package com.example.matchservice.service;
+
+import com.example.matchservice.chess.Fen;
+import com.example.matchservice.chess.PackedMove;
+import com.example.matchservice.chess.Piece;
+import com.example.matchservice.chess.Position;
+import com.example.matchservice.chess.PositionHistory;
+import com.example.matchservice.journal.JournalEntry;
+import com.example.matchservice.journal.MoveJournal;
+import com.example.matchservice.journal.MoveProjector;
+import com.example.matchservice.model.DTO.MoveReplayRow;
+import com.example.matchservice.model.DTO.RecoverableMatch;
+import com.example.matchservice.model.MatchStatus;
+import com.example.matchservice.repo.MatchRepo;
+import com.example.matchservice.repo.MoveRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Brings in-progress games back into the {@link LiveGameStore} after a restart. Matches are read
+ * in keyset pages of {@code game.recovery.batch-size}, and each page's moves come back in one
+ * query; pages are loaded and replayed on {@code game.recovery.parallelism} threads. Replaying
+ * the packed moves restores the repetition history as well as the position whenever they cover
+ * the game, and moves past the row's ply win over its FEN; when they fall short or do not
+ * reproduce {@code fenCurrent} (rows written before moves were packed, or gaps) the FEN wins.
+ * Clocks resume from the remaining times kept with the last move, charged from when it was played.
+ * Games touched before recovery reaches them are rebuilt the same way on first access. Startup
+ * recovery first projects whatever is still only in the {@link MoveJournal}; the first-access
+ * path instead reads the match's own unprojected tail from the journal, so a cold join never
+ * waits on the projector backlog of other games.
+ */
+@Service
+public class GameRecoveryService {
+
+    private static final Logger log = LoggerFactory.getLogger(GameRecoveryService.class);
+
+    private final MatchRepo matchRepo;
+    private final MoveRepo moveRepo;
+    private final LiveGameStore liveGameStore;
+    private final GameExecutor gameExecutor;
+    private final MoveProjector moveProjector;
+    private final MoveJournal moveJournal;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int parallelism;
+
+    private final AtomicInteger replayed = new AtomicInteger();
+    private final AtomicInteger fromFen = new AtomicInteger();
+
+    public GameRecoveryService(MatchRepo matchRepo, MoveRepo moveRepo, LiveGameStore liveGameStore,
+            GameExecutor gameExecutor, MoveProjector moveProjector, MoveJournal moveJournal,
+            @Value("${game.recovery.enabled:true}") boolean enabled,
+            @Value("${game.recovery.batch-size:1000}") int batchSize,
+            @Value("${game.recovery.parallelism:4}") int parallelism) {
+        this.matchRepo = matchRepo;
+        this.moveRepo = moveRepo;
+        this.liveGameStore = liveGameStore;
+        this.gameExecutor = gameExecutor;
+        this.moveProjector = moveProjector;
+        this.moveJournal = moveJournal;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverOnStartup() {
+        if (enabled) {
+            Thread.ofVirtual().name("game-recovery").start(this::recoverAll);
+        }
+    }
+
+    /**
+     * Recovers every IN_PROGRESS match and returns how many were made resident.
+     */
+    public int recoverAll() {
+        long start = System.nanoTime();
+        replayed.set(0);
+        fromFen.set(0);
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        List<Future<Integer>> batches = new ArrayList<>();
+        try {
+            moveProjector.flush();
+            Long afterId = 0L;
+            while (true) {
+                List<RecoverableMatch> rows = matchRepo.findRecoverable(MatchStatus.IN_PROGRESS, afterId,
+                        PageRequest.of(0, batchSize));
+                if (rows.isEmpty()) {
+                    break;
+                }
+                afterId = rows.get(rows.size() - 1).getId();
+                batches.add(pool.submit(() -> recoverBatch(rows)));
+            }
+            int installed = 0;
+            for (Future<Integer> batch : batches) {
+                installed += batch.get();
+            }
+            log.info("Recovered {} in-progress games ({} replayed from moves, {} from FEN) in {} ms",
+                    installed, replayed.get(), fromFen.get(), (System.nanoTime() - start) / 1_000_000);
+            return installed;
+        } catch (Exception e) {
+            log.error("Game recovery failed: {}", e.getMessage(), e);
+            return 0;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private int recoverBatch(List<RecoverableMatch> rows) {
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (RecoverableMatch row : rows) {
+            ids.add(row.getId());
+        }
+        return installBatch(rows, groupMoves(moveRepo.findReplayRows(ids)));
+    }
+
+    /**
+     * Rebuilds a page of matches and makes each resident from its own mailbox, skipping games
+     * that live traffic has already loaded. Returns the number installed.
+     */
+    public int installBatch(List<RecoverableMatch> rows, Map<Long, int[]> movesByMatch) {
+        List<CompletableFuture<Boolean>> installs = new ArrayList<>(rows.size());
+        for (RecoverableMatch row : rows) {
+            GameState state = rebuild(row, movesByMatch.get(row.getId()));
+            installs.add(gameExecutor.submit(row.getId(), () -> liveGameStore.putIfAbsent(row.getId(), state)));
+        }
+        int installed = 0;
+        for (CompletableFuture<Boolean> install : installs) {
+            if (install.join()) {
+                installed++;
+            }
+        }
+        return installed;
+    }
+
+    /**
+     * First-access path for a single match: one query for its moves, plus whatever of it the
+     * projector has not written yet, then the same rebuild.
+     */
+    public GameState recover(RecoverableMatch row) {
+        DurableMoves durable = durableMoves(row.getId());
+        int rowPly = row.getCurrentPly() == null ? 0 : row.getCurrentPly();
+        JournalEntry last = durable.getLastEntry();
+        if (durable.getLastPly() <= rowPly || last == null) {
+            return rebuild(row, durable.getMoves());
+        }
+        // The row is behind its moves; the journal has the FEN and clocks after the last of them
+        return rebuild(new RecoverableMatch(row.getId(), last.getFenAfter(), last.getPly(),
+                row.getPlayer1Username(), row.getPlayer2Username(), row.getTimeLimit(),
+                clock(last.getWhiteClockMillis()), clock(last.getBlackClockMillis()), last.getTimestampMillis()),
+                durable.getMoves());
+    }
+
+    /**
+     * Every durable move of one match: its rows, then its entries the projector has not written
+     * yet, read straight from the journal rather than waiting for a flush.
+     */
+    public DurableMoves durableMoves(Long matchId) {
+        // Taken before the query, so a batch projected in between is seen in the rows or the journal
+        long from = moveProjector.projectedOffset();
+        List<MoveReplayRow> rows = moveRepo.findReplayRows(List.of(matchId));
+        int[] stored = groupMoves(rows).getOrDefault(matchId, new int[0]);
+        int storedPly = rows.isEmpty() ? 0 : rows.get(rows.size() - 1).getPly();
+
+        List<JournalEntry> tail = new ArrayList<>();
+        moveJournal.readMatch(from, matchId, entry -> {
+            int last = tail.isEmpty() ? storedPly : tail.get(tail.size() - 1).getPly();
+            if (entry.getPly() > last) {
+                tail.add(entry);
+            }
+        });
+        if (tail.isEmpty()) {
+            return new DurableMoves(stored, storedPly, null);
+        }
+        int[] moves = Arrays.copyOf(stored, stored.length + tail.size());
+        for (int i = 0; i < tail.size(); i++) {
+            moves[stored.length + i] = tail.get(i).getPackedMove();
+        }
+        JournalEntry last = tail.get(tail.size() - 1);
+        return new DurableMoves(moves, last.getPly(), last);
+    }
+
+    // The journal's -1 for an untimed or pre-clock record is the row's null
+    private static Long clock(long millis) {
+        return millis < 0 ? null : millis;
+    }
+
+    public static class DurableMoves {
+        private final int[] moves;
+        private final int lastPly;
+        // Journal entry of the last ply when it came from the journal, else null
+        private final JournalEntry lastEntry;
+
+        DurableMoves(int[] moves, int lastPly, JournalEntry lastEntry) {
+            this.moves = moves;
+            this.lastPly = lastPly;
+            this.lastEntry = lastEntry;
+        }
+
+        public int[] getMoves() {
+            return moves;
+        }
+
+        public int getLastPly() {
+            return lastPly;
+        }
+
+        public JournalEntry getLastEntry() {
+            return lastEntry;
+        }
+    }
+
+    // Rows arrive ordered by match id and ply
+    public static Map<Long, int[]> groupMoves(List<MoveReplayRow> rows) {
+        Map<Long, int[]> byMatch = new HashMap<>();
+        int i = 0;
+        while (i < rows.size()) {
+            Long matchId = rows.get(i).getMatchId();
+            int end = i;
+            while (end < rows.size() && rows.get(end).getMatchId().equals(matchId)) {
+                end++;
+            }
+            int[] moves = new int[end - i];
+            for (int j = i; j < end; j++) {
+                Integer packed = rows.get(j).getPackedMove();
+                moves[j - i] = packed == null ? PackedMove.NONE : packed;
+            }
+            byMatch.put(matchId, moves);
+            i = end;
+        }
+        return byMatch;
+    }
+
+    public GameState rebuild(RecoverableMatch row, int[] moves) {
+        Position stored = storedPosition(row);
+        int plies = row.getCurrentPly() == null ? 0 : row.getCurrentPly();
+
+        Position position = null;
+        PositionHistory history = null;
+        if (moves == null) {
+            moves = new int[0];
+        }
+        // Moves that reach past the row are newer than its FEN; at the row's ply they must agree with it
+        if (moves.length >= plies) {
+            Position replay = Position.startPosition();
+            PositionHistory replayHistory = new PositionHistory(replay.getKey());
+            if (replayMoves(replay, replayHistory, moves)
+                    && (moves.length > plies || stored == null || replay.getKey() == stored.getKey())) {
+                position = replay;
+                history = replayHistory;
+                plies = moves.length;
+                replayed.incrementAndGet();
+            }
+        }
+        if (position == null) {
+            position = stored != null ? stored : Position.startPosition();
+            history = new PositionHistory(position.getKey());
+            fromFen.incrementAndGet();
+        }
+
+        GameState state = new GameState();
+        state.setPosition(position);
+        state.setHistory(history);
+        state.setStatus("IN_PROGRESS");
+        state.setPly(plies);
+        state.resumeClocks(row.getTimeLimit(), row.getWhiteClockMillis(), row.getBlackClockMillis(),
+                row.getLastMoveMillis());
+        state.setPlayer1Username(row.getPlayer1Username());
+        state.setPlayer2Username(row.getPlayer2Username());
+        return state;
+    }
+
+    private static boolean replayMoves(Position position, PositionHistory history, int[] moves) {
+        for (int move : moves) {
+            int piece = move == PackedMove.NONE ? Piece.NONE : position.pieceAt(PackedMove.from(move));
+            if (piece == Piece.NONE || Piece.color(piece) != position.getSideToMove()) {
+                return false;
+            }
+            position.makeMove(move);
+            history.push(position.getKey());
+        }
+        return true;
+    }
+
+    // Null when there is no usable FEN, in which case the moves alone decide
+    private static Position storedPosition(RecoverableMatch row) {
+        String fen = row.getFenCurrent();
+        if (fen == null || fen.isBlank()) {
+            return null;
+        }
+        try {
+            return Fen.parse(fen);
+        } catch (IllegalArgumentException e) {
+            log.warn("Stored FEN for match {} is invalid: {}", row.getId(), e.getMessage());
+            return null;
+        }
+    }
+}
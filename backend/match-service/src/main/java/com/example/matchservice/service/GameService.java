@@ -1,88 +1,74 @@
 package com.example.matchservice.service;
 
+import com.example.matchservice.archive.MatchArchiver;
+import com.example.matchservice.chess.Adjudicator;
+import com.example.matchservice.chess.Fen;
+import com.example.matchservice.chess.GameEnd;
+import com.example.matchservice.chess.MoveGenerator;
+import com.example.matchservice.chess.PackedMove;
+import com.example.matchservice.chess.Piece;
+import com.example.matchservice.chess.Position;
+import com.example.matchservice.chess.San;
+import com.example.matchservice.chess.Square;
+import com.example.matchservice.chess.Uci;
+import com.example.matchservice.chess.Zobrist;
+import com.example.matchservice.journal.JournalEntry;
+import com.example.matchservice.journal.MoveJournal;
 import com.example.matchservice.model.DTO.*;
 import com.example.matchservice.model.Match;
+import com.example.matchservice.model.MatchStatus;
 import com.example.matchservice.repo.MatchRepo;
+import com.example.matchservice.spectate.SpectatorHub;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
 import java.security.Principal;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 public class GameService {
 
+    private static final Logger log = LoggerFactory.getLogger(GameService.class);
+
     private final MatchRepo matchRepo;
     private final JwtService jwtService;
     private final SimpMessagingTemplate messagingTemplate;
     private final OnlineMatchService onlineMatchService;
-    private final com.example.matchservice.repo.MoveRepo moveRepo;
+    private final MoveJournal moveJournal;
+    private final GameExecutor gameExecutor;
+    // Entries are created and mutated only from tasks on the game's GameExecutor mailbox
+    private final LiveGameStore liveGameStore;
+    private final GameRecoveryService gameRecoveryService;
+    private final MatchArchiver matchArchiver;
+    private final GameStream gameStream;
+    private final SpectatorHub spectatorHub;
 
     public GameService(MatchRepo matchRepo, JwtService jwtService,
             SimpMessagingTemplate messagingTemplate, OnlineMatchService onlineMatchService,
-            com.example.matchservice.repo.MoveRepo moveRepo) {
+            MoveJournal moveJournal, GameExecutor gameExecutor,
+            LiveGameStore liveGameStore, GameRecoveryService gameRecoveryService, MatchArchiver matchArchiver,
+            GameStream gameStream, SpectatorHub spectatorHub) {
         this.matchRepo = matchRepo;
         this.jwtService = jwtService;
         this.messagingTemplate = messagingTemplate;
         this.onlineMatchService = onlineMatchService;
-        this.moveRepo = moveRepo;
-    }
-
-    private final Map<Long, GameState> activeGames = new ConcurrentHashMap<>();
-
-    private static class GameState {
-        private String[][] board;
-        private boolean isWhiteTurn;
-        private String status;
-        private String player1Username;
-        private String player2Username;
-
-        public GameState() {
-        }
-
-        public String[][] getBoard() {
-            return board;
-        }
-
-        public void setBoard(String[][] board) {
-            this.board = board;
-        }
-
-        public boolean isWhiteTurn() {
-            return isWhiteTurn;
-        }
-
-        public void setWhiteTurn(boolean whiteTurn) {
-            isWhiteTurn = whiteTurn;
-        }
-
-        public String getStatus() {
-            return status;
-        }
-
-        public void setStatus(String status) {
-            this.status = status;
-        }
-
-        public String getPlayer1Username() {
-            return player1Username;
-        }
-
-        public void setPlayer1Username(String player1Username) {
-            this.player1Username = player1Username;
-        }
-
-        public String getPlayer2Username() {
-            return player2Username;
-        }
-
-        public void setPlayer2Username(String player2Username) {
-            this.player2Username = player2Username;
-        }
+        this.moveJournal = moveJournal;
+        this.gameExecutor = gameExecutor;
+        this.liveGameStore = liveGameStore;
+        this.gameRecoveryService = gameRecoveryService;
+        this.matchArchiver = matchArchiver;
+        this.gameStream = gameStream;
+        this.spectatorHub = spectatorHub;
+        liveGameStore.setEvictionListener(this::persistEvictedGame);
+        liveGameStore.setResidencyListener(gameStream::open);
+        spectatorHub.setFrameLoader(this::loadSpectatorFrame);
     }
 
     public GameDTO getGameDetails(Long matchId, Principal principal) {
@@ -97,16 +83,19 @@ public class GameService {
         }
 
         Match match = matchOpt.get();
+        try {
+            return gameExecutor.submit(matchId, () -> buildGameDetails(match, username)).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private GameDTO buildGameDetails(Match match, String username) {
+        Long matchId = match.getId();
         String playerColor = determinePlayerColor(match, username);
         boolean isMyTurn = determineMyTurn(match, username);
 
-        GameState gameState = activeGames.get(matchId);
-        if (gameState == null) {
-            gameState = initializeGameState(match);
-            activeGames.put(matchId, gameState);
-
-            activeGames.put(matchId, gameState);
-        }
+        GameState gameState = lookupGameState(match);
 
         GameDTO gameDTO = new GameDTO();
         gameDTO.setId(match.getId());
@@ -115,11 +104,11 @@ public class GameService {
         gameDTO.setStatus(gameState.getStatus());
         gameDTO.setPlayerColor(playerColor);
         gameDTO.setMyTurn(isMyTurn);
-        gameDTO.setBoard(gameState.getBoard());
-        gameDTO.setFen(convertBoardToFEN(gameState.getBoard(), gameState.isWhiteTurn()));
+        gameDTO.setBoard(gameState.getPosition().toBoardArray());
+        gameDTO.setFen(Fen.toFen(gameState.getPosition()));
         gameDTO.setCreatedAt(match.getCreatedAt());
         gameDTO.setUpdatedAt(match.getUpdatedAt());
-        gameDTO.setMoves(match.getMoves());
+        gameDTO.setMoves(matchArchiver.history(match));
 
         return gameDTO;
     }
@@ -134,7 +123,7 @@ public class GameService {
     }
 
     private boolean determineMyTurn(Match match, String username) {
-        GameState gameState = activeGames.get(match.getId());
+        GameState gameState = liveGameStore.get(match.getId());
         if (gameState == null) {
             return match.getPlayer1().getUsername().equals(username);
         }
@@ -147,29 +136,48 @@ public class GameService {
         }
     }
 
-    private GameState initializeGameState(Match match) {
-        String[][] initialBoard = {
-                { "r", "n", "b", "q", "k", "b", "n", "r" },
-                { "p", "p", "p", "p", "p", "p", "p", "p" },
-                { "", "", "", "", "", "", "", "" },
-                { "", "", "", "", "", "", "", "" },
-                { "", "", "", "", "", "", "", "" },
-                { "", "", "", "", "", "", "", "" },
-                { "P", "P", "P", "P", "P", "P", "P", "P" },
-                { "R", "N", "B", "Q", "K", "B", "N", "R" }
-        };
-
-        GameState gameState = new GameState();
-        gameState.setBoard(initialBoard);
-        gameState.setWhiteTurn(true);
-        gameState.setStatus("IN_PROGRESS");
-        gameState.setPlayer1Username(match.getPlayer1().getUsername());
-        gameState.setPlayer2Username(match.getPlayer2().getUsername());
+    /**
+     * Resident state of the match, loading it if needed. Matches that are already over are
+     * served from the database without being made resident again.
+     */
+    private GameState lookupGameState(Match match) {
+        GameState gameState = liveGameStore.get(match.getId());
+        if (gameState == null) {
+            gameState = initializeGameState(match);
+            if (!gameState.isTerminal()) {
+                liveGameStore.put(match.getId(), gameState);
+            }
+        }
+        return gameState;
+    }
 
+    // Rebuilt from the persisted moves and fenCurrent, never reset to the opening; a finished game only needs its FEN
+    private GameState initializeGameState(Match match) {
+        RecoverableMatch row = new RecoverableMatch(match.getId(), match.getFenCurrent(), match.getCurrentPly(),
+                match.getPlayer1().getUsername(), match.getPlayer2().getUsername(), match.getTimeLimit(),
+                match.getWhiteClockMillis(), match.getBlackClockMillis(), match.getLastMoveMillis());
+        boolean inProgress = match.getStatus() == null || match.getStatus() == MatchStatus.IN_PROGRESS;
+        GameState gameState = inProgress ? gameRecoveryService.recover(row) : gameRecoveryService.rebuild(row, null);
+        gameState.setStatus(inProgress ? "IN_PROGRESS" : match.getStatus().name());
         return gameState;
     }
 
-    public MoveDTO processMove(Long matchId, MoveRequest moveRequest, Principal principal) {
+    /**
+     * Runs on the game's mailbox when the store evicts it. Moves and results are written as they
+     * happen, so this only closes a finished game's row if its result write was lost, touching
+     * nothing the MoveProjector owns; an abandoned in-progress game is simply rebuilt from its
+     * moves if it is ever touched again.
+     */
+    private void persistEvictedGame(Long matchId, GameState gameState, String reason) {
+        gameStream.drop(matchId);
+        if (!gameState.isTerminal()) {
+            log.debug("Evicted idle game {} ({})", matchId, reason);
+            return;
+        }
+        matchRepo.closeIfInProgress(matchId, MatchStatus.valueOf(gameState.getStatus()), LocalDateTime.now());
+    }
+
+    public CompletableFuture<MoveDeltaDTO> processMove(Long matchId, MoveRequest moveRequest, Principal principal) {
         String username = principal.getName();
 
         if (moveRequest.getFromRow() == null || moveRequest.getFromCol() == null ||
@@ -185,10 +193,17 @@ public class GameService {
             throw new RuntimeException("Player color cannot be null");
         }
 
-        GameState gameState = activeGames.get(matchId);
+        return gameExecutor.submit(matchId, () -> applyMove(matchId, moveRequest, username));
+    }
+
+    private MoveDeltaDTO applyMove(Long matchId, MoveRequest moveRequest, String username) {
+        GameState gameState = liveGameStore.get(matchId);
         if (gameState == null) {
             throw new RuntimeException("Game not found or not active");
         }
+        if (!"IN_PROGRESS".equals(gameState.getStatus())) {
+            throw new RuntimeException("Game is already over");
+        }
 
         boolean isWhiteTurn = gameState.isWhiteTurn();
         String expectedPlayer = isWhiteTurn ? gameState.getPlayer1Username() : gameState.getPlayer2Username();
@@ -205,187 +220,195 @@ public class GameService {
             throw new RuntimeException("Invalid move: Black's turn but player is " + playerColor);
         }
 
-        String[][] newBoard = moveRequest.getBoard();
-        if (newBoard == null) {
-            throw new RuntimeException("Board cannot be null");
-        }
-
-        gameState.setBoard(newBoard);
-        gameState.setWhiteTurn(!isWhiteTurn);
-        
-        String status = moveRequest.getStatus() != null ? moveRequest.getStatus() : "IN_PROGRESS";
+        int fromRow = moveRequest.getFromRow(), fromCol = moveRequest.getFromCol();
+        int toRow = moveRequest.getToRow(), toCol = moveRequest.getToCol();
+        if (!Square.isValidRowCol(fromRow, fromCol) || !Square.isValidRowCol(toRow, toCol)) {
+            throw new RuntimeException("Move coordinates out of range");
+        }
+
+        // The server position is authoritative; the client's board snapshot is ignored
+        Position position = gameState.getPosition();
+        int from = Square.fromRowCol(fromRow, fromCol);
+        int moving = position.pieceAt(from);
+        if (moving == Piece.NONE || Piece.color(moving) != position.getSideToMove()) {
+            throw new RuntimeException("Invalid move: no " + playerColor + " piece on the from-square");
+        }
+        int move = MoveGenerator.findLegalMove(position, from, Square.fromRowCol(toRow, toCol),
+                Piece.typeFromLetter(moveRequest.getPromotedTo()));
+        if (move == PackedMove.NONE) {
+            throw new RuntimeException("Illegal move");
+        }
+        // Text forms are rendered once here and shared by the broadcast and the database row
+        String san = San.toSan(position, move);
+        String uci = Uci.toUci(move);
+        String fenBefore = Fen.toFen(position);
+        String drawOfferedBy = gameState.getDrawOfferedBy();
+        long[] clocks = gameState.saveClocks();
+        long undo = position.makeMove(move);
+        String fenAfter = Fen.toFen(position);
+
+        // The game result comes from the server position, never from MoveRequest.status
+        gameState.getHistory().push(position.getKey());
+        GameEnd gameEnd = Adjudicator.adjudicate(position, move, gameState.getHistory());
+        String status = gameEnd == GameEnd.NONE ? "IN_PROGRESS" : gameEnd == GameEnd.CHECKMATE ? "FINISHED" : "DRAW";
         gameState.setStatus(status);
-
-        activeGames.put(matchId, gameState);
-
-        // If game is over, update OnlineMatch
-        if (!"IN_PROGRESS".equals(status)) {
-            String winner = null;
-            if ("FINISHED".equals(status)) {
-                winner = username; // Player who made the move that finished the game wins
-            }
-            onlineMatchService.updateMatchResult(matchId, status, winner);
+        // Moving instead of answering declines the opponent's offer; the offerer's own move keeps it
+        if (gameState.getDrawOfferedBy() != null && !username.equals(gameState.getDrawOfferedBy())) {
+            gameState.setDrawOfferedBy(null);
         }
 
+        long now = System.currentTimeMillis();
+        gameState.chargeClock(isWhiteTurn, now);
+        gameState.setPly(gameState.getPly() + 1);
+        liveGameStore.update(matchId, gameState);
 
+        // Durable once the journal has forced it; MoveProjector writes the rows in the background
         try {
-            updateMatchInDatabase(matchId, moveRequest);
-        } catch (Exception e) {
-            System.err.println("⚠️ Failed to update database: " + e.getMessage());
+            long[] remaining = gameState.saveClocks();
+            moveJournal.append(new JournalEntry(matchId, gameState.getPly(), move, now, san, uci, fenBefore,
+                    fenAfter, remaining[0], remaining[1])).join();
+        } catch (RuntimeException e) {
+            // Recovery would never replay it, so the move did not happen: take it back and tell the mover
+            System.err.println("❌ Failed to journal move for match " + matchId + ": " + e.getMessage());
+            position.unmakeMove(move, undo);
+            gameState.getHistory().pop();
+            gameState.setPly(gameState.getPly() - 1);
+            gameState.restoreClocks(clocks);
+            gameState.setStatus("IN_PROGRESS");
+            gameState.setDrawOfferedBy(drawOfferedBy);
+            liveGameStore.update(matchId, gameState);
+            throw new RuntimeException("Move could not be saved, please play it again", e);
+        }
+
+        if (gameEnd.isOver()) {
+            String winner = gameEnd == GameEnd.CHECKMATE ? username : null;
+            onlineMatchService.updateMatchResult(matchId, status, winner);
         }
 
-        String moveNotation = createMoveNotation(moveRequest);
-
-        MoveDTO moveDTO = new MoveDTO();
-        moveDTO.setFromRow(moveRequest.getFromRow());
-        moveDTO.setFromCol(moveRequest.getFromCol());
-        moveDTO.setToRow(moveRequest.getToRow());
-        moveDTO.setToCol(moveRequest.getToCol());
-        moveDTO.setPiece(moveRequest.getPiece());
-        moveDTO.setPromotedTo(moveRequest.getPromotedTo());
-        moveDTO.setCapturedPiece(moveRequest.getCapturedPiece());
-        moveDTO.setCastled(moveRequest.getCastled() != null ? moveRequest.getCastled() : false);
-        moveDTO.setIsEnPassant(moveRequest.getIsEnPassant() != null ? moveRequest.getIsEnPassant() : false);
-        moveDTO.setIsPromotion(moveRequest.getIsPromotion() != null ? moveRequest.getIsPromotion() : false);
-        moveDTO.setFenBefore(moveRequest.getFenBefore());
-        moveDTO.setFenAfter(moveRequest.getFenAfter());
-        moveDTO.setBoard(newBoard);
-        moveDTO.setIsWhiteTurn(!isWhiteTurn);
-        moveDTO.setPlayerColor(playerColor);
-        moveDTO.setMatchId(matchId);
-        moveDTO.setTimestamp(LocalDateTime.now());
-        moveDTO.setMoveNotation(moveNotation);
-        moveDTO.setPlayerUsername(username);
-
-        return moveDTO;
-    }
-
-    private String createMoveNotation(MoveRequest move) {
-        int toRow = move.getToRow();
-        int toCol = move.getToCol();
-        String piece = move.getPiece();
-
-        String toSquare = colToFile(toCol) + (8 - toRow);
-
-        if (Boolean.TRUE.equals(move.getCastled())) {
-            return toCol == 6 ? "O-O" : "O-O-O";
+        // Everything else the old snapshot carried follows from the move; join and resync send the full state
+        MoveDeltaDTO delta = new MoveDeltaDTO();
+        delta.setSeq(gameState.getPly());
+        delta.setUci(uci);
+        delta.setHash(Zobrist.toHex(position.getKey()));
+        delta.setWhiteClock(gameState.getWhiteClockMillis());
+        delta.setBlackClock(gameState.getBlackClockMillis());
+        if (gameEnd.isOver()) {
+            delta.setStatus(status);
+            delta.setEndReason(gameEnd.name());
         }
-
-        String pieceSymbol = piece.toUpperCase();
-        if ("p".equalsIgnoreCase(piece)) {
-            pieceSymbol = "";
+        gameStream.publish(matchId, "/topic/moves/" + matchId, delta);
+        if (spectatorHub.isWatched(matchId)) {
+            spectatorHub.update(matchId, spectatorFrame(matchId, gameState, uci, fenAfter));
         }
+        return delta;
+    }
 
-        String capture = move.getCapturedPiece() != null && !move.getCapturedPiece().isEmpty() ? "x" : "";
-        return pieceSymbol + capture + toSquare;
+    // Runs when the first spectator of a game arrives before any move has been published to them
+    private void loadSpectatorFrame(Long matchId) {
+        gameExecutor.execute(matchId, () -> {
+            GameState gameState = liveGameStore.get(matchId);
+            if (gameState == null) {
+                Match match = matchRepo.findById(matchId).orElseThrow(() -> new RuntimeException("Game not found"));
+                gameState = lookupGameState(match);
+            }
+            updateSpectators(matchId, gameState);
+        }).exceptionally(e -> {
+            System.err.println("⚠️ No spectator frame for match " + matchId + ": " + e.getMessage());
+            return null;
+        });
     }
 
-    private String colToFile(int col) {
-        return String.valueOf((char) ('a' + col));
+    private SpectatorFrameDTO spectatorFrame(Long matchId, GameState gameState, String lastMove, String fen) {
+        SpectatorFrameDTO frame = new SpectatorFrameDTO();
+        frame.setMatchId(matchId);
+        frame.setPly(gameState.getPly());
+        frame.setFen(fen);
+        frame.setLastMove(lastMove);
+        frame.setHash(Zobrist.toHex(gameState.getPosition().getKey()));
+        frame.setWhiteClock(gameState.getWhiteClockMillis());
+        frame.setBlackClock(gameState.getBlackClockMillis());
+        frame.setStatus(gameState.getStatus());
+        frame.setWhite(gameState.getPlayer1Username());
+        frame.setBlack(gameState.getPlayer2Username());
+        return frame;
     }
 
-    private void updateMatchInDatabase(Long matchId, MoveRequest moveRequest) {
-        try {
+    public CompletableFuture<GameStatusDTO> handlePlayerJoin(Long matchId, JoinRequest joinRequest,
+            Principal principal) {
+        String username = principal.getName();
+        return gameExecutor.submit(matchId, () -> joinGame(matchId, joinRequest, username));
+    }
+
+    private GameStatusDTO joinGame(Long matchId, JoinRequest joinRequest, String username) {
+        GameState gameState = liveGameStore.get(matchId);
+        if (gameState == null) {
             Optional<Match> matchOpt = matchRepo.findById(matchId);
             if (matchOpt.isPresent()) {
-                Match match = matchOpt.get();
-
-                if (moveRequest.getFenAfter() != null) {
-                    match.setFenCurrent(moveRequest.getFenAfter());
-                }
-
-                String uci = createUCI(moveRequest);
-                if (!uci.isEmpty()) {
-                    match.setLastMoveUci(uci);
-                }
-
-                Integer currentPly = match.getCurrentPly();
-                if (currentPly == null) {
-                    currentPly = 0;
-                }
-                int newPly = currentPly + 1;
-                match.setCurrentPly(newPly);
-
-                // Save individual Move entity
-                com.example.matchservice.model.Move move = new com.example.matchservice.model.Move();
-                move.setMatch(match);
-                move.setPly(newPly);
-                move.setMoveNumber((newPly + 1) / 2);
-                move.setColor(newPly % 2 == 1 ? com.example.matchservice.model.PieceColor.WHITE : com.example.matchservice.model.PieceColor.BLACK);
-                move.setUci(uci);
-                move.setSan(createMoveNotation(moveRequest));
-                move.setFenBefore(moveRequest.getFenBefore());
-                move.setFenAfter(moveRequest.getFenAfter());
-                move.setCreatedAt(java.time.LocalDateTime.now());
-                
-                moveRepo.save(move);
-                matchRepo.save(match);
+                gameState = lookupGameState(matchOpt.get());
+            } else {
+                throw new RuntimeException("Game not found");
             }
-        } catch (Exception e) {
-            System.err.println("❌ Error updating match in database: " + e.getMessage());
         }
-    }
 
-    private String createUCI(MoveRequest move) {
-        if (move.getFromCol() == null || move.getFromRow() == null ||
-                move.getToCol() == null || move.getToRow() == null) {
-            return "";
+        GameStatusDTO statusDTO = snapshot(matchId, gameState, joinRequest.getPlayerColor(), username);
+        if (gameStream.isOpen(matchId)) {
+            gameStream.publish(matchId, "/topic/game/" + matchId, statusDTO);
+        } else {
+            // A finished game is not made resident and has no stream; only the joiner needs its final state
+            messagingTemplate.convertAndSendToUser(username, "/queue/game-sync", statusDTO);
         }
+        return statusDTO;
+    }
 
-        try {
-            String fromFile = Character.toString((char) ('a' + move.getFromCol()));
-            int fromRank = 8 - move.getFromRow();
-            String toFile = Character.toString((char) ('a' + move.getToCol()));
-            int toRank = 8 - move.getToRow();
-
-            String uci = fromFile + fromRank + toFile + toRank;
-
-            if (Boolean.TRUE.equals(move.getIsPromotion()) && move.getPromotedTo() != null) {
-                String promotedPiece = move.getPromotedTo().toLowerCase();
-                if (promotedPiece.equals("q"))
-                    uci += "q";
-                else if (promotedPiece.equals("r"))
-                    uci += "r";
-                else if (promotedPiece.equals("b"))
-                    uci += "b";
-                else if (promotedPiece.equals("n"))
-                    uci += "n";
-            }
-
-            return uci;
-        } catch (Exception e) {
-            System.err.println("Error creating UCI notation: " + e.getMessage());
-            return "";
-        }
+    /**
+     * Full state for one session of a client that missed deltas, e.g. after a gap in the move
+     * {@code seq}, stamped with the stream seq it is current as of.
+     */
+    public CompletableFuture<Void> handleResync(Long matchId, String username, String sessionId) {
+        return gameExecutor.execute(matchId, () -> sendSnapshot(matchId, username, sessionId));
     }
 
-    public GameStatusDTO handlePlayerJoin(Long matchId, JoinRequest joinRequest, Principal principal) {
-        String username = principal.getName();
+    /**
+     * Sends a reconnecting session the frames after the last seq it saw, or a snapshot when the
+     * stream no longer holds them.
+     */
+    public CompletableFuture<Void> handleResume(Long matchId, String username, String sessionId, Long from) {
+        return gameExecutor.execute(matchId, () -> {
+            if (from == null || !gameStream.replay(matchId, from, username, sessionId)) {
+                sendSnapshot(matchId, username, sessionId);
+            }
+        });
+    }
 
-        GameState gameState = activeGames.get(matchId);
+    private void sendSnapshot(Long matchId, String username, String sessionId) {
+        GameState gameState = liveGameStore.get(matchId);
+        String playerColor = getPlayerColor(matchId, username);
         if (gameState == null) {
-            Optional<Match> matchOpt = matchRepo.findById(matchId);
-            if (matchOpt.isPresent()) {
-                gameState = initializeGameState(matchOpt.get());
-                activeGames.put(matchId, gameState);
-            } else {
-                throw new RuntimeException("Game not found");
-            }
+            Match match = matchRepo.findById(matchId).orElseThrow(() -> new RuntimeException("Game not found"));
+            gameState = lookupGameState(match);
+            playerColor = determinePlayerColor(match, username);
         }
+        gameStream.sendToSession(username, sessionId, "/queue/game-sync",
+                snapshot(matchId, gameState, playerColor, username), gameStream.lastSeq(matchId));
+    }
 
+    private GameStatusDTO snapshot(Long matchId, GameState gameState, String playerColor, String username) {
         GameStatusDTO statusDTO = new GameStatusDTO();
         statusDTO.setMatchId(matchId);
         statusDTO.setStatus(gameState.getStatus());
-        statusDTO.setPlayerColor(joinRequest.getPlayerColor());
+        statusDTO.setPlayerColor(playerColor);
         statusDTO.setMyTurn(determineMyTurn(matchId, username));
-        statusDTO.setBoard(gameState.getBoard());
-        statusDTO.setFen(convertBoardToFEN(gameState.getBoard(), gameState.isWhiteTurn()));
-
+        statusDTO.setBoard(gameState.getPosition().toBoardArray());
+        statusDTO.setFen(Fen.toFen(gameState.getPosition()));
+        statusDTO.setPositionHash(Zobrist.toHex(gameState.getPosition().getKey()));
+        statusDTO.setPly(gameState.getPly());
+        statusDTO.setWhiteClock(gameState.getWhiteClockMillis());
+        statusDTO.setBlackClock(gameState.getBlackClockMillis());
         return statusDTO;
     }
 
     private boolean determineMyTurn(Long matchId, String username) {
-        GameState gameState = activeGames.get(matchId);
+        GameState gameState = liveGameStore.get(matchId);
         if (gameState == null)
             return false;
 
@@ -397,66 +420,93 @@ public class GameService {
         }
     }
 
-    private String convertBoardToFEN(String[][] board, boolean isWhiteTurn) {
-        StringBuilder fen = new StringBuilder();
-
-        for (int row = 0; row < 8; row++) {
-            int emptyCount = 0;
-            for (int col = 0; col < 8; col++) {
-                String piece = board[row][col];
-                if (piece == null || piece.isEmpty()) {
-                    emptyCount++;
-                } else {
-                    if (emptyCount > 0) {
-                        fen.append(emptyCount);
-                        emptyCount = 0;
-                    }
-                    fen.append(piece);
-                }
-            }
-            if (emptyCount > 0) {
-                fen.append(emptyCount);
-            }
-            if (row < 7) {
-                fen.append("/");
-            }
+    // Resident state, restored if an idle in-progress game was evicted; null if the match does not exist
+    private GameState residentGame(Long matchId) {
+        GameState gameState = liveGameStore.get(matchId);
+        if (gameState == null) {
+            gameState = matchRepo.findById(matchId).map(this::lookupGameState).orElse(null);
         }
-
-        fen.append(" ").append(isWhiteTurn ? "w" : "b");
-        fen.append(" ").append("KQkq");
-        fen.append(" ").append("-");
-        fen.append(" ").append("0 1");
-
-        return fen.toString();
+        return gameState;
     }
 
-    public void handleResignation(Long matchId, String username) {
-        GameState gameState = activeGames.get(matchId);
-        if (gameState != null) {
-            gameState.setStatus("RESIGNED");
-            activeGames.put(matchId, gameState);
+    public CompletableFuture<Void> handleResignation(Long matchId, String username) {
+        return gameExecutor.execute(matchId, () -> resign(matchId, username));
+    }
 
-            String opponent = getOpponentUsername(matchId, username);
-            onlineMatchService.updateMatchResult(matchId, "RESIGNED", opponent);
+    private void resign(Long matchId, String username) {
+        GameState gameState = residentGame(matchId);
+        // A result already adjudicated is never overwritten
+        if (gameState == null || !"IN_PROGRESS".equals(gameState.getStatus())) {
+            log.debug("Ignoring resignation from {} for match {}: game not in progress", username, matchId);
+            return;
+        }
+        String opponent = getOpponentUsername(matchId, username);
+        if (opponent == null) {
+            throw new RuntimeException("Only players can resign");
+        }
+        gameState.setStatus("RESIGNED");
+        gameState.setDrawOfferedBy(null);
+        liveGameStore.update(matchId, gameState);
+        onlineMatchService.updateMatchResult(matchId, "RESIGNED", opponent);
+        updateSpectators(matchId, gameState);
+
+        Map<String, Object> resignation = new HashMap<>();
+        resignation.put("type", "RESIGNATION");
+        resignation.put("player", username);
+        resignation.put("matchId", matchId);
+        resignation.put("timestamp", System.currentTimeMillis());
+        gameStream.publish(matchId, "/topic/game-state/" + matchId, resignation);
+    }
 
-            // We rely on GameController's @SendTo to broadcast the RESIGNATION type message
+    // Full frame for a change that is not a move: the first spectator arriving, or a result
+    private void updateSpectators(Long matchId, GameState gameState) {
+        if (spectatorHub.isWatched(matchId)) {
+            spectatorHub.update(matchId, spectatorFrame(matchId, gameState, null, Fen.toFen(gameState.getPosition())));
         }
     }
 
-    public void handleDrawAccept(Long matchId) {
-        GameState gameState = activeGames.get(matchId);
-        if (gameState != null) {
-            gameState.setStatus("DRAW");
-            activeGames.put(matchId, gameState);
-            onlineMatchService.updateMatchResult(matchId, "DRAW", null);
+    public CompletableFuture<Void> handleDrawAccept(Long matchId, String username) {
+        return gameExecutor.execute(matchId, () -> acceptDraw(matchId, username));
+    }
+
+    private void acceptDraw(Long matchId, String username) {
+        GameState gameState = residentGame(matchId);
+        if (gameState == null || !"IN_PROGRESS".equals(gameState.getStatus())) {
+            log.debug("Ignoring draw accept from {} for match {}: game not in progress", username, matchId);
+            return;
         }
+        // Only the opponent's standing offer can be accepted
+        String opponent = getOpponentUsername(matchId, username);
+        if (opponent == null || !opponent.equals(gameState.getDrawOfferedBy())) {
+            throw new RuntimeException("No draw offer to accept");
+        }
+        gameState.setStatus("DRAW");
+        gameState.setDrawOfferedBy(null);
+        liveGameStore.update(matchId, gameState);
+        onlineMatchService.updateMatchResult(matchId, "DRAW", null);
+        updateSpectators(matchId, gameState);
+
+        Map<String, Object> accepted = new HashMap<>();
+        accepted.put("type", "DRAW_ACCEPTED");
+        accepted.put("player", username);
+        accepted.put("matchId", matchId);
+        accepted.put("timestamp", System.currentTimeMillis());
+        accepted.put("status", "DRAW");
+        gameStream.publish(matchId, "/topic/game-state/" + matchId, accepted);
     }
 
+    public CompletableFuture<Void> handleDrawOffer(Long matchId, String username) {
+        return gameExecutor.execute(matchId, () -> offerDraw(matchId, username));
+    }
 
-    public void handleDrawOffer(Long matchId, String username) {
-        GameState gameState = activeGames.get(matchId);
-        if (gameState != null) {
+    private void offerDraw(Long matchId, String username) {
+        GameState gameState = residentGame(matchId);
+        if (gameState != null && "IN_PROGRESS".equals(gameState.getStatus())) {
             String opponent = getOpponentUsername(matchId, username);
+            if (opponent == null) {
+                throw new RuntimeException("Only players can offer a draw");
+            }
+            gameState.setDrawOfferedBy(username);
 
             Map<String, Object> drawOffer = new HashMap<>();
             drawOffer.put("type", "DRAW_OFFER");
@@ -464,29 +514,44 @@ public class GameService {
             drawOffer.put("matchId", matchId);
             drawOffer.put("timestamp", System.currentTimeMillis());
 
-            System.out.println("Sending draw offer from " + username + " to " + opponent + " for match " + matchId);
             messagingTemplate.convertAndSendToUser(opponent, "/queue/draw-offers", drawOffer);
-            
-            // Debug: Send to public topic as well to see if it arrives there
-            messagingTemplate.convertAndSend("/topic/game-state/" + matchId, drawOffer);
+            gameStream.publish(matchId, "/topic/game-state/" + matchId, drawOffer);
         }
     }
 
-    public void handleDrawDecline(Long matchId, String username) {
+    public CompletableFuture<Void> handleDrawDecline(Long matchId, String username) {
+        return gameExecutor.execute(matchId, () -> declineDraw(matchId, username));
+    }
+
+    private void declineDraw(Long matchId, String username) {
+        GameState gameState = liveGameStore.get(matchId);
         String opponent = getOpponentUsername(matchId, username);
-        
+        if (gameState == null || opponent == null || !opponent.equals(gameState.getDrawOfferedBy())) {
+            return;
+        }
+        gameState.setDrawOfferedBy(null);
+
         Map<String, Object> declineMsg = new HashMap<>();
         declineMsg.put("type", "DRAW_DECLINED");
         declineMsg.put("player", username);
         declineMsg.put("matchId", matchId);
         declineMsg.put("timestamp", System.currentTimeMillis());
 
-        System.out.println("Broadcasting draw decline from " + username + " for match " + matchId);
-        messagingTemplate.convertAndSend("/topic/game-state/" + matchId, declineMsg);
+        gameStream.publish(matchId, "/topic/game-state/" + matchId, declineMsg);
+    }
+
+    public void handleChat(Long matchId, String username, String message) {
+        Map<String, Object> chat = new HashMap<>();
+        chat.put("type", "CHAT_MESSAGE");
+        chat.put("from", username);
+        chat.put("message", message);
+        chat.put("matchId", matchId);
+        chat.put("timestamp", System.currentTimeMillis());
+        gameStream.publish(matchId, "/topic/chat/" + matchId, chat);
     }
 
     private String getPlayerColor(Long matchId, String username) {
-        GameState gameState = activeGames.get(matchId);
+        GameState gameState = liveGameStore.get(matchId);
         if (gameState != null) {
             if (username.equals(gameState.getPlayer1Username())) {
                 return "white";
@@ -498,7 +563,7 @@ public class GameService {
     }
 
     private String getOpponentUsername(Long matchId, String username) {
-        GameState gameState = activeGames.get(matchId);
+        GameState gameState = liveGameStore.get(matchId);
         if (gameState != null) {
             if (username.equals(gameState.getPlayer1Username())) {
                 return gameState.getPlayer2Username();
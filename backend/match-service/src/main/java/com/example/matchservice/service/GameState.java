@@ -0,0 +1,196 @@
+package com.example.matchservice.service;
+
+import com.example.matchservice.chess.Position;
+import com.example.matchservice.chess.PositionHistory;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Live state of one game, owned by {@link LiveGameStore} and only touched from tasks on the
+ * game's {@link GameExecutor} mailbox.
+ */
+public class GameState {
+
+    // Shallow sizes on a 64-bit JVM with compressed oops
+    private static final int STATE_BYTES = 64 + 16;
+    private static final int POSITION_BYTES = 56 + 16 + 12 * 8;
+    private static final int STRING_BYTES = 24 + 16;
+
+    private Position position;
+    private PositionHistory history;
+    private String status;
+    // Plies played since the start of the game, including any before a restart
+    private int ply;
+    // Remaining time per side; -1 when the match is untimed. Not persisted, so a restart resets them
+    private long whiteClockMillis = -1;
+    private long blackClockMillis = -1;
+    private long lastMoveMillis;
+    private String player1Username;
+    private String player2Username;
+    // Player whose draw offer is standing, or null
+    private String drawOfferedBy;
+
+    // Maintained by LiveGameStore
+    private volatile long lastAccessMillis;
+    private volatile long accountedBytes;
+    private final AtomicBoolean evictionQueued = new AtomicBoolean();
+
+    public GameState() {
+    }
+
+    public Position getPosition() {
+        return position;
+    }
+
+    public void setPosition(Position position) {
+        this.position = position;
+    }
+
+    public PositionHistory getHistory() {
+        return history;
+    }
+
+    public void setHistory(PositionHistory history) {
+        this.history = history;
+    }
+
+    public boolean isWhiteTurn() {
+        return position.isWhiteToMove();
+    }
+
+    public int getPly() {
+        return ply;
+    }
+
+    public void setPly(int ply) {
+        this.ply = ply;
+    }
+
+    public void startClocks(Integer timeLimitSeconds) {
+        long millis = timeLimitSeconds != null && timeLimitSeconds > 0 ? timeLimitSeconds * 1000L : -1;
+        whiteClockMillis = millis;
+        blackClockMillis = millis;
+        lastMoveMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Clocks as they stood after the last move, charged from when it was played; a fresh start
+     * when none were kept, as for a game with no moves or one journaled before clocks were.
+     */
+    public void resumeClocks(Integer timeLimitSeconds, Long whiteMillis, Long blackMillis, Long lastMoveAt) {
+        startClocks(timeLimitSeconds);
+        if (whiteClockMillis >= 0 && whiteMillis != null && blackMillis != null && lastMoveAt != null) {
+            whiteClockMillis = whiteMillis;
+            blackClockMillis = blackMillis;
+            lastMoveMillis = lastMoveAt;
+        }
+    }
+
+    /**
+     * Charges the side that just moved for the time since the previous move. White's first move
+     * is free, as the clocks start once it is played.
+     */
+    public void chargeClock(boolean whiteMoved, long nowMillis) {
+        if (whiteClockMillis >= 0 && ply > 0) {
+            long spent = nowMillis - lastMoveMillis;
+            if (whiteMoved) {
+                whiteClockMillis = Math.max(0, whiteClockMillis - spent);
+            } else {
+                blackClockMillis = Math.max(0, blackClockMillis - spent);
+            }
+        }
+        lastMoveMillis = nowMillis;
+    }
+
+    // Clock state before a move, so a move that cannot be journaled can be taken back
+    long[] saveClocks() {
+        return new long[]{whiteClockMillis, blackClockMillis, lastMoveMillis};
+    }
+
+    void restoreClocks(long[] saved) {
+        whiteClockMillis = saved[0];
+        blackClockMillis = saved[1];
+        lastMoveMillis = saved[2];
+    }
+
+    public Long getWhiteClockMillis() {
+        return whiteClockMillis < 0 ? null : whiteClockMillis;
+    }
+
+    public Long getBlackClockMillis() {
+        return blackClockMillis < 0 ? null : blackClockMillis;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public boolean isTerminal() {
+        return status != null && !"IN_PROGRESS".equals(status);
+    }
+
+    public String getPlayer1Username() {
+        return player1Username;
+    }
+
+    public void setPlayer1Username(String player1Username) {
+        this.player1Username = player1Username;
+    }
+
+    public String getPlayer2Username() {
+        return player2Username;
+    }
+
+    public void setPlayer2Username(String player2Username) {
+        this.player2Username = player2Username;
+    }
+
+    public String getDrawOfferedBy() {
+        return drawOfferedBy;
+    }
+
+    public void setDrawOfferedBy(String drawOfferedBy) {
+        this.drawOfferedBy = drawOfferedBy;
+    }
+
+    long getLastAccessMillis() {
+        return lastAccessMillis;
+    }
+
+    void setLastAccessMillis(long lastAccessMillis) {
+        this.lastAccessMillis = lastAccessMillis;
+    }
+
+    long getAccountedBytes() {
+        return accountedBytes;
+    }
+
+    void setAccountedBytes(long accountedBytes) {
+        this.accountedBytes = accountedBytes;
+    }
+
+    boolean markEvictionQueued() {
+        return evictionQueued.compareAndSet(false, true);
+    }
+
+    void clearEvictionQueued() {
+        evictionQueued.set(false);
+    }
+
+    long estimateBytes() {
+        long bytes = STATE_BYTES + POSITION_BYTES;
+        if (history != null) {
+            bytes += 32 + 16 + 8L * history.capacity();
+        }
+        bytes += usernameBytes(player1Username) + usernameBytes(player2Username);
+        return bytes;
+    }
+
+    private static long usernameBytes(String username) {
+        return username == null ? 0 : STRING_BYTES + username.length();
+    }
+}
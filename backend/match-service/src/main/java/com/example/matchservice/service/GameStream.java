@@ -0,0 +1,141 @@
+package com.example.matchservice.service;
+
+import com.example.matchservice.model.DTO.GameReplayDTO;
+import com.example.matchservice.model.DTO.ReplayFrame;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-game event stream over the game's topics. Every broadcast gets the next sequence number
+ * in an {@value #SEQ_HEADER} STOMP header and is kept in a ring of the last
+ * {@code game.stream.ring-size} frames, so a reconnecting client that says which seq it saw
+ * last gets only the frames it missed, in one message. A client too far behind, or holding a
+ * seq from a stream that no longer exists, is answered with a snapshot instead. A stream is
+ * opened when its game becomes resident in the {@link LiveGameStore} and dropped when it is
+ * evicted; publishes for any other match id are sent without a seq and never allocate a ring,
+ * so unknown or finished ids cost nothing to keep. Streams start numbering at their creation time in microseconds, so one
+ * recreated after an eviction or a restart never reuses numbers a client may still hold.
+ */
+@Component
+public class GameStream {
+
+    public static final String SEQ_HEADER = "event-seq";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final int ringSize;
+    private final Map<Long, Ring> rings = new ConcurrentHashMap<>();
+
+    private static final class Ring {
+        final ReplayFrame[] frames;
+        // Frames (first, last] are in the ring, at seq % length
+        long first;
+        long last;
+
+        Ring(int size) {
+            frames = new ReplayFrame[size];
+            first = last = System.currentTimeMillis() * 1000;
+        }
+    }
+
+    public GameStream(SimpMessagingTemplate messagingTemplate,
+            @Value("${game.stream.ring-size:256}") int ringSize) {
+        this.messagingTemplate = messagingTemplate;
+        this.ringSize = ringSize;
+    }
+
+    /**
+     * Starts the game's stream; called when the game becomes resident.
+     */
+    public void open(Long matchId) {
+        rings.computeIfAbsent(matchId, id -> new Ring(ringSize));
+    }
+
+    public boolean isOpen(Long matchId) {
+        return rings.containsKey(matchId);
+    }
+
+    /**
+     * Broadcasts to one of the game's topics and returns the frame's seq, or -1 if the game has
+     * no open stream, in which case the frame is sent unsequenced and cannot be replayed. The
+     * ring stays locked while sending so frames leave in seq order.
+     */
+    public long publish(Long matchId, String destination, Object payload) {
+        Ring ring = rings.get(matchId);
+        if (ring == null) {
+            messagingTemplate.convertAndSend(destination, payload);
+            return -1;
+        }
+        synchronized (ring) {
+            long seq = ++ring.last;
+            ring.frames[(int) (seq % ring.frames.length)] = new ReplayFrame(seq, destination, payload);
+            if (ring.last - ring.first > ring.frames.length) {
+                ring.first = ring.last - ring.frames.length;
+            }
+            messagingTemplate.convertAndSend(destination, payload, Map.<String, Object>of(SEQ_HEADER, seq));
+            return seq;
+        }
+    }
+
+    // 0 for a game without a stream, which is below the first seq of any stream opened later
+    public long lastSeq(Long matchId) {
+        Ring ring = rings.get(matchId);
+        if (ring == null) {
+            return 0;
+        }
+        synchronized (ring) {
+            return ring.last;
+        }
+    }
+
+    /**
+     * Sends the frames after {@code from} to one session on {@code /queue/game-replay}, or
+     * returns false if the ring no longer (or never) held them.
+     */
+    public boolean replay(Long matchId, long from, String username, String sessionId) {
+        Ring ring = rings.get(matchId);
+        if (ring == null) {
+            return false;
+        }
+        synchronized (ring) {
+            if (from < ring.first || from > ring.last) {
+                return false;
+            }
+            List<ReplayFrame> missed = new ArrayList<>((int) (ring.last - from));
+            for (long seq = from + 1; seq <= ring.last; seq++) {
+                missed.add(ring.frames[(int) (seq % ring.frames.length)]);
+            }
+            sendToSession(username, sessionId, "/queue/game-replay",
+                    new GameReplayDTO(matchId, from, ring.last, missed), ring.last);
+            return true;
+        }
+    }
+
+    /**
+     * Sends to one session of a user, stamped with the seq the payload is current as of.
+     */
+    public void sendToSession(String username, String sessionId, String destination, Object payload, long seq) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        if (sessionId != null) {
+            headers.setSessionId(sessionId);
+        }
+        headers.setNativeHeader(SEQ_HEADER, Long.toString(seq));
+        headers.setLeaveMutable(true);
+        messagingTemplate.convertAndSendToUser(username, destination, payload, headers.getMessageHeaders());
+    }
+
+    public void drop(Long matchId) {
+        rings.remove(matchId);
+    }
+
+    public int streamCount() {
+        return rings.size();
+    }
+}
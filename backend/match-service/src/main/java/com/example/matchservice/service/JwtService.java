@@ -1,6 +1,7 @@
 package com.example.matchservice.service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -13,9 +14,12 @@ public class JwtService {
 
     private final String SECRET = "aluesgo8q37g4tifqbhrefg8g3124ib801g7br18b7gb17g4b";
 
+    // Both are immutable and thread-safe, so they are built once rather than per token
+    private final Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(key).build();
+
     Key getKey() {
-        byte[] bytekey = Decoders.BASE64.decode(SECRET);
-        return Keys.hmacShaKeyFor(bytekey);
+        return key;
     }
 
     public String extractUsername(String token) {
@@ -23,10 +27,6 @@ public class JwtService {
     }
 
     private Claims extractClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 }
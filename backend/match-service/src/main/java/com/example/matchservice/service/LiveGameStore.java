@@ -0,0 +1,235 @@
+package com.example.matchservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded home of the live {@link GameState}s. Finished games leave after a short grace period
+ * (so late frames still see the final state), in-progress games after a long idle period, and
+ * the least recently used games whenever the estimated footprint exceeds the byte budget.
+ * Evictions run as tasks on the game's {@link GameExecutor} mailbox and hand the state to the
+ * eviction listener before the mailbox is retired. The residency listener hears when a game
+ * becomes resident, so per-game resources can live exactly as long as the game does.
+ */
+@Component
+public class LiveGameStore {
+
+    public interface EvictionListener {
+        void onEvict(Long matchId, GameState state, String reason);
+    }
+
+    public interface ResidencyListener {
+        void onResident(Long matchId);
+    }
+
+    static final String FINISHED = "finished";
+    static final String IDLE = "idle";
+    static final String BUDGET = "budget";
+
+    private final Map<Long, GameState> games = new ConcurrentHashMap<>();
+    private final AtomicLong residentBytes = new AtomicLong();
+    // Bytes of games with an eviction task queued; they no longer count against the budget
+    private final AtomicLong evictingBytes = new AtomicLong();
+    private final AtomicBoolean trimming = new AtomicBoolean();
+    private final GameExecutor gameExecutor;
+    private final long terminalTtlMillis;
+    private final long idleTtlMillis;
+    private final long maxBytes;
+    private final Counter finishedEvictions;
+    private final Counter idleEvictions;
+    private final Counter budgetEvictions;
+    private volatile EvictionListener listener = (matchId, state, reason) -> {
+    };
+    private volatile ResidencyListener residencyListener = matchId -> {
+    };
+
+    public LiveGameStore(GameExecutor gameExecutor, MeterRegistry meterRegistry,
+            @Value("${game.store.terminal-ttl-seconds:120}") long terminalTtlSeconds,
+            @Value("${game.store.idle-ttl-minutes:60}") long idleTtlMinutes,
+            @Value("${game.store.max-bytes:268435456}") long maxBytes) {
+        this.gameExecutor = gameExecutor;
+        this.terminalTtlMillis = terminalTtlSeconds * 1000;
+        this.idleTtlMillis = idleTtlMinutes * 60_000;
+        this.maxBytes = maxBytes;
+
+        Gauge.builder("match.live.games", games, Map::size)
+                .description("Games resident in the live-game store")
+                .register(meterRegistry);
+        Gauge.builder("match.live.games.bytes", residentBytes, AtomicLong::get)
+                .description("Estimated heap held by resident games")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.finishedEvictions = evictionCounter(meterRegistry, FINISHED);
+        this.idleEvictions = evictionCounter(meterRegistry, IDLE);
+        this.budgetEvictions = evictionCounter(meterRegistry, BUDGET);
+    }
+
+    private static Counter evictionCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("match.live.games.evictions")
+                .description("Games evicted from the live-game store")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    public void setEvictionListener(EvictionListener listener) {
+        this.listener = listener;
+    }
+
+    public void setResidencyListener(ResidencyListener residencyListener) {
+        this.residencyListener = residencyListener;
+    }
+
+    public GameState get(Long matchId) {
+        GameState state = games.get(matchId);
+        if (state != null) {
+            state.setLastAccessMillis(System.currentTimeMillis());
+        }
+        return state;
+    }
+
+    public void put(Long matchId, GameState state) {
+        state.setLastAccessMillis(System.currentTimeMillis());
+        state.setAccountedBytes(state.estimateBytes());
+        GameState previous = games.put(matchId, state);
+        if (previous == null) {
+            residencyListener.onResident(matchId);
+        }
+        long delta = state.getAccountedBytes() - (previous == null ? 0 : previous.getAccountedBytes());
+        residentBytes.addAndGet(delta);
+        if (overBudget()) {
+            trimToBudget();
+        }
+    }
+
+    /**
+     * Makes the game resident unless it already is; used by recovery, which must not replace a
+     * state that live frames have loaded in the meantime.
+     */
+    public boolean putIfAbsent(Long matchId, GameState state) {
+        if (games.containsKey(matchId)) {
+            return false;
+        }
+        put(matchId, state);
+        return true;
+    }
+
+    /**
+     * Re-accounts a resident game after a mutation (its history may have grown).
+     */
+    public void update(Long matchId, GameState state) {
+        if (games.get(matchId) != state) {
+            return;
+        }
+        state.setLastAccessMillis(System.currentTimeMillis());
+        long bytes = state.estimateBytes();
+        long delta = bytes - state.getAccountedBytes();
+        if (delta != 0) {
+            state.setAccountedBytes(bytes);
+            residentBytes.addAndGet(delta);
+            if (overBudget()) {
+                trimToBudget();
+            }
+        }
+    }
+
+    public int size() {
+        return games.size();
+    }
+
+    public long residentBytes() {
+        return residentBytes.get();
+    }
+
+    @Scheduled(fixedDelayString = "${game.store.sweep-interval-ms:15000}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Long, GameState> entry : games.entrySet()) {
+            String reason = expiry(entry.getValue(), now);
+            if (reason != null) {
+                evict(entry.getKey(), reason);
+            }
+        }
+        if (overBudget()) {
+            trimToBudget();
+        }
+    }
+
+    private boolean overBudget() {
+        return residentBytes.get() - evictingBytes.get() > maxBytes;
+    }
+
+    private String expiry(GameState state, long now) {
+        long idle = now - state.getLastAccessMillis();
+        if (state.isTerminal() && idle >= terminalTtlMillis) {
+            return FINISHED;
+        }
+        return idle >= idleTtlMillis ? IDLE : null;
+    }
+
+    // Evicts least recently used games down to 90% of the budget, terminal games first
+    private void trimToBudget() {
+        if (!trimming.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            if (!overBudget()) {
+                return;
+            }
+            List<Map.Entry<Long, GameState>> entries = new ArrayList<>(games.entrySet());
+            entries.sort(Comparator.<Map.Entry<Long, GameState>, Boolean>comparing(e -> !e.getValue().isTerminal())
+                    .thenComparingLong(e -> e.getValue().getLastAccessMillis()));
+            long target = maxBytes / 10 * 9;
+            for (Map.Entry<Long, GameState> entry : entries) {
+                if (residentBytes.get() - evictingBytes.get() <= target) {
+                    break;
+                }
+                evict(entry.getKey(), BUDGET);
+            }
+        } finally {
+            trimming.set(false);
+        }
+    }
+
+    private void evict(Long matchId, String reason) {
+        GameState queued = games.get(matchId);
+        if (queued == null || !queued.markEvictionQueued()) {
+            return;
+        }
+        long queuedBytes = queued.getAccountedBytes();
+        evictingBytes.addAndGet(queuedBytes);
+        gameExecutor.execute(matchId, () -> {
+            evictingBytes.addAndGet(-queuedBytes);
+            queued.clearEvictionQueued();
+            GameState state = games.get(matchId);
+            // The game may have been touched or replaced between the sweep and this task
+            if (state != queued || (!BUDGET.equals(reason) && expiry(state, System.currentTimeMillis()) == null)) {
+                return;
+            }
+            games.remove(matchId);
+            residentBytes.addAndGet(-state.getAccountedBytes());
+            switch (reason) {
+                case FINISHED -> finishedEvictions.increment();
+                case IDLE -> idleEvictions.increment();
+                default -> budgetEvictions.increment();
+            }
+            try {
+                listener.onEvict(matchId, state, reason);
+            } catch (RuntimeException e) {
+                System.err.println("⚠️ Eviction listener failed for match " + matchId + ": " + e.getMessage());
+            }
+            gameExecutor.retire(matchId);
+        });
+    }
+}
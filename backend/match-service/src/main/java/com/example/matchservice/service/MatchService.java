@@ -1,99 +1,200 @@
 package com.example.matchservice.service;
 
+import com.example.matchservice.archive.MatchArchiver;
+import com.example.matchservice.chess.Fen;
+import com.example.matchservice.matchmaking.ClusterMatchmaker;
+import com.example.matchservice.matchmaking.ClusterTransport;
+import com.example.matchservice.matchmaking.MatchNotifier;
+import com.example.matchservice.matchmaking.Ticket;
+import com.example.matchservice.model.GameType;
 import com.example.matchservice.model.Match;
 import com.example.matchservice.model.User;
 import com.example.matchservice.repo.MatchRepo;
 import com.example.matchservice.repo.UserRepo;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static com.example.matchservice.model.MatchStatus.IN_PROGRESS;
 
 @Service
 public class MatchService {
 
-    private static final Map<String, Long> waitingPlayers = new ConcurrentHashMap<>();
-    private static final Map<Long, String[]> matchPlayers = new ConcurrentHashMap<>();
+    // Rating used for players who have none yet, as user-service gives new accounts
+    private static final int DEFAULT_RATING = 250;
 
     private final JwtService jwtService;
     private final UserRepo userRepo;
     private final MatchRepo matchRepo;
     private final GameService gameService;
     private final com.example.matchservice.repo.GameResultRepo gameResultRepo;
+    private final MatchArchiver matchArchiver;
+    private final ClusterMatchmaker clusterMatchmaker;
+    private final ClusterTransport clusterTransport;
+    private final MatchNotifier matchNotifier;
 
-    public MatchService(JwtService jwtService, UserRepo userRepo, MatchRepo matchRepo, GameService gameService, com.example.matchservice.repo.GameResultRepo gameResultRepo) {
+    public MatchService(JwtService jwtService, UserRepo userRepo, MatchRepo matchRepo, GameService gameService, com.example.matchservice.repo.GameResultRepo gameResultRepo, MatchArchiver matchArchiver,
+            ClusterMatchmaker clusterMatchmaker, ClusterTransport clusterTransport, MatchNotifier matchNotifier) {
         this.jwtService = jwtService;
         this.userRepo = userRepo;
         this.matchRepo = matchRepo;
         this.gameService = gameService;
         this.gameResultRepo = gameResultRepo;
+        this.matchArchiver = matchArchiver;
+        this.clusterMatchmaker = clusterMatchmaker;
+        this.clusterTransport = clusterTransport;
+        this.matchNotifier = matchNotifier;
+        clusterMatchmaker.setPairingListener(this::startMatch);
     }
 
-    public Optional<Long> createMatch(java.security.Principal principal) {
+    // Runs a player's request on their home instance, or here if that is this one or it cannot be reached
+    private <T> T atHome(String userName, Function<ServiceInstance, T> remote, Supplier<T> local) {
+        ServiceInstance home = clusterMatchmaker.homeOf(userName);
+        if (home != null) {
+            try {
+                return remote.apply(home);
+            } catch (RuntimeException e) {
+                System.err.println("⚠️ Home instance " + home.getInstanceId() + " of " + userName
+                        + " unreachable, serving here: " + e.getMessage());
+            }
+        }
+        return local.get();
+    }
+
+    // A match id or -1 as is; -2, neither waiting nor matched, becomes empty
+    private static Optional<Long> fromHome(long matchId) {
+        return matchId == -2 ? Optional.empty() : Optional.of(matchId);
+    }
+
+    /**
+     * Queues the player for a rated opponent of the same game type. Returns the match id if one
+     * was found at once, -1 while waiting.
+     */
+    public Optional<Long> createMatch(java.security.Principal principal, GameType gameType) {
         if (principal == null) {
             return Optional.empty();
         }
+        if (gameType == GameType.BOT) {
+            throw new RuntimeException("Bot games are not matched");
+        }
         String userName = principal.getName();
+        return atHome(userName, home -> fromHome(clusterTransport.createMatch(home, userName, gameType)),
+                () -> createMatchAtHome(userName, gameType));
+    }
 
+    /**
+     * {@link #createMatch} on the player's home instance.
+     */
+    public Optional<Long> createMatchAtHome(String userName, GameType gameType) {
         System.out.println("User " + userName + " requesting match");
 
-        synchronized (this) {
-            for (String waitingPlayer : waitingPlayers.keySet()) {
-                if (!waitingPlayer.equals(userName)) {
-                    User player1 = userRepo.getUserByUsername(waitingPlayer);
-                    User player2 = userRepo.getUserByUsername(userName);
-
-                    if (player1 != null && player2 != null) {
-                        Match newMatch = matchRepo.save(new Match(player1, player2, IN_PROGRESS, 1));
-                        Long matchId = newMatch.getId();
-
-                        matchPlayers.put(matchId, new String[] { waitingPlayer, userName });
-                        waitingPlayers.remove(waitingPlayer);
-
-                        System.out.println("Match created: " + matchId);
-
-                        return Optional.of(matchId);
-                    }
-                }
-            }
+        // The only database read on the way in: the player's id and rating, carried on the ticket
+        User user = userRepo.getUserByUsername(userName);
+        if (user == null) {
+            return Optional.empty();
+        }
+        int rating = user.getRating() != null ? user.getRating() : DEFAULT_RATING;
+        if (!clusterMatchmaker.isWaiting(userName)) {
+            // Left over from an earlier search whose result the player never collected
+            matchNotifier.forget(userName);
+        }
+        Long matchId = clusterMatchmaker.join(userName, user.getUserId(), rating, gameType);
 
-            waitingPlayers.put(userName, -1L);
+        if (matchId == null) {
             System.out.println("User " + userName + " added to waiting queue");
-
             return Optional.of(-1L);
         }
+        Long collected = matchNotifier.collect(userName);
+        return Optional.of(collected != null ? collected : matchId);
     }
 
+    // Runs on whichever thread made the pair; the player who waited longer gets white
+    private void startMatch(Ticket white, Ticket black) {
+        Match match = new Match(userRepo.getReferenceById(white.getUserId()),
+                userRepo.getReferenceById(black.getUserId()), IN_PROGRESS, 0);
+        match.setFenCurrent(Fen.START);
+        match.setGameType(white.getGameType());
+        match.setTimeLimit(timeLimitFor(white.getGameType()));
+        Long matchId = matchRepo.save(match).getId();
+
+        white.setMatchId(matchId);
+        black.setMatchId(matchId);
+        clusterMatchmaker.announce(white, matchId);
+        clusterMatchmaker.announce(black, matchId);
+        System.out.println("Match created: " + matchId + " (" + white.getGameType() + ", "
+                + white.getRating() + " vs " + black.getRating() + ")");
+    }
+
+    // Seconds per player; standard games stay untimed
+    private static Integer timeLimitFor(GameType gameType) {
+        return switch (gameType) {
+            case BLITZ -> 300;
+            case RAPID -> 600;
+            default -> null;
+        };
+    }
+
+    /**
+     * Polling fallback for clients without the match-found push: -1 while waiting, the match id
+     * once, or empty if the player is neither waiting nor matched.
+     */
     public Optional<Long> checkMatch(java.security.Principal principal) {
         if (principal == null) {
             return Optional.empty();
         }
         String userName = principal.getName();
+        return atHome(userName, home -> fromHome(clusterTransport.checkMatch(home, userName)),
+                () -> checkMatchAtHome(userName));
+    }
 
-        synchronized (this) {
-            if (waitingPlayers.containsKey(userName)) {
-                return Optional.of(-1L);
-            }
+    public Optional<Long> checkMatchAtHome(String userName) {
+        Long matchId = matchNotifier.collect(userName);
+        if (matchId != null) {
+            System.out.println("Returning match " + matchId + " to " + userName);
+            return Optional.of(matchId);
+        }
+        return clusterMatchmaker.isWaiting(userName) ? Optional.of(-1L) : Optional.empty();
+    }
 
-            for (Map.Entry<Long, String[]> entry : matchPlayers.entrySet()) {
-                String[] players = entry.getValue();
-                if (players[0].equals(userName) || players[1].equals(userName)) {
-                    Long matchId = entry.getKey();
-                    matchPlayers.remove(matchId);
-                    waitingPlayers.remove(players[0]);
-                    waitingPlayers.remove(players[1]);
-                    System.out.println("Returning match " + matchId + " to " + userName);
-                    return Optional.of(matchId);
-                }
-            }
+    /**
+     * Long-poll variant of {@link #checkMatch}; empty if the player is not waiting for a match.
+     */
+    public Optional<DeferredResult<ResponseEntity<Map<String, Long>>>> awaitMatch(java.security.Principal principal) {
+        if (principal == null) {
+            return Optional.empty();
         }
+        String userName = principal.getName();
+        return atHome(userName, home -> {
+            DeferredResult<ResponseEntity<Map<String, Long>>> result = new DeferredResult<>();
+            clusterTransport.awaitMatch(home, userName).whenComplete((matchId, e) -> {
+                long id = e != null ? -1L : matchId;
+                result.setResult(id == -2 ? ResponseEntity.badRequest().body(Map.of("matchId", -2L))
+                        : ResponseEntity.ok(Map.of("matchId", id)));
+            });
+            return Optional.of(result);
+        }, () -> awaitMatchAtHome(userName));
+    }
 
-        return Optional.empty();
+    public Optional<DeferredResult<ResponseEntity<Map<String, Long>>>> awaitMatchAtHome(String userName) {
+        Long matchId = matchNotifier.collect(userName);
+        if (matchId != null) {
+            DeferredResult<ResponseEntity<Map<String, Long>>> result = new DeferredResult<>();
+            result.setResult(ResponseEntity.ok(Map.of("matchId", matchId)));
+            return Optional.of(result);
+        }
+        // Still waiting here means the match, if one comes, is announced after this point
+        if (!clusterMatchmaker.isWaiting(userName)) {
+            return Optional.empty();
+        }
+        return Optional.of(matchNotifier.await(userName));
     }
 
     public boolean cancelWaiting(java.security.Principal principal) {
@@ -101,14 +202,16 @@ public class MatchService {
             return false;
         }
         String userName = principal.getName();
+        return atHome(userName, home -> clusterTransport.cancelWaiting(home, userName),
+                () -> cancelWaitingAtHome(userName));
+    }
 
-        synchronized (this) {
-            boolean removed = waitingPlayers.remove(userName) != null;
-            if (removed) {
-                System.out.println("User " + userName + " cancelled waiting");
-            }
-            return removed;
+    public boolean cancelWaitingAtHome(String userName) {
+        boolean removed = clusterMatchmaker.cancel(userName);
+        if (removed) {
+            System.out.println("User " + userName + " cancelled waiting");
         }
+        return removed;
     }
 
     private Map<String, Object> createPlayerInfo(User user) {
@@ -170,7 +273,7 @@ public class MatchService {
         response.put("startedAt", match.getStartedAt());
         response.put("currentPly", match.getCurrentPly());
         response.put("fenCurrent", match.getFenCurrent());
-        response.put("moves", match.getMoves());
+        response.put("moves", matchArchiver.history(match));
         response.put("timeLimit", match.getTimeLimit());
 
         return response;
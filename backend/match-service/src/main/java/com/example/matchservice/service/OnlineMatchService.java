@@ -1,5 +1,6 @@
 package com.example.matchservice.service;
 
+import com.example.matchservice.chess.Fen;
 import com.example.matchservice.model.Match;
 import com.example.matchservice.model.MatchStatus;
 import com.example.matchservice.model.OnlineMatch;
@@ -7,38 +8,68 @@ import com.example.matchservice.model.User;
 import com.example.matchservice.repo.MatchRepo;
 import com.example.matchservice.repo.OnlineMatchRepository;
 import com.example.matchservice.repo.UserRepo;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.Optional;
-import java.util.Random;
 
 @Service
 public class OnlineMatchService {
 
+    private static final int MAX_ROOM_CODE_ATTEMPTS = 5;
+
     private final OnlineMatchRepository onlineMatchRepository;
     private final MatchRepo matchRepo;
     private final UserRepo userRepo;
-    private final Random random = new Random();
+    private final RoomCodeAllocator roomCodeAllocator;
 
-    public OnlineMatchService(OnlineMatchRepository onlineMatchRepository, MatchRepo matchRepo, UserRepo userRepo) {
+    public OnlineMatchService(OnlineMatchRepository onlineMatchRepository, MatchRepo matchRepo, UserRepo userRepo,
+            RoomCodeAllocator roomCodeAllocator) {
         this.onlineMatchRepository = onlineMatchRepository;
         this.matchRepo = matchRepo;
         this.userRepo = userRepo;
+        this.roomCodeAllocator = roomCodeAllocator;
     }
 
-    @Transactional
+    // Not one transaction: each insert attempt commits or fails on its own, so a collision can be retried
     public OnlineMatch createRoom(String hostUsername, Integer timeLimit) {
         User host = userRepo.getUserByUsername(hostUsername);
         if (host == null) {
             throw new RuntimeException("Host user not found");
         }
 
-        String roomCode = generateUniqueRoomCode();
-        OnlineMatch onlineMatch = new OnlineMatch(roomCode, host);
-        onlineMatch.setTimeLimit(timeLimit);
-        return onlineMatchRepository.save(onlineMatch);
+        for (int attempt = 1; ; attempt++) {
+            String roomCode = roomCodeAllocator.allocate();
+            OnlineMatch onlineMatch = new OnlineMatch(roomCode, host);
+            onlineMatch.setTimeLimit(timeLimit);
+            try {
+                return onlineMatchRepository.saveAndFlush(onlineMatch);
+            } catch (DataIntegrityViolationException e) {
+                if (!isDuplicateKey(e)) {
+                    roomCodeAllocator.release(roomCode);
+                    throw e;
+                }
+                // Held by a row this node did not know of, e.g. another instance on the same game.rooms.node;
+                // the code stays taken and a fresh one is tried
+                System.err.println("⚠️ Room code " + roomCode + " is already in use; is game.rooms.node shared?");
+                if (attempt == MAX_ROOM_CODE_ATTEMPTS) {
+                    throw new RuntimeException("Could not allocate a free room code");
+                }
+            } catch (RuntimeException e) {
+                roomCodeAllocator.release(roomCode);
+                throw e;
+            }
+        }
+    }
+
+    // room_code is the only unique column the insert can hit; MySQL reports it as error 1062
+    private static boolean isDuplicateKey(DataIntegrityViolationException e) {
+        return e instanceof DuplicateKeyException
+                || e.getMostSpecificCause() instanceof SQLException sql && sql.getErrorCode() == 1062;
     }
 
     @Transactional
@@ -90,7 +121,7 @@ public class OnlineMatchService {
         }
 
         Match match = new Match(p1, p2, MatchStatus.IN_PROGRESS, 0); // 0 ply means start
-        match.setFenCurrent("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+        match.setFenCurrent(Fen.START);
         match.setTimeLimit(room.getTimeLimit());
         match = matchRepo.save(match);
 
@@ -110,28 +141,27 @@ public class OnlineMatchService {
         Optional<Match> matchOpt = matchRepo.findById(matchId);
         if (matchOpt.isEmpty()) return;
 
-        Optional<OnlineMatch> onlineMatchOpt = onlineMatchRepository.findByMatch(matchOpt.get());
-        if (onlineMatchOpt.isEmpty()) return;
-
-        OnlineMatch onlineMatch = onlineMatchOpt.get();
+        MatchStatus matchStatus;
         try {
-            onlineMatch.setStatus(MatchStatus.valueOf(status.toUpperCase()));
+            matchStatus = MatchStatus.valueOf(status.toUpperCase());
         } catch (Exception e) {
-            onlineMatch.setStatus(MatchStatus.FINISHED);
+            matchStatus = MatchStatus.FINISHED;
         }
+
+        Match match = matchOpt.get();
+        User winner = null;
+        if (winnerName != null) {
+            winner = winnerName.equals(match.getPlayer1().getUsername()) ? match.getPlayer1() : match.getPlayer2();
+        }
+        // A full save would write back the currentPly/fenCurrent loaded above over the projector's newer ones
+        matchRepo.updateResult(matchId, matchStatus, winner, LocalDateTime.now());
+
+        Optional<OnlineMatch> onlineMatchOpt = onlineMatchRepository.findByMatch(match);
+        if (onlineMatchOpt.isEmpty()) return;
+
+        OnlineMatch onlineMatch = onlineMatchOpt.get();
+        onlineMatch.setStatus(matchStatus);
         onlineMatch.setWinnerName(winnerName);
         onlineMatchRepository.save(onlineMatch);
     }
-
-    private String generateUniqueRoomCode() {
-        String characters = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789"; // Removed ambiguous characters
-        StringBuilder code;
-        do {
-            code = new StringBuilder();
-            for (int i = 0; i < 6; i++) {
-                code.append(characters.charAt(random.nextInt(characters.length())));
-            }
-        } while (onlineMatchRepository.findByRoomCode(code.toString()).isPresent());
-        return code.toString();
-    }
 }
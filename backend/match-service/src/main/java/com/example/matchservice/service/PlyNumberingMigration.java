@@ -0,0 +1,83 @@
+package com.example.matchservice.service;
+
+import com.example.matchservice.archive.MatchArchiver;
+import com.example.matchservice.chess.Fen;
+import com.example.matchservice.journal.MoveProjector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Renumbers matches that matchmaking created at ply 1 instead of 0. Their first move was
+ * journaled as ply 2 and projected as Black's, so the rows of each such match are shifted down
+ * one ply with move number and colour recomputed, its {@code current_ply} follows, and the
+ * archiver gets another go at the finished ones it skipped. Matchmade matches with no moves
+ * yet are set to ply 0 at the start position. Runs once per startup, after the journal has
+ * been projected and before {@link GameRecoveryService} reads the rows; it is a no-op once
+ * every match is numbered from 1.
+ */
+@Component
+public class PlyNumberingMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(PlyNumberingMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MoveProjector moveProjector;
+    private final MatchArchiver matchArchiver;
+    private final TransactionTemplate transactionTemplate;
+
+    public PlyNumberingMigration(JdbcTemplate jdbcTemplate, MoveProjector moveProjector,
+            MatchArchiver matchArchiver, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.moveProjector = moveProjector;
+        this.matchArchiver = matchArchiver;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        try {
+            migrate();
+        } catch (RuntimeException e) {
+            log.error("Ply renumbering failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the number of matches renumbered.
+     */
+    public int migrate() {
+        // Entries journaled by the old numbering must be in the moves table before it is shifted
+        moveProjector.flush();
+        List<Long> shifted = jdbcTemplate.queryForList("select match_id from moves group by match_id "
+                + "having min(ply) = 2", Long.class);
+        Integer fresh = transactionTemplate.execute(status -> {
+            for (Long matchId : shifted) {
+                // Ascending so each row moves into the ply its predecessor just left; MySQL assigns left to right
+                jdbcTemplate.update("update moves set ply = ply - 1, move_number = (ply + 1) div 2, "
+                        + "color = if(ply % 2 = 1, 'WHITE', 'BLACK') where match_id = ? order by ply", matchId);
+                jdbcTemplate.update("update matches set current_ply = current_ply - 1 "
+                        + "where id = ? and current_ply > 0", matchId);
+            }
+            return jdbcTemplate.update("update matches m set m.current_ply = 0, m.fen_current = ? "
+                    + "where m.current_ply = 1 and m.fen_current is null "
+                    + "and not exists (select 1 from moves mv where mv.match_id = m.id)", Fen.START);
+        });
+        matchArchiver.forgetSkips(shifted);
+        int migrated = shifted.size() + (fresh == null ? 0 : fresh);
+        if (migrated > 0) {
+            log.info("Renumbered plies of {} matches created at ply 1", migrated);
+        }
+        return migrated;
+    }
+}
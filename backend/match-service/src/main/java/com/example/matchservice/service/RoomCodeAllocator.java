@@ -0,0 +1,222 @@
+package com.example.matchservice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Issues room codes from memory. A code is six characters of a 32-letter alphabet; the first
+ * is this node's {@code game.rooms.node} (0-31), so instances with distinct node numbers never
+ * issue the same code. With {@code game.matchmaking.cluster.enabled} the node must be set
+ * explicitly; a single instance defaults to 0. The other five characters hold 25 bits: a
+ * counter pushed through a fixed permutation so consecutive codes look unrelated. Codes this
+ * node has out are tracked in a bit set loaded with one query on first use; after that,
+ * issuing a code touches no table.
+ * <p>
+ * A scheduled job recycles codes: rooms whose game finished {@code game.rooms.finished-grace-minutes}
+ * ago, or that never started within {@code game.rooms.ttl-hours}, have their code replaced by
+ * {@code ~<id>} (keeping the unique column unique) and the code goes back on the free list,
+ * which is drawn from before the counter.
+ */
+@Component
+public class RoomCodeAllocator {
+
+    private static final Logger log = LoggerFactory.getLogger(RoomCodeAllocator.class);
+
+    public static final String ALPHABET = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789"; // Removed ambiguous characters
+    public static final String RETIRED_PREFIX = "~";
+
+    private static final int BITS = 25;
+    private static final int SPACE = 1 << BITS;
+    private static final int MASK = SPACE - 1;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final char prefix;
+    private final long finishedGraceMinutes;
+    private final long ttlHours;
+    private final int batchSize;
+    // Scrambled 25-bit values of this node's codes that are out, and codes handed back
+    private final BitSet taken = new BitSet(SPACE);
+    private final ArrayDeque<Integer> free = new ArrayDeque<>();
+    private int inUse;
+    private long counter;
+    private boolean loaded;
+
+    public RoomCodeAllocator(JdbcTemplate jdbcTemplate,
+            @Value("${game.rooms.node:}") String nodeSetting,
+            @Value("${game.matchmaking.cluster.enabled:false}") boolean clusterEnabled,
+            @Value("${game.rooms.finished-grace-minutes:30}") long finishedGraceMinutes,
+            @Value("${game.rooms.ttl-hours:24}") long ttlHours,
+            @Value("${game.rooms.recycle-batch-size:500}") int batchSize) {
+        if (nodeSetting.isBlank() && clusterEnabled) {
+            // Every instance on the default would issue from the same code space
+            throw new IllegalStateException("game.rooms.node must be set to a distinct 0-" + (ALPHABET.length() - 1)
+                    + " on each instance when game.matchmaking.cluster.enabled is on");
+        }
+        int node = nodeSetting.isBlank() ? 0 : Integer.parseInt(nodeSetting.trim());
+        if (node < 0 || node >= ALPHABET.length()) {
+            throw new IllegalArgumentException("game.rooms.node must be 0-" + (ALPHABET.length() - 1) + ", got " + node);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.prefix = ALPHABET.charAt(node);
+        this.finishedGraceMinutes = finishedGraceMinutes;
+        this.ttlHours = ttlHours;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Returns a code no room holds, preferring recycled ones.
+     */
+    public synchronized String allocate() {
+        load();
+        Integer recycled = free.pollFirst();
+        if (recycled != null) {
+            return take(recycled);
+        }
+        // After a restart the counter walks over codes still out; each is skipped once
+        for (int tries = 0; tries < SPACE && inUse < SPACE; tries++) {
+            int value = scramble((int) (counter++ & MASK));
+            if (!taken.get(value)) {
+                return take(value);
+            }
+        }
+        throw new RuntimeException("No free room codes on node " + prefix);
+    }
+
+    /**
+     * Hands back a code that was allocated but never stored because the insert failed for a
+     * reason other than the code being in use. A code that hit the unique key stays taken.
+     */
+    public synchronized void release(String code) {
+        int value = decode(code);
+        if (value >= 0 && taken.get(value)) {
+            taken.clear(value);
+            inUse--;
+            free.addLast(value);
+        }
+    }
+
+    public synchronized int inUse() {
+        return inUse;
+    }
+
+    public synchronized int freeCount() {
+        return free.size();
+    }
+
+    private String take(int value) {
+        taken.set(value);
+        inUse++;
+        return encode(value);
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        List<String> codes = jdbcTemplate.queryForList("select room_code from online_match where room_code like ?",
+                String.class, prefix + "%");
+        for (String code : codes) {
+            int value = decode(code);
+            if (value >= 0 && !taken.get(value)) {
+                taken.set(value);
+                inUse++;
+            }
+        }
+        loaded = true;
+        log.debug("Room codes: node {} has {} codes out", prefix, inUse);
+    }
+
+    @Scheduled(initialDelayString = "${game.rooms.recycle-initial-delay-ms:60000}",
+            fixedDelayString = "${game.rooms.recycle-interval-ms:300000}")
+    public void recycle() {
+        try {
+            int recycled = 0;
+            int page;
+            do {
+                page = recyclePage();
+                recycled += page;
+            } while (page == batchSize);
+            if (recycled > 0) {
+                log.info("Recycled {} room codes", recycled);
+            }
+        } catch (RuntimeException e) {
+            log.error("Room code recycling failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private int recyclePage() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList("select o.id, o.room_code from online_match o "
+                + "left join matches m on m.id = o.match_id where o.room_code like ? "
+                + "and ((m.finished_at is not null and m.finished_at < ?) or (o.match_id is null and o.created_at < ?)) "
+                + "limit ?",
+                prefix + "%", Timestamp.valueOf(now.minusMinutes(finishedGraceMinutes)),
+                Timestamp.valueOf(now.minusHours(ttlHours)), batchSize);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> retire = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            long id = ((Number) row.get("id")).longValue();
+            retire.add(new Object[]{RETIRED_PREFIX + id, id, row.get("room_code")});
+        }
+        // Guarded on the old code, so a row changed since the select is left alone
+        int[] updated = jdbcTemplate.batchUpdate("update online_match set room_code = ? where id = ? and room_code = ?",
+                retire);
+        int recycled = 0;
+        for (int i = 0; i < retire.size(); i++) {
+            if (updated[i] != 0) {
+                release((String) retire.get(i)[2]);
+                recycled++;
+            }
+        }
+        return recycled;
+    }
+
+    // Bijection on 25 bits: odd multipliers and right xorshifts are each invertible mod 2^25
+    static int scramble(int x) {
+        x = (x * 0x0B5AD4ED) & MASK;
+        x ^= x >>> 13;
+        x = (x * 0x01A3B6C5) & MASK;
+        x ^= x >>> 11;
+        return x;
+    }
+
+    private String encode(int value) {
+        char[] code = new char[6];
+        code[0] = prefix;
+        for (int i = 5; i > 0; i--) {
+            code[i] = ALPHABET.charAt(value & 31);
+            value >>>= 5;
+        }
+        return new String(code);
+    }
+
+    // The 25-bit value of one of this node's codes, or -1 for any other string
+    private int decode(String code) {
+        if (code == null || code.length() != 6 || code.charAt(0) != prefix) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = 1; i < 6; i++) {
+            int digit = ALPHABET.indexOf(code.charAt(i));
+            if (digit < 0) {
+                return -1;
+            }
+            value = (value << 5) | digit;
+        }
+        return value;
+    }
+}
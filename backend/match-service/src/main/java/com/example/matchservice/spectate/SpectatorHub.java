@@ -0,0 +1,277 @@
+package com.example.matchservice.spectate;
+
+import com.example.matchservice.model.DTO.SpectatorFrameDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Fan-out for spectators, who SUBSCRIBE to {@code /spectate/{matchId}}. That prefix is not a
+ * broker destination, so the simple broker never sees these subscriptions; the hub keeps them
+ * itself and writes MESSAGE frames straight to the client outbound channel.
+ * <p>
+ * Games report their latest {@link SpectatorFrameDTO} through {@link #update}. Every
+ * {@code game.spectate.tick-ms} the newest frame of each changed game is serialized once and
+ * the same byte array is offered to every spectator of the game. Each spectator has at most one
+ * frame in flight: a frame offered while the previous one is still being written replaces any
+ * frame already waiting, so a slow viewer skips to the latest position instead of working
+ * through stale ones, and a game's spectators never hold more than two frames each. A frame
+ * counts as written when the outbound channel's executor has handed it to the session's outbox.
+ */
+@Component
+public class SpectatorHub implements ExecutorChannelInterceptor {
+
+    public static final String DESTINATION_PREFIX = "/spectate/";
+
+    // Non-native header carrying the Spectator a frame belongs to; never written to the wire
+    private static final String SPECTATOR_HEADER = "spectator";
+
+    private final ObjectMapper objectMapper;
+    private final MessageChannel clientOutboundChannel;
+    private final Map<Long, Game> games = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Spectator>> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong framesSerialized = new AtomicLong();
+    private final AtomicLong framesSent = new AtomicLong();
+    private final AtomicLong framesSuperseded = new AtomicLong();
+    private volatile Consumer<Long> frameLoader = matchId -> { };
+
+    private static final class Game {
+        final Set<Spectator> spectators = ConcurrentHashMap.newKeySet();
+        final AtomicReference<SpectatorFrameDTO> changed = new AtomicReference<>();
+        final AtomicBoolean loadRequested = new AtomicBoolean();
+        volatile byte[] latest;
+    }
+
+    private final class Spectator {
+        final Long matchId;
+        final String sessionId;
+        final String subscriptionId;
+        final AtomicReference<byte[]> waiting = new AtomicReference<>();
+        final AtomicBoolean inFlight = new AtomicBoolean();
+        volatile boolean closed;
+
+        Spectator(Long matchId, String sessionId, String subscriptionId) {
+            this.matchId = matchId;
+            this.sessionId = sessionId;
+            this.subscriptionId = subscriptionId;
+        }
+
+        void offer(byte[] frame) {
+            if (waiting.getAndSet(frame) != null) {
+                framesSuperseded.incrementAndGet();
+            }
+            drain();
+        }
+
+        void written() {
+            inFlight.set(false);
+            drain();
+        }
+
+        // Whoever flips inFlight sends; a frame offered after the flag is cleared is picked up by the re-check
+        private void drain() {
+            while (!closed && waiting.get() != null && inFlight.compareAndSet(false, true)) {
+                byte[] frame = waiting.getAndSet(null);
+                if (frame != null) {
+                    send(this, frame);
+                    return;
+                }
+                inFlight.set(false);
+            }
+        }
+    }
+
+    // Lazy: the outbound channel is built from WebSocketConfig, which registers this hub on it
+    public SpectatorHub(ObjectMapper objectMapper,
+            @Lazy @Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel) {
+        this.objectMapper = objectMapper;
+        this.clientOutboundChannel = clientOutboundChannel;
+    }
+
+    /**
+     * Called with a match id when spectators arrive before the game has published a frame; it
+     * is expected to {@link #update} the game's current state.
+     */
+    public void setFrameLoader(Consumer<Long> frameLoader) {
+        this.frameLoader = frameLoader;
+    }
+
+    public boolean isWatched(Long matchId) {
+        return games.containsKey(matchId);
+    }
+
+    /**
+     * Records the game's latest state for the next tick. Frames for games nobody watches are
+     * dropped, so callers can skip building them when {@link #isWatched} is false.
+     */
+    public void update(Long matchId, SpectatorFrameDTO frame) {
+        Game game = games.get(matchId);
+        if (game != null) {
+            game.changed.set(frame);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${game.spectate.tick-ms:100}")
+    public void tick() {
+        for (Game game : games.values()) {
+            SpectatorFrameDTO frame = game.changed.getAndSet(null);
+            if (frame == null) {
+                continue;
+            }
+            byte[] bytes;
+            try {
+                bytes = objectMapper.writeValueAsBytes(frame);
+            } catch (JsonProcessingException e) {
+                System.err.println("⚠️ Could not serialize spectator frame for match " + frame.getMatchId()
+                        + ": " + e.getMessage());
+                continue;
+            }
+            framesSerialized.incrementAndGet();
+            game.latest = bytes;
+            for (Spectator spectator : game.spectators) {
+                spectator.offer(bytes);
+            }
+        }
+    }
+
+    /**
+     * Inbound side: tracks SUBSCRIBE, UNSUBSCRIBE and DISCONNECT for spectate destinations.
+     */
+    public ChannelInterceptor inbound() {
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+                if (accessor == null || accessor.getCommand() == null || accessor.getSessionId() == null) {
+                    return message;
+                }
+                StompCommand command = accessor.getCommand();
+                if (command == StompCommand.SUBSCRIBE && accessor.getSubscriptionId() != null) {
+                    String destination = accessor.getDestination();
+                    if (destination != null && destination.startsWith(DESTINATION_PREFIX)) {
+                        Long matchId = parseMatchId(destination);
+                        if (matchId == null) {
+                            throw new RuntimeException("Invalid spectate destination: " + destination);
+                        }
+                        subscribe(matchId, accessor.getSessionId(), accessor.getSubscriptionId());
+                    }
+                } else if (command == StompCommand.UNSUBSCRIBE && accessor.getSubscriptionId() != null) {
+                    Map<String, Spectator> subscriptions = sessions.get(accessor.getSessionId());
+                    if (subscriptions != null) {
+                        remove(subscriptions.remove(accessor.getSubscriptionId()));
+                    }
+                } else if (command == StompCommand.DISCONNECT) {
+                    Map<String, Spectator> subscriptions = sessions.remove(accessor.getSessionId());
+                    if (subscriptions != null) {
+                        subscriptions.values().forEach(SpectatorHub.this::remove);
+                    }
+                }
+                return message;
+            }
+        };
+    }
+
+    private void subscribe(Long matchId, String sessionId, String subscriptionId) {
+        Spectator spectator = new Spectator(matchId, sessionId, subscriptionId);
+        Game game = games.compute(matchId, (id, existing) -> {
+            Game g = existing != null ? existing : new Game();
+            g.spectators.add(spectator);
+            return g;
+        });
+        sessions.computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>()).put(subscriptionId, spectator);
+
+        byte[] latest = game.latest;
+        if (latest != null) {
+            spectator.offer(latest);
+        } else if (game.loadRequested.compareAndSet(false, true)) {
+            frameLoader.accept(matchId);
+        }
+    }
+
+    private void remove(Spectator spectator) {
+        if (spectator == null) {
+            return;
+        }
+        spectator.closed = true;
+        games.computeIfPresent(spectator.matchId, (id, game) -> {
+            game.spectators.remove(spectator);
+            return game.spectators.isEmpty() ? null : game;
+        });
+    }
+
+    private void send(Spectator spectator, byte[] frame) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(spectator.sessionId);
+        headers.setSubscriptionId(spectator.subscriptionId);
+        headers.setDestination(DESTINATION_PREFIX + spectator.matchId);
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        headers.setHeader(SPECTATOR_HEADER, spectator);
+        try {
+            clientOutboundChannel.send(MessageBuilder.createMessage(frame, headers.getMessageHeaders()));
+            framesSent.incrementAndGet();
+        } catch (RuntimeException e) {
+            System.err.println("⚠️ Could not send spectator frame to session " + spectator.sessionId + ": "
+                    + e.getMessage());
+            spectator.inFlight.set(false);
+        }
+    }
+
+    /**
+     * Outbound side: a spectator's frame has been written, so its next one may go.
+     */
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler,
+            Exception ex) {
+        if (message.getHeaders().get(SPECTATOR_HEADER) instanceof Spectator spectator) {
+            spectator.written();
+        }
+    }
+
+    private static Long parseMatchId(String destination) {
+        try {
+            return Long.valueOf(destination.substring(DESTINATION_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public int spectatorCount(Long matchId) {
+        Game game = games.get(matchId);
+        return game == null ? 0 : game.spectators.size();
+    }
+
+    public long getFramesSerialized() {
+        return framesSerialized.get();
+    }
+
+    public long getFramesSent() {
+        return framesSent.get();
+    }
+
+    public long getFramesSuperseded() {
+        return framesSuperseded.get();
+    }
+}
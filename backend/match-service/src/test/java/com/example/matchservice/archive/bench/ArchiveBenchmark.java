@@ -0,0 +1,111 @@
+package com.example.matchservice.archive.bench;
+
+import com.example.matchservice.archive.MatchArchiver;
+import com.example.matchservice.archive.PackedMoveList;
+import com.example.matchservice.chess.Fen;
+import com.example.matchservice.chess.MoveGenerator;
+import com.example.matchservice.chess.MoveList;
+import com.example.matchservice.chess.Position;
+import com.example.matchservice.chess.San;
+import com.example.matchservice.chess.Uci;
+import com.example.matchservice.model.Move;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Storage and read cost of a finished game as per-ply rows versus one {@link PackedMoveList}.
+ * Random games of 40-160 plies with a move every 1-30 s are stored both ways; row bytes count
+ * the column payloads (id, match_id, ply, move_number, color, packed_move, created_at, uci, san
+ * and both FENs) without InnoDB's per-row overhead, so the ratio is a lower bound. The read side
+ * times decoding the blob and replaying it into the same Move views the rows would give, and
+ * checks every rebuilt SAN, UCI, FEN and timestamp against the originals.
+ * <pre>
+ * java -cp target/classes:target/test-classes com.example.matchservice.archive.bench.ArchiveBenchmark [games]
+ * </pre>
+ */
+public class ArchiveBenchmark {
+
+    // id, match_id, ply, move_number, color, packed_move, created_at
+    private static final int FIXED_ROW_BYTES = 8 + 8 + 4 + 4 + 5 + 4 + 8;
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        SplittableRandom random = new SplittableRandom(13);
+        MoveList legal = new MoveList();
+
+        List<List<Move>> rows = new ArrayList<>(games);
+        List<byte[]> blobs = new ArrayList<>(games);
+        long rowBytes = 0, blobBytes = 0, plies = 0;
+        for (int g = 0; g < games; g++) {
+            Position position = Position.startPosition();
+            int length = 40 + random.nextInt(121);
+            List<Move> gameRows = new ArrayList<>(length);
+            int[] moves = new int[length];
+            long[] timestamps = new long[length];
+            long start = 1_700_000_000_000L + random.nextLong(1L << 32);
+            long clock = start;
+            int played = 0;
+            while (played < length) {
+                MoveGenerator.generateLegal(position, legal);
+                if (legal.isEmpty()) {
+                    break;
+                }
+                int move = legal.get(random.nextInt(legal.size()));
+                Move row = new Move();
+                row.setSan(San.toSan(position, move));
+                row.setUci(Uci.toUci(move));
+                row.setFenBefore(Fen.toFen(position));
+                position.makeMove(move);
+                row.setFenAfter(Fen.toFen(position));
+                gameRows.add(row);
+                clock += 1_000 + random.nextInt(29_000);
+                row.setCreatedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(clock), ZoneId.systemDefault()));
+                moves[played] = move;
+                timestamps[played++] = clock;
+                rowBytes += FIXED_ROW_BYTES + row.getSan().length() + row.getUci().length()
+                        + row.getFenBefore().length() + row.getFenAfter().length();
+            }
+            byte[] blob = new PackedMoveList(start, Arrays.copyOf(moves, played), Arrays.copyOf(timestamps, played))
+                    .encode();
+            rows.add(gameRows);
+            blobs.add(blob);
+            blobBytes += blob.length;
+            plies += played;
+        }
+        System.out.printf("%,d games, %,d plies%n", games, plies);
+        System.out.printf("rows  %,12d bytes  %,7.0f per game%n", rowBytes, (double) rowBytes / games);
+        System.out.printf("blob  %,12d bytes  %,7.0f per game  (%.1fx smaller)%n", blobBytes,
+                (double) blobBytes / games, (double) rowBytes / blobBytes);
+
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            long sink = 0;
+            for (byte[] blob : blobs) {
+                sink += MatchArchiver.replay(PackedMoveList.decode(blob)).size();
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("round %d  decode + replay %,6.1f us per game  %,5.0f ns per ply  (%d)%n", round,
+                    elapsed / 1e3 / games, (double) elapsed / plies, sink & 1);
+        }
+
+        for (int g = 0; g < games; g++) {
+            List<Move> rebuilt = MatchArchiver.replay(PackedMoveList.decode(blobs.get(g)));
+            List<Move> original = rows.get(g);
+            for (int i = 0; i < original.size(); i++) {
+                Move a = original.get(i), b = rebuilt.get(i);
+                if (!a.getSan().equals(b.getSan()) || !a.getUci().equals(b.getUci())
+                        || !a.getFenBefore().equals(b.getFenBefore()) || !a.getFenAfter().equals(b.getFenAfter())
+                        || !a.getCreatedAt().equals(b.getCreatedAt())) {
+                    throw new IllegalStateException("game " + g + " ply " + (i + 1) + " differs after replay");
+                }
+            }
+        }
+        System.out.println("all replays match the stored rows");
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.matchservice.archive.bench;
+
+import com.example.matchservice.archive.ReplayIndex;
+import com.example.matchservice.chess.Fen;
+import com.example.matchservice.chess.MoveGenerator;
+import com.example.matchservice.chess.MoveList;
+import com.example.matchservice.chess.Position;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Seek cost into a long game with {@link ReplayIndex} at several checkpoint intervals, against
+ * replaying from the start every time. Measures random seeks and stepping through the game one
+ * ply at a time (the review pattern), and checks every seek against a straight replay.
+ * <pre>
+ * java -cp target/classes:target/test-classes com.example.matchservice.archive.bench.ReplayIndexBenchmark [plies]
+ * </pre>
+ */
+public class ReplayIndexBenchmark {
+
+    public static void main(String[] args) {
+        int length = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+        SplittableRandom random = new SplittableRandom(17);
+        int[] moves = new int[length];
+        String[] fens = new String[length + 1];
+        Position position = Position.startPosition();
+        fens[0] = Fen.toFen(position);
+        MoveList legal = new MoveList();
+        int plies = 0;
+        while (plies < length) {
+            MoveGenerator.generateLegal(position, legal);
+            if (legal.isEmpty()) {
+                break;
+            }
+            moves[plies] = legal.get(random.nextInt(legal.size()));
+            position.makeMove(moves[plies++]);
+            fens[plies] = Fen.toFen(position);
+        }
+        moves = Arrays.copyOf(moves, plies);
+        System.out.printf("game of %d plies%n", plies);
+
+        int seeks = 200_000;
+        int[] targets = new int[seeks];
+        for (int i = 0; i < seeks; i++) {
+            targets[i] = random.nextInt(plies + 1);
+        }
+
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            long sink = 0;
+            for (int target : targets) {
+                Position replay = Position.startPosition();
+                for (int i = 0; i < target; i++) {
+                    replay.makeMove(moves[i]);
+                }
+                sink += replay.getKey();
+            }
+            System.out.printf("round %d  from start      random %,7.0f ns/seek  (%d)%n", round,
+                    (double) (System.nanoTime() - start) / seeks, sink & 1);
+
+            for (int interval : new int[] { 1, 8, 16, 32, 64 }) {
+                ReplayIndex index = new ReplayIndex(moves, interval, 8);
+                start = System.nanoTime();
+                for (int target : targets) {
+                    sink += index.positionAt(target).getKey();
+                }
+                long randomNanos = System.nanoTime() - start;
+                start = System.nanoTime();
+                for (int step = 0; step < seeks; step++) {
+                    // Forward through the game and back again
+                    int cycle = step % (2 * plies);
+                    sink += index.positionAt(cycle < plies ? cycle : 2 * plies - cycle).getKey();
+                }
+                long stepping = System.nanoTime() - start;
+                System.out.printf("round %d  every %2d plies  random %,7.0f ns/seek  stepping %,5.0f ns/seek  "
+                                + "checkpoints %d  (%d)%n", round, interval, (double) randomNanos / seeks,
+                        (double) stepping / seeks, plies / interval + 1, sink & 1);
+            }
+        }
+
+        ReplayIndex index = new ReplayIndex(moves, 16, 8);
+        for (int i = 0; i < 10_000; i++) {
+            int target = random.nextInt(plies + 1);
+            if (!Fen.toFen(index.positionAt(target)).equals(fens[target])) {
+                throw new IllegalStateException("seek to ply " + target + " disagrees with replay");
+            }
+        }
+        System.out.println("all seeks match a straight replay");
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.matchservice.chess;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FenTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            Fen.START,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "rnbqkbnr/pp1ppppp/8/2p5/4P3/8/PPPP1PPP/RNBQKBNR w KQkq c6 0 2",
+            "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            "r3k2r/8/8/8/8/8/8/R3K2R b Kq - 37 112",
+            "8/8/1k6/2b5/2pP4/8/5K2/8 b - d3 0 1",
+    })
+    void writesWhatItParsed(String fen) {
+        Position position = Fen.parse(fen);
+        assertEquals(fen, Fen.toFen(position));
+        StringBuilder out = new StringBuilder("prefix ");
+        Fen.write(position, out);
+        assertEquals("prefix " + fen, out.toString());
+    }
+
+    @Test
+    void missingClocksDefaultToStart() {
+        assertEquals(Fen.START, Fen.toFen(Fen.parse("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq -")));
+    }
+
+    @Test
+    void tracksCastlingEnPassantAndClocksThroughPlay() {
+        Position position = Position.startPosition();
+        for (String uci : new String[]{"e2e4", "g8f6", "g1f3", "h8g8", "f1c4", "d7d5"}) {
+            position.makeMove(Uci.parse(position, uci));
+        }
+        assertEquals("rnbqkbr1/ppp1pppp/5n2/3p4/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQq d6 0 4", Fen.toFen(position));
+
+        position.makeMove(Uci.parse(position, "e1g1"));
+        position.makeMove(Uci.parse(position, "g8h8"));
+        assertEquals("rnbqkb1r/ppp1pppp/5n2/3p4/2B1P3/5N2/PPPP1PPP/RNBQ1RK1 w q - 2 5", Fen.toFen(position));
+    }
+
+    @Test
+    void everyPositionInATreeRoundTrips() {
+        Position root = Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        assertEquals(97_862, walk(root, 3));
+    }
+
+    // Parses every position reached back from its FEN and compares board, state and key
+    private static long walk(Position position, int depth) {
+        Position parsed = Fen.parse(Fen.toFen(position));
+        assertEquals(Fen.toFen(position), Fen.toFen(parsed));
+        assertEquals(position.getKey(), parsed.getKey());
+        if (depth == 0) {
+            return 1;
+        }
+        MoveList moves = new MoveList();
+        MoveGenerator.generateLegal(position, moves);
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            long undo = position.makeMove(moves.get(i));
+            nodes += walk(position, depth - 1);
+            position.unmakeMove(moves.get(i), undo);
+        }
+        return nodes;
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1",
+            "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQQBNR w KQkq - 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQxq - 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e4 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - x 1",
+    })
+    void rejectsMalformedFen(String fen) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> Fen.parse(fen));
+        assertTrue(e.getMessage().startsWith("Invalid FEN"));
+    }
+}
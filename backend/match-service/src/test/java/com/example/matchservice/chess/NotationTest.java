@@ -0,0 +1,112 @@
+package com.example.matchservice.chess;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * SAN and UCI codecs: every legal move in a small tree from positions rich in castling,
+ * promotions, en passant and ambiguous pieces parses back from its own text, plus the
+ * spellings players actually send.
+ */
+class NotationTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            Fen.START,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "n1n5/PPPk4/8/8/8/8/4Kppp/5N1N b - - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "N3k2N/8/8/3N4/N4N1N/2R5/1R6/4K3 w - - 0 1",
+    })
+    void everyLegalMoveRoundTrips(String fen) {
+        walk(Fen.parse(fen), 2);
+    }
+
+    private static void walk(Position position, int depth) {
+        MoveList moves = new MoveList();
+        MoveGenerator.generateLegal(position, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            String san = San.toSan(position, move);
+            assertEquals(move, San.parse(position, san), san + " in " + Fen.toFen(position));
+            String uci = Uci.toUci(move);
+            assertEquals(move, Uci.parse(position, uci), uci + " in " + Fen.toFen(position));
+            if (depth > 1) {
+                long undo = position.makeMove(move);
+                walk(position, depth - 1);
+                position.unmakeMove(move, undo);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "'r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1', e1g1, O-O",
+            "'r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1', e1c1, O-O-O",
+            "'r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1', d5e6, dxe6",
+            "'r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1', f3f6, Qxf6",
+            "'r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1', e5f7, Nxf7",
+            "'n1n5/PPPk4/8/8/8/8/4Kppp/5N1N b - - 0 1', g2f1q, gxf1=Q+",
+            "'n1n5/PPPk4/8/8/8/8/4Kppp/5N1N b - - 0 1', g2g1n, g1=N+",
+            "'N3k2N/8/8/3N4/N4N1N/2R5/1R6/4K3 w - - 0 1', d5c7, Ndc7+",
+            "'N3k2N/8/8/3N4/N4N1N/2R5/1R6/4K3 w - - 0 1', h4g6, Nh4g6",
+            "'N3k2N/8/8/3N4/N4N1N/2R5/1R6/4K3 w - - 0 1', a4b6, N4b6",
+            "'N3k2N/8/8/3N4/N4N1N/2R5/1R6/4K3 w - - 0 1', b2c2, Rbc2",
+            "'6k1/5ppp/8/8/8/8/8/R3K3 w - - 0 1', a1a8, Ra8#",
+            "'8/8/1k6/2b5/2pP4/8/5K2/8 b - d3 0 1', c4d3, cxd3+",
+    })
+    void writesStandardSan(String fen, String uci, String san) {
+        Position position = Fen.parse(fen);
+        int move = Uci.parse(position, uci);
+        assertEquals(san, San.toSan(position, move));
+        assertEquals(fen, Fen.toFen(position));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "0-0, e1g1",
+            "O-O-O+, e1c1",
+            "Qxf6!?, f3f6",
+            "Qf6, f3f6",
+            "dxe6, d5e6",
+            "a3, a2a3",
+    })
+    void acceptsSanVariants(String san, String uci) {
+        Position position = Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        assertEquals(Uci.parse(position, uci), San.parse(position, san));
+    }
+
+    @Test
+    void acceptsPromotionWithoutEquals() {
+        Position position = Fen.parse("n1n5/PPPk4/8/8/8/8/4Kppp/5N1N b - - 0 1");
+        assertEquals(Uci.parse(position, "g2g1q"), San.parse(position, "g1Q"));
+    }
+
+    @Test
+    void rejectsMovesThatAreNotLegalOrNotUnique() {
+        Position position = Fen.parse("N3k2N/8/8/3N4/N4N1N/2R5/1R6/4K3 w - - 0 1");
+        assertEquals(PackedMove.NONE, San.parse(position, "Ng6"), "two knights reach g6");
+        assertEquals(PackedMove.NONE, San.parse(position, "Qd4"), "no queen");
+        assertEquals(PackedMove.NONE, Uci.parse(position, "e1e3"), "king cannot go two squares");
+
+        Position promotion = Fen.parse("n1n5/PPPk4/8/8/8/8/4Kppp/5N1N b - - 0 1");
+        assertEquals(PackedMove.NONE, Uci.parse(promotion, "g2g1"), "UCI needs the promotion piece");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "e", "z9", "Nxj4", "Kx", "N%f3"})
+    void rejectsMalformedSan(String text) {
+        assertThrows(IllegalArgumentException.class, () -> San.parse(Position.startPosition(), text));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "e2", "e2e", "e2e4e5", "e7e8k", "i2i4", "e0e4"})
+    void rejectsMalformedUci(String text) {
+        assertThrows(IllegalArgumentException.class, () -> Uci.parse(Position.startPosition(), text));
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.matchservice.chess;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Move generator correctness: node counts for the standard perft positions plus the en-passant,
+ * castling and promotion edge cases, counted serially and with the fork-join root split.
+ */
+class PerftTest {
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void startPool() {
+        pool = new ForkJoinPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.shutdown();
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource(delimiter = '|', textBlock = """
+            start                   | rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1              | 5 | 4865609
+            kiwipete                | r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1  | 4 | 4085603
+            position 3              | 8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1                            | 5 | 674624
+            position 4              | r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1     | 4 | 422333
+            position 5              | rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8            | 3 | 62379
+            position 6              | r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10 | 3 | 89890
+            promotions              | n1n5/PPPk4/8/8/8/8/4Kppp/5N1N b - - 0 1                              | 4 | 182838
+            illegal ep (discovered) | 8/8/1k6/2b5/2pP4/8/5K2/8 b - d3 0 1                                  | 6 | 1440467
+            illegal ep (pinned)     | 3k4/3p4/8/K1P4r/8/8/8/8 b - - 0 1                                    | 6 | 1134888
+            ep gives check          | 8/8/4k3/8/2p5/8/B2P2K1/8 w - - 0 1                                   | 6 | 1015133
+            castle gives check      | 5k2/8/8/8/8/8/8/4K2R w K - 0 1                                       | 6 | 661072
+            promote out of check    | 2K2r2/4P3/8/8/8/8/8/3k4 w - - 0 1                                    | 6 | 3821001
+            underpromote to check   | 8/P1k5/K7/8/8/8/8/8 w - - 0 1                                        | 6 | 92683
+            self stalemate          | K1k5/8/P7/8/8/8/8/8 w - - 0 1                                        | 6 | 2217
+            """)
+    void countsMatchReference(String name, String fen, int depth, long nodes) {
+        Position position = Fen.parse(fen);
+        assertEquals(nodes, Perft.count(position, depth), "serial");
+        assertEquals(fen, Fen.toFen(position), "make/unmake left the position changed");
+        assertEquals(nodes, Perft.countParallel(position, depth, pool), "parallel");
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.matchservice.chess.bench;
+
+import com.example.matchservice.chess.Fen;
+import com.example.matchservice.chess.Position;
+
+/**
+ * Compares {@link Fen} against the String[][] walk GameService.convertBoardToFEN used to do
+ * (which also had to build the board first, and hard-coded "KQkq - 0 1").
+ */
+public class FenBenchmark {
+
+    private static final String[] FENS = {
+            Fen.START,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "rnbqkbnr/pp1ppppp/8/2p5/4P3/8/PPPP1PPP/RNBQKBNR w KQkq c6 0 2",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+    };
+
+    public static void main(String[] args) {
+        Position[] positions = new Position[FENS.length];
+        for (int i = 0; i < FENS.length; i++) {
+            positions[i] = Fen.parse(FENS[i]);
+            String written = Fen.toFen(positions[i]);
+            if (!written.equals(FENS[i])) {
+                throw new IllegalStateException("Round trip failed: " + FENS[i] + " -> " + written);
+            }
+        }
+
+        int iterations = 2_000_000;
+        StringBuilder reused = new StringBuilder(96);
+        for (int round = 0; round < 3; round++) {
+            long sink = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                Position position = positions[i & 3];
+                sink += legacyConvertBoardToFen(position.toBoardArray(), position.isWhiteToMove()).length();
+            }
+            double legacy = (double) (System.nanoTime() - start) / iterations;
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                sink += Fen.toFen(positions[i & 3]).length();
+            }
+            double toFen = (double) (System.nanoTime() - start) / iterations;
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                reused.setLength(0);
+                Fen.write(positions[i & 3], reused);
+                sink += reused.length();
+            }
+            double write = (double) (System.nanoTime() - start) / iterations;
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                sink += Fen.parse(FENS[i & 3]).getHalfmoveClock();
+            }
+            double parse = (double) (System.nanoTime() - start) / iterations;
+
+            System.out.printf("round %d  ns/op legacy board+FEN: %.1f  Fen.toFen: %.1f  Fen.write (reused): %.1f  Fen.parse: %.1f  (%d)%n",
+                    round, legacy, toFen, write, parse, sink & 1);
+        }
+    }
+
+    private static String legacyConvertBoardToFen(String[][] board, boolean isWhiteTurn) {
+        StringBuilder fen = new StringBuilder();
+        for (int row = 0; row < 8; row++) {
+            int emptyCount = 0;
+            for (int col = 0; col < 8; col++) {
+                String piece = board[row][col];
+                if (piece == null || piece.isEmpty()) {
+                    emptyCount++;
+                } else {
+                    if (emptyCount > 0) {
+                        fen.append(emptyCount);
+                        emptyCount = 0;
+                    }
+                    fen.append(piece);
+                }
+            }
+            if (emptyCount > 0) {
+                fen.append(emptyCount);
+            }
+            if (row < 7) {
+                fen.append("/");
+            }
+        }
+        fen.append(" ").append(isWhiteTurn ? "w" : "b");
+        fen.append(" ").append("KQkq");
+        fen.append(" ").append("-");
+        fen.append(" ").append("0 1");
+        return fen.toString();
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.matchservice.chess.bench;
+
+import com.example.matchservice.chess.Adjudicator;
+import com.example.matchservice.chess.MoveGenerator;
+import com.example.matchservice.chess.MoveList;
+import com.example.matchservice.chess.Piece;
+import com.example.matchservice.chess.Position;
+import com.example.matchservice.chess.PositionHistory;
+import com.example.matchservice.chess.Square;
+
+/**
+ * Measures the cost of validating one incoming move the way GameService does, of adjudicating
+ * the resulting position, and of full legal move generation, over a short opening line.
+ */
+public class MoveValidationBenchmark {
+
+    // 1.e4 e5 2.Nf3 Nc6 3.Bb5 a6 4.O-O
+    private static final int[][] LINE = {
+            { Square.of(4, 1), Square.of(4, 3) }, { Square.of(4, 6), Square.of(4, 4) },
+            { Square.G1, Square.of(5, 2) }, { Square.B8, Square.of(2, 5) },
+            { Square.F1, Square.of(1, 4) }, { Square.of(0, 6), Square.of(0, 5) },
+            { Square.E1, Square.G1 } };
+
+    public static void main(String[] args) {
+        Position[] positions = new Position[LINE.length];
+        Position[] after = new Position[LINE.length];
+        int[] played = new int[LINE.length];
+        Position position = Position.startPosition();
+        PositionHistory history = new PositionHistory(position.getKey());
+        for (int i = 0; i < LINE.length; i++) {
+            positions[i] = position.copy();
+            int move = MoveGenerator.findLegalMove(position, LINE[i][0], LINE[i][1], Piece.NONE);
+            if (move == 0) {
+                throw new IllegalStateException("Line move " + i + " rejected");
+            }
+            position.makeMove(move);
+            history.push(position.getKey());
+            after[i] = position.copy();
+            played[i] = move;
+        }
+
+        int iterations = 10_000_000;
+        MoveList moves = new MoveList();
+        for (int round = 0; round < 3; round++) {
+            long sink = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                int ply = i % LINE.length;
+                sink += MoveGenerator.findLegalMove(positions[ply], LINE[ply][0], LINE[ply][1], Piece.NONE);
+            }
+            double validateNanos = (double) (System.nanoTime() - start) / iterations;
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                int ply = i % LINE.length;
+                sink += Adjudicator.adjudicate(after[ply], played[ply], history).ordinal();
+            }
+            double adjudicateNanos = (double) (System.nanoTime() - start) / iterations;
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations / 10; i++) {
+                MoveGenerator.generateLegal(positions[i % LINE.length], moves);
+                sink += moves.size();
+            }
+            double generateNanos = (double) (System.nanoTime() - start) / (iterations / 10);
+            System.out.printf("round %d  ns/validated move: %.1f  ns/adjudication: %.1f  ns/full legal generation: %.1f  (%d)%n",
+                    round, validateNanos, adjudicateNanos, generateNanos, sink & 1);
+        }
+    }
+}
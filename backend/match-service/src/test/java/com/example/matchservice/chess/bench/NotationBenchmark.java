@@ -0,0 +1,126 @@
+package com.example.matchservice.chess.bench;
+
+import com.example.matchservice.chess.Fen;
+import com.example.matchservice.chess.MoveGenerator;
+import com.example.matchservice.chess.MoveList;
+import com.example.matchservice.chess.PackedMove;
+import com.example.matchservice.chess.Piece;
+import com.example.matchservice.chess.Position;
+import com.example.matchservice.chess.San;
+import com.example.matchservice.chess.Uci;
+
+/**
+ * Round-trips every legal move two plies deep from a few tricky positions through {@link San}
+ * and {@link Uci}, checks some known SAN strings, then compares the codecs against the string
+ * concatenation GameService.createMoveNotation/createUCI used to do.
+ */
+public class NotationBenchmark {
+
+    private static final String[] FENS = {
+            Fen.START,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "n1n5/PPPk4/8/8/8/8/4Kppp/5N1N b - - 0 1",
+            "4k3/8/8/8/8/Q7/4K3/Q1Q5 w - - 0 1",
+    };
+
+    private static final String[][] KNOWN = {
+            { "4k3/8/8/8/8/8/4K3/R6R w - - 0 1", "a1d1", "Rad1" },
+            { "4k3/8/8/R7/8/8/4K3/R7 w - - 0 1", "a1a3", "R1a3" },
+            { "4k3/8/8/8/8/Q7/4K3/Q1Q5 w - - 0 1", "a1b2", "Qa1b2" },
+            { "4k3/8/8/3b4/8/5N2/8/1N5K w - - 0 1", "b1d2", "Nd2" },
+            { "rnbqkbnr/ppp1pppp/8/3p4/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 0 2", "e4d5", "exd5" },
+            { "rnbqkbnr/ppppp2p/5p2/6p1/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 0 3", "d1h5", "Qh5#" },
+            { "r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1", "e1c1", "O-O-O" },
+            { "n1n5/PPPk4/8/8/8/8/4Kppp/5N1N w - - 0 1", "b7a8n", "bxa8=N" },
+            { "8/8/8/8/8/k7/8/K6R w - - 0 1", "h1h3", "Rh3+" },
+    };
+
+    public static void main(String[] args) {
+        int checked = 0;
+        MoveList first = new MoveList(), second = new MoveList();
+        for (String fen : FENS) {
+            Position position = Fen.parse(fen);
+            MoveGenerator.generateLegal(position, first);
+            for (int i = 0; i < first.size(); i++) {
+                checked += roundTrip(position, first.get(i));
+                long undo = position.makeMove(first.get(i));
+                MoveGenerator.generateLegal(position, second);
+                for (int j = 0; j < second.size(); j++) {
+                    checked += roundTrip(position, second.get(j));
+                }
+                position.unmakeMove(first.get(i), undo);
+            }
+        }
+        for (String[] known : KNOWN) {
+            Position position = Fen.parse(known[0]);
+            String san = San.toSan(position, Uci.parse(position, known[1]));
+            if (!san.equals(known[2])) {
+                throw new IllegalStateException(known[1] + " in " + known[0] + " wrote " + san + ", expected " + known[2]);
+            }
+        }
+        System.out.printf("round-tripped %,d moves, %d known SAN strings OK%n", checked, KNOWN.length);
+
+        Position position = Fen.parse(FENS[1]);
+        MoveList moves = new MoveList();
+        MoveGenerator.generateLegal(position, moves);
+        int iterations = 5_000_000;
+        StringBuilder reused = new StringBuilder(16);
+        for (int round = 0; round < 3; round++) {
+            long sink = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                int move = moves.get(i % moves.size());
+                sink += legacyNotation(position, move).length() + legacyUci(move).length() * 2L;
+            }
+            double legacy = (double) (System.nanoTime() - start) / iterations;
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                sink += Uci.toUci(moves.get(i % moves.size())).length();
+            }
+            double uci = (double) (System.nanoTime() - start) / iterations;
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                reused.setLength(0);
+                San.write(position, moves.get(i % moves.size()), reused);
+                sink += reused.length();
+            }
+            double san = (double) (System.nanoTime() - start) / iterations;
+
+            System.out.printf("round %d  ns/move legacy notation+2x UCI: %.1f  Uci.toUci: %.1f  San.write: %.1f  (%d)%n",
+                    round, legacy, uci, san, sink & 1);
+        }
+    }
+
+    private static int roundTrip(Position position, int move) {
+        String uci = Uci.toUci(move);
+        if (Uci.parse(position, uci) != move) {
+            throw new IllegalStateException("UCI round trip failed for " + uci + " in " + Fen.toFen(position));
+        }
+        String san = San.toSan(position, move);
+        if (San.parse(position, san) != move) {
+            throw new IllegalStateException("SAN round trip failed for " + san + " in " + Fen.toFen(position));
+        }
+        return 1;
+    }
+
+    // What GameService used to build from the request, without disambiguation or check marks
+    private static String legacyNotation(Position position, int move) {
+        int to = PackedMove.to(move);
+        String piece = Piece.string(position.pieceAt(PackedMove.from(move)));
+        String toSquare = String.valueOf((char) ('a' + to % 8)) + (to / 8 + 1);
+        String pieceSymbol = "p".equalsIgnoreCase(piece) ? "" : piece.toUpperCase();
+        String capture = PackedMove.isCapture(move) ? "x" : "";
+        return pieceSymbol + capture + toSquare;
+    }
+
+    private static String legacyUci(int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        String fromFile = Character.toString((char) ('a' + from % 8));
+        String toFile = Character.toString((char) ('a' + to % 8));
+        return fromFile + (from / 8 + 1) + toFile + (to / 8 + 1);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.matchservice.chess.bench;
+
+import com.example.matchservice.chess.Fen;
+import com.example.matchservice.chess.Perft;
+import com.example.matchservice.chess.Position;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Perft throughput report for the move generator, at {@code PerftTest}'s depths or, with
+ * {@code full}, one ply deeper. Every reference position is counted serially and with the
+ * fork-join root split; any node-count mismatch fails the run.
+ * <pre>
+ * mvn -pl match-service -Pperft verify          # quick depths
+ * java -cp target/classes:target/test-classes com.example.matchservice.chess.bench.PerftSuite full [threads]
+ * </pre>
+ */
+public class PerftSuite {
+
+    private record Case(String name, String fen, int quickDepth, long quickNodes, int fullDepth, long fullNodes) {
+    }
+
+    private static final Case[] CASES = {
+            new Case("start", Fen.START, 5, 4_865_609L, 6, 119_060_324L),
+            new Case("kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                    4, 4_085_603L, 5, 193_690_690L),
+            new Case("position 3", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", 5, 674_624L, 6, 11_030_083L),
+            new Case("position 4", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                    4, 422_333L, 5, 15_833_292L),
+            new Case("position 5", "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                    3, 62_379L, 4, 2_103_487L),
+            new Case("position 6", "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+                    3, 89_890L, 4, 3_894_594L),
+            new Case("promotions", "n1n5/PPPk4/8/8/8/8/4Kppp/5N1N b - - 0 1", 4, 182_838L, 5, 3_605_103L),
+            new Case("illegal ep (discovered)", "8/8/1k6/2b5/2pP4/8/5K2/8 b - d3 0 1", 6, 1_440_467L, 6, 1_440_467L),
+            new Case("illegal ep (pinned)", "3k4/3p4/8/K1P4r/8/8/8/8 b - - 0 1", 6, 1_134_888L, 6, 1_134_888L),
+            new Case("ep gives check", "8/8/4k3/8/2p5/8/B2P2K1/8 w - - 0 1", 6, 1_015_133L, 6, 1_015_133L),
+            new Case("castle gives check", "5k2/8/8/8/8/8/8/4K2R w K - 0 1", 6, 661_072L, 6, 661_072L),
+            new Case("promote out of check", "2K2r2/4P3/8/8/8/8/8/3k4 w - - 0 1", 6, 3_821_001L, 6, 3_821_001L),
+            new Case("underpromote to check", "8/P1k5/K7/8/8/8/8/8 w - - 0 1", 6, 92_683L, 6, 92_683L),
+            new Case("self stalemate", "K1k5/8/P7/8/8/8/8/8 w - - 0 1", 6, 2_217L, 6, 2_217L),
+    };
+
+    public static void main(String[] args) {
+        boolean full = args.length > 0 && "full".equals(args[0]);
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+
+        int failures = 0;
+        long serialNodes = 0, serialNanos = 0, parallelNodes = 0, parallelNanos = 0;
+        for (Case c : CASES) {
+            int depth = full ? c.fullDepth() : c.quickDepth();
+            long expected = full ? c.fullNodes() : c.quickNodes();
+            Position position = Fen.parse(c.fen());
+
+            long start = System.nanoTime();
+            long serial = Perft.count(position, depth);
+            long serialTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long parallel = Perft.countParallel(position, depth, pool);
+            long parallelTime = System.nanoTime() - start;
+
+            boolean ok = serial == expected && parallel == expected;
+            if (!ok) {
+                failures++;
+            }
+            serialNodes += serial;
+            serialNanos += serialTime;
+            parallelNodes += parallel;
+            parallelNanos += parallelTime;
+            System.out.printf("%-24s depth %d  expected %,13d  serial %,13d  parallel %,13d  %s%n",
+                    c.name(), depth, expected, serial, parallel, ok ? "OK" : "MISMATCH");
+        }
+        pool.shutdown();
+
+        System.out.printf("serial:   %,d nodes/s%n", nodesPerSecond(serialNodes, serialNanos));
+        System.out.printf("parallel: %,d nodes/s on %d threads%n", nodesPerSecond(parallelNodes, parallelNanos), threads);
+        if (failures > 0) {
+            throw new IllegalStateException(failures + " perft position(s) returned wrong node counts");
+        }
+    }
+
+    private static long nodesPerSecond(long nodes, long nanos) {
+        return nanos == 0 ? 0 : nodes * 1_000_000_000L / nanos;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.matchservice.chess.bench;
+
+import com.example.matchservice.chess.PackedMove;
+import com.example.matchservice.chess.Position;
+import com.example.matchservice.chess.Square;
+
+/**
+ * Compares the per-game heap cost and update time of {@link Position} against the String[][]
+ * boards GameService used to keep. Run with:
+ * <pre>
+ * java -cp target/classes:target/test-classes com.example.matchservice.chess.bench.PositionBenchmark [games]
+ * </pre>
+ */
+public class PositionBenchmark {
+
+    // Knight shuffle that returns to the start position every four plies
+    private static final int[][] SHUFFLE = {
+            { Square.G1, Square.of(5, 2) }, { Square.G8, Square.of(5, 5) },
+            { Square.of(5, 2), Square.G1 }, { Square.of(5, 5), Square.G8 } };
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+
+        long stringBytes = measureBytes(games, PositionBenchmark::deserializedBoard);
+        long positionBytes = measureBytes(games, Position::startPosition);
+        System.out.printf("bytes/game  String[][] (as deserialized from JSON): %d%n", stringBytes);
+        System.out.printf("bytes/game  Position:                             %d%n", positionBytes);
+
+        int updates = 5_000_000;
+        for (int round = 0; round < 3; round++) {
+            double stringNanos = timeStringUpdates(updates);
+            double positionNanos = timePositionUpdates(updates);
+            double edgeNanos = timeEdgeConversion(updates / 10);
+            System.out.printf("round %d  ns/update String[][]: %.1f  Position: %.1f  Position->String[][]: %.1f%n",
+                    round, stringNanos, positionNanos, edgeNanos);
+        }
+    }
+
+    private static long measureBytes(int games, java.util.function.Supplier<Object> factory) {
+        Object[] holder = new Object[games];
+        long before = usedHeap();
+        for (int i = 0; i < games; i++) {
+            holder[i] = factory.get();
+        }
+        long after = usedHeap();
+        if (holder[games - 1] == null) {
+            throw new IllegalStateException();
+        }
+        return (after - before) / games;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    // Jackson creates a fresh String for every cell of an incoming MoveRequest board
+    private static String[][] deserializedBoard() {
+        String[][] board = Position.startPosition().toBoardArray();
+        for (String[] row : board) {
+            for (int col = 0; col < 8; col++) {
+                row[col] = new String(row[col].toCharArray());
+            }
+        }
+        return board;
+    }
+
+    // Old path: each ply replaces the whole board with the client's copy
+    private static double timeStringUpdates(int updates) {
+        String[][] board = deserializedBoard();
+        long start = System.nanoTime();
+        for (int i = 0; i < updates; i++) {
+            int[] move = SHUFFLE[i & 3];
+            String[][] next = new String[8][];
+            for (int row = 0; row < 8; row++) {
+                next[row] = board[row].clone();
+            }
+            next[Square.row(move[1])][Square.col(move[1])] = next[Square.row(move[0])][Square.col(move[0])];
+            next[Square.row(move[0])][Square.col(move[0])] = "";
+            board = next;
+        }
+        long elapsed = System.nanoTime() - start;
+        blackhole(board[0][0].length());
+        return (double) elapsed / updates;
+    }
+
+    private static double timePositionUpdates(int updates) {
+        Position position = Position.startPosition();
+        long start = System.nanoTime();
+        for (int i = 0; i < updates; i++) {
+            int[] move = SHUFFLE[i & 3];
+            position.makeMove(PackedMove.of(move[0], move[1], PackedMove.QUIET));
+        }
+        long elapsed = System.nanoTime() - start;
+        blackhole(position.getHalfmoveClock());
+        return (double) elapsed / updates;
+    }
+
+    private static double timeEdgeConversion(int conversions) {
+        Position position = Position.startPosition();
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < conversions; i++) {
+            sink += position.toBoardArray()[i & 7].length;
+        }
+        long elapsed = System.nanoTime() - start;
+        blackhole((int) sink);
+        return (double) elapsed / conversions;
+    }
+
+    private static volatile int sink;
+
+    private static void blackhole(int value) {
+        sink += value;
+    }
+}
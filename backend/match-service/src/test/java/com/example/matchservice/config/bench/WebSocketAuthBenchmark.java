@@ -0,0 +1,195 @@
+package com.example.matchservice.config.bench;
+
+import com.example.matchservice.config.WebSocketAuthInterceptor;
+import com.example.matchservice.service.JwtService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.util.StringUtils;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.Principal;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Frames per second through the client inbound channel with the authentication interceptor in
+ * front, before and after authentication moved to CONNECT. Sessions CONNECT once with the JWT
+ * cookie in their handshake attributes and then send SEND and SUBSCRIBE frames, built the way
+ * the STOMP handler builds them. The old interceptor is reproduced here as it was: token
+ * extraction and a stdout line on every frame, and a JWT parse with a freshly built key
+ * whenever the frame carries no principal. It runs twice, with Spring attaching the CONNECT
+ * principal to later frames and without. stdout is discarded while measuring, so the old
+ * numbers leave out the cost of actually writing those lines. Needs Spring messaging, Spring
+ * Security and jjwt on the classpath.
+ * <pre>
+ * java -cp target/classes:target/test-classes:... com.example.matchservice.config.bench.WebSocketAuthBenchmark [sessions] [framesPerSession]
+ * </pre>
+ */
+public class WebSocketAuthBenchmark {
+
+    // The secret JwtService verifies with
+    private static final String SECRET = "aluesgo8q37g4tifqbhrefg8g3124ib801g7br18b7gb17g4b";
+
+    public static void main(String[] args) {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        int framesPerSession = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        String[] tokens = new String[sessions];
+        for (int s = 0; s < sessions; s++) {
+            tokens[s] = Jwts.builder()
+                    .setSubject("player" + s)
+                    .setIssuedAt(new Date())
+                    .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 5))
+                    .signWith(key, SignatureAlgorithm.HS256)
+                    .compact();
+        }
+
+        PrintStream stdout = System.out;
+        PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+        for (int round = 0; round < 5; round++) {
+            stdout.println("round " + round);
+            System.setOut(discard);
+            double legacyCarried = run(new LegacyAuthInterceptor(), tokens, framesPerSession, true);
+            double legacyBare = run(new LegacyAuthInterceptor(), tokens, framesPerSession, false);
+            double connectOnly = run(new WebSocketAuthInterceptor(new JwtService()), tokens, framesPerSession, false);
+            System.setOut(stdout);
+            stdout.printf("  before, principal carried by Spring %,12.0f frames/s%n", legacyCarried);
+            stdout.printf("  before, no principal on frames      %,12.0f frames/s%n", legacyBare);
+            stdout.printf("  after, CONNECT only                 %,12.0f frames/s  (%.1fx, %.1fx)%n", connectOnly,
+                    connectOnly / legacyCarried, connectOnly / legacyBare);
+        }
+    }
+
+    // Frames per second, CONNECTs included, through a synchronous channel with one no-op subscriber
+    private static double run(ChannelInterceptor interceptor, String[] tokens, int framesPerSession,
+            boolean springCarriesPrincipal) {
+        ExecutorSubscribableChannel channel = new ExecutorSubscribableChannel();
+        channel.addInterceptor(interceptor);
+        long[] received = new long[1];
+        channel.subscribe(message -> received[0]++);
+        byte[] body = "{\"fromRow\":6,\"fromCol\":4,\"toRow\":4,\"toCol\":4,\"piece\":\"P\",\"playerColor\":\"white\"}"
+                .getBytes(StandardCharsets.UTF_8);
+
+        Principal[] principals = new Principal[tokens.length];
+        System.gc();
+        long start = System.nanoTime();
+        for (int s = 0; s < tokens.length; s++) {
+            Map<String, Object> attributes = new HashMap<>();
+            attributes.put("jwtToken", tokens[s]);
+            StompHeaderAccessor connect = frame(StompCommand.CONNECT, "session" + s, attributes, null);
+            Message<byte[]> message = MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders());
+            channel.send(message);
+            principals[s] = connect.getUser();
+        }
+        for (int f = 0; f < framesPerSession; f++) {
+            for (int s = 0; s < tokens.length; s++) {
+                Map<String, Object> attributes = Map.of("jwtToken", tokens[s]);
+                Principal user = springCarriesPrincipal ? principals[s] : null;
+                StompHeaderAccessor accessor;
+                if (f == 0) {
+                    accessor = frame(StompCommand.SUBSCRIBE, "session" + s, attributes, user);
+                    accessor.setSubscriptionId("sub-0");
+                    accessor.setDestination("/topic/moves/" + s);
+                } else {
+                    accessor = frame(StompCommand.SEND, "session" + s, attributes, user);
+                    accessor.setDestination("/app/game/" + s + "/move");
+                }
+                channel.send(MessageBuilder.createMessage(f == 0 ? new byte[0] : body, accessor.getMessageHeaders()));
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        long frames = (long) tokens.length * (framesPerSession + 1);
+        if (received[0] != frames) {
+            throw new IllegalStateException("Expected " + frames + " frames, got " + received[0]);
+        }
+        return frames * 1e9 / nanos;
+    }
+
+    private static StompHeaderAccessor frame(StompCommand command, String sessionId, Map<String, Object> attributes,
+            Principal user) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setSessionId(sessionId);
+        accessor.setSessionAttributes(attributes);
+        if (user != null) {
+            accessor.setUser(user);
+        }
+        accessor.setLeaveMutable(true);
+        return accessor;
+    }
+
+    // WebSocketAuthInterceptor and JwtService as they were before authentication moved to CONNECT
+    private static final class LegacyAuthInterceptor implements ChannelInterceptor {
+
+        @Override
+        public Message<?> preSend(Message<?> message, MessageChannel channel) {
+            StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+            if (accessor != null) {
+                String token = extractToken(accessor);
+                System.out.println("WebSocket Interceptor: Command=" + accessor.getCommand() + ", Token found=" + (token != null));
+
+                if (token != null && accessor.getUser() == null) {
+                    try {
+                        String username = Jwts.parserBuilder()
+                                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                                .build()
+                                .parseClaimsJws(token)
+                                .getBody()
+                                .getSubject();
+                        if (username != null) {
+                            UserDetails userDetails = User.withUsername(username)
+                                    .password("")
+                                    .authorities("USER")
+                                    .build();
+                            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                                    userDetails, null, userDetails.getAuthorities());
+                            SecurityContextHolder.getContext().setAuthentication(authentication);
+                            accessor.setUser(authentication);
+                            System.out.println("WebSocket Interceptor: Successfully authenticated user: " + username);
+                        }
+                    } catch (Exception e) {
+                        System.err.println("WebSocket Interceptor: Authentication failed: " + e.getMessage());
+                    }
+                }
+            }
+            return message;
+        }
+
+        private String extractToken(StompHeaderAccessor accessor) {
+            List<String> authHeaders = accessor.getNativeHeader("Authorization");
+            if (authHeaders != null && !authHeaders.isEmpty()) {
+                String bearerToken = authHeaders.get(0);
+                if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
+                    return bearerToken.substring(7);
+                }
+            }
+            String query = accessor.getFirstNativeHeader("query");
+            if (query != null && query.contains("token=")) {
+                return query.substring(query.indexOf("token=") + 6);
+            }
+            if (accessor.getSessionAttributes() != null) {
+                return (String) accessor.getSessionAttributes().get("jwtToken");
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.matchservice.journal;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Recovery of {@link MoveJournal}. The crash test starts a child JVM that plays many games into
+ * a journal with small segments and prints every move once its append is durable, then kills
+ * it with SIGKILL mid-write and appends a torn half-record at the tail, the way a crash in the
+ * middle of a copy would leave it. A process kill leaves the page cache intact, so this
+ * exercises the recovery scan and tail handling rather than power loss.
+ */
+class MoveJournalTest {
+
+    private static final int SEGMENT_BYTES = 1 << 20;
+    private static final int GAMES = 64;
+
+    @TempDir
+    Path dir;
+
+    @RepeatedTest(3)
+    void recoversEveryAcknowledgedMoveAfterAKill() throws Exception {
+        Map<Long, Integer> acknowledged = crashWriter(2_000 + ThreadLocalRandom.current().nextInt(20_000));
+        boolean torn = tearTail();
+
+        Map<Long, Integer> lastPly = new HashMap<>();
+        try (MoveJournal journal = new MoveJournal(dir.toString(), SEGMENT_BYTES, true)) {
+            long end = journal.read(0, Integer.MAX_VALUE, entry -> {
+                int expected = lastPly.getOrDefault(entry.getMatchId(), 0) + 1;
+                assertEquals(expected, entry.getPly(), "plies of match " + entry.getMatchId());
+                assertEquals(fen(entry.getMatchId(), entry.getPly()), entry.getFenAfter());
+                lastPly.put(entry.getMatchId(), entry.getPly());
+            });
+            for (Map.Entry<Long, Integer> ack : acknowledged.entrySet()) {
+                assertTrue(lastPly.getOrDefault(ack.getKey(), 0) >= ack.getValue(), "match " + ack.getKey()
+                        + " acknowledged ply " + ack.getValue() + " but recovered " + lastPly.get(ack.getKey()));
+            }
+            assertEquals(end, journal.writeOffset(), torn ? "torn record was not cut" : "recovered tail");
+
+            journal.append(entry(GAMES + 1, 1)).join();
+            List<JournalEntry> appended = new ArrayList<>();
+            journal.read(end, Integer.MAX_VALUE, appended::add);
+            assertEquals(1, appended.size());
+            assertEquals(GAMES + 1, appended.get(0).getMatchId());
+        }
+    }
+
+    @Test
+    void readsBackAcrossSegmentsAndReopens() throws Exception {
+        int perGame = 2_000;
+        try (MoveJournal journal = new MoveJournal(dir.toString(), 64 * 1024, true)) {
+            for (int ply = 1; ply <= perGame; ply++) {
+                journal.append(entry(1, ply));
+                journal.append(entry(2, ply)).join();
+            }
+            assertTrue(journal.segmentCount() > 1);
+        }
+        try (MoveJournal journal = new MoveJournal(dir.toString(), 64 * 1024, true)) {
+            List<JournalEntry> all = new ArrayList<>();
+            assertEquals(journal.writeOffset(), journal.read(0, Integer.MAX_VALUE, all::add));
+            assertEquals(2 * perGame, all.size());
+
+            List<JournalEntry> second = new ArrayList<>();
+            journal.readMatch(0, 2, second::add);
+            assertEquals(perGame, second.size());
+            for (int i = 0; i < perGame; i++) {
+                JournalEntry entry = second.get(i);
+                assertEquals(2, entry.getMatchId());
+                assertEquals(i + 1, entry.getPly());
+                assertEquals("e2e4", entry.getUci());
+                assertEquals(fen(2, i), entry.getFenBefore());
+                assertEquals(fen(2, i + 1), entry.getFenAfter());
+            }
+        }
+    }
+
+    @Test
+    void checkpointDropsProjectedSegments() throws Exception {
+        long middle;
+        try (MoveJournal journal = new MoveJournal(dir.toString(), 64 * 1024, true)) {
+            for (int ply = 1; ply <= 1_000; ply++) {
+                journal.append(entry(1, ply)).join();
+            }
+            middle = journal.writeOffset();
+            for (int ply = 1_001; ply <= 2_000; ply++) {
+                journal.append(entry(1, ply)).join();
+            }
+            int before = journal.segmentCount();
+            journal.checkpoint(middle);
+            assertTrue(journal.segmentCount() < before);
+        }
+        try (MoveJournal journal = new MoveJournal(dir.toString(), 64 * 1024, true)) {
+            assertEquals(middle, journal.checkpoint());
+            List<JournalEntry> tail = new ArrayList<>();
+            journal.readMatch(journal.checkpoint(), 1, tail::add);
+            assertEquals(1_000, tail.size());
+            assertEquals(1_001, tail.get(0).getPly());
+        }
+    }
+
+    @Test
+    void clocksRoundTripAndOlderRecordsReadAsUntimed() {
+        byte[] record = MoveJournal.encode(new JournalEntry(7, 12, 0x1234, 1_700_000_000_000L, "Nf3", "g1f3",
+                fen(7, 11), fen(7, 12), 181_500, 0));
+        JournalEntry entry = MoveJournal.decode(ByteBuffer.wrap(record, 8, record.length - 8));
+        assertEquals(7, entry.getMatchId());
+        assertEquals(12, entry.getPly());
+        assertEquals(1_700_000_000_000L, entry.getTimestampMillis());
+        assertEquals(fen(7, 12), entry.getFenAfter());
+        assertEquals(181_500, entry.getWhiteClockMillis());
+        assertEquals(0, entry.getBlackClockMillis());
+
+        // The same body as written before clocks were journaled
+        JournalEntry older = MoveJournal.decode(ByteBuffer.wrap(record, 8, record.length - 8 - 16));
+        assertEquals(fen(7, 12), older.getFenAfter());
+        assertEquals(-1, older.getWhiteClockMillis());
+        assertEquals(-1, older.getBlackClockMillis());
+    }
+
+    // "matchId ply" per durable move until killed
+    static class Writer {
+        public static void main(String[] args) throws Exception {
+            PrintStream out = new PrintStream(System.out, false);
+            MoveJournal journal = new MoveJournal(args[0], SEGMENT_BYTES, true);
+            for (long g = 1; g <= GAMES; g++) {
+                long matchId = g;
+                Thread.ofVirtual().start(() -> {
+                    for (int ply = 1; ; ply++) {
+                        journal.append(entry(matchId, ply)).join();
+                        synchronized (out) {
+                            out.println(matchId + " " + ply);
+                            out.flush();
+                        }
+                    }
+                });
+            }
+            Thread.sleep(Long.MAX_VALUE);
+        }
+    }
+
+    private Map<Long, Integer> crashWriter(int killAfterAcks) throws Exception {
+        Process child = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"), Writer.class.getName(), dir.toString())
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        Map<Long, Integer> acknowledged = new HashMap<>();
+        int acks = 0;
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(child.getInputStream()))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] parts = line.split(" ");
+                if (parts.length < 2 || parts[1].isEmpty()) {
+                    continue;
+                }
+                acknowledged.merge(Long.parseLong(parts[0]), Integer.parseInt(parts[1]), Math::max);
+                if (++acks == killAfterAcks) {
+                    // SIGKILL: no shutdown hooks, no close(); lines already printed are still read below
+                    child.toHandle().destroyForcibly();
+                }
+            }
+        }
+        child.waitFor();
+        assertTrue(acks >= killAfterAcks, "writer exited after " + acks + " moves");
+        return acknowledged;
+    }
+
+    // Writes a record header claiming 120 bytes of body with only 32 of them present
+    private boolean tearTail() throws Exception {
+        Path last;
+        try (Stream<Path> files = Files.list(dir)) {
+            last = files.filter(p -> p.getFileName().toString().endsWith(".log")).sorted().reduce((a, b) -> b)
+                    .orElseThrow();
+        }
+        long end;
+        try (MoveJournal journal = new MoveJournal(dir.toString(), SEGMENT_BYTES, true)) {
+            end = journal.writeOffset() - Long.parseLong(last.getFileName().toString().substring(6, 26));
+        }
+        if (end + 40 > SEGMENT_BYTES) {
+            return false;
+        }
+        try (RandomAccessFile file = new RandomAccessFile(last.toFile(), "rw")) {
+            file.seek(end);
+            file.writeInt(120);
+            file.writeInt(0xCAFEBABE);
+            file.write(new byte[32]);
+        }
+        return true;
+    }
+
+    private static JournalEntry entry(long matchId, int ply) {
+        return new JournalEntry(matchId, ply, ply & 0xFFFF, System.currentTimeMillis(), "e4", "e2e4",
+                fen(matchId, ply - 1), fen(matchId, ply), 300_000 - ply, 300_000 - ply / 2);
+    }
+
+    private static String fen(long matchId, int ply) {
+        return "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 " + matchId + "." + ply;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.matchservice.journal.bench;
+
+import com.example.matchservice.journal.JournalEntry;
+import com.example.matchservice.journal.MoveJournal;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Moves per second one node can make durable. Each game is a virtual thread that appends a move
+ * and waits for it to be forced before playing the next, exactly as a game mailbox does, so the
+ * rate shows how far group commit stretches each force across concurrent games. Prints moves/s,
+ * forces/s, average moves per force and append-to-durable latency percentiles.
+ * <pre>
+ * java -cp target/classes:target/test-classes com.example.matchservice.journal.bench.MoveJournalBenchmark [games] [seconds] [dir]
+ * </pre>
+ */
+public class MoveJournalBenchmark {
+
+    private static final String FEN_BEFORE = "r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3";
+    private static final String FEN_AFTER = "r1bqkbnr/pppp1ppp/2n5/1B2p3/4P3/5N2/PPPP1PPP/RNBQK2R b KQkq - 3 3";
+
+    public static void main(String[] args) throws Exception {
+        int[] gameCounts = args.length > 0 ? new int[] { Integer.parseInt(args[0]) } : new int[] { 1, 16, 256, 4096 };
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        Path root = args.length > 2 ? Path.of(args[2]) : Files.createTempDirectory("journal-bench");
+
+        for (boolean fsync : new boolean[] { true, false }) {
+            for (int games : gameCounts) {
+                Path dir = Files.createTempDirectory(root, "run");
+                try (MoveJournal journal = new MoveJournal(dir.toString(), 64 << 20, fsync)) {
+                    run(journal, games, seconds, fsync);
+                } finally {
+                    delete(dir);
+                }
+            }
+        }
+    }
+
+    private static void run(MoveJournal journal, int games, int seconds, boolean fsync) throws Exception {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        AtomicLong moves = new AtomicLong();
+        List<long[]> latencies = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        long forcesBefore = journal.forceCount();
+        long start = System.nanoTime();
+        for (int g = 0; g < games; g++) {
+            long matchId = g + 1;
+            long[] samples = new long[Integer.highestOneBit(Math.max(256, (1 << 22) / games))];
+            latencies.add(samples);
+            threads.add(Thread.ofVirtual().start(() -> {
+                int ply = 0;
+                while (System.nanoTime() < deadline) {
+                    ply++;
+                    long t0 = System.nanoTime();
+                    journal.append(new JournalEntry(matchId, ply, 0x1234, System.currentTimeMillis(), "Bb5", "f1b5",
+                            FEN_BEFORE, FEN_AFTER, 180_000, 180_000)).join();
+                    samples[ply & (samples.length - 1)] = System.nanoTime() - t0;
+                }
+                moves.addAndGet(ply);
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        long forces = journal.forceCount() - forcesBefore;
+
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).filter(v -> v > 0).sorted().toArray();
+        System.out.printf("fsync %-5s games %,6d  %,10.0f moves/s  %,8.0f forces/s  %6.1f moves/force  "
+                        + "p50 %,8.1f us  p99 %,9.1f us%n",
+                fsync, games, moves.get() / elapsed, forces / elapsed, forces == 0 ? 0 : (double) moves.get() / forces,
+                percentile(all, 0.50) / 1e3, percentile(all, 0.99) / 1e3);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, sorted.length * p)];
+    }
+
+    private static void delete(Path dir) throws Exception {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.matchservice.matchmaking;
+
+import com.example.matchservice.model.GameType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MatchmakerTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final List<Ticket[]> pairs = Collections.synchronizedList(new ArrayList<>());
+    private Matchmaker matchmaker;
+
+    @BeforeEach
+    void setUp() {
+        matchmaker = new Matchmaker(now::get, 100, 25, 400);
+        matchmaker.setPairingListener((first, second) -> pairs.add(new Ticket[]{first, second}));
+    }
+
+    @Test
+    void joiningPairsWithTheNearestAcceptablePlayer() {
+        Ticket low = matchmaker.join("low", 1L, 1500, GameType.BLITZ);
+        matchmaker.join("high", 2L, 1700, GameType.BLITZ);
+        assertTrue(pairs.isEmpty(), "200 apart is outside both windows");
+
+        now.addAndGet(500);
+        Ticket middle = matchmaker.join("middle", 3L, 1560, GameType.BLITZ);
+        assertEquals(1, pairs.size());
+        assertSame(low, pairs.get(0)[0]);
+        assertSame(middle, pairs.get(0)[1]);
+        assertFalse(matchmaker.isWaiting("low"));
+        assertFalse(matchmaker.isWaiting("middle"));
+        assertTrue(matchmaker.isWaiting("high"));
+        assertEquals(1, matchmaker.pairCount());
+    }
+
+    @Test
+    void gameTypesNeverMix() {
+        matchmaker.join("blitz", 1L, 1500, GameType.BLITZ);
+        matchmaker.join("rapid", 2L, 1500, GameType.RAPID);
+        matchmaker.sweep();
+        assertTrue(pairs.isEmpty());
+        assertEquals(1, matchmaker.waitingCount(GameType.BLITZ));
+        assertEquals(1, matchmaker.waitingCount(GameType.RAPID));
+    }
+
+    @Test
+    void sweepPairsOnceWindowsHaveWidened() {
+        Ticket first = matchmaker.join("first", 1L, 1500, GameType.STANDARD);
+        now.addAndGet(1_000);
+        Ticket second = matchmaker.join("second", 2L, 1700, GameType.STANDARD);
+
+        now.addAndGet(2_000);
+        matchmaker.sweep();
+        assertTrue(pairs.isEmpty(), "first has waited 3 s: window 175");
+
+        now.addAndGet(1_000);
+        matchmaker.sweep();
+        assertEquals(1, pairs.size());
+        assertSame(first, pairs.get(0)[0], "longest waiting player first");
+        assertSame(second, pairs.get(0)[1]);
+        assertEquals(0, matchmaker.waitingCount());
+    }
+
+    @Test
+    void windowStopsWideningAtTheMaximum() {
+        matchmaker.join("low", 1L, 1000, GameType.STANDARD);
+        matchmaker.join("high", 2L, 1401, GameType.STANDARD);
+        now.addAndGet(3_600_000);
+        matchmaker.sweep();
+        assertTrue(pairs.isEmpty());
+    }
+
+    @Test
+    void aWaitingPlayerKeepsOneTicket() {
+        Ticket ticket = matchmaker.join("player", 1L, 1500, GameType.BLITZ);
+        assertSame(ticket, matchmaker.join("player", 1L, 1500, GameType.BLITZ));
+        assertEquals(1, matchmaker.waitingCount(GameType.BLITZ));
+    }
+
+    @Test
+    void cancelledPlayersAreNotPaired() {
+        matchmaker.join("gone", 1L, 1500, GameType.BLITZ);
+        assertTrue(matchmaker.cancel("gone"));
+        assertFalse(matchmaker.cancel("gone"));
+        assertFalse(matchmaker.isWaiting("gone"));
+
+        matchmaker.join("other", 2L, 1500, GameType.BLITZ);
+        matchmaker.sweep();
+        assertTrue(pairs.isEmpty());
+        assertTrue(matchmaker.isWaiting("other"));
+    }
+
+    @Test
+    void failedMatchStartPutsBothPlayersBack() {
+        AtomicBoolean fail = new AtomicBoolean(true);
+        matchmaker.setPairingListener((first, second) -> {
+            if (fail.get()) {
+                throw new RuntimeException("database down");
+            }
+            pairs.add(new Ticket[]{first, second});
+        });
+        matchmaker.join("a", 1L, 1500, GameType.BLITZ);
+        matchmaker.join("b", 2L, 1510, GameType.BLITZ);
+        assertTrue(matchmaker.isWaiting("a"));
+        assertTrue(matchmaker.isWaiting("b"));
+        assertEquals(2, matchmaker.waitingCount(GameType.BLITZ));
+
+        fail.set(false);
+        matchmaker.sweep();
+        assertEquals(1, pairs.size());
+        assertEquals(0, matchmaker.waitingCount());
+    }
+
+    @Test
+    void concurrentJoinsCancelsAndSweepsNeverPairAPlayerTwice() throws Exception {
+        int threads = 8, perThread = 5_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads + 1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Future<?> sweeper = pool.submit(() -> {
+            while (running.get()) {
+                matchmaker.sweep();
+            }
+        });
+        List<Future<Integer>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            workers.add(pool.submit(() -> {
+                int cancelled = 0;
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < perThread; i++) {
+                    String username = thread + "-" + i;
+                    matchmaker.join(username, (long) i, 1400 + random.nextInt(200), GameType.BLITZ);
+                    if (random.nextInt(10) == 0 && matchmaker.cancel(username)) {
+                        cancelled++;
+                    }
+                }
+                return cancelled;
+            }));
+        }
+        int cancelled = 0;
+        for (Future<Integer> worker : workers) {
+            cancelled += worker.get();
+        }
+        running.set(false);
+        sweeper.get();
+        pool.shutdown();
+        // Every window now covers the whole 200-point spread
+        now.addAndGet(10_000);
+        matchmaker.sweep();
+
+        Set<String> paired = new HashSet<>();
+        for (Ticket[] pair : pairs) {
+            assertTrue(paired.add(pair[0].getUsername()), pair[0].getUsername() + " paired twice");
+            assertTrue(paired.add(pair[1].getUsername()), pair[1].getUsername() + " paired twice");
+        }
+        assertEquals(threads * perThread, paired.size() + cancelled + matchmaker.waitingCount());
+        assertTrue(matchmaker.waitingCount() <= 1);
+    }
+}
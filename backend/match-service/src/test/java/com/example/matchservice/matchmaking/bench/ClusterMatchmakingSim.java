@@ -0,0 +1,439 @@
+package com.example.matchservice.matchmaking.bench;
+
+import com.example.matchservice.matchmaking.ClusterMatchmaker;
+import com.example.matchservice.matchmaking.ClusterRing;
+import com.example.matchservice.matchmaking.ClusterTransport;
+import com.example.matchservice.matchmaking.MatchNotifier;
+import com.example.matchservice.matchmaking.Matchmaker;
+import com.example.matchservice.model.GameType;
+import com.example.matchservice.model.Match;
+import com.example.matchservice.model.User;
+import com.example.matchservice.repo.MatchRepo;
+import com.example.matchservice.repo.UserRepo;
+import com.example.matchservice.service.MatchService;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Proxy;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Cluster matchmaking with several match-service instances in one process, on a virtual clock.
+ * Each instance has its own {@link Matchmaker}, {@link MatchNotifier} and {@link MatchService};
+ * they share in-memory repositories (the database) and a registry list (Eureka), and call each
+ * other through an in-process {@link ClusterTransport}. Like behind the gateway, every request
+ * of a player lands on a random instance, and the player's STOMP session sits on one of them.
+ * Seven in ten players wait for the push, the rest poll {@code checkMatch}; players who wait a
+ * minute cancel.
+ * <p>
+ * Runs: one instance; {@code instances} instances each matching on its own, as before this
+ * mode; the same clustered; clustered with one instance leaving the registry halfway; and
+ * clustered with one in ten forwarded joins applied on the owner but their reply lost. For
+ * each it prints how many players were matched, lost (matched but never told, or told an
+ * error while waiting) or gave up, time to match and cross-instance calls. A clustered run
+ * fails if it pairs a player twice or across game types, or, with a stable registry, loses a
+ * player.
+ * <pre>
+ * java -cp target/classes:target/test-classes:... com.example.matchservice.matchmaking.bench.ClusterMatchmakingSim [players] [instances]
+ * </pre>
+ */
+public class ClusterMatchmakingSim {
+
+    private static final GameType[] TYPES = { GameType.STANDARD, GameType.BLITZ, GameType.RAPID };
+    private static final long RATE_PER_SECOND = 30;
+    private static final long PATIENCE_MS = 60_000;
+    private static final int MAX_MATCH_SECONDS = 120;
+
+    private static final int ARRIVE = 0;
+    private static final int POLL = 1;
+    private static final int GIVE_UP = 2;
+    private static final int SWEEP = 3;
+    private static final int LEAVE = 4;
+
+    private final AtomicLong clock = new AtomicLong();
+    private final Map<String, User> users = new ConcurrentHashMap<>();
+    private final Map<Long, User> usersById = new ConcurrentHashMap<>();
+    private final Map<Long, Match> matches = new ConcurrentHashMap<>();
+    private final AtomicLong matchIds = new AtomicLong();
+    private final List<ServiceInstance> registry = new CopyOnWriteArrayList<>();
+    private final List<Node> nodes = new ArrayList<>();
+    private final Map<String, AtomicLong> calls = new ConcurrentHashMap<>();
+    // Per player: the instance holding their STOMP session, and when a push reached it
+    private final Map<String, Integer> socketNode = new ConcurrentHashMap<>();
+    private final Map<String, Long> pushedAt = new ConcurrentHashMap<>();
+    private final SplittableRandom faults = new SplittableRandom(53);
+    private double lostJoinReplies;
+
+    private final class Node {
+        final ServiceInstance instance;
+        final Matchmaker matchmaker;
+        final ClusterMatchmaker clusterMatchmaker;
+        final MatchService matchService;
+
+        Node(int index, boolean clustered, UserRepo userRepo, MatchRepo matchRepo) {
+            this.instance = new DefaultServiceInstance("match-service-" + index, "match-service", "10.0.0." + index,
+                    8081, false);
+            MessageChannel channel = (message, timeout) -> {
+                String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+                String username = destination.substring("/user/".length(), destination.indexOf('/', "/user/".length()));
+                if (socketNode.getOrDefault(username, -1) == index) {
+                    pushedAt.putIfAbsent(username, clock.get());
+                }
+                return true;
+            };
+            SimpMessagingTemplate template = new SimpMessagingTemplate(channel);
+            template.setMessageConverter(new MappingJackson2MessageConverter());
+            MatchNotifier notifier = new MatchNotifier(template, 120_000, 25_000);
+            ClusterRing ring = new ClusterRing(clustered ? () -> registry : () -> List.of(instance),
+                    instance::getInstanceId);
+            this.matchmaker = new Matchmaker(clock::get, 100, 25, 400);
+            this.clusterMatchmaker = new ClusterMatchmaker(matchmaker, ring, new InProcessTransport(), notifier, 500,
+                    120_000);
+            this.matchService = new MatchService(null, userRepo, matchRepo, null, null, null, clusterMatchmaker,
+                    new InProcessTransport(), notifier);
+        }
+    }
+
+    private final class InProcessTransport implements ClusterTransport {
+
+        private Node node(ServiceInstance instance) {
+            for (Node node : nodes) {
+                if (node.instance.getInstanceId().equals(instance.getInstanceId())) {
+                    return node;
+                }
+            }
+            throw new RuntimeException("No instance " + instance.getInstanceId());
+        }
+
+        private void count(String call) {
+            calls.computeIfAbsent(call, c -> new AtomicLong()).incrementAndGet();
+        }
+
+        @Override
+        public long join(ServiceInstance owner, String username, Long userId, int rating, GameType gameType, String home,
+                String joinId) {
+            count("join");
+            long matchId = node(owner).clusterMatchmaker.onJoin(username, userId, rating, gameType, home, joinId);
+            if (faults.nextDouble() < lostJoinReplies) {
+                throw new RuntimeException("reply lost");
+            }
+            return matchId;
+        }
+
+        @Override
+        public boolean cancel(ServiceInstance owner, String username) {
+            count("cancel");
+            return node(owner).clusterMatchmaker.onCancel(username);
+        }
+
+        @Override
+        public void matchFound(ServiceInstance instance, String username, Long matchId, String home) {
+            count("match-found");
+            node(instance).clusterMatchmaker.onMatchFound(username, matchId, home);
+        }
+
+        @Override
+        public long createMatch(ServiceInstance home, String username, GameType gameType) {
+            count("players/create");
+            return node(home).matchService.createMatchAtHome(username, gameType).orElse(-2L);
+        }
+
+        @Override
+        public long checkMatch(ServiceInstance home, String username) {
+            count("players/check");
+            return node(home).matchService.checkMatchAtHome(username).orElse(-2L);
+        }
+
+        @Override
+        public boolean cancelWaiting(ServiceInstance home, String username) {
+            count("players/cancel");
+            return node(home).matchService.cancelWaitingAtHome(username);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public CompletableFuture<Long> awaitMatch(ServiceInstance home, String username) {
+            count("players/await");
+            CompletableFuture<Long> future = new CompletableFuture<>();
+            DeferredResult<ResponseEntity<Map<String, Long>>> result = node(home).matchService
+                    .awaitMatchAtHome(username).orElse(null);
+            if (result == null) {
+                future.complete(-2L);
+            } else {
+                result.setResultHandler(reply -> future.complete(
+                        ((ResponseEntity<Map<String, Long>>) reply).getBody().get("matchId")));
+            }
+            return future;
+        }
+    }
+
+    private static final class Event implements Comparable<Event> {
+        final long at;
+        final int type;
+        final int player;
+        final long order;
+
+        Event(long at, int type, int player, long order) {
+            this.at = at;
+            this.type = type;
+            this.player = player;
+            this.order = order;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            return at != other.at ? Long.compare(at, other.at) : Long.compare(order, other.order);
+        }
+    }
+
+    ClusterMatchmakingSim(int players, int instances, boolean clustered) {
+        SplittableRandom random = new SplittableRandom(37);
+        for (int i = 0; i < players; i++) {
+            User user = new User();
+            user.setUserId((long) i + 1);
+            user.setUsername("player" + i);
+            user.setRating((int) Math.max(100, Math.min(3000, Math.round(1500 + 350 * gaussian(random)))));
+            users.put(user.getUsername(), user);
+            usersById.put(user.getUserId(), user);
+        }
+        UserRepo userRepo = repository(UserRepo.class, (name, args) -> switch (name) {
+            case "getUserByUsername" -> users.get((String) args[0]);
+            case "getReferenceById", "getById" -> usersById.get((Long) args[0]);
+            default -> throw new UnsupportedOperationException("UserRepo." + name);
+        });
+        MatchRepo matchRepo = repository(MatchRepo.class, (name, args) -> {
+            if (!name.equals("save")) {
+                throw new UnsupportedOperationException("MatchRepo." + name);
+            }
+            Match match = (Match) args[0];
+            match.setId(matchIds.incrementAndGet());
+            matches.put(match.getId(), match);
+            return match;
+        });
+        for (int i = 0; i < instances; i++) {
+            Node node = new Node(i + 1, clustered, userRepo, matchRepo);
+            nodes.add(node);
+            registry.add(node.instance);
+        }
+    }
+
+    private interface Call {
+        Object call(String method, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T repository(Class<T> type, Call call) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) ->
+                switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemory" + type.getSimpleName();
+                    default -> call.call(method.getName(), args);
+                });
+    }
+
+    public static void main(String[] args) {
+        int players = args.length > 0 ? Integer.parseInt(args[0]) : 6_000;
+        int instances = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        List<String> failures = new ArrayList<>();
+        try {
+            new ClusterMatchmakingSim(players, 1, false).run(out, "1 instance", false, failures);
+            new ClusterMatchmakingSim(players, instances, false).run(out, instances + " instances, separate queues",
+                    false, null);
+            new ClusterMatchmakingSim(players, instances, true).run(out, instances + " instances, clustered", false,
+                    failures);
+            new ClusterMatchmakingSim(players, instances, true).run(out, instances + " instances, one leaves", true,
+                    failures);
+            ClusterMatchmakingSim lossy = new ClusterMatchmakingSim(players, instances, true);
+            lossy.lostJoinReplies = 0.1;
+            lossy.run(out, instances + " instances, 10% of join replies lost", false, failures);
+        } finally {
+            System.setOut(out);
+        }
+        if (!failures.isEmpty()) {
+            failures.forEach(failure -> System.err.println("❌ " + failure));
+            throw new IllegalStateException(failures.size() + " cluster matchmaking check(s) failed");
+        }
+    }
+
+    private void run(PrintStream out, String name, boolean oneLeaves, List<String> failures) {
+        int players = users.size();
+        SplittableRandom random = new SplittableRandom(41);
+        PriorityQueue<Event> events = new PriorityQueue<>();
+        long order = 0;
+        long[] arrivedAt = new long[players];
+        GameType[] types = new GameType[players];
+        boolean[] polls = new boolean[players];
+        long at = 0;
+        for (int i = 0; i < players; i++) {
+            at += Math.max(1, Math.round(-Math.log(1 - random.nextDouble()) * 1000 / RATE_PER_SECOND));
+            arrivedAt[i] = at;
+            types[i] = TYPES[random.nextInt(TYPES.length)];
+            polls[i] = random.nextInt(10) < 3;
+            socketNode.put("player" + i, 1 + random.nextInt(nodes.size()));
+            events.add(new Event(at, ARRIVE, i, order++));
+            events.add(new Event(at + PATIENCE_MS, GIVE_UP, i, order++));
+        }
+        for (long sweep = 1_000; sweep <= at + PATIENCE_MS; sweep += 1_000) {
+            events.add(new Event(sweep, SWEEP, -1, order++));
+        }
+        if (oneLeaves) {
+            events.add(new Event(at / 2, LEAVE, -1, order++));
+        }
+
+        long[] matchedAt = new long[players];
+        long[] matchOf = new long[players];
+        boolean[] errored = new boolean[players];
+        boolean[] left = new boolean[players];
+        int gaveUp = 0;
+        while (!events.isEmpty()) {
+            Event event = events.poll();
+            clock.set(event.at);
+            if (event.type == SWEEP) {
+                nodes.forEach(node -> node.matchmaker.sweep());
+                if (event.at % 15_000 == 0) {
+                    nodes.forEach(node -> node.clusterMatchmaker.reconcile());
+                }
+                continue;
+            }
+            if (event.type == LEAVE) {
+                // Deregistered but still running, as while draining: its queues pair what they hold,
+                // and its STOMP clients reconnect to the others
+                registry.remove(nodes.get(nodes.size() - 1).instance);
+                socketNode.replaceAll((player, index) -> index == nodes.size() ? 1 + random.nextInt(nodes.size() - 1) : index);
+                continue;
+            }
+            String player = "player" + event.player;
+            Principal principal = () -> player;
+            // The gateway picks any registered instance
+            List<ServiceInstance> live = registry;
+            Node node = nodes.get(Integer.parseInt(live.get(random.nextInt(live.size())).getInstanceId()
+                    .substring("match-service-".length())) - 1);
+            switch (event.type) {
+                case ARRIVE -> {
+                    long matchId = node.matchService.createMatch(principal, types[event.player]).orElse(-2L);
+                    if (matchId > 0) {
+                        matchOf[event.player] = matchId;
+                        matchedAt[event.player] = event.at;
+                    } else if (matchId == -2) {
+                        errored[event.player] = true;
+                    } else if (polls[event.player]) {
+                        events.add(new Event(event.at + 1_000, POLL, event.player, order++));
+                    }
+                }
+                case POLL -> {
+                    if (left[event.player]) {
+                        continue;
+                    }
+                    long matchId = node.matchService.checkMatch(principal).orElse(-2L);
+                    if (matchId > 0) {
+                        matchOf[event.player] = matchId;
+                        matchedAt[event.player] = event.at;
+                    } else if (matchId == -1) {
+                        events.add(new Event(event.at + 1_000, POLL, event.player, order++));
+                    } else if (matchOf[event.player] == 0) {
+                        errored[event.player] = true;
+                    }
+                }
+                case GIVE_UP -> {
+                    if (matchOf[event.player] == 0 && !errored[event.player] && !pushedAt.containsKey(player)
+                            && node.matchService.cancelWaiting(principal)) {
+                        left[event.player] = true;
+                        gaveUp++;
+                    }
+                }
+                default -> throw new IllegalStateException("Unknown event " + event.type);
+            }
+        }
+
+        // Who was paired, from the matches table
+        Map<String, Long> pairedInto = new ConcurrentHashMap<>();
+        int doublePaired = 0;
+        int crossType = 0;
+        for (Match match : matches.values()) {
+            for (User user : new User[] { match.getPlayer1(), match.getPlayer2() }) {
+                if (pairedInto.put(user.getUsername(), match.getId()) != null) {
+                    doublePaired++;
+                }
+                int index = (int) (user.getUserId() - 1);
+                if (types[index] != match.getGameType()) {
+                    crossType++;
+                }
+            }
+        }
+        AtomicLongArray matchSeconds = new AtomicLongArray(MAX_MATCH_SECONDS * 10 + 1);
+        int told = 0;
+        int lost = 0;
+        for (int i = 0; i < players; i++) {
+            String player = "player" + i;
+            Long paired = pairedInto.get(player);
+            Long pushed = pushedAt.get(player);
+            long learned = matchOf[i] > 0 ? matchedAt[i] : pushed != null ? pushed : -1;
+            if (paired != null && learned >= 0) {
+                told++;
+                matchSeconds.incrementAndGet((int) Math.min(matchSeconds.length() - 1, (learned - arrivedAt[i]) / 100));
+            } else if (paired != null || errored[i]) {
+                lost++;
+            }
+        }
+
+        out.printf("%s: %,d players, %,d matched and told, %,d lost, %,d gave up; time to match p50 %,d ms p99 %,d ms%n",
+                name, players, told, lost, gaveUp, percentile(matchSeconds, 0.5) * 100L,
+                percentile(matchSeconds, 0.99) * 100L);
+        if (!calls.isEmpty()) {
+            out.printf("  cross-instance calls: %s%n", new java.util.TreeMap<>(calls));
+        }
+        if (failures != null) {
+            if (doublePaired > 0) {
+                failures.add(name + ": " + doublePaired + " player(s) paired twice");
+            }
+            if (crossType > 0) {
+                failures.add(name + ": " + crossType + " player(s) paired into another game type");
+            }
+            // Waiting state on the leaving instance is not handed over; its pollers are reported, not failed
+            if (lost > 0 && !oneLeaves) {
+                failures.add(name + ": " + lost + " player(s) lost");
+            }
+        }
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    private static int percentile(AtomicLongArray counts, double fraction) {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (total > 0 && seen >= Math.ceil(total * fraction)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,367 @@
+package com.example.matchservice.matchmaking.bench;
+
+import com.example.matchservice.matchmaking.ClusterMatchmaker;
+import com.example.matchservice.matchmaking.ClusterRing;
+import com.example.matchservice.matchmaking.MatchNotifier;
+import com.example.matchservice.matchmaking.Matchmaker;
+import com.example.matchservice.model.GameType;
+import com.example.matchservice.model.Match;
+import com.example.matchservice.model.User;
+import com.example.matchservice.repo.MatchRepo;
+import com.example.matchservice.repo.UserRepo;
+import com.example.matchservice.service.MatchService;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Proxy;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load gate for matchmaking: drives the real {@link MatchService} in-process, over in-memory
+ * stand-ins for {@link UserRepo} and {@link MatchRepo}, and fails the run when a result crosses
+ * its threshold.
+ * <ul>
+ * <li>arrivals, on a virtual clock and a fixed seed so every run pairs the same players: a
+ * steady stream with bursts at 20 times the rate, ratings around 1500 with a tail of outliers,
+ * players who give up and cancel, and a share of clients that poll {@code checkMatch} instead of
+ * taking the push. Reports time to match and cancellations, and a checksum of the
+ * pairings to compare runs.</li>
+ * <li>contention: {@code threads} threads queue, collect and cancel at once, with every
+ * repository call paused for {@code sim.db-micros}. Reports throughput and the time threads
+ * spent blocked on monitors.</li>
+ * </ul>
+ * Thresholds are system properties: {@code sim.max-p99-match-ms} (virtual time to match,
+ * default 15000), {@code sim.max-unmatched-percent} (players who waited out their patience,
+ * default 2), {@code sim.min-ops-per-second} (default 2000) and
+ * {@code sim.max-blocked-ms-per-1k} (default 50).
+ * <pre>
+ * mvn -pl match-service -Pmatchmaking-sim verify
+ * java -cp target/classes:target/test-classes:... com.example.matchservice.matchmaking.bench.MatchmakingLoadSim [players] [threads]
+ * </pre>
+ */
+public class MatchmakingLoadSim {
+
+    private static final GameType[] TYPES = { GameType.STANDARD, GameType.BLITZ, GameType.RAPID };
+    private static final int MAX_MATCH_SECONDS = 600;
+    private static final long BASE_RATE_PER_SECOND = 40;
+    private static final long BURST_EVERY_MS = 60_000;
+    private static final long BURST_MS = 5_000;
+
+    private final AtomicLong clock = new AtomicLong();
+    private final long dbNanos;
+    private final Map<String, User> users = new ConcurrentHashMap<>();
+    private final Map<Long, User> usersById = new ConcurrentHashMap<>();
+    private final AtomicLong matchIds = new AtomicLong();
+    private final Map<String, Long> pushed = new ConcurrentHashMap<>();
+    private final Matchmaker matchmaker;
+    private final MatchService matchService;
+
+    private static final int ARRIVE = 0;
+    private static final int GIVE_UP = 1;
+    private static final int POLL = 2;
+    private static final int SWEEP = 3;
+
+    private static final class Event implements Comparable<Event> {
+        final long at;
+        final int type;
+        final int player;
+        final long order;
+
+        Event(long at, int type, int player, long order) {
+            this.at = at;
+            this.type = type;
+            this.player = player;
+            this.order = order;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            return at != other.at ? Long.compare(at, other.at) : Long.compare(order, other.order);
+        }
+    }
+
+    MatchmakingLoadSim(int players, long dbMicros) {
+        this.dbNanos = dbMicros * 1_000;
+        SplittableRandom random = new SplittableRandom(23);
+        for (int i = 0; i < players; i++) {
+            User user = new User();
+            user.setUserId((long) i + 1);
+            user.setUsername("player" + i);
+            // One in twenty far from the crowd, so their windows have to widen before they pair
+            double spread = random.nextInt(20) == 0 ? 900 : 350;
+            user.setRating((int) Math.max(100, Math.min(3200, Math.round(1500 + spread * gaussian(random)))));
+            users.put(user.getUsername(), user);
+            usersById.put(user.getUserId(), user);
+        }
+
+        UserRepo userRepo = repository(UserRepo.class, (name, args) -> switch (name) {
+            case "getUserByUsername" -> users.get((String) args[0]);
+            case "getReferenceById", "getById" -> usersById.get((Long) args[0]);
+            default -> throw new UnsupportedOperationException("UserRepo." + name);
+        });
+        MatchRepo matchRepo = repository(MatchRepo.class, (name, args) -> {
+            if (!name.equals("save")) {
+                throw new UnsupportedOperationException("MatchRepo." + name);
+            }
+            Match match = (Match) args[0];
+            match.setId(matchIds.incrementAndGet());
+            return match;
+        });
+
+        // Pushes land here instead of on a broker: /user/{name}/queue/match-found
+        MessageChannel channel = (message, timeout) -> {
+            String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+            String username = destination.substring("/user/".length(), destination.indexOf('/', "/user/".length()));
+            pushed.put(username, clock.get());
+            return true;
+        };
+        SimpMessagingTemplate template = new SimpMessagingTemplate(channel);
+        template.setMessageConverter(new MappingJackson2MessageConverter());
+
+        Matchmaker matchmaker = new Matchmaker(clock::get, 100, 25, 400);
+        MatchNotifier matchNotifier = new MatchNotifier(template, 120_000, 25_000);
+        // A cluster of one: no peers, so the transport is never used
+        ClusterMatchmaker clusterMatchmaker = new ClusterMatchmaker(matchmaker, new ClusterRing(List::of, () -> "local"),
+                null, matchNotifier, 500, 120_000);
+        this.matchService = new MatchService(null, userRepo, matchRepo, null, null, null, clusterMatchmaker, null,
+                matchNotifier);
+        this.matchmaker = matchmaker;
+    }
+
+    private interface Call {
+        Object call(String method, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T repository(Class<T> type, Call call) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "InMemory" + type.getSimpleName();
+                default:
+                    if (dbNanos > 0) {
+                        LockSupport.parkNanos(dbNanos);
+                    }
+                    return call.call(method.getName(), args);
+            }
+        });
+    }
+
+    public static void main(String[] args) throws Exception {
+        int players = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        long maxP99MatchMillis = Long.getLong("sim.max-p99-match-ms", 15_000);
+        double maxUnmatchedPercent = Double.parseDouble(System.getProperty("sim.max-unmatched-percent", "2"));
+        long minOpsPerSecond = Long.getLong("sim.min-ops-per-second", 2_000);
+        long maxBlockedPer1k = Long.getLong("sim.max-blocked-ms-per-1k", 50);
+        long dbMicros = Long.getLong("sim.db-micros", 100);
+
+        List<String> failures = new ArrayList<>();
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            new MatchmakingLoadSim(players, 0).arrivals(out, players, maxP99MatchMillis, maxUnmatchedPercent, failures);
+            new MatchmakingLoadSim(players, dbMicros).contention(out, players, threads, minOpsPerSecond,
+                    maxBlockedPer1k, failures);
+        } finally {
+            System.setOut(out);
+        }
+        if (!failures.isEmpty()) {
+            failures.forEach(failure -> System.err.println("❌ " + failure));
+            throw new IllegalStateException(failures.size() + " matchmaking threshold(s) exceeded");
+        }
+    }
+
+    private void arrivals(PrintStream out, int players, long maxP99MatchMillis, double maxUnmatchedPercent,
+            List<String> failures) {
+        SplittableRandom random = new SplittableRandom(29);
+        PriorityQueue<Event> events = new PriorityQueue<>();
+        long order = 0;
+        long[] arrivedAt = new long[players];
+        GameType[] types = new GameType[players];
+        boolean[] polls = new boolean[players];
+        long at = 0;
+        for (int i = 0; i < players; i++) {
+            boolean burst = at % BURST_EVERY_MS >= BURST_EVERY_MS - BURST_MS;
+            double rate = BASE_RATE_PER_SECOND * (burst ? 20 : 1);
+            at += Math.max(1, Math.round(-Math.log(1 - random.nextDouble()) * 1000 / rate));
+            arrivedAt[i] = at;
+            types[i] = TYPES[random.nextInt(TYPES.length)];
+            polls[i] = random.nextInt(10) == 0;
+            events.add(new Event(at, ARRIVE, i, order++));
+            // Patience: most wait up to a minute and a half, one in ten gives up within five seconds
+            long patience = random.nextInt(10) == 0 ? 1_000 + random.nextInt(4_000)
+                    : 20_000 + Math.round(-Math.log(1 - random.nextDouble()) * 40_000);
+            events.add(new Event(at + Math.min(patience, 90_000), GIVE_UP, i, order++));
+        }
+        for (long sweep = 1_000; sweep <= at + 90_000; sweep += 1_000) {
+            events.add(new Event(sweep, SWEEP, -1, order++));
+        }
+
+        AtomicLongArray matchMillis = new AtomicLongArray(MAX_MATCH_SECONDS * 10 + 1);
+        long[] matchOf = new long[players];
+        int earlyCancels = 0;
+        int gaveUp = 0;
+        int matched = 0;
+        long checksum = 0;
+        while (!events.isEmpty()) {
+            Event event = events.poll();
+            clock.set(event.at);
+            String name = "player" + event.player;
+            Principal principal = () -> name;
+            switch (event.type) {
+                case SWEEP -> matchmaker.sweep();
+                case ARRIVE -> {
+                    long matchId = matchService.createMatch(principal, types[event.player]).orElse(-2L);
+                    if (matchId > 0) {
+                        matchOf[event.player] = matchId;
+                    } else if (polls[event.player]) {
+                        events.add(new Event(event.at + 1_000, POLL, event.player, order++));
+                    }
+                }
+                case POLL -> {
+                    long matchId = matchService.checkMatch(principal).orElse(-2L);
+                    if (matchId > 0) {
+                        matchOf[event.player] = matchId;
+                    } else if (matchId == -1) {
+                        events.add(new Event(event.at + 1_000, POLL, event.player, order++));
+                    }
+                }
+                case GIVE_UP -> {
+                    if (matchService.cancelWaiting(principal)) {
+                        if (event.at - arrivedAt[event.player] < 5_000) {
+                            earlyCancels++;
+                        } else {
+                            gaveUp++;
+                        }
+                    }
+                }
+                default -> throw new IllegalStateException("Unknown event " + event.type);
+            }
+        }
+        for (int i = 0; i < players; i++) {
+            Long pushedAt = pushed.get("player" + i);
+            if (pushedAt != null) {
+                matched++;
+                long waited = pushedAt - arrivedAt[i];
+                matchMillis.incrementAndGet((int) Math.min(matchMillis.length() - 1, waited / 100));
+                checksum = checksum * 31 + i * 1_000_003L + pushedAt;
+            }
+        }
+
+        long p99 = percentile(matchMillis, 0.99) * 100L;
+        double unmatchedPercent = 100.0 * gaveUp / players;
+        out.printf("arrivals: %,d players over %,d s, %,d matched, %,d cancelled early, %,d gave up (%.2f%%)%n",
+                players, at / 1000, matched, earlyCancels, gaveUp, unmatchedPercent);
+        out.printf("  time to match p50 %,d ms p90 %,d ms p99 %,d ms max %,d ms; %,d matches; pairing checksum %016x%n",
+                percentile(matchMillis, 0.5) * 100L, percentile(matchMillis, 0.9) * 100L, p99,
+                percentile(matchMillis, 1.0) * 100L, matchIds.get(), checksum);
+        if (p99 > maxP99MatchMillis) {
+            failures.add("p99 time to match " + p99 + " ms over " + maxP99MatchMillis + " ms");
+        }
+        if (unmatchedPercent > maxUnmatchedPercent) {
+            failures.add(String.format("%.2f%% of players gave up unmatched, over %.2f%%", unmatchedPercent,
+                    maxUnmatchedPercent));
+        }
+    }
+
+    private void contention(PrintStream out, int players, int threads, long minOpsPerSecond, long maxBlockedPer1k,
+            List<String> failures) throws InterruptedException {
+        ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        boolean monitoring = mx.isThreadContentionMonitoringSupported();
+        if (monitoring) {
+            mx.setThreadContentionMonitoringEnabled(true);
+        }
+        AtomicLong operations = new AtomicLong();
+        AtomicLong blockedMillis = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int first = t;
+            Thread worker = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(31 + first);
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = first; i < players; i += threads) {
+                    String name = "player" + i;
+                    Principal principal = () -> name;
+                    long matchId = matchService.createMatch(principal, TYPES[i % TYPES.length]).orElse(-2L);
+                    operations.incrementAndGet();
+                    if (matchId == -1) {
+                        if (random.nextInt(10) == 0) {
+                            matchService.cancelWaiting(principal);
+                        } else {
+                            matchService.checkMatch(principal);
+                        }
+                        operations.incrementAndGet();
+                    }
+                }
+                if (monitoring) {
+                    blockedMillis.addAndGet(mx.getThreadInfo(Thread.currentThread().threadId()).getBlockedTime());
+                }
+            }, "sim-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - began;
+
+        long opsPerSecond = Math.round(operations.get() * 1e9 / elapsed);
+        long blockedPer1k = operations.get() == 0 ? 0 : blockedMillis.get() * 1_000 / operations.get();
+        out.printf("contention: %,d threads, %,d operations in %,d ms (%,d/s), %,d matches, blocked on monitors %,d ms (%,d ms per 1k operations)%s%n",
+                threads, operations.get(), elapsed / 1_000_000, opsPerSecond, matchIds.get(), blockedMillis.get(),
+                blockedPer1k, monitoring ? "" : " [contention monitoring unsupported]");
+        if (opsPerSecond < minOpsPerSecond) {
+            failures.add("throughput " + opsPerSecond + " operations/s under " + minOpsPerSecond);
+        }
+        if (blockedPer1k > maxBlockedPer1k) {
+            failures.add("blocked " + blockedPer1k + " ms per 1k operations, over " + maxBlockedPer1k);
+        }
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    private static int percentile(AtomicLongArray counts, double fraction) {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (total > 0 && seen >= Math.ceil(total * fraction)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.matchservice.matchmaking.bench;
+
+import com.example.matchservice.matchmaking.Matchmaker;
+import com.example.matchservice.matchmaking.Ticket;
+import com.example.matchservice.model.GameType;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Matchmaking under a crowd, on a virtual clock so runs are repeatable. Two scenarios:
+ * <ul>
+ * <li>burst: {@code players} players (ratings around 1500, sd 350; standard, blitz or rapid)
+ * arrive over {@code arrivalSeconds}, joined from {@code threads} threads, with a sweep every
+ * virtual second and up to 60 more seconds for the last ones. Prints real join throughput and
+ * latency, virtual time waited before pairing and the rating gap of each pair, for
+ * {@link Matchmaker} and for the old queue, which locked the service and paired with whichever
+ * waiting player it met first, of any rating or game type. Each database round trip is a
+ * {@code dbMicros} pause: the old queue made three under its lock for every pair (two user
+ * reads and the save), the service now reads the user once before joining and saves the
+ * match from the pairing listener, with no lock held.</li>
+ * <li>deep: a queue of {@code players} tickets that cannot pair with each other, then half as
+ * many joins that each pair with a free ticket next to them, if one is left, to time join and
+ * pairing with 50k-100k players queued.</li>
+ * </ul>
+ * <pre>
+ * java -cp target/classes:target/test-classes:... com.example.matchservice.matchmaking.bench.MatchmakingSimulator [players] [arrivalSeconds] [threads] [dbMicros]
+ * </pre>
+ */
+public class MatchmakingSimulator {
+
+    private static final GameType[] TYPES = { GameType.STANDARD, GameType.BLITZ, GameType.RAPID };
+    private static final int MAX_GAP = 4_000;
+    private static final int MAX_WAIT_SECONDS = 600;
+    private static final int MAX_JOIN_MICROS = 100_000;
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLongArray gaps = new AtomicLongArray(MAX_GAP + 1);
+    private final AtomicLongArray waits = new AtomicLongArray(MAX_WAIT_SECONDS + 1);
+    private final AtomicLongArray joinMicros = new AtomicLongArray(MAX_JOIN_MICROS + 1);
+    private final AtomicLong paired = new AtomicLong();
+    private final int threads;
+    private final long dbNanos;
+
+    MatchmakingSimulator(int threads, long dbMicros) {
+        this.threads = threads;
+        this.dbNanos = dbMicros * 1_000;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int players = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int arrivalSeconds = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        long dbMicros = args.length > 3 ? Long.parseLong(args[3]) : 100;
+
+        int[] ratings = new int[players];
+        GameType[] types = new GameType[players];
+        SplittableRandom random = new SplittableRandom(21);
+        for (int i = 0; i < players; i++) {
+            double gaussian = Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+            ratings[i] = (int) Math.max(100, Math.min(3000, Math.round(1500 + 350 * gaussian)));
+            types[i] = TYPES[random.nextInt(TYPES.length)];
+        }
+        System.out.printf("%,d players over %d s, %d threads, %d us a database round trip%n", players,
+                arrivalSeconds, threads, dbMicros);
+        new MatchmakingSimulator(threads, dbMicros).burst(ratings, types, arrivalSeconds);
+        new MatchmakingSimulator(threads, dbMicros).oldQueue(ratings, types, arrivalSeconds);
+        new MatchmakingSimulator(1, 0).deep(players);
+    }
+
+    private void burst(int[] ratings, GameType[] types, int arrivalSeconds) throws Exception {
+        Matchmaker matchmaker = new Matchmaker(clock::get, 100, 25, 400);
+        matchmaker.setPairingListener((first, second) -> {
+            database(1);
+            record(first, second);
+        });
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        int players = ratings.length;
+        int perTick = Math.max(1, players / (arrivalSeconds * 10));
+        int peakWaiting = 0;
+        long joinNanos = 0;
+
+        for (int from = 0, tick = 0; from < players; from += perTick, tick++) {
+            clock.set(tick * 100L);
+            int to = Math.min(players, from + perTick);
+            joinNanos += join(pool, from, to, i -> {
+                database(1);
+                matchmaker.join("p" + i, (long) i, ratings[i], types[i]);
+            });
+            if (tick % 10 == 9) {
+                matchmaker.sweep();
+            }
+            peakWaiting = Math.max(peakWaiting, matchmaker.waitingCount());
+        }
+        for (int second = 0; second < 60 && matchmaker.waitingCount() > 1; second++) {
+            clock.addAndGet(1_000);
+            matchmaker.sweep();
+        }
+        pool.shutdown();
+        report("matchmaker", players, joinNanos, peakWaiting, matchmaker.waitingCount());
+    }
+
+    // The queue this replaces: one lock, and the first waiting player found is the opponent
+    private void oldQueue(int[] ratings, GameType[] types, int arrivalSeconds) throws Exception {
+        Map<String, Integer> waitingPlayers = new ConcurrentHashMap<>();
+        Object lock = new Object();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        int players = ratings.length;
+        int perTick = Math.max(1, players / (arrivalSeconds * 10));
+        int peakWaiting = 0;
+        long joinNanos = 0;
+
+        for (int from = 0, tick = 0; from < players; from += perTick, tick++) {
+            clock.set(tick * 100L);
+            int to = Math.min(players, from + perTick);
+            joinNanos += join(pool, from, to, i -> {
+                synchronized (lock) {
+                    Iterator<Map.Entry<String, Integer>> it = waitingPlayers.entrySet().iterator();
+                    if (it.hasNext()) {
+                        Map.Entry<String, Integer> first = it.next();
+                        it.remove();
+                        database(3);
+                        int opponent = Integer.parseInt(first.getKey().substring(1));
+                        gaps.incrementAndGet(Math.min(MAX_GAP, Math.abs(ratings[opponent] - ratings[i])));
+                        waits.incrementAndGet(Math.min(MAX_WAIT_SECONDS, (int) ((clock.get() - first.getValue()) / 1000)));
+                        waits.incrementAndGet(0);
+                        paired.incrementAndGet();
+                    } else {
+                        waitingPlayers.put("p" + i, (int) clock.get());
+                    }
+                }
+            });
+            peakWaiting = Math.max(peakWaiting, waitingPlayers.size());
+        }
+        pool.shutdown();
+        report("old queue", players, joinNanos, peakWaiting, waitingPlayers.size());
+    }
+
+    private void deep(int players) throws Exception {
+        Matchmaker matchmaker = new Matchmaker(clock::get, 1, 0, 1);
+        matchmaker.setPairingListener((first, second) -> paired.incrementAndGet());
+        // Even ratings two apart never pair with a window of 1; each odd join pairs with a neighbour
+        for (int i = 0; i < players; i++) {
+            matchmaker.join("q" + i, (long) i, 2 * i, GameType.BLITZ);
+        }
+        int probes = players / 2;
+        SplittableRandom random = new SplittableRandom(7);
+        long start = System.nanoTime();
+        for (int i = 0; i < probes; i++) {
+            long t = System.nanoTime();
+            matchmaker.join("r" + i, (long) (players + i), 2 * random.nextInt(players) + 1, GameType.BLITZ);
+            joinMicros.incrementAndGet((int) Math.min(MAX_JOIN_MICROS, (System.nanoTime() - t) / 1_000));
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("deep: %,d queued, %,d joins in %,d ms (%,.0f/s), %,d paired, join p50 %d us p99 %d us, %,d left%n",
+                players, probes, elapsed / 1_000_000, probes * 1e9 / elapsed, paired.get(),
+                percentile(joinMicros, 0.5), percentile(joinMicros, 0.99), matchmaker.waitingCount());
+    }
+
+    private interface Join {
+        void join(int player);
+    }
+
+    // Joins players [from, to) on the pool; returns the wall time it took
+    private long join(ExecutorService pool, int from, int to, Join join) throws Exception {
+        long start = System.nanoTime();
+        List<Future<?>> done = new ArrayList<>();
+        int step = Math.max(1, (to - from + threads - 1) / threads);
+        for (int lo = from; lo < to; lo += step) {
+            int start0 = lo;
+            int end = Math.min(to, lo + step);
+            done.add(pool.submit(() -> {
+                for (int i = start0; i < end; i++) {
+                    long t = System.nanoTime();
+                    join.join(i);
+                    joinMicros.incrementAndGet((int) Math.min(MAX_JOIN_MICROS, (System.nanoTime() - t) / 1_000));
+                }
+            }));
+        }
+        for (Future<?> future : done) {
+            future.get();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private void database(int roundTrips) {
+        if (dbNanos > 0) {
+            LockSupport.parkNanos(roundTrips * dbNanos);
+        }
+    }
+
+    private void record(Ticket first, Ticket second) {
+        long now = clock.get();
+        gaps.incrementAndGet(Math.min(MAX_GAP, Math.abs(first.getRating() - second.getRating())));
+        for (Ticket ticket : new Ticket[] { first, second }) {
+            waits.incrementAndGet((int) Math.min(MAX_WAIT_SECONDS, (now - ticket.getEnqueuedAtMillis()) / 1000));
+        }
+        paired.incrementAndGet();
+    }
+
+    private void report(String name, int players, long joinNanos, int peakWaiting, int left) {
+        System.out.printf("%s: %,d joins in %,d ms (%,.0f/s), join p50 %d us p99 %d us, %,d pairs, peak waiting %,d, %,d left%n",
+                name, players, joinNanos / 1_000_000, players * 1e9 / joinNanos, percentile(joinMicros, 0.5),
+                percentile(joinMicros, 0.99), paired.get(), peakWaiting, left);
+        System.out.printf("  rating gap p50 %d p90 %d p99 %d max %d; waited p50 %d s p90 %d s p99 %d s%n",
+                percentile(gaps, 0.5), percentile(gaps, 0.9), percentile(gaps, 0.99), percentile(gaps, 1.0),
+                percentile(waits, 0.5), percentile(waits, 0.9), percentile(waits, 0.99));
+    }
+
+    private static int percentile(AtomicLongArray counts, double fraction) {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (total > 0 && seen >= Math.ceil(total * fraction)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.matchservice.protocol;
+
+import com.example.matchservice.chess.Fen;
+import com.example.matchservice.model.DTO.GameStatusDTO;
+import com.example.matchservice.model.DTO.JoinRequest;
+import com.example.matchservice.model.DTO.MoveDeltaDTO;
+import com.example.matchservice.model.DTO.MoveRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameFrameCodecTest {
+
+    private static final String FEN = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    @Test
+    void moveRequestRoundTrips() {
+        MoveRequest move = new MoveRequest();
+        move.setFromRow(1);
+        move.setFromCol(4);
+        move.setToRow(0);
+        move.setToCol(5);
+        move.setPiece("p");
+        move.setPromotedTo("n");
+        move.setPlayerColor("black");
+
+        byte[] frame = GameFrameCodec.encode(move);
+        assertEquals(6, frame.length);
+        MoveRequest decoded = (MoveRequest) GameFrameCodec.decode(frame, MoveRequest.class);
+        assertEquals(1, decoded.getFromRow());
+        assertEquals(4, decoded.getFromCol());
+        assertEquals(0, decoded.getToRow());
+        assertEquals(5, decoded.getToCol());
+        assertEquals("p", decoded.getPiece());
+        assertEquals("n", decoded.getPromotedTo());
+        assertEquals("black", decoded.getPlayerColor());
+    }
+
+    @Test
+    void joinRequestRoundTrips() {
+        JoinRequest join = new JoinRequest();
+        join.setPlayerColor("white");
+        JoinRequest decoded = (JoinRequest) GameFrameCodec.decode(GameFrameCodec.encode(join), JoinRequest.class);
+        assertEquals("white", decoded.getPlayerColor());
+        assertEquals("JOIN", decoded.getType());
+    }
+
+    @Test
+    void deltaRoundTripsInTwentyFourBytes() {
+        MoveDeltaDTO delta = new MoveDeltaDTO();
+        delta.setSeq(65_535);
+        delta.setUci("e7e8q");
+        delta.setHash("fedcba9876543210");
+        delta.setWhiteClock(181_500L);
+        delta.setBlackClock(null);
+        delta.setStatus("FINISHED");
+        delta.setEndReason("CHECKMATE");
+
+        byte[] frame = GameFrameCodec.encode(delta);
+        assertEquals(24, frame.length);
+        MoveDeltaDTO decoded = (MoveDeltaDTO) GameFrameCodec.decode(frame, MoveDeltaDTO.class);
+        assertEquals(65_535, decoded.getSeq());
+        assertEquals("e7e8q", decoded.getUci());
+        assertEquals("fedcba9876543210", decoded.getHash());
+        assertEquals(181_500L, decoded.getWhiteClock());
+        assertNull(decoded.getBlackClock());
+        assertEquals("FINISHED", decoded.getStatus());
+        assertEquals("CHECKMATE", decoded.getEndReason());
+    }
+
+    @Test
+    void deltaOfAnOngoingGameHasNoStatusOrEndReason() {
+        MoveDeltaDTO delta = new MoveDeltaDTO();
+        delta.setSeq(7);
+        delta.setUci("g1f3");
+        delta.setHash("0000000000000001");
+        MoveDeltaDTO decoded = (MoveDeltaDTO) GameFrameCodec.decode(GameFrameCodec.encode(delta), MoveDeltaDTO.class);
+        assertEquals("g1f3", decoded.getUci());
+        assertNull(decoded.getStatus());
+        assertNull(decoded.getEndReason());
+        assertNull(decoded.getWhiteClock());
+    }
+
+    @Test
+    void snapshotRoundTripsAndRebuildsTheBoard() {
+        GameStatusDTO snapshot = new GameStatusDTO();
+        snapshot.setMatchId(9_876_543_210L);
+        snapshot.setPly(42);
+        snapshot.setStatus("IN_PROGRESS");
+        snapshot.setPlayerColor("black");
+        snapshot.setMyTurn(true);
+        snapshot.setPositionHash("0123456789abcdef");
+        snapshot.setWhiteClock(60_000L);
+        snapshot.setBlackClock(59_000L);
+        snapshot.setFen(FEN);
+
+        GameStatusDTO decoded = (GameStatusDTO) GameFrameCodec.decode(GameFrameCodec.encode(snapshot),
+                GameStatusDTO.class);
+        assertEquals(9_876_543_210L, decoded.getMatchId());
+        assertEquals(42, decoded.getPly());
+        assertEquals("IN_PROGRESS", decoded.getStatus());
+        assertEquals("black", decoded.getPlayerColor());
+        assertTrue(decoded.isMyTurn());
+        assertEquals("0123456789abcdef", decoded.getPositionHash());
+        assertEquals(60_000L, decoded.getWhiteClock());
+        assertEquals(59_000L, decoded.getBlackClock());
+        assertEquals(FEN, decoded.getFen());
+        assertTrue(Arrays.deepEquals(Fen.parse(FEN).toBoardArray(), decoded.getBoard()));
+    }
+
+    @Test
+    void eventsAndChatRoundTrip() {
+        Map<String, Object> resignation = new HashMap<>();
+        resignation.put("type", "RESIGNATION");
+        resignation.put("matchId", 12L);
+        resignation.put("timestamp", 1_700_000_000_000L);
+        resignation.put("player", "alice");
+        resignation.put("status", "RESIGNED");
+        assertEquals(resignation, GameFrameCodec.decode(GameFrameCodec.encode(resignation), Map.class));
+
+        Map<String, Object> offer = new HashMap<>();
+        offer.put("type", "DRAW_OFFER");
+        offer.put("matchId", 12L);
+        offer.put("timestamp", 1L);
+        offer.put("from", "bob");
+        assertEquals(offer, GameFrameCodec.decode(GameFrameCodec.encode(offer), Map.class));
+
+        Map<String, Object> chat = new HashMap<>();
+        chat.put("type", "CHAT_MESSAGE");
+        chat.put("matchId", 12L);
+        chat.put("timestamp", 2L);
+        chat.put("from", "bob");
+        chat.put("message", "good game ♞");
+        assertEquals(chat, GameFrameCodec.decode(GameFrameCodec.encode(chat), Map.class));
+
+        Map<String, Object> sent = Map.of("message", "hi");
+        assertEquals(sent, GameFrameCodec.decode(GameFrameCodec.encode(sent), Map.class));
+    }
+
+    @Test
+    void errorsDecodeIntoTheTargetType() {
+        MoveDeltaDTO failed = new MoveDeltaDTO();
+        failed.setError("Not your turn");
+        byte[] frame = GameFrameCodec.encode(failed);
+        assertEquals("Not your turn", ((MoveDeltaDTO) GameFrameCodec.decode(frame, MoveDeltaDTO.class)).getError());
+        assertEquals("Not your turn", ((GameStatusDTO) GameFrameCodec.decode(frame, GameStatusDTO.class)).getStatus());
+        assertEquals(Map.of("error", "Not your turn"), GameFrameCodec.decode(frame, Map.class));
+
+        GameStatusDTO joinError = new GameStatusDTO();
+        joinError.setStatus("ERROR: Game not found");
+        assertArrayEquals(GameFrameCodec.encode(Map.of("error", "ERROR: Game not found")),
+                GameFrameCodec.encode(joinError));
+    }
+
+    @Test
+    void payloadsWithoutALayoutFallBackToJson() {
+        assertNull(GameFrameCodec.encode("plain string"));
+        assertNull(GameFrameCodec.encode(Map.of("type", "SOMETHING_ELSE")));
+        MoveDeltaDTO delta = new MoveDeltaDTO();
+        delta.setSeq(70_000);
+        delta.setUci("e2e4");
+        delta.setHash("0");
+        assertNull(GameFrameCodec.encode(delta), "seq past 16 bits");
+        assertNull(GameFrameCodec.encode(Map.of("error", "x".repeat(70_000))));
+    }
+
+    @Test
+    void rejectsMalformedFrames() {
+        assertThrows(IllegalArgumentException.class, () -> GameFrameCodec.decode(new byte[]{99}, Map.class));
+        assertThrows(IllegalArgumentException.class, () -> GameFrameCodec.decode(new byte[]{3, 0}, MoveDeltaDTO.class));
+        assertThrows(IllegalArgumentException.class,
+                () -> GameFrameCodec.decode(new byte[]{1, 64, 0, 'p', 0, 0}, MoveRequest.class));
+        byte[] join = {2, 0};
+        assertThrows(IllegalArgumentException.class, () -> GameFrameCodec.decode(join, MoveRequest.class));
+        assertFalse(GameFrameCodec.supports(String.class));
+    }
+
+    @Test
+    void payloadTypeFollowsTheDestination() {
+        assertEquals(MoveDeltaDTO.class, GameFrameCodec.payloadType("/topic/moves/5"));
+        assertEquals(MoveDeltaDTO.class, GameFrameCodec.payloadType("/user/queue/move-errors"));
+        assertEquals(GameStatusDTO.class, GameFrameCodec.payloadType("/user/queue/game-sync"));
+        assertEquals(Map.class, GameFrameCodec.payloadType("/topic/chat/5"));
+        assertNull(GameFrameCodec.payloadType("/topic/spectators/5"));
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.matchservice.protocol.bench;
+
+import com.example.matchservice.chess.Fen;
+import com.example.matchservice.chess.MoveGenerator;
+import com.example.matchservice.chess.MoveList;
+import com.example.matchservice.chess.PackedMove;
+import com.example.matchservice.chess.Piece;
+import com.example.matchservice.chess.Position;
+import com.example.matchservice.chess.Square;
+import com.example.matchservice.chess.Uci;
+import com.example.matchservice.chess.Zobrist;
+import com.example.matchservice.model.DTO.GameStatusDTO;
+import com.example.matchservice.model.DTO.MoveDeltaDTO;
+import com.example.matchservice.model.DTO.MoveRequest;
+import com.example.matchservice.protocol.GameFrameCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Bytes per frame and encode/decode throughput of {@link GameFrameCodec} against Jackson for the
+ * frames the game protocol carries: move requests, move deltas, join/resync snapshots, draw and
+ * resignation events and chat. Frames come from random games; every binary frame is decoded and
+ * checked against its source before timing. JSON uses an ObjectMapper set up like Spring Boot's.
+ * Needs Jackson on the classpath.
+ * <pre>
+ * java -cp target/classes:target/test-classes:... com.example.matchservice.protocol.bench.GameFrameBenchmark [games]
+ * </pre>
+ */
+public class GameFrameBenchmark {
+
+    private static final class Kind {
+        final String name;
+        final Class<?> type;
+        final List<Object> frames = new ArrayList<>();
+
+        Kind(String name, Class<?> type) {
+            this.name = name;
+            this.type = type;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        ObjectMapper mapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        List<Kind> kinds = generate(games);
+
+        for (Kind kind : kinds) {
+            for (Object frame : kind.frames) {
+                Object decoded = GameFrameCodec.decode(GameFrameCodec.encode(frame), kind.type);
+                if (!mapper.readTree(mapper.writeValueAsString(decoded)).equals(mapper.readTree(mapper.writeValueAsString(frame)))) {
+                    System.err.println("❌ " + kind.name + " does not round-trip: " + mapper.writeValueAsString(frame)
+                            + " came back as " + mapper.writeValueAsString(decoded));
+                    System.exit(1);
+                }
+            }
+        }
+
+        for (int round = 0; round < 5; round++) {
+            System.out.println("round " + round);
+            for (Kind kind : kinds) {
+                long jsonBytes = 0, binaryBytes = 0, decoded = 0;
+                long start = System.nanoTime();
+                for (Object frame : kind.frames) {
+                    byte[] encoded = mapper.writeValueAsBytes(frame);
+                    jsonBytes += encoded.length;
+                    decoded += mapper.readValue(encoded, kind.type) != null ? 1 : 0;
+                }
+                long jsonNanos = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                for (Object frame : kind.frames) {
+                    byte[] encoded = GameFrameCodec.encode(frame);
+                    binaryBytes += encoded.length;
+                    decoded += GameFrameCodec.decode(encoded, kind.type) != null ? 1 : 0;
+                }
+                long binaryNanos = System.nanoTime() - start;
+
+                int n = kind.frames.size();
+                System.out.printf("  %-9s %,8d frames  json %4d B %,10.0f/s  binary %4d B %,10.0f/s  "
+                        + "bytes %4.1fx  speed %4.1fx%n", kind.name, n, jsonBytes / n, n * 1e9 / jsonNanos,
+                        binaryBytes / n, n * 1e9 / binaryNanos, jsonBytes / (double) binaryBytes,
+                        jsonNanos / (double) binaryNanos);
+                if (decoded != 2L * n) {
+                    System.exit(1);
+                }
+            }
+        }
+    }
+
+    private static List<Kind> generate(int games) {
+        Kind moves = new Kind("move", MoveRequest.class);
+        Kind deltas = new Kind("delta", MoveDeltaDTO.class);
+        Kind snapshots = new Kind("snapshot", GameStatusDTO.class);
+        Kind events = new Kind("event", Map.class);
+        Kind chats = new Kind("chat", Map.class);
+        SplittableRandom random = new SplittableRandom(16);
+        MoveList legal = new MoveList();
+        for (int g = 0; g < games; g++) {
+            long matchId = 10_000 + g;
+            long now = 1_700_000_000_000L + g * 1_000L;
+            Position position = Position.startPosition();
+            long[] clocks = { 300_000, 300_000 };
+            for (int ply = 1; ply <= 160; ply++) {
+                MoveGenerator.generateLegal(position, legal);
+                if (legal.isEmpty()) {
+                    break;
+                }
+                int move = legal.get(random.nextInt(legal.size()));
+                boolean white = position.isWhiteToMove();
+                clocks[white ? 0 : 1] = Math.max(0, clocks[white ? 0 : 1] - 500 - random.nextInt(8_000));
+
+                MoveRequest request = new MoveRequest();
+                request.setFromRow(Square.row(PackedMove.from(move)));
+                request.setFromCol(Square.col(PackedMove.from(move)));
+                request.setToRow(Square.row(PackedMove.to(move)));
+                request.setToCol(Square.col(PackedMove.to(move)));
+                request.setPiece(String.valueOf(Piece.string(position.pieceAt(PackedMove.from(move))).charAt(0)));
+                String uci = Uci.toUci(move);
+                request.setPromotedTo(uci.length() > 4 ? uci.substring(4) : null);
+                request.setPlayerColor(white ? "white" : "black");
+                moves.frames.add(request);
+
+                position.makeMove(move);
+                MoveDeltaDTO delta = new MoveDeltaDTO();
+                delta.setSeq(ply);
+                delta.setUci(uci);
+                delta.setHash(Zobrist.toHex(position.getKey()));
+                delta.setWhiteClock(clocks[0]);
+                delta.setBlackClock(clocks[1]);
+                deltas.frames.add(delta);
+
+                if (ply % 20 == 0) {
+                    GameStatusDTO snapshot = new GameStatusDTO();
+                    snapshot.setMatchId(matchId);
+                    snapshot.setStatus("IN_PROGRESS");
+                    snapshot.setPlayerColor(random.nextBoolean() ? "white" : "black");
+                    snapshot.setMyTurn(random.nextBoolean());
+                    snapshot.setFen(Fen.toFen(position));
+                    snapshot.setBoard(position.toBoardArray());
+                    snapshot.setPositionHash(Zobrist.toHex(position.getKey()));
+                    snapshot.setPly(ply);
+                    snapshot.setWhiteClock(clocks[0]);
+                    snapshot.setBlackClock(clocks[1]);
+                    snapshots.frames.add(snapshot);
+
+                    Map<String, Object> chat = new HashMap<>();
+                    chat.put("type", "CHAT_MESSAGE");
+                    chat.put("from", "player_" + g);
+                    chat.put("message", "good move, ply " + ply);
+                    chat.put("matchId", matchId);
+                    chat.put("timestamp", now + ply);
+                    chats.frames.add(chat);
+                }
+            }
+            Map<String, Object> offer = new HashMap<>();
+            offer.put("type", "DRAW_OFFER");
+            offer.put("from", "player_" + g);
+            offer.put("matchId", matchId);
+            offer.put("timestamp", now);
+            events.frames.add(offer);
+            Map<String, Object> accepted = new HashMap<>();
+            accepted.put("type", "DRAW_ACCEPTED");
+            accepted.put("player", "opponent_" + g);
+            accepted.put("matchId", matchId);
+            accepted.put("timestamp", now + 1);
+            accepted.put("status", "DRAW");
+            events.frames.add(accepted);
+        }
+        return List.of(moves, deltas, snapshots, events, chats);
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.matchservice.protocol.bench;
+
+import com.example.matchservice.protocol.OutboundBackpressure;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.SplittableRandom;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A node's outbound side with a share of its clients on slow links. Sessions follow games that
+ * each send a move delta every 100 ms and a join snapshot every second; frames are handed to a
+ * 16-thread pool with an unbounded queue, as Spring's client outbound channel does. A fast
+ * session's write costs a copy, a slow one blocks for {@code slowMs}, a stalled one for
+ * {@code stalledMs}, the way a full socket buffer blocks the writing thread.
+ * <p>
+ * Two runs: sessions behind Spring's {@link ConcurrentWebSocketSessionDecorator} alone (10 s
+ * send limit, 512 KB buffer, the defaults), and the same with a {@code SessionOutbox} from
+ * {@link OutboundBackpressure} underneath. Every five seconds it prints the outbound pool's
+ * queue, frames queued in outboxes, heap after GC, fast sessions' frame latency, superseded
+ * frames and closed sessions; with outboxes, memory should level off and fast sessions should
+ * not wait on slow ones. Needs Spring WebSocket and Micrometer on the classpath.
+ * <pre>
+ * java -cp target/classes:target/test-classes:... com.example.matchservice.protocol.bench.OutboundBackpressureSoak [sessions] [seconds] [slowPercent] [slowMs] [stalledPercent] [stalledMs]
+ * </pre>
+ */
+public class OutboundBackpressureSoak {
+
+    private static final int GAMES_PER_100_SESSIONS = 10;
+    private static final int MAX_LATENCY_MS = 60_000;
+
+    private final int sessions;
+    private final int[] writeMillis;
+    private final boolean[] open;
+    private final WebSocketSession[] top;
+    private final ThreadPoolExecutor pool = new ThreadPoolExecutor(16, 16, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>());
+    private final AtomicLongArray fastLatency = new AtomicLongArray(MAX_LATENCY_MS + 1);
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final OutboundBackpressure backpressure;
+
+    OutboundBackpressureSoak(int sessions, int[] writeMillis, boolean outboxes) {
+        this.sessions = sessions;
+        this.writeMillis = writeMillis;
+        this.open = new boolean[sessions];
+        this.top = new WebSocketSession[sessions];
+        this.backpressure = outboxes ? new OutboundBackpressure(registry, 256 * 1024, 128, 5_000) : null;
+        for (int i = 0; i < sessions; i++) {
+            open[i] = true;
+            WebSocketSession session = fakeSession(i);
+            if (outboxes) {
+                session = backpressure.open(session);
+            }
+            top[i] = new ConcurrentWebSocketSessionDecorator(session, 10_000, 512 * 1024);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+        int slowPercent = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int slowMs = args.length > 3 ? Integer.parseInt(args[3]) : 40;
+        int stalledPercent = args.length > 4 ? Integer.parseInt(args[4]) : 2;
+        int stalledMs = args.length > 5 ? Integer.parseInt(args[5]) : 5_000;
+
+        int[] writeMillis = new int[sessions];
+        SplittableRandom random = new SplittableRandom(19);
+        for (int i = 0; i < sessions; i++) {
+            int roll = random.nextInt(100);
+            writeMillis[i] = roll < stalledPercent ? stalledMs : roll < stalledPercent + slowPercent ? slowMs : 0;
+        }
+        System.out.printf("%,d sessions, %d%% slow (%d ms a write), %d%% stalled (%,d ms a write), %d s%n",
+                sessions, slowPercent, slowMs, stalledPercent, stalledMs, seconds);
+        new OutboundBackpressureSoak(sessions, writeMillis, false).run("spring", seconds);
+        new OutboundBackpressureSoak(sessions, writeMillis, true).run("outbox", seconds);
+        System.exit(0);
+    }
+
+    private void run(String name, int seconds) throws Exception {
+        System.out.println(name);
+        int games = Math.max(1, sessions * GAMES_PER_100_SESSIONS / 100);
+        String snapshotBody = "{\"status\":\"IN_PROGRESS\",\"fen\":\"" + "r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3"
+                + "\",\"board\":" + "[\"r\",\"n\",\"b\",\"q\",\"k\",\"b\",\"n\",\"r\"],".repeat(8) + "\"ply\":4}";
+        long start = System.nanoTime();
+        long nextReport = start + TimeUnit.SECONDS.toNanos(5);
+        for (int round = 0; System.nanoTime() - start < TimeUnit.SECONDS.toNanos(seconds); round++) {
+            long now = System.currentTimeMillis();
+            for (int game = 0; game < games; game++) {
+                TextMessage delta = frame("/topic/moves/" + game, now,
+                        "{\"seq\":" + round + ",\"m\":\"e2e4\",\"h\":\"9f3a5c0d1e2b4a68\",\"w\":281234,\"b\":279000}");
+                TextMessage snapshot = round % 10 == 0 ? frame("/topic/game/" + game, now, snapshotBody) : null;
+                for (int i = game; i < sessions; i += games) {
+                    send(i, delta);
+                    if (snapshot != null) {
+                        send(i, snapshot);
+                    }
+                }
+            }
+            long wake = start + (round + 1) * 100_000_000L;
+            while (System.nanoTime() < wake) {
+                Thread.sleep(1);
+            }
+            if (System.nanoTime() >= nextReport) {
+                report(start);
+                nextReport += TimeUnit.SECONDS.toNanos(5);
+            }
+        }
+        pool.shutdownNow();
+    }
+
+    private void send(int session, TextMessage message) {
+        pool.execute(() -> {
+            try {
+                top[session].sendMessage(message);
+            } catch (Exception e) {
+                // Closed or over the decorator's limits; the session is gone either way
+            }
+        });
+    }
+
+    private void report(long start) {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        long heap = runtime.totalMemory() - runtime.freeMemory();
+        long[] latency = new long[MAX_LATENCY_MS + 1];
+        long total = 0;
+        for (int ms = 0; ms <= MAX_LATENCY_MS; ms++) {
+            latency[ms] = fastLatency.getAndSet(ms, 0);
+            total += latency[ms];
+        }
+        int closed = 0;
+        for (int i = 0; i < sessions; i++) {
+            closed += open[i] ? 0 : 1;
+        }
+        System.out.printf("  %3d s  pool queue %,9d  heap %,8d KB  fast frames %,8d p50 %,6d ms p99 %,6d ms",
+                (System.nanoTime() - start) / 1_000_000_000, pool.getQueue().size(), heap >> 10, total,
+                percentile(latency, total, 0.5), percentile(latency, total, 0.99));
+        if (backpressure != null) {
+            System.out.printf("  outboxes %,7d frames %,7d KB  superseded %,7.0f", backpressure.queuedMessages(),
+                    backpressure.queuedBytes() >> 10, registry.counter("match.outbound.superseded").count());
+        }
+        System.out.printf("  closed %,d%n", closed);
+    }
+
+    private static int percentile(long[] counts, long total, double fraction) {
+        long seen = 0;
+        for (int ms = 0; ms < counts.length; ms++) {
+            seen += counts[ms];
+            if (total > 0 && seen >= Math.ceil(total * fraction)) {
+                return ms;
+            }
+        }
+        return 0;
+    }
+
+    private static TextMessage frame(String destination, long sentMillis, String body) {
+        return new TextMessage("MESSAGE\ndestination:" + destination + "\ncontent-type:application/json\nsent:"
+                + sentMillis + "\nsubscription:sub-0\nmessage-id:1\n\n" + body + "\0");
+    }
+
+    private void delivered(int session, TextMessage message) throws InterruptedException {
+        if (writeMillis[session] > 0) {
+            Thread.sleep(writeMillis[session]);
+            return;
+        }
+        String payload = message.getPayload();
+        int at = payload.indexOf("\nsent:") + 6;
+        long sent = Long.parseLong(payload, at, payload.indexOf('\n', at), 10);
+        fastLatency.incrementAndGet((int) Math.min(MAX_LATENCY_MS, Math.max(0, System.currentTimeMillis() - sent)));
+    }
+
+    private WebSocketSession fakeSession(int index) {
+        String id = "s" + index;
+        HashMap<String, Object> attributes = new HashMap<>();
+        return (WebSocketSession) Proxy.newProxyInstance(WebSocketSession.class.getClassLoader(),
+                new Class<?>[] { WebSocketSession.class }, (proxy, method, args) -> switch (method.getName()) {
+                    case "getId" -> id;
+                    case "isOpen" -> open[index];
+                    case "getAttributes" -> attributes;
+                    case "sendMessage" -> {
+                        if (!open[index]) {
+                            throw new IllegalStateException("Session " + id + " is closed");
+                        }
+                        delivered(index, (TextMessage) args[0]);
+                        yield null;
+                    }
+                    case "close" -> {
+                        open[index] = false;
+                        yield null;
+                    }
+                    case "getTextMessageSizeLimit", "getBinaryMessageSizeLimit" -> 64 * 1024;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "FakeSession[" + id + "]";
+                    default -> null;
+                });
+    }
+}
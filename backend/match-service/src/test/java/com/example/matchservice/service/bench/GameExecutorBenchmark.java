@@ -0,0 +1,153 @@
+package com.example.matchservice.service.bench;
+
+import com.example.matchservice.chess.MoveGenerator;
+import com.example.matchservice.chess.Piece;
+import com.example.matchservice.chess.Position;
+import com.example.matchservice.chess.Square;
+import com.example.matchservice.service.GameExecutor;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Contention benchmark for per-game serialization. Inbound threads fire frames at random games
+ * out of 10k; every frame validates and plays a move on that game's Position and bumps a plain
+ * counter. Compares the unsynchronized handling GameService used to do (counting overlapping
+ * frames and lost updates), one global lock, and {@link GameExecutor} mailboxes. A second pass
+ * adds a blocking wait to every frame, standing in for the database write a move makes.
+ * <pre>
+ * java -cp target/classes:target/test-classes com.example.matchservice.service.bench.GameExecutorBenchmark [games] [frames] [threads] [blockMicros]
+ * </pre>
+ */
+public class GameExecutorBenchmark {
+
+    private static final int E2 = Square.of(4, 1), E4 = Square.of(4, 3);
+
+    private static final class Game {
+        final Position position = Position.startPosition();
+        volatile Thread owner;
+        long frames;
+    }
+
+    private interface Mode {
+        void handle(int game, Runnable frame);
+
+        default void drain() throws InterruptedException {
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int frames = args.length > 1 ? Integer.parseInt(args[1]) : 4_000_000;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors() * 2;
+        int blockMicros = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+
+        for (int round = 0; round < 3; round++) {
+            System.out.println("round " + round + ", cpu only:");
+            runModes(games, frames, threads, 0);
+        }
+        System.out.println("with a " + blockMicros + "us blocking write per frame:");
+        runModes(games, frames / 200, threads, blockMicros);
+    }
+
+    private static void runModes(int games, int frames, int threads, int blockMicros) throws Exception {
+        run("unsynchronized", games, frames, threads, blockMicros, (game, frame) -> frame.run());
+
+        Object lock = new Object();
+        run("global lock", games, frames, threads, blockMicros, (game, frame) -> {
+            synchronized (lock) {
+                frame.run();
+            }
+        });
+
+        GameExecutor executor = new GameExecutor();
+        AtomicLong pending = new AtomicLong();
+        run("GameExecutor", games, frames, threads, blockMicros, new Mode() {
+            @Override
+            public void handle(int game, Runnable frame) {
+                pending.incrementAndGet();
+                executor.execute((long) game, frame).thenRun(pending::decrementAndGet);
+            }
+
+            @Override
+            public void drain() throws InterruptedException {
+                while (pending.get() > 0) {
+                    Thread.sleep(1);
+                }
+            }
+        });
+    }
+
+    private static void run(String name, int gameCount, int frames, int threads, int blockMicros, Mode mode)
+            throws Exception {
+        Game[] games = new Game[gameCount];
+        for (int i = 0; i < gameCount; i++) {
+            games[i] = new Game();
+        }
+        AtomicLong overlaps = new AtomicLong();
+        AtomicLong failures = new AtomicLong();
+        ExecutorService inbound = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        int perThread = frames / threads;
+
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            long seed = t;
+            inbound.execute(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                for (int i = 0; i < perThread; i++) {
+                    int index = random.nextInt(gameCount);
+                    Game game = games[index];
+                    mode.handle(index, () -> playFrame(game, blockMicros, overlaps, failures));
+                }
+                done.countDown();
+            });
+        }
+        done.await();
+        mode.drain();
+        long nanos = System.nanoTime() - start;
+        inbound.shutdown();
+        inbound.awaitTermination(1, TimeUnit.MINUTES);
+
+        long counted = 0;
+        for (Game game : games) {
+            counted += game.frames;
+        }
+        long expected = (long) perThread * threads;
+        System.out.printf("%-15s %,12d frames/s  overlapping frames %,9d  lost updates %,9d  failed frames %,9d%n",
+                name, expected * 1_000_000_000L / nanos, overlaps.get(), expected - counted, failures.get());
+    }
+
+    private static void playFrame(Game game, int blockMicros, AtomicLong overlaps, AtomicLong failures) {
+        Thread self = Thread.currentThread();
+        if (game.owner != null) {
+            overlaps.incrementAndGet();
+        }
+        game.owner = self;
+        Position position = game.position;
+        try {
+            int move = MoveGenerator.findLegalMove(position, E2, E4, Piece.NONE);
+            if (move == 0) {
+                failures.incrementAndGet();
+            } else {
+                long undo = position.makeMove(move);
+                position.unmakeMove(move, undo);
+            }
+        } catch (RuntimeException e) {
+            // A position mutated by two frames at once can be left without a king
+            failures.incrementAndGet();
+        }
+        if (blockMicros > 0) {
+            LockSupport.parkNanos(blockMicros * 1_000L);
+        }
+        game.frames++;
+        if (game.owner == self) {
+            game.owner = null;
+        }
+    }
+}
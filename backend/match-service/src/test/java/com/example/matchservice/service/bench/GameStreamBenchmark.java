@@ -0,0 +1,142 @@
+package com.example.matchservice.service.bench;
+
+import com.example.matchservice.archive.MatchArchiver;
+import com.example.matchservice.archive.PackedMoveList;
+import com.example.matchservice.chess.MoveGenerator;
+import com.example.matchservice.chess.MoveList;
+import com.example.matchservice.chess.Position;
+import com.example.matchservice.chess.Uci;
+import com.example.matchservice.chess.Zobrist;
+import com.example.matchservice.model.DTO.MoveDeltaDTO;
+import com.example.matchservice.model.Move;
+import com.example.matchservice.service.GameStream;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Cost of a reconnect storm: every client of a set of live games drops after missing a few
+ * frames and comes back. Resuming asks {@link GameStream} for the frames after the last seq it
+ * saw; the old path reloads the game through GET /game/{matchId}, modelled here as building and
+ * serializing the same response map with every move replayed from the game's packed list. The
+ * reload side leaves out the database round trips, so its cost is a lower bound. Both sides are
+ * serialized by Jackson into a counting channel. Needs Spring messaging and Jackson on the
+ * classpath.
+ * <pre>
+ * java -cp target/classes:target/test-classes:... com.example.matchservice.service.bench.GameStreamBenchmark [games] [plies] [reconnects]
+ * </pre>
+ */
+public class GameStreamBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int plies = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        int reconnects = args.length > 2 ? Integer.parseInt(args[2]) : 50_000;
+
+        ObjectMapper mapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        long[] sent = new long[2];
+        MessageChannel channel = (message, timeout) -> {
+            sent[0]++;
+            sent[1] += ((byte[]) message.getPayload()).length;
+            return true;
+        };
+        SimpMessagingTemplate template = new SimpMessagingTemplate(channel);
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(mapper);
+        template.setMessageConverter(converter);
+        GameStream stream = new GameStream(template, 256);
+
+        // Play every game through the stream, keeping its packed moves for the reload side
+        SplittableRandom random = new SplittableRandom(17);
+        MoveList legal = new MoveList();
+        PackedMoveList[] packed = new PackedMoveList[games];
+        for (int g = 0; g < games; g++) {
+            long matchId = g + 1;
+            stream.open(matchId);
+            Position position = Position.startPosition();
+            int[] moves = new int[plies];
+            long[] timestamps = new long[plies];
+            int played = 0;
+            for (; played < plies; played++) {
+                MoveGenerator.generateLegal(position, legal);
+                if (legal.isEmpty()) {
+                    break;
+                }
+                int move = legal.get(random.nextInt(legal.size()));
+                position.makeMove(move);
+                moves[played] = move;
+                timestamps[played] = 1_700_000_000_000L + played * 5_000L;
+                MoveDeltaDTO delta = new MoveDeltaDTO();
+                delta.setSeq(played + 1);
+                delta.setUci(Uci.toUci(move));
+                delta.setHash(Zobrist.toHex(position.getKey()));
+                delta.setWhiteClock(300_000L - played * 2_000L);
+                delta.setBlackClock(300_000L - played * 2_000L);
+                stream.publish(matchId, "/topic/moves/" + matchId, delta);
+            }
+            packed[g] = new PackedMoveList(1_700_000_000_000L, Arrays.copyOf(moves, played),
+                    Arrays.copyOf(timestamps, played));
+        }
+
+        for (int round = 0; round < 3; round++) {
+            SplittableRandom storm = new SplittableRandom(round);
+            sent[0] = sent[1] = 0;
+            long start = System.nanoTime();
+            for (int r = 0; r < reconnects; r++) {
+                int game = storm.nextInt(games);
+                long matchId = game + 1;
+                int missed = 1 + storm.nextInt(Math.max(1, Math.min(8, packed[game].size())));
+                if (!stream.replay(matchId, stream.lastSeq(matchId) - missed, "player" + r, "session" + r)) {
+                    throw new IllegalStateException("Ring did not hold " + missed + " frames");
+                }
+            }
+            long resumeNanos = System.nanoTime() - start;
+            long resumeBytes = sent[1];
+
+            storm = new SplittableRandom(round);
+            long reloadBytes = 0;
+            start = System.nanoTime();
+            for (int r = 0; r < reconnects; r++) {
+                int game = storm.nextInt(games);
+                storm.nextInt(Math.max(1, Math.min(8, packed[game].size())));
+                reloadBytes += mapper.writeValueAsBytes(reload(game + 1L, packed[game])).length;
+            }
+            long reloadNanos = System.nanoTime() - start;
+
+            System.out.printf("round %d  %,d reconnects  resume %,6d B %6.2f µs  reload %,6d B %7.2f µs  "
+                    + "bytes %.0fx  time %.0fx%n", round, reconnects, resumeBytes / reconnects,
+                    resumeNanos / 1_000.0 / reconnects, reloadBytes / reconnects, reloadNanos / 1_000.0 / reconnects,
+                    reloadBytes / (double) resumeBytes, reloadNanos / (double) resumeNanos);
+        }
+        System.out.printf("%,d streams held%n", stream.streamCount());
+    }
+
+    // Shape of MatchService.getGameDetailsForFrontend
+    private static Map<String, Object> reload(long matchId, PackedMoveList moves) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("matchId", matchId);
+        response.put("player1", Map.of("id", matchId * 2, "username", "white" + matchId));
+        response.put("player2", Map.of("id", matchId * 2 + 1, "username", "black" + matchId));
+        response.put("status", "IN_PROGRESS");
+        response.put("playerColor", "white");
+        response.put("isMyTurn", moves.size() % 2 == 0);
+        response.put("createdAt", LocalDateTime.now());
+        response.put("startedAt", LocalDateTime.now());
+        response.put("currentPly", moves.size());
+        List<Move> history = MatchArchiver.replay(moves);
+        response.put("fenCurrent", history.isEmpty() ? null : history.get(history.size() - 1).getFenAfter());
+        response.put("moves", history);
+        response.put("timeLimit", 300);
+        return response;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.matchservice.service.bench;
+
+import com.example.matchservice.chess.MoveGenerator;
+import com.example.matchservice.chess.MoveList;
+import com.example.matchservice.chess.Position;
+import com.example.matchservice.chess.PositionHistory;
+import com.example.matchservice.service.GameExecutor;
+import com.example.matchservice.service.GameState;
+import com.example.matchservice.service.LiveGameStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Churns games through {@link LiveGameStore} the way a long-running node does: games start, play
+ * random moves, and then finish or get abandoned mid-game. After every epoch it sweeps and
+ * prints resident games, accounted bytes, heap after GC and evictions by reason, which should
+ * all level off instead of growing with the number of games ever played.
+ * <pre>
+ * mvn -q dependency:build-classpath -Dmdep.outputFile=cp.txt
+ * java -cp target/classes:target/test-classes:$(cat cp.txt) com.example.matchservice.service.bench.LiveGameStoreSoak [epochs] [gamesPerEpoch] [budgetBytes]
+ * </pre>
+ */
+public class LiveGameStoreSoak {
+
+    public static void main(String[] args) throws Exception {
+        int epochs = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int gamesPerEpoch = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        long budget = args.length > 2 ? Long.parseLong(args[2]) : 16L << 20;
+
+        GameExecutor executor = new GameExecutor();
+        MeterRegistry registry = new SimpleMeterRegistry();
+        // Finished games leave on the next sweep; abandoned ones only under budget pressure
+        LiveGameStore store = new LiveGameStore(executor, registry, 0, 60, budget);
+        SplittableRandom random = new SplittableRandom(7);
+        long nextId = 1;
+
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            List<CompletableFuture<Void>> pending = new ArrayList<>(gamesPerEpoch);
+            for (int i = 0; i < gamesPerEpoch; i++) {
+                Long matchId = nextId++;
+                int plies = 20 + random.nextInt(140);
+                boolean abandoned = random.nextInt(4) == 0;
+                long seed = random.nextLong();
+                pending.add(executor.execute(matchId, () -> playGame(store, matchId, plies, abandoned, seed)));
+            }
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).join();
+            store.sweep();
+            // Evictions run asynchronously on the game mailboxes
+            Thread.sleep(200);
+
+            System.gc();
+            Runtime runtime = Runtime.getRuntime();
+            long heap = runtime.totalMemory() - runtime.freeMemory();
+            System.out.printf("epoch %2d  games played %,9d  resident %,7d  accounted %,6d KB  heap %,7d KB  "
+                            + "evicted finished %,9.0f idle %,5.0f budget %,8.0f  mailboxes %,7d%n",
+                    epoch, nextId - 1, store.size(), store.residentBytes() >> 10, heap >> 10,
+                    evictions(registry, "finished"), evictions(registry, "idle"), evictions(registry, "budget"),
+                    executor.mailboxCount());
+        }
+    }
+
+    private static void playGame(LiveGameStore store, Long matchId, int plies, boolean abandoned, long seed) {
+        GameState state = new GameState();
+        state.setPosition(Position.startPosition());
+        state.setHistory(new PositionHistory(state.getPosition().getKey()));
+        state.setStatus("IN_PROGRESS");
+        state.setPlayer1Username("white" + matchId);
+        state.setPlayer2Username("black" + matchId);
+        store.put(matchId, state);
+
+        SplittableRandom random = new SplittableRandom(seed);
+        MoveList moves = new MoveList();
+        Position position = state.getPosition();
+        for (int ply = 0; ply < plies; ply++) {
+            MoveGenerator.generateLegal(position, moves);
+            if (moves.isEmpty()) {
+                break;
+            }
+            position.makeMove(moves.get(random.nextInt(moves.size())));
+            state.getHistory().push(position.getKey());
+        }
+        if (!abandoned) {
+            state.setStatus(random.nextBoolean() ? "FINISHED" : "DRAW");
+        }
+        store.update(matchId, state);
+    }
+
+    private static double evictions(MeterRegistry registry, String reason) {
+        return registry.get("match.live.games.evictions").tag("reason", reason).counter().count();
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.matchservice.service.bench;
+
+import com.example.matchservice.chess.Fen;
+import com.example.matchservice.chess.MoveGenerator;
+import com.example.matchservice.chess.MoveList;
+import com.example.matchservice.chess.PackedMove;
+import com.example.matchservice.chess.Piece;
+import com.example.matchservice.chess.Position;
+import com.example.matchservice.chess.San;
+import com.example.matchservice.chess.Square;
+import com.example.matchservice.chess.Uci;
+import com.example.matchservice.chess.Zobrist;
+import com.example.matchservice.model.DTO.MoveDeltaDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Bytes and Jackson time per {@code /topic/moves} frame for the full snapshot the topic used to
+ * carry (every MoveDTO field, board and both FENs included) versus {@link MoveDeltaDTO}. Frames
+ * come from random games of up to 160 plies with 5+0 clocks, and both shapes are serialized with
+ * an ObjectMapper configured like Spring Boot's (java.time module, ISO dates). Needs Jackson on
+ * the classpath.
+ * <pre>
+ * java -cp target/classes:target/test-classes:... com.example.matchservice.service.bench.MoveBroadcastBenchmark [games]
+ * </pre>
+ */
+public class MoveBroadcastBenchmark {
+
+    // Field for field what GameService used to broadcast per ply
+    @SuppressWarnings("unused")
+    private static final class Snapshot {
+        public int move;
+        public Integer fromRow, fromCol, toRow, toCol;
+        public String piece, promotedTo, capturedPiece;
+        public Boolean castled, isEnPassant, isPromotion;
+        public String fenBefore, fenAfter;
+        public String[][] board;
+        public Boolean isWhiteTurn;
+        public String playerColor;
+        public Long matchId;
+        public LocalDateTime timestamp;
+        public String moveNotation, playerUsername, positionHash, status, endReason;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        ObjectMapper mapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        ObjectWriter snapshotWriter = mapper.writerFor(Snapshot.class);
+        ObjectWriter deltaWriter = mapper.writerFor(MoveDeltaDTO.class);
+
+        List<Snapshot> snapshots = new ArrayList<>();
+        List<MoveDeltaDTO> deltas = new ArrayList<>();
+        generate(games, snapshots, deltas);
+
+        for (int round = 0; round < 5; round++) {
+            long[] full = serialize(snapshotWriter, snapshots);
+            long[] delta = serialize(deltaWriter, deltas);
+            System.out.printf("round %d  %,d frames  snapshot %5.0f B %6.2f µs  delta %4.0f B %5.2f µs  "
+                    + "bytes %.1fx  time %.1fx%n", round, snapshots.size(),
+                    full[0] / (double) snapshots.size(), full[1] / 1_000.0 / snapshots.size(),
+                    delta[0] / (double) deltas.size(), delta[1] / 1_000.0 / deltas.size(),
+                    full[0] / (double) delta[0], full[1] / (double) delta[1]);
+        }
+    }
+
+    // [total bytes, total nanos]
+    private static <T> long[] serialize(ObjectWriter writer, List<T> frames) throws Exception {
+        long bytes = 0;
+        long start = System.nanoTime();
+        for (T frame : frames) {
+            bytes += writer.writeValueAsBytes(frame).length;
+        }
+        return new long[] { bytes, System.nanoTime() - start };
+    }
+
+    private static void generate(int games, List<Snapshot> snapshots, List<MoveDeltaDTO> deltas) {
+        SplittableRandom random = new SplittableRandom(15);
+        MoveList legal = new MoveList();
+        for (int g = 0; g < games; g++) {
+            Position position = Position.startPosition();
+            long[] clocks = { 300_000, 300_000 };
+            for (int ply = 1; ply <= 160; ply++) {
+                MoveGenerator.generateLegal(position, legal);
+                if (legal.isEmpty()) {
+                    break;
+                }
+                int move = legal.get(random.nextInt(legal.size()));
+                boolean white = position.isWhiteToMove();
+                long spent = 500 + random.nextInt(8_000);
+                clocks[white ? 0 : 1] = Math.max(0, clocks[white ? 0 : 1] - spent);
+
+                Snapshot snapshot = new Snapshot();
+                snapshot.move = move;
+                snapshot.fromRow = Square.row(PackedMove.from(move));
+                snapshot.fromCol = Square.col(PackedMove.from(move));
+                snapshot.toRow = Square.row(PackedMove.to(move));
+                snapshot.toCol = Square.col(PackedMove.to(move));
+                snapshot.piece = Piece.string(position.pieceAt(PackedMove.from(move)));
+                snapshot.capturedPiece = PackedMove.isCapture(move) && !PackedMove.isEnPassant(move)
+                        ? Piece.string(position.pieceAt(PackedMove.to(move))) : null;
+                snapshot.castled = PackedMove.isCastle(move);
+                snapshot.isEnPassant = PackedMove.isEnPassant(move);
+                snapshot.isPromotion = PackedMove.isPromotion(move);
+                snapshot.fenBefore = Fen.toFen(position);
+                String san = San.toSan(position, move);
+                position.makeMove(move);
+                snapshot.fenAfter = Fen.toFen(position);
+                snapshot.board = position.toBoardArray();
+                snapshot.isWhiteTurn = !white;
+                snapshot.playerColor = white ? "white" : "black";
+                snapshot.matchId = (long) g + 1_000;
+                snapshot.timestamp = LocalDateTime.now();
+                snapshot.moveNotation = san;
+                snapshot.playerUsername = (white ? "white_player_" : "black_player_") + g;
+                snapshot.positionHash = Zobrist.toHex(position.getKey());
+                snapshot.status = "IN_PROGRESS";
+                snapshots.add(snapshot);
+
+                MoveDeltaDTO delta = new MoveDeltaDTO();
+                delta.setSeq(ply);
+                delta.setUci(Uci.toUci(move));
+                delta.setHash(snapshot.positionHash);
+                delta.setWhiteClock(clocks[0]);
+                delta.setBlackClock(clocks[1]);
+                deltas.add(delta);
+            }
+        }
+    }
+}
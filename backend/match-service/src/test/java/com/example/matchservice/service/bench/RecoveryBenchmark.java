@@ -0,0 +1,114 @@
+package com.example.matchservice.service.bench;
+
+import com.example.matchservice.chess.Fen;
+import com.example.matchservice.chess.MoveGenerator;
+import com.example.matchservice.chess.MoveList;
+import com.example.matchservice.chess.Position;
+import com.example.matchservice.model.DTO.RecoverableMatch;
+import com.example.matchservice.service.GameExecutor;
+import com.example.matchservice.service.GameRecoveryService;
+import com.example.matchservice.service.GameState;
+import com.example.matchservice.service.LiveGameStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Recovery time for a node with 100k open games. Games of 10-150 random plies are generated up
+ * front as the rows the two batch queries would return (fenCurrent, currentPly, packed moves);
+ * the timed part is what runs after the queries: replay, verification against fenCurrent, and
+ * installing into the {@link LiveGameStore} through the game mailboxes. Query time depends on
+ * the database and is not included. Every recovered position is checked against its FEN.
+ * <pre>
+ * mvn -q dependency:build-classpath -Dmdep.outputFile=cp.txt
+ * java -Xmx1g -cp target/classes:target/test-classes:$(cat cp.txt) com.example.matchservice.service.bench.RecoveryBenchmark [games] [batchSize] [threads]
+ * </pre>
+ */
+public class RecoveryBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        List<RecoverableMatch> rows = new ArrayList<>(games);
+        Map<Long, int[]> moves = new HashMap<>(games * 2);
+        SplittableRandom random = new SplittableRandom(11);
+        MoveList legal = new MoveList();
+        long totalPlies = 0;
+        for (long id = 1; id <= games; id++) {
+            Position position = Position.startPosition();
+            int[] played = new int[10 + random.nextInt(141)];
+            int plies = 0;
+            while (plies < played.length) {
+                MoveGenerator.generateLegal(position, legal);
+                if (legal.isEmpty()) {
+                    break;
+                }
+                played[plies] = legal.get(random.nextInt(legal.size()));
+                position.makeMove(played[plies++]);
+            }
+            totalPlies += plies;
+            rows.add(new RecoverableMatch(id, Fen.toFen(position), plies, "white" + id, "black" + id, null,
+                    null, null, null));
+            moves.put(id, Arrays.copyOf(played, plies));
+        }
+        System.out.printf("generated %,d games, %,d plies%n", games, totalPlies);
+
+        for (int round = 0; round < 3; round++) {
+            GameRecoveryService serial = service(Long.MAX_VALUE);
+            long start = System.nanoTime();
+            long sink = 0;
+            for (RecoverableMatch row : rows) {
+                sink += serial.rebuild(row, moves.get(row.getId())).getPosition().getKey();
+            }
+            long serialMs = (System.nanoTime() - start) / 1_000_000;
+
+            LiveGameStore store = new LiveGameStore(new GameExecutor(), new SimpleMeterRegistry(), 120, 60, Long.MAX_VALUE);
+            GameRecoveryService recovery = new GameRecoveryService(null, null, store, new GameExecutor(), null, null, false,
+                    batchSize, threads);
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            start = System.nanoTime();
+            List<Future<Integer>> batches = new ArrayList<>();
+            for (int from = 0; from < rows.size(); from += batchSize) {
+                List<RecoverableMatch> batch = rows.subList(from, Math.min(rows.size(), from + batchSize));
+                batches.add(pool.submit(() -> recovery.installBatch(batch, moves)));
+            }
+            int installed = 0;
+            for (Future<Integer> batch : batches) {
+                installed += batch.get();
+            }
+            long parallelMs = (System.nanoTime() - start) / 1_000_000;
+            pool.shutdown();
+
+            int mismatches = 0;
+            for (RecoverableMatch row : rows) {
+                GameState state = store.get(row.getId());
+                if (state == null || !Fen.toFen(state.getPosition()).equals(row.getFenCurrent())
+                        || state.getHistory().size() != row.getCurrentPly() + 1) {
+                    mismatches++;
+                }
+            }
+            System.out.printf("round %d  serial rebuild %,d ms  batched install on %d threads %,d ms  "
+                            + "installed %,d  resident %,d KB  mismatches %d  (%d)%n",
+                    round, serialMs, threads, parallelMs, installed, store.residentBytes() >> 10, mismatches, sink & 1);
+            if (mismatches > 0) {
+                throw new IllegalStateException(mismatches + " recovered games differ from their stored FEN");
+            }
+        }
+    }
+
+    private static GameRecoveryService service(long budget) {
+        return new GameRecoveryService(null, null,
+                new LiveGameStore(new GameExecutor(), new SimpleMeterRegistry(), 120, 60, budget),
+                new GameExecutor(), null, null, false, 1000, 1);
+    }
+}
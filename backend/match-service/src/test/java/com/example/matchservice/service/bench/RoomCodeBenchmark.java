@@ -0,0 +1,98 @@
+package com.example.matchservice.service.bench;
+
+import com.example.matchservice.service.RoomCodeAllocator;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Room code issue cost against a table already holding {@code rooms} codes: the old loop of
+ * random codes each checked with a {@code findByRoomCode} query (counted, and costed at
+ * {@code dbMicros} per query), against {@link RoomCodeAllocator}. Every allocated code is
+ * checked for duplicates, across the whole node's code space and then after recycling.
+ * <pre>
+ * mvn -q dependency:build-classpath -Dmdep.outputFile=cp.txt
+ * java -cp target/classes:target/test-classes:$(cat cp.txt) com.example.matchservice.service.bench.RoomCodeBenchmark [rooms] [dbMicros]
+ * </pre>
+ */
+public class RoomCodeBenchmark {
+
+    public static void main(String[] args) {
+        int rooms = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int dbMicros = args.length > 1 ? Integer.parseInt(args[1]) : 300;
+
+        Set<String> table = new HashSet<>(rooms * 2);
+        Random random = new Random(7);
+        long queries = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < rooms; i++) {
+            String code;
+            do {
+                code = randomCode(random);
+                queries++;
+            } while (!table.add(code));
+        }
+        long probeNanos = System.nanoTime() - start;
+        System.out.printf("probe loop: %,d codes, %,d queries (%.4f per code), ~%,d ms of queries at %d us%n",
+                rooms, queries, (double) queries / rooms, queries * dbMicros / 1000, dbMicros);
+
+        RoomCodeAllocator allocator = new RoomCodeAllocator(emptyTable(), "3", false, 30, 24, 500);
+        Set<String> issued = new HashSet<>(rooms * 2);
+        start = System.nanoTime();
+        for (int i = 0; i < rooms; i++) {
+            if (!issued.add(allocator.allocate())) {
+                throw new IllegalStateException("Duplicate code after " + i);
+            }
+        }
+        long allocNanos = System.nanoTime() - start;
+        System.out.printf("allocator: %,d codes, 0 queries, %d ns per code (probe loop bookkeeping alone: %d ns)%n",
+                rooms, allocNanos / rooms, probeNanos / rooms);
+
+        // The rest of the node's space, then recycled codes once it is full
+        int space = 1 << 25;
+        while (issued.size() < space) {
+            if (!issued.add(allocator.allocate())) {
+                throw new IllegalStateException("Duplicate code at " + issued.size());
+            }
+        }
+        try {
+            allocator.allocate();
+            throw new IllegalStateException("Allocated past the end of the code space");
+        } catch (RuntimeException e) {
+            if (e instanceof IllegalStateException) {
+                throw e;
+            }
+        }
+        List<String> returned = issued.stream().limit(1000).toList();
+        returned.forEach(allocator::release);
+        Set<String> reissued = new HashSet<>();
+        for (int i = 0; i < returned.size(); i++) {
+            reissued.add(allocator.allocate());
+        }
+        if (!reissued.equals(new HashSet<>(returned))) {
+            throw new IllegalStateException("Recycled codes differ from the released ones");
+        }
+        System.out.printf("full node space of %,d codes issued without a duplicate; %d released codes reissued%n",
+                space, returned.size());
+    }
+
+    private static String randomCode(Random random) {
+        StringBuilder code = new StringBuilder();
+        for (int i = 0; i < 6; i++) {
+            code.append(RoomCodeAllocator.ALPHABET.charAt(random.nextInt(RoomCodeAllocator.ALPHABET.length())));
+        }
+        return code.toString();
+    }
+
+    private static JdbcTemplate emptyTable() {
+        return new JdbcTemplate() {
+            @Override
+            public <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+                return List.of();
+            }
+        };
+    }
+}
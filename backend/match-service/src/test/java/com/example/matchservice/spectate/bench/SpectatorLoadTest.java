@@ -0,0 +1,277 @@
+package com.example.matchservice.spectate.bench;
+
+import com.example.matchservice.chess.Fen;
+import com.example.matchservice.chess.MoveGenerator;
+import com.example.matchservice.chess.MoveList;
+import com.example.matchservice.chess.Position;
+import com.example.matchservice.chess.Uci;
+import com.example.matchservice.chess.Zobrist;
+import com.example.matchservice.model.DTO.SpectatorFrameDTO;
+import com.example.matchservice.spectate.SpectatorHub;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * One top board with 10k spectators, a share of them on slow links. The game plays a move
+ * every {@code moveMs}; spectator frames go through an {@link ExecutorSubscribableChannel} set
+ * up like Spring's client outbound channel, whose handler stands in for the WebSocket sessions:
+ * a fast session copies the frame out, a slow one blocks its writing thread for {@code slowMs}
+ * the way a full socket buffer does.
+ * <p>
+ * Two runs over the same game: {@link SpectatorHub}, and the simple broker's behaviour where
+ * every move is serialized once and queued to every subscriber. For each it prints frames
+ * serialized and delivered, the outbound queue's peak, how many plies behind the live game
+ * spectators were when a frame reached them, and how long after the last move every spectator
+ * held the final position. The hub run fails if any spectator never reaches it.
+ * Needs Spring messaging and Jackson on the classpath.
+ * <pre>
+ * java -cp target/classes:target/test-classes:... com.example.matchservice.spectate.bench.SpectatorLoadTest [spectators] [plies] [moveMs] [slowPercent] [slowMs] [threads]
+ * </pre>
+ */
+public class SpectatorLoadTest {
+
+    private static final long MATCH_ID = 1L;
+    private static final int TICK_MS = 100;
+    private static final int MAX_LAG = 1_000;
+
+    private final int spectators;
+    private final boolean[] slow;
+    private final int slowMs;
+    private final ThreadPoolExecutor pool;
+    private final ExecutorSubscribableChannel channel;
+    private final AtomicLongArray lastPly;
+    private final AtomicLongArray lagCounts = new AtomicLongArray(2 * (MAX_LAG + 1));
+    private final AtomicLongArray delivered = new AtomicLongArray(2);
+    private volatile int livePly;
+
+    SpectatorLoadTest(int spectators, int slowPercent, int slowMs, int threads) {
+        this.spectators = spectators;
+        this.slowMs = slowMs;
+        this.slow = new boolean[spectators];
+        SplittableRandom random = new SplittableRandom(18);
+        for (int i = 0; i < spectators; i++) {
+            slow[i] = random.nextInt(100) < slowPercent;
+        }
+        this.lastPly = new AtomicLongArray(spectators);
+        // Spring's outbound channel: fixed core threads over an unbounded queue
+        this.pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+        this.channel = new ExecutorSubscribableChannel(pool);
+        channel.subscribe(this::write);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int spectators = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int plies = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int moveMs = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        int slowPercent = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+        int slowMs = args.length > 4 ? Integer.parseInt(args[4]) : 25;
+        int threads = args.length > 5 ? Integer.parseInt(args[5]) : 16;
+
+        SpectatorFrameDTO[] frames = playGame(plies);
+        System.out.printf("%,d spectators (%d%% slow at %d ms a write), %d plies every %d ms, %d writer threads%n",
+                spectators, slowPercent, slowMs, frames.length - 1, moveMs, threads);
+
+        boolean hubConverged = new SpectatorLoadTest(spectators, slowPercent, slowMs, threads).run("hub", frames, moveMs, true);
+        new SpectatorLoadTest(spectators, slowPercent, slowMs, threads).run("broker", frames, moveMs, false);
+        if (!hubConverged) {
+            System.err.println("❌ Some spectators never received the final position through the hub");
+            System.exit(1);
+        }
+    }
+
+    private boolean run(String name, SpectatorFrameDTO[] frames, int moveMs, boolean coalesce) throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        SpectatorHub hub = new SpectatorHub(mapper, channel);
+        channel.addInterceptor(hub);
+        ChannelInterceptor inbound = hub.inbound();
+        for (int i = 0; i < spectators; i++) {
+            StompHeaderAccessor subscribe = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+            subscribe.setSessionId("s" + i);
+            subscribe.setSubscriptionId("sub-0");
+            subscribe.setDestination(SpectatorHub.DESTINATION_PREFIX + MATCH_ID);
+            inbound.preSend(MessageBuilder.createMessage(new byte[0], subscribe.getMessageHeaders()), null);
+        }
+
+        long serialized = 0, bytes = 0;
+        int peakQueue = 0;
+        long start = System.nanoTime();
+        long nextTick = start;
+        for (int ply = 0; ply < frames.length; ply++) {
+            livePly = ply;
+            if (coalesce) {
+                hub.update(MATCH_ID, frames[ply]);
+            } else {
+                byte[] frame = mapper.writeValueAsBytes(frames[ply]);
+                serialized++;
+                bytes = frame.length;
+                for (int i = 0; i < spectators; i++) {
+                    channel.send(brokerMessage(i, frame));
+                }
+            }
+            long moveDeadline = start + (ply + 1) * moveMs * 1_000_000L;
+            while (System.nanoTime() < moveDeadline) {
+                if (coalesce && System.nanoTime() >= nextTick) {
+                    hub.tick();
+                    nextTick += TICK_MS * 1_000_000L;
+                }
+                peakQueue = Math.max(peakQueue, pool.getQueue().size());
+                Thread.sleep(2);
+            }
+        }
+        long lastMove = System.nanoTime();
+        if (coalesce) {
+            hub.tick();
+            serialized = hub.getFramesSerialized();
+            bytes = mapper.writeValueAsBytes(frames[frames.length - 1]).length;
+        }
+
+        // Every spectator should end up on the final ply; the broker run gets the same minute to drain
+        int finalPly = frames.length - 1;
+        long deadline = lastMove + TimeUnit.SECONDS.toNanos(60);
+        int behind = spectators;
+        while (System.nanoTime() < deadline) {
+            peakQueue = Math.max(peakQueue, pool.getQueue().size());
+            behind = 0;
+            for (int i = 0; i < spectators; i++) {
+                if (lastPly.get(i) != finalPly) {
+                    behind++;
+                }
+            }
+            if (behind == 0) {
+                break;
+            }
+            Thread.sleep(10);
+        }
+        long convergeMs = (System.nanoTime() - lastMove) / 1_000_000;
+        pool.shutdownNow();
+
+        System.out.printf("%-6s  serialized %,5d x %d B  delivered fast %,9d slow %,7d  peak queue %,9d (%,7d KB)%n",
+                name, serialized, bytes, delivered.get(0), delivered.get(1), peakQueue, peakQueue * bytes >> 10);
+        System.out.printf("        plies behind on receipt  fast p50 %3d p99 %3d max %3d  slow p50 %3d p99 %3d max %3d%n",
+                percentile(0, 0.5), percentile(0, 0.99), percentile(0, 1.0),
+                percentile(1, 0.5), percentile(1, 0.99), percentile(1, 1.0));
+        if (coalesce) {
+            System.out.printf("        superseded before sending %,d%n", hub.getFramesSuperseded());
+        }
+        if (behind == 0) {
+            System.out.printf("        every spectator on the final ply %,d ms after the last move%n", convergeMs);
+        } else {
+            System.out.printf("        %,d spectators still short of the final ply %,d ms after the last move%n",
+                    behind, convergeMs);
+        }
+        return behind == 0;
+    }
+
+    // What the simple broker sends each subscriber: the shared payload under that session's headers
+    private static Message<byte[]> brokerMessage(int spectator, byte[] frame) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId("s" + spectator);
+        headers.setSubscriptionId("sub-0");
+        headers.setDestination("/topic/moves/" + MATCH_ID);
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        return MessageBuilder.createMessage(frame, headers.getMessageHeaders());
+    }
+
+    private void write(Message<?> message) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        int spectator = Integer.parseInt(sessionId, 1, sessionId.length(), 10);
+        byte[] frame = (byte[]) message.getPayload();
+        if (slow[spectator]) {
+            try {
+                Thread.sleep(slowMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        } else {
+            byte[] socket = new byte[frame.length];
+            System.arraycopy(frame, 0, socket, 0, frame.length);
+        }
+        int ply = plyOf(frame);
+        int kind = slow[spectator] ? 1 : 0;
+        lastPly.set(spectator, ply);
+        delivered.incrementAndGet(kind);
+        lagCounts.incrementAndGet(kind * (MAX_LAG + 1) + Math.min(MAX_LAG, Math.max(0, livePly - ply)));
+    }
+
+    private int percentile(int kind, double fraction) {
+        long total = delivered.get(kind);
+        long seen = 0;
+        for (int lag = 0; lag <= MAX_LAG; lag++) {
+            seen += lagCounts.get(kind * (MAX_LAG + 1) + lag);
+            if (total > 0 && seen >= Math.ceil(total * fraction)) {
+                return lag;
+            }
+        }
+        return 0;
+    }
+
+    private static int plyOf(byte[] json) {
+        byte[] key = "\"ply\":".getBytes();
+        outer:
+        for (int i = 0; i + key.length < json.length; i++) {
+            for (int k = 0; k < key.length; k++) {
+                if (json[i + k] != key[k]) {
+                    continue outer;
+                }
+            }
+            int ply = 0;
+            for (int j = i + key.length; j < json.length && json[j] >= '0' && json[j] <= '9'; j++) {
+                ply = ply * 10 + json[j] - '0';
+            }
+            return ply;
+        }
+        throw new IllegalStateException("Frame without a ply");
+    }
+
+    private static SpectatorFrameDTO[] playGame(int plies) {
+        SplittableRandom random = new SplittableRandom(18);
+        Position position = Position.startPosition();
+        MoveList legal = new MoveList();
+        SpectatorFrameDTO[] frames = new SpectatorFrameDTO[plies + 1];
+        long[] clocks = { 180_000, 180_000 };
+        String lastMove = null;
+        int ply = 0;
+        for (; ; ply++) {
+            SpectatorFrameDTO frame = new SpectatorFrameDTO();
+            frame.setMatchId(MATCH_ID);
+            frame.setPly(ply);
+            frame.setFen(Fen.toFen(position));
+            frame.setLastMove(lastMove);
+            frame.setHash(Zobrist.toHex(position.getKey()));
+            frame.setWhiteClock(clocks[0]);
+            frame.setBlackClock(clocks[1]);
+            frame.setStatus("IN_PROGRESS");
+            frame.setWhite("top_board_white");
+            frame.setBlack("top_board_black");
+            frames[ply] = frame;
+            MoveGenerator.generateLegal(position, legal);
+            if (ply == plies || legal.isEmpty()) {
+                break;
+            }
+            int move = legal.get(random.nextInt(legal.size()));
+            clocks[position.isWhiteToMove() ? 0 : 1] -= 500 + random.nextInt(3_000);
+            position.makeMove(move);
+            lastMove = Uci.toUci(move);
+        }
+        if (ply < plies) {
+            frames[ply].setStatus("FINISHED");
+        }
+        return Arrays.copyOf(frames, ply + 1);
+    }
+}
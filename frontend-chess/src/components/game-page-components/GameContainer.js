@@ -32,6 +32,12 @@ const GameContainer = ({ matchId, stompClient, isConnected, playerColor, initial
   const gameRef = useRef(new Chess());
   const engine = useRef(null);
   const hasSaved = useRef(false);
+  // Ply the board is at, to match against the ply each move delta carries
+  const plyRef = useRef(0);
+  // Last event-seq seen on the game's stream, and frames held back while a resume/sync is in flight
+  const lastEventSeqRef = useRef(0);
+  const catchingUpRef = useRef(false);
+  const heldFramesRef = useRef([]);
 
   // Initialize game
   const isInitialized = useRef(false);
@@ -47,6 +53,7 @@ const GameContainer = ({ matchId, stompClient, isConnected, playerColor, initial
       if (result) {
         // 2. Perform the actual move on the master ref
         currentGame.move(move);
+        plyRef.current += 1;
 
         // 3. UI State Batch Update (Atomic-ish)
         // We use gameCopy (which has the move applied) to derived new states
@@ -130,6 +137,7 @@ const GameContainer = ({ matchId, stompClient, isConnected, playerColor, initial
     }
     setGame(newGame);
     gameRef.current = newGame;
+    plyRef.current = initialGameData?.currentPly || 0;
     newGame.isOfflineFriendMode = isOfflineFriendMode;
 
     setFen(newGame.fen());
@@ -248,72 +256,166 @@ const GameContainer = ({ matchId, stompClient, isConnected, playerColor, initial
     }
   }, [fen, isBotMode, isGameOver, playerColor]);
 
-  // WebSocket Move Subscription (for Online Mode)
-  useEffect(() => {
-    if (isLocalMode || !stompClient || !isConnected || !matchId) return;
-
-    console.log(`🔌 Subscribing to moves for match: ${matchId}`);
-    const subscription = stompClient.subscribe(`/topic/moves/${matchId}`, (message) => {
-      const moveData = JSON.parse(message.body);
-
-      // Ignore moves made by self
-      if (moveData.playerUsername === user?.username) return;
-
-      console.log("☁️ Received move from opponent:", moveData);
+  // Server clocks are milliseconds left; only countdown games show them
+  const applyClocks = useCallback((whiteMillis, blackMillis) => {
+    if (typeof effectiveTimeLimit !== 'number') return;
+    if (whiteMillis != null) setWhiteTime(Math.ceil(whiteMillis / 1000));
+    if (blackMillis != null) setBlackTime(Math.ceil(blackMillis / 1000));
+  }, [effectiveTimeLimit]);
+
+  const requestSync = useCallback(() => {
+    if (!stompClient || !isConnected) return;
+    console.log(`🔄 Requesting full state for match: ${matchId}`);
+    catchingUpRef.current = true;
+    stompClient.publish({ destination: `/app/game/${matchId}/sync`, body: "{}" });
+  }, [stompClient, isConnected, matchId]);
+
+  // { seq: ply, m: uci, h: position hash, w/b: clock millis, status/endReason when the game ends }
+  const applyDelta = useCallback((delta) => {
+    applyClocks(delta.w, delta.b);
+    if (delta.status) setIsGameOver(true);
+    // Already on the board: our own move, or one a snapshot included
+    if (delta.seq <= plyRef.current) return;
+    if (delta.seq !== plyRef.current + 1) {
+      requestSync();
+      return;
+    }
 
-      // Convert row/col to square names
-      const from = String.fromCharCode('a'.charCodeAt(0) + moveData.fromCol) + (8 - moveData.fromRow);
-      const to = String.fromCharCode('a'.charCodeAt(0) + moveData.toCol) + (8 - moveData.toRow);
+    console.log("☁️ Received move:", delta);
+    const result = safeMakeMove({
+      from: delta.m.substring(0, 2),
+      to: delta.m.substring(2, 4),
+      promotion: delta.m.length > 4 ? delta.m[4] : 'q'
+    });
+    if (!result) requestSync();
+  }, [safeMakeMove, applyClocks, requestSync]);
 
-      const result = safeMakeMove({
-        from,
-        to,
-        promotion: moveData.promotedTo || 'q'
-      });
+  const applyGameStateEvent = useCallback((data) => {
+    console.log("☁️ Received game state update:", data);
 
-      if (result) {
-        setMoveHistory(prev => [...prev, result]);
+    if (data.type === "RESIGNATION") {
+      const resigningPlayer = data.player;
+      setIsGameOver(true);
+      if (resigningPlayer === user?.username) {
+        setGameStatus("Game Over - You Resigned");
+      } else {
+        setGameStatus(`Game Over - ${resigningPlayer} left the match`);
       }
-    });
+    } else if (data.type === "DRAW_ACCEPTED") {
+      setIsGameOver(true);
+      setGameStatus("Game Over - Draw Accepted");
+    } else if (data.type === "DRAW_DECLINED") {
+      if (data.player !== user?.username) {
+        alert(`${data.player} declined the draw offer.`);
+      }
+    }
+  }, [user]);
+
+  const dispatchFrame = useCallback((destination, data) => {
+    if (destination.startsWith('/topic/moves/')) applyDelta(data);
+    else if (destination.startsWith('/topic/game-state/')) applyGameStateEvent(data);
+  }, [applyDelta, applyGameStateEvent]);
+
+  // Every frame on the game's topics carries an event-seq; replays and live frames may overlap
+  const onStreamFrame = useCallback((destination, data, seq) => {
+    if (seq && seq <= lastEventSeqRef.current) return;
+    if (catchingUpRef.current) {
+      heldFramesRef.current.push({ destination, data, seq });
+      return;
+    }
+    if (seq) lastEventSeqRef.current = seq;
+    dispatchFrame(destination, data);
+  }, [dispatchFrame]);
+
+  const finishCatchUp = useCallback((seq) => {
+    if (seq) lastEventSeqRef.current = seq;
+    catchingUpRef.current = false;
+    const held = heldFramesRef.current;
+    heldFramesRef.current = [];
+    held.forEach(frame => onStreamFrame(frame.destination, frame.data, frame.seq));
+  }, [onStreamFrame]);
+
+  // WebSocket Move and Game State Subscriptions (for Online Mode)
+  useEffect(() => {
+    if (isLocalMode || !stompClient || !isConnected || !matchId) return;
+
+    console.log(`🔌 Subscribing to game stream for match: ${matchId}`);
+    const subscriptions = [`/topic/moves/${matchId}`, `/topic/game-state/${matchId}`].map(destination =>
+      stompClient.subscribe(destination, (message) => {
+        onStreamFrame(destination, JSON.parse(message.body), Number(message.headers['event-seq']));
+      })
+    );
 
     return () => {
-      console.log(`🔌 Unsubscribing from moves for match: ${matchId}`);
-      subscription.unsubscribe();
+      console.log(`🔌 Unsubscribing from game stream for match: ${matchId}`);
+      subscriptions.forEach(subscription => subscription.unsubscribe());
     };
-  }, [matchId, stompClient, isConnected, isLocalMode, user, safeMakeMove]);
+  }, [matchId, stompClient, isConnected, isLocalMode, onStreamFrame]);
 
-  // WebSocket Game State Subscription (Resign, Draw, etc.)
+  // Catch-up replies sent only to us: missed frames, or a full snapshot when too far behind
   useEffect(() => {
     if (isLocalMode || !stompClient || !isConnected || !matchId) return;
 
-    console.log(`🔌 Subscribing to game state for match: ${matchId}`);
-    const subscription = stompClient.subscribe(`/topic/game-state/${matchId}`, (message) => {
-      const data = JSON.parse(message.body);
-      console.log("☁️ Received game state update:", data);
+    const replay = stompClient.subscribe('/user/queue/game-replay', (message) => {
+      const batch = JSON.parse(message.body);
+      if (batch.matchId !== Number(matchId)) return;
 
-      if (data.type === "RESIGNATION") {
-        const resigningPlayer = data.player;
-        setIsGameOver(true);
-        if (resigningPlayer === user?.username) {
-          setGameStatus("Game Over - You Resigned");
-        } else {
-          setGameStatus(`Game Over - ${resigningPlayer} left the match`);
-        }
-      } else if (data.type === "DRAW_ACCEPTED") {
-        setIsGameOver(true);
-        setGameStatus("Game Over - Draw Accepted");
-      } else if (data.type === "DRAW_DECLINED") {
-        if (data.player !== user?.username) {
-          alert(`${data.player} declined the draw offer.`);
+      console.log(`☁️ Replaying ${batch.frames.length} missed frames`);
+      batch.frames.forEach(frame => {
+        if (frame.seq > lastEventSeqRef.current) {
+          lastEventSeqRef.current = frame.seq;
+          dispatchFrame(frame.destination, frame.payload);
         }
+      });
+      finishCatchUp(batch.to);
+    });
+
+    const sync = stompClient.subscribe('/user/queue/game-sync', (message) => {
+      const snapshot = JSON.parse(message.body);
+      if (snapshot.matchId !== Number(matchId)) return;
+      if (!snapshot.fen) {
+        console.warn("⚠️ Could not catch up:", snapshot.status);
+        finishCatchUp();
+        return;
       }
+
+      console.log("☁️ Resynced game state:", snapshot);
+      const synced = new Chess(snapshot.fen);
+      gameRef.current = synced;
+      plyRef.current = snapshot.ply;
+      setGame(new Chess(snapshot.fen));
+      setFen(snapshot.fen);
+      const isWhiteTurn = synced.turn() === 'w';
+      setIsMyTurn(playerColor === 'white' ? isWhiteTurn : !isWhiteTurn);
+      applyClocks(snapshot.whiteClock, snapshot.blackClock);
+      if (snapshot.status && snapshot.status !== "IN_PROGRESS") setIsGameOver(true);
+      finishCatchUp(Number(message.headers['event-seq']));
     });
 
+    // Our move was rejected after we had already played it locally
+    const moveErrors = stompClient.subscribe('/user/queue/move-errors', (message) => {
+      console.warn("⚠️ Move rejected:", JSON.parse(message.body).error);
+      requestSync();
+    });
+
+    // Back from a dropped connection: ask only for what we missed
+    if (lastEventSeqRef.current > 0) {
+      console.log(`🔄 Resuming match ${matchId} from event ${lastEventSeqRef.current}`);
+      catchingUpRef.current = true;
+      stompClient.publish({
+        destination: `/app/game/${matchId}/resume`,
+        body: JSON.stringify({ from: lastEventSeqRef.current })
+      });
+    } else {
+      requestSync();
+    }
+
     return () => {
-      console.log(`🔌 Unsubscribing from game state for match: ${matchId}`);
-      subscription.unsubscribe();
+      replay.unsubscribe();
+      sync.unsubscribe();
+      moveErrors.unsubscribe();
     };
-  }, [matchId, stompClient, isConnected, isLocalMode, user]);
+  }, [matchId, stompClient, isConnected, isLocalMode, playerColor, applyClocks, requestSync, dispatchFrame, finishCatchUp]);
 
   // Private Queue Subscription (Draw Offers)
   useEffect(() => {
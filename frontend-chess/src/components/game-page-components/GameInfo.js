@@ -1,33 +1,47 @@
 import React, { useState, useRef, useEffect } from "react";
 import { useNavigate } from "react-router-dom";
 import { FaFire, FaRegHandshake, FaRobot, FaChessPawn, FaTimes } from "react-icons/fa";
+import { Client } from '@stomp/stompjs';
+import SockJS from 'sockjs-client';
 import "../component-styles/GameInfo.css";
 
+const SEARCH_SECONDS = 90;
+const CONNECT_TIMEOUT_MS = 3000;
+
 const GameInfo = ({ streak }) => {
   const navigate = useNavigate();
   const [isSearching, setIsSearching] = useState(false);
   const [searchTime, setSearchTime] = useState(0);
-  const pollingIntervalRef = useRef(null);
   const searchTimerRef = useRef(null);
+  const stompClientRef = useRef(null);
+  const longPollRef = useRef(null);
+  const searchingRef = useRef(false);
+
+  // Stops listening for a match; the backend queue is left alone
+  const stopListening = () => {
+    searchingRef.current = false;
+    if (searchTimerRef.current) {
+      clearInterval(searchTimerRef.current);
+      searchTimerRef.current = null;
+    }
+    if (stompClientRef.current) {
+      stompClientRef.current.deactivate();
+      stompClientRef.current = null;
+    }
+    if (longPollRef.current) {
+      longPollRef.current.abort();
+      longPollRef.current = null;
+    }
+  };
 
   // Clean up on unmount
   useEffect(() => {
-    return () => {
-      if (pollingIntervalRef.current) clearInterval(pollingIntervalRef.current);
-      if (searchTimerRef.current) clearTimeout(searchTimerRef.current);
-    };
+    return () => stopListening();
   }, []);
 
   const cancelSearch = async () => {
-    if (pollingIntervalRef.current) {
-      clearInterval(pollingIntervalRef.current);
-      pollingIntervalRef.current = null;
-    }
-    if (searchTimerRef.current) {
-      clearTimeout(searchTimerRef.current);
-      searchTimerRef.current = null;
-    }
-    
+    stopListening();
+
     // Notify backend to remove from waiting queue
     try {
       await fetch('http://localhost:8080/game/cancel-waiting', {
@@ -42,62 +56,52 @@ const GameInfo = ({ streak }) => {
     setSearchTime(0);
   };
 
-  const pollForMatch = () => {
-    let attempts = 0;
-    const maxAttempts = 90; // 90 seconds
-    
-    pollingIntervalRef.current = setInterval(async () => {
-      attempts++;
-      setSearchTime(attempts);
-      
-      if (attempts >= maxAttempts) {
-        cancelSearch();
-        alert("Could not find an opponent within 90 seconds. Please try again.");
-        return;
-      }
-      
+  // The push, the long poll and the create response may all report the same match
+  const matchFound = (matchId) => {
+    if (!searchingRef.current) return;
+    stopListening();
+    setIsSearching(false);
+    setSearchTime(0);
+    navigate(`/game/${matchId}`);
+  };
+
+  // Fallback when the WebSocket is unavailable: the server holds each request until paired
+  const longPollForMatch = async () => {
+    if (longPollRef.current) return;
+    while (searchingRef.current) {
+      const controller = new AbortController();
+      longPollRef.current = controller;
       try {
-        const response = await fetch('http://localhost:8080/game/check-match', {
+        const response = await fetch('http://localhost:8080/game/await-match', {
           method: 'GET',
           credentials: 'include',
+          signal: controller.signal,
         });
+        const result = await response.json();
+        longPollRef.current = null;
 
-        if (response.ok) {
-          const result = await response.json();
-          console.log("Poll result:", result);
-          
-          if (result.matchId && result.matchId > 0) {
-            // Match found! Stop polling and redirect
-            clearInterval(pollingIntervalRef.current);
-            pollingIntervalRef.current = null;
-            clearTimeout(searchTimerRef.current);
-            searchTimerRef.current = null;
-            
-            setIsSearching(false);
-            setSearchTime(0);
-            navigate(`/game/${result.matchId}`);
-          } else if (result.matchId === -2) {
-            // Error case
+        if (result.matchId && result.matchId > 0) {
+          matchFound(result.matchId);
+          return;
+        } else if (result.matchId === -2) {
+          // Error case
+          if (searchingRef.current) {
             cancelSearch();
             alert("Error checking for match. Please try again.");
           }
-          // If matchId === -1, continue waiting
+          return;
         }
+        // If matchId === -1, ask again
       } catch (error) {
-        console.error("Error polling for match:", error);
+        longPollRef.current = null;
+        if (error.name === 'AbortError') return;
+        console.error("Error waiting for match:", error);
+        await new Promise(resolve => setTimeout(resolve, 1000));
       }
-    }, 1000); // Poll every second
-  };
-
-  const createNewGame = async () => {
-    if (isSearching) {
-      cancelSearch();
-      return;
     }
+  };
 
-    setIsSearching(true);
-    setSearchTime(0);
-    
+  const requestMatch = async (pushed) => {
     try {
       const response = await fetch('http://localhost:8080/game', {
         method: 'POST',
@@ -112,36 +116,81 @@ const GameInfo = ({ streak }) => {
         console.log("Create game response:", result);
         
         if (result.matchId === -1) {
-          // Player1: Waiting for opponent, start polling
-          pollForMatch();
-          
-          // Set timeout for 90 seconds
-          searchTimerRef.current = setTimeout(() => {
-            if (isSearching) {
-              cancelSearch();
-              alert("Could not find an opponent within 90 seconds. Please try again.");
-            }
-          }, 90000);
-          
+          // Player1: Waiting for opponent; the match arrives on /user/queue/match-found
+          if (!pushed) longPollForMatch();
         } else if (result.matchId > 0) {
           // Player2: Match created immediately, redirect
-          setIsSearching(false);
-          navigate(`/game/${result.matchId}`);
+          matchFound(result.matchId);
         } else {
           // Error case
+          stopListening();
           setIsSearching(false);
           alert("Failed to create match. Please try again.");
         }
       } else {
+        stopListening();
         setIsSearching(false);
         alert("Failed to create match. Please try again.");
       }
     } catch (error) {
       console.error("Error creating game:", error);
+      stopListening();
       setIsSearching(false);
     }
   };
 
+  const createNewGame = () => {
+    if (isSearching) {
+      cancelSearch();
+      return;
+    }
+
+    searchingRef.current = true;
+    setIsSearching(true);
+    setSearchTime(0);
+
+    let seconds = 0;
+    searchTimerRef.current = setInterval(() => {
+      seconds++;
+      setSearchTime(seconds);
+      if (seconds >= SEARCH_SECONDS) {
+        cancelSearch();
+        alert("Could not find an opponent within 90 seconds. Please try again.");
+      }
+    }, 1000);
+
+    // Subscribe before queueing so the push cannot arrive before anyone listens
+    let requested = false;
+    const request = (pushed) => {
+      if (requested || !searchingRef.current) return;
+      requested = true;
+      requestMatch(pushed);
+    };
+    const client = new Client({
+      webSocketFactory: () => new SockJS('http://localhost:8080/ws'),
+      reconnectDelay: 0,
+      onConnect: () => {
+        client.subscribe('/user/queue/match-found', (message) => {
+          const result = JSON.parse(message.body);
+          if (result.matchId > 0) matchFound(result.matchId);
+        });
+        request(true);
+      },
+      onStompError: () => request(false),
+      onWebSocketClose: () => {
+        // A socket lost after queueing falls back to the long poll
+        if (requested && searchingRef.current && stompClientRef.current === client) {
+          stompClientRef.current = null;
+          longPollForMatch();
+        }
+        request(false);
+      },
+    });
+    stompClientRef.current = client;
+    client.activate();
+    setTimeout(() => request(false), CONNECT_TIMEOUT_MS);
+  };
+
   return (
     <div className="game-info">
       {/* Streak Section */}
@@ -107,9 +107,9 @@ const Game = ({ user }) => {
       });
 
     // WebSocket connection
-    const socket = new SockJS('http://localhost:8080/ws');
+    // A fresh socket per attempt, so the automatic reconnect really reconnects
     const client = new Client({
-      webSocketFactory: () => socket,
+      webSocketFactory: () => new SockJS('http://localhost:8080/ws'),
       reconnectDelay: 5000,
       heartbeatIncoming: 4000,
       heartbeatOutgoing: 4000,
@@ -127,6 +127,10 @@ const Game = ({ user }) => {
           body: JSON.stringify({ type: 'PLAYER_JOINED', playerColor })
         });
       },
+      // GameContainer resubscribes and resumes its game stream on the next connect
+      onWebSocketClose: () => {
+        setIsConnected(false);
+      },
       onStompError: (frame) => {
         console.error("STOMP error:", frame);
         setError("Connection error");